@@ -8,6 +8,7 @@ import static frc.robot.Constants.CONSTANTS.kCANCoderSensorUnitsPerRotation;
 import static frc.robot.Constants.CONSTANTS.kFalconSensorUnitsPerRotation;
 
 import com.ctre.phoenix.motorcontrol.TalonFXInvertType;
+import com.pathplanner.lib.PathConstraints;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
@@ -17,11 +18,12 @@ import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color8Bit;
+import frc.robot.simulation.SimConstants;
+import frc.robot.utils.FourModuleSwerveKinematics;
 import frc.robot.utils.ModuleMap;
+import frc.robot.utils.Telemetry;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.util.Map;
@@ -271,6 +273,7 @@ public final class Constants {
   public static final class SWERVE_DRIVE {
     public static final double kTrackWidth = Units.inchesToMeters(24);
     public static final double kWheelBase = Units.inchesToMeters(24);
+    public static final double kBumperToBumperLength = Units.inchesToMeters(33);
 
     public static final Map<SWERVE_MODULE_POSITION, Translation2d> kModuleTranslations =
         Map.of(
@@ -286,17 +289,29 @@ public final class Constants {
     public static final SwerveDriveKinematics kSwerveKinematics =
         new SwerveDriveKinematics(
             ModuleMap.orderedValues(kModuleTranslations, new Translation2d[0]));
+    // Same as kSwerveKinematics, for code that runs every loop
+    public static final FourModuleSwerveKinematics kFourModuleKinematics =
+        new FourModuleSwerveKinematics(
+            ModuleMap.orderedValues(kModuleTranslations, new Translation2d[0]));
 
     public static double frontLeftCANCoderOffset = 125.068;
     public static double frontRightCANCoderOffset = 62.051;
     public static double backLeftCANCoderOffset = 190.635;
     public static double backRightCANCoderOffset = 31.904;
 
+    // Including the battery and bumpers
+    public static final double kRobotMassKg = Units.lbsToKilograms(125);
+
     public static double kMaxSpeedMetersPerSecond = Units.feetToMeters(18);
     public static final double kLimitedSpeedMetersPerSecond = kMaxSpeedMetersPerSecond / 5;
     public static final double kMaxRotationRadiansPerSecond = Math.PI * 2.0;
     public static final double kMaxRotationRadiansPerSecondSquared = Math.PI * 2.0;
     public static final double kLimitedRotationRadiansPerSecond = kMaxRotationRadiansPerSecond / 5;
+    // Limits used by the setpoint generator to keep the wheels from slipping
+    public static final double kMaxModuleAccelerationMetersPerSecondSquared = 9.0;
+    public static final double kMaxModuleSteeringRateRadiansPerSecond = Math.PI * 6.0;
+    // How far a module's velocity can disagree with the rest before odometry ignores it
+    public static final double kSlipThresholdMetersPerSecond = 0.3;
 
     public static final double kP_X = 0.6;
     public static final double kI_X = 0;
@@ -309,6 +324,12 @@ public final class Constants {
     public static double kI_Theta = 0;
     public static double kD_Theta = 0.01;
 
+    // Heading lock while driving. The profile cruises at kMaxRotationRadiansPerSecond.
+    public static final double kP_Heading = 5.0;
+    public static final double kD_Heading = 0.5;
+    public static final double kMaxHeadingAccelerationRadiansPerSecondSquared = Math.PI * 4.0;
+    public static final double kHeadingToleranceRadians = Units.degreesToRadians(1);
+
     public enum SWERVE_MODULE_POSITION {
       FRONT_LEFT,
       FRONT_RIGHT,
@@ -520,8 +541,6 @@ public final class Constants {
     public static final double universalWristLowerLimitRadians = Units.degreesToRadians(25.0);
     public static final double universalWristUpperLimitRadians = Units.degreesToRadians(115.0);
 
-    public static boolean limitCanUtilization = false;
-
     public static final double mechanism2dXSize = ELEVATOR.THRESHOLD.ABSOLUTE_MAX.get() * 2;
     public static final double mechanism2dYSize = ELEVATOR.THRESHOLD.ABSOLUTE_MAX.get() * 2;
     public static final double mechanism2dXOffset = Units.inchesToMeters(3);
@@ -618,6 +637,21 @@ public final class Constants {
   public static class AUTO {
     public static double kAutoBalanceTimeout = 2.0;
     public static final double kAutoBalanceAngleThresholdDegrees = 2.0;
+    // PredictiveAutoBalance. Drive speed is proportional to the tilt, within these limits.
+    public static final double kBalanceSpeedPerDegree = 0.04;
+    public static final double kBalanceMinSpeedMetersPerSecond = 0.15;
+    public static final double kBalanceMaxSpeedMetersPerSecond = 0.6;
+    public static final double kBalanceMaxAccelerationMetersPerSecondSquared = 2.0;
+    // How far ahead to extrapolate the tilt with the roll rate to catch the station tipping
+    public static final double kBalanceLookaheadSeconds = 0.2;
+    public static final double kBalanceSettledRateDegreesPerSecond = 2.0;
+    public static final double kBalanceSettleSeconds = 0.5;
+
+    public static final PathConstraints kDynamicPathConstraints = new PathConstraints(2, 2);
+    public static final double kDynamicPathGenerationTimeoutSeconds = 0.05;
+    // Blue alliance X position to score from, with the bumpers against the front of the grid
+    public static final double kBlueScoringPoseX =
+        SimConstants.Grids.outerX + SWERVE_DRIVE.kBumperToBumperLength / 2.0;
 
     public enum WAIT {
       SCORE_HIGH_CONE(0.65), // good
@@ -662,6 +696,43 @@ public final class Constants {
     public static final String tempFileName = "initialize";
   }
 
+  public static class LOG {
+    // Records each frame can queue before the writer catches up, 5 seconds at 50 Hz
+    public static final int kFrameBufferSize = 250;
+    public static final long kFlushPeriodMs = 100;
+
+    // LogManager budget for the log directory, including the log being written
+    public static final long kMaxLogDirBytes = 250_000_000;
+    public static final int kMaxLogAgeDays = 14;
+    public static final int kCleanupPeriodSeconds = 10;
+    // LogManager checks it can still compress before each chunk of a log it gzips
+    public static final int kCompressChunkBytes = 64 * 1024;
+  }
+
+  public static class MEMORY {
+    public static final double kPublishPeriodSeconds = 1.0;
+    // Samples of the old generation after GC the trend is fit over, 5 minutes at the publish period
+    public static final int kTrendWindowSamples = 300;
+  }
+
+  public static class LATENCY {
+    // Loops of samples the latency percentiles are taken over
+    public static final int kWindowSize = 250;
+    public static final int kPublishPeriodLoops = 50;
+
+    // Drive with a step on the throttle instead of the joysticks in simulation, so latency
+    // numbers can be compared between runs
+    public static boolean useSimStepInput = false;
+    public static final double kStepInputAmplitude = 0.5;
+    public static final double kStepInputPeriodSeconds = 1.0;
+
+    // Overruns the rolling attribution counts cover
+    public static final int kOverrunWindow = 100;
+    // Share of an overrun a GC pause or one section's slowdown has to cover to be blamed for it
+    public static final double kOverrunAttributionFraction = 0.5;
+    public static final double kOverrunReportPeriodSeconds = 60.0;
+  }
+
   public enum SCORING_STATE {
     STOWED,
     AUTO_BALANCE,
@@ -737,11 +808,7 @@ public final class Constants {
       initUnknown();
     }
 
-    if (!DriverStation.isFMSAttached()) {
-      STATE_HANDLER.limitCanUtilization = false;
-    }
-
-    SmartDashboard.putString("Robot Name", robotName);
+    Telemetry.smartDashboard().stringEntry("Robot Name").set(robotName);
   }
 
   public static final String alphaRobotMAC = "00:80:2F:25:BC:FD";
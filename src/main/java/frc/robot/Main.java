@@ -20,6 +20,9 @@ public final class Main {
    * <p>If you change your main robot class, change the parameter type.
    */
   public static void main(String... args) {
-    RobotBase.startRobot(Robot::new);
+    // Set by hand to re-run a log through the code instead of starting normally. See Replay.
+    String replayLog = System.getenv("REPLAY_LOG");
+    if (replayLog != null) Replay.run(replayLog);
+    else RobotBase.startRobot(Robot::new);
   }
 }
@@ -0,0 +1,67 @@
+package frc.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.utils.DriverStationInputs;
+import frc.robot.utils.FrameLog;
+import frc.robot.utils.LogReplay;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Re-runs the robot code against the inputs recorded in a log, as fast as it will go.
+ *
+ * <p>Run it with {@code REPLAY_LOG=path/to/FRC_xxx.wpilog ./gradlew simulateJava}, without the sim
+ * GUI or driver station extensions, which would override the replayed driver station. Each loop
+ * gets the driver station state, joysticks and sensor values recorded for it through {@link
+ * LogReplay}, and the clock only moves by the time recorded between loops, so the commands and
+ * subsystems make the same decisions they did on the robot. The replay logs everything again into
+ * a new log, which can be compared with the original after changing the code.
+ *
+ * <p>The auto selected in each loop is recorded with the driver station inputs, as its index in
+ * the order RobotContainer adds the autos, and selected again before the loop runs, so a replayed
+ * autonomous runs the recorded auto. Logs from before it was recorded run the chooser's default.
+ */
+public final class Replay {
+  private Replay() {}
+
+  public static void run(String filename) {
+    if (!HAL.initialize(500, 0)) throw new IllegalStateException("Failed to initialize the HAL");
+
+    LogReplay replay;
+    try {
+      replay = LogReplay.start(filename);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    System.out.println("Replaying " + replay.getLoopCount() + " loops from " + filename);
+
+    SimHooks.pauseTiming();
+    Robot robot = new Robot();
+    robot.robotInit();
+    robot.simulationInit();
+
+    var driverStation = new DriverStationInputs();
+    var frameLog = FrameLog.getInstance();
+    double lastTimestamp = Double.NaN;
+    long startNanos = System.nanoTime();
+    while (replay.advance()) {
+      double timestamp = replay.getTimestampSeconds();
+      if (!Double.isNaN(lastTimestamp)) SimHooks.stepTiming(Math.max(timestamp - lastTimestamp, 0));
+      lastTimestamp = timestamp;
+
+      replay.read(DriverStationInputs.kLogName, driverStation);
+      driverStation.applyToSim();
+      robot.getRobotContainer().setReplayedAutoIndex(driverStation.selectedAuto);
+      robot.loopFunc();
+      frameLog.flush();
+    }
+
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    System.out.printf(
+        "Replayed %d loops in %.1f s, %.0f loops per second%n",
+        replay.getLoopCount(), seconds, replay.getLoopCount() / seconds);
+    DataLogManager.getLog().flush();
+  }
+}
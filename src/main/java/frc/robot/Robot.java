@@ -7,9 +7,17 @@ package frc.robot;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.event.EventLoop;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.utils.DriverStationInputs;
+import frc.robot.utils.FlightRecorder;
+import frc.robot.utils.InputsLogger;
+import frc.robot.utils.LatencyTracker;
+import frc.robot.utils.LatencyTracker.Phase;
+import frc.robot.utils.LoopOverrunMonitor;
+import frc.robot.utils.TelemetryScheduler;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -22,18 +30,42 @@ public class Robot extends TimedRobot {
 
   private RobotContainer m_robotContainer;
 
+  private final LatencyTracker m_latencyTracker = LatencyTracker.getInstance();
+  private final TelemetryScheduler m_telemetryScheduler = TelemetryScheduler.getInstance();
+  private final LoopOverrunMonitor m_overrunMonitor = LoopOverrunMonitor.getInstance();
+  private final DriverStationInputs m_driverStationInputs = new DriverStationInputs();
+  private final InputsLogger m_driverStationLogger =
+      new InputsLogger(DriverStationInputs.kLogName, m_driverStationInputs);
+
   /**
    * This function is run when the robot is first started up and should be used for any
    * initialization code.
    */
   @Override
   public void robotInit() {
+    // Before anything else, so the recording covers the CAN configuration
+    FlightRecorder.start();
     // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
     // autonomous chooser on the dashboard.
     //    PathPlannerServer.startServer(5811);
     Constants.initConstants();
+    // The scheduler polls its button loop after the subsystems' periodic() and before it runs the
+    // commands, and the loop runs its bindings in the order they were bound. Bound before and after
+    // RobotContainer binds the triggers, these marks bracket the trigger polling.
+    EventLoop buttonLoop = CommandScheduler.getInstance().getDefaultButtonLoop();
+    buttonLoop.bind(() -> m_overrunMonitor.markSection("Buttons"));
     m_robotContainer = new RobotContainer();
+    buttonLoop.bind(
+        () -> {
+          m_overrunMonitor.markSection("Commands");
+          FlightRecorder.startCommands();
+        });
     SmartDashboard.putData(CommandScheduler.getInstance());
+    // These run after the command's execute() or end()
+    CommandScheduler.getInstance()
+        .onCommandExecute(command -> FlightRecorder.commandExecuted(command.getName()));
+    CommandScheduler.getInstance().onCommandFinish(command -> FlightRecorder.commandEnded());
+    CommandScheduler.getInstance().onCommandInterrupt(command -> FlightRecorder.commandEnded());
     DataLogManager.start();
     if (RobotBase.isSimulation()) {
       addPeriodic(() -> m_robotContainer.getWrist().updateHorizontalTranslation(), 0.04, 0.01);
@@ -57,8 +89,38 @@ public class Robot extends TimedRobot {
     // commands, running already-scheduled commands, removing finished or interrupted commands,
     // and running subsystem periodic() methods.  This must be called from the robot's periodic
     // block in order for anything in the Command-based framework to work.
+    m_latencyTracker.mark(Phase.SCHEDULER_START);
+    m_overrunMonitor.markSection("Scheduler");
     CommandScheduler.getInstance().run();
+    m_latencyTracker.mark(Phase.SCHEDULER_END);
+    m_overrunMonitor.markSection("RobotContainer");
     m_robotContainer.periodic();
+    // After the subsystems have updated, so the dashboard sees this loop's values
+    m_overrunMonitor.markSection("Telemetry");
+    m_telemetryScheduler.periodic();
+    // Last, since LogReplay takes this record as the end of the loop
+    m_driverStationInputs.update();
+    m_driverStationInputs.selectedAuto = m_robotContainer.getSelectedAutoIndex();
+    m_driverStationLogger.log();
+  }
+
+  /** Marks the loop boundaries for latency measurement and overrun attribution */
+  @Override
+  protected void loopFunc() {
+    m_latencyTracker.mark(Phase.LOOP_START);
+    m_overrunMonitor.startLoop("Sensors");
+    // Subsystems and commands read these snapshots instead of the CAN devices
+    m_robotContainer.readSensors();
+    // The driver station update and the mode's init and periodic functions
+    m_overrunMonitor.markSection("Mode");
+    super.loopFunc();
+    m_latencyTracker.mark(Phase.LOOP_END);
+    m_overrunMonitor.endLoop();
+  }
+
+  /** For {@link Replay}, which selects the recorded auto before each loop */
+  RobotContainer getRobotContainer() {
+    return m_robotContainer;
   }
 
   /** This function is called once each time the robot enters Disabled mode. */
@@ -85,7 +147,15 @@ public class Robot extends TimedRobot {
 
   /** This function is called periodically during autonomous. */
   @Override
-  public void autonomousPeriodic() {}
+  public void autonomousPeriodic() {
+    // If the auto selection changed right before enabling, the auto may still be building
+    if (m_autonomousCommand == null) {
+      m_autonomousCommand = m_robotContainer.getAutonomousCommand();
+      if (m_autonomousCommand != null) {
+        m_autonomousCommand.schedule();
+      }
+    }
+  }
 
   @Override
   public void teleopInit() {
@@ -123,5 +193,6 @@ public class Robot extends TimedRobot {
   @Override
   public void simulationPeriodic() {
     m_robotContainer.simulationPeriodic();
+    m_overrunMonitor.simulationPeriodic();
   }
 }
@@ -7,12 +7,14 @@ package frc.robot;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.pathplanner.lib.PathConstraints;
 import com.pathplanner.lib.PathPlannerTrajectory;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.util.datalog.DataLog;
 import edu.wpi.first.wpilibj.*;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.ConditionalCommand;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import edu.wpi.first.wpilibj2.command.button.CommandPS4Controller;
@@ -21,6 +23,7 @@ import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Constants.ELEVATOR;
 import frc.robot.Constants.INTAKE.INTAKE_STATE;
+import frc.robot.Constants.LATENCY;
 import frc.robot.Constants.SCORING_STATE;
 import frc.robot.Constants.STATE_HANDLER;
 import frc.robot.Constants.STATE_HANDLER.SUPERSTRUCTURE_STATE;
@@ -32,6 +35,7 @@ import frc.robot.commands.auto.CenterOneBalance;
 // import frc.robot.commands.auto.CenterOneBalance;
 import frc.robot.commands.auto.CenterOneBalanceCross;
 import frc.robot.commands.auto.DriveForward;
+import frc.robot.commands.auto.DynamicPathGeneration;
 import frc.robot.commands.auto.HighConeTimerTest;
 import frc.robot.commands.auto.HighCubeTimerTest;
 import frc.robot.commands.auto.MidCubeTimerTest;
@@ -53,13 +57,21 @@ import frc.robot.commands.swerve.SetSwerveDrive;
 import frc.robot.commands.swerve.SetSwerveNeutralMode;
 import frc.robot.commands.wrist.*;
 import frc.robot.simulation.FieldSim;
-import frc.robot.simulation.MemoryLog;
+import frc.robot.simulation.StepInput;
 import frc.robot.subsystems.*;
+import frc.robot.utils.FrameLog;
 import frc.robot.utils.LogManager;
+import frc.robot.utils.MemoryMonitor;
 import frc.robot.utils.TrajectoryUtils;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * This class is where the bulk of the robot should be declared. Since Command-based is a
@@ -71,7 +83,7 @@ public class RobotContainer implements AutoCloseable {
   private final DataLog m_logger = DataLogManager.getLog();
 
   // Initialize used utils
-  private final MemoryLog m_memorylog = new MemoryLog();
+  private final MemoryMonitor m_memoryMonitor = new MemoryMonitor(m_logger);
   private final LogManager m_logManager = new LogManager();
   //  private final DistanceSensor m_distanceSensor = new DistanceSensor();
 
@@ -82,7 +94,7 @@ public class RobotContainer implements AutoCloseable {
   private final Wrist m_wrist = new Wrist(m_intake);
   private final Controls m_controls = new Controls();
   private final Vision m_vision = new Vision(m_swerveDrive, m_logger, m_controls, m_intake);
-  private final SendableChooser<Command> m_autoChooser = new SendableChooser<>();
+  private final SendableChooser<AutoOption> m_autoChooser = new SendableChooser<>();
   private final LEDSubsystem m_led = new LEDSubsystem(m_controls);
   private final StateHandler m_stateHandler =
       new StateHandler(m_intake, m_wrist, m_swerveDrive, m_elevator, m_vision);
@@ -91,6 +103,60 @@ public class RobotContainer implements AutoCloseable {
 
   private SendableChooser<List<PathPlannerTrajectory>> autoPlotter;
 
+  private final FrameLog.Frame m_superstructureFrame =
+      FrameLog.getInstance()
+          .frame(
+              "/frames/superstructure",
+              "elevator/heightMeters",
+              "elevator/desiredHeightMeters",
+              "elevator/velocityMetersPerSecond",
+              "elevator/current",
+              "elevator/percentOutput",
+              "wrist/positionDegrees",
+              "wrist/desiredPositionDegrees",
+              "wrist/velocityDegreesPerSecond",
+              "wrist/percentOutput",
+              "wrist/voltage",
+              "wrist/current",
+              "intake/velocity",
+              "intake/current",
+              "intake/percentOutput",
+              "intake/state");
+
+  /** An auto in the chooser, whose trajectories are loaded separately from composing it */
+  private static class AutoOption {
+    // Loads the auto's trajectories into the TrajectoryCache, which is safe off the main thread
+    final Runnable loadTrajectories;
+    // Composes the auto from the cached trajectories. Composing registers the commands with the
+    // CommandScheduler, which isn't thread safe, so this only runs on the main thread.
+    final Supplier<Command> buildCommand;
+
+    AutoOption(Runnable loadTrajectories, Supplier<Command> buildCommand) {
+      this.loadTrajectories = loadTrajectories;
+      this.buildCommand = buildCommand;
+    }
+  }
+
+  // Only the selected auto is built. Its trajectories are loaded off the main thread while
+  // disabled, then it's composed in disabledPeriodic() so that autonomousInit() only has to
+  // schedule it.
+  private final ExecutorService m_autoBuilder =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "AutoBuilder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+          });
+  // Every auto in the chooser, in the order they were added, so a log can record the selection
+  private final List<AutoOption> m_autos = new ArrayList<>();
+  // Selected instead of the chooser's selection while replaying a log
+  private AutoOption m_replayedAuto;
+  private AutoOption m_selectedAuto;
+  private Future<?> m_selectedAutoTrajectories = CompletableFuture.completedFuture(null);
+  private Command m_selectedAutoCommand;
+  private boolean m_selectedAutoFailed;
+
   // Replace with CommandPS4Controller or CommandJoystick if needed
 
   /** The container for the robot. Contains subsystems, OI devices, and commands. */
@@ -106,19 +172,27 @@ public class RobotContainer implements AutoCloseable {
   public RobotContainer() {
     resetSubsystemPositions();
     initializeSubsystems();
-    m_logger.pause();
     configureBindings();
 
     initializeAutoChooser();
   }
 
   public void initializeSubsystems() {
-    m_swerveDrive.setDefaultCommand(
-        new SetSwerveDrive(
-            m_swerveDrive,
-            () -> leftJoystick.getRawAxis(1),
-            () -> leftJoystick.getRawAxis(0),
-            () -> rightJoystick.getRawAxis(0)));
+    if (RobotBase.isSimulation() && LATENCY.useSimStepInput) {
+      m_swerveDrive.setDefaultCommand(
+          new SetSwerveDrive(
+              m_swerveDrive,
+              new StepInput(LATENCY.kStepInputAmplitude, LATENCY.kStepInputPeriodSeconds),
+              () -> 0,
+              () -> 0));
+    } else {
+      m_swerveDrive.setDefaultCommand(
+          new SetSwerveDrive(
+              m_swerveDrive,
+              () -> leftJoystick.getRawAxis(1),
+              () -> leftJoystick.getRawAxis(0),
+              () -> rightJoystick.getRawAxis(0)));
+    }
 
     // Control elevator height by moving the joystick up and down
     m_elevator.setDefaultCommand(new RunElevatorJoystick(m_elevator, xboxController::getLeftY));
@@ -159,6 +233,7 @@ public class RobotContainer implements AutoCloseable {
             () -> rightJoystick.getRawAxis(0)));
 
     rightJoystickTriggers[0].whileTrue(new LimitSwerveJoystickInput(m_swerveDrive));
+    rightJoystickTriggers[1].whileTrue(new DynamicPathGeneration(m_swerveDrive));
 
     xboxController
         .leftTrigger(0.1)
@@ -354,53 +429,65 @@ public class RobotContainer implements AutoCloseable {
 
     // Main Autos
 
-    m_autoChooser.addOption(
+    addAuto(
         "SubstationThree",
-        new SubstationThree(
-            "SubstationTwoPickup",
-            m_swerveDrive,
-            m_fieldSim,
-            m_wrist,
-            m_intake,
-            m_vision,
-            m_elevator,
-            m_stateHandler));
-
-    m_autoChooser.addOption(
+        new AutoOption(
+            () -> SubstationThree.loadTrajectories("SubstationTwoPickup"),
+            () ->
+                new SubstationThree(
+                    "SubstationTwoPickup",
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_vision,
+                    m_elevator,
+                    m_stateHandler)));
+
+    addAuto(
         "SubstationTwoBalance",
-        new SubstationTwoBalance(
-            "SubstationTwoBalance",
-            m_swerveDrive,
-            m_fieldSim,
-            m_wrist,
-            m_intake,
-            m_vision,
-            m_elevator,
-            m_stateHandler));
-
-    m_autoChooser.addOption(
+        new AutoOption(
+            () -> SubstationTwoBalance.loadTrajectories("SubstationTwoBalance"),
+            () ->
+                new SubstationTwoBalance(
+                    "SubstationTwoBalance",
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_vision,
+                    m_elevator,
+                    m_stateHandler)));
+
+    addAuto(
         "CenterOneBalanceCross",
-        new CenterOneBalanceCross(
-            "CenterOneBalanceCross",
-            m_swerveDrive,
-            m_fieldSim,
-            m_wrist,
-            m_intake,
-            m_elevator,
-            m_vision,
-            m_stateHandler));
-
-    m_autoChooser.addOption(
+        new AutoOption(
+            () -> CenterOneBalanceCross.loadTrajectories("CenterOneBalanceCross"),
+            () ->
+                new CenterOneBalanceCross(
+                    "CenterOneBalanceCross",
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_elevator,
+                    m_vision,
+                    m_stateHandler)));
+
+    addAuto(
         "BumpTwo",
-        new BumpTwo(
-            "BumpTwo",
-            m_swerveDrive,
-            m_fieldSim,
-            m_wrist,
-            m_intake,
-            m_vision,
-            m_elevator,
-            m_stateHandler));
+        new AutoOption(
+            () -> BumpTwo.loadTrajectories("BumpTwo"),
+            () ->
+                new BumpTwo(
+                    "BumpTwo",
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_vision,
+                    m_elevator,
+                    m_stateHandler)));
 
     // Back Up Autos
 
@@ -416,17 +503,20 @@ public class RobotContainer implements AutoCloseable {
     //       m_elevator,
     //       m_stateHandler));
 
-    m_autoChooser.addOption(
+    addAuto(
         "CenterOneBalance",
-        new CenterOneBalance(
-            "CenterOneBalance",
-            m_swerveDrive,
-            m_fieldSim,
-            m_wrist,
-            m_intake,
-            m_elevator,
-            m_vision,
-            m_stateHandler));
+        new AutoOption(
+            () -> CenterOneBalance.loadTrajectories("CenterOneBalance"),
+            () ->
+                new CenterOneBalance(
+                    "CenterOneBalance",
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_elevator,
+                    m_vision,
+                    m_stateHandler)));
 
     // m_autoChooser.addOption(
     //   "BumpOnePickUp",
@@ -440,12 +530,20 @@ public class RobotContainer implements AutoCloseable {
     //       m_elevator,
     //       m_stateHandler));
 
-    m_autoChooser.addOption(
+    addAuto(
         "DriveForward",
-        new DriveForward(
-            "DriveForward", m_swerveDrive, m_fieldSim, m_wrist, m_elevator, m_stateHandler));
-
-    m_autoChooser.setDefaultOption("Do Nothing", new WaitCommand(0));
+        new AutoOption(
+            () -> DriveForward.loadTrajectories("DriveForward"),
+            () ->
+                new DriveForward(
+                    "DriveForward",
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_elevator,
+                    m_stateHandler)));
+
+    setDefaultAuto("Do Nothing", new AutoOption(() -> {}, () -> new WaitCommand(0)));
 
     // Test Autos
 
@@ -454,20 +552,47 @@ public class RobotContainer implements AutoCloseable {
     //     new JustBalance(
     //         "JustBalance", m_swerveDrive, m_fieldSim, m_wrist, m_intake, m_elevator, m_vision));
 
-    m_autoChooser.addOption(
+    addAuto(
         "TEST: HighConeTimer",
-        new HighConeTimerTest(
-            m_swerveDrive, m_fieldSim, m_wrist, m_intake, m_vision, m_elevator, m_stateHandler));
-
-    m_autoChooser.addOption(
+        new AutoOption(
+            () -> {},
+            () ->
+                new HighConeTimerTest(
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_vision,
+                    m_elevator,
+                    m_stateHandler)));
+
+    addAuto(
         "TEST: HighCubeTimer",
-        new HighCubeTimerTest(
-            m_swerveDrive, m_fieldSim, m_wrist, m_intake, m_vision, m_elevator, m_stateHandler));
-
-    m_autoChooser.addOption(
+        new AutoOption(
+            () -> {},
+            () ->
+                new HighCubeTimerTest(
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_vision,
+                    m_elevator,
+                    m_stateHandler)));
+
+    addAuto(
         "TEST: MidCubeTimer",
-        new MidCubeTimerTest(
-            m_swerveDrive, m_fieldSim, m_wrist, m_intake, m_vision, m_elevator, m_stateHandler));
+        new AutoOption(
+            () -> {},
+            () ->
+                new MidCubeTimerTest(
+                    m_swerveDrive,
+                    m_fieldSim,
+                    m_wrist,
+                    m_intake,
+                    m_vision,
+                    m_elevator,
+                    m_stateHandler)));
 
     // m_autoChooser.addOption(
     //     "JustBalance",
@@ -489,10 +614,18 @@ public class RobotContainer implements AutoCloseable {
     // m_autoChooser.addOption("AutoBalance", new AutoBalance(m_swerveDrive));
 
     if (RobotBase.isSimulation()) {
-      m_autoChooser.setDefaultOption(
+      setDefaultAuto(
           "TestSimAuto",
-          new TestSimAuto(
-              "TestSimAuto Copy", m_swerveDrive, m_elevator, m_wrist, m_stateHandler, m_fieldSim));
+          new AutoOption(
+              () -> TestSimAuto.loadTrajectories("TestSimAuto Copy"),
+              () ->
+                  new TestSimAuto(
+                      "TestSimAuto Copy",
+                      m_swerveDrive,
+                      m_elevator,
+                      m_wrist,
+                      m_stateHandler,
+                      m_fieldSim)));
     }
 
     SmartDashboard.putData("Auto Selector", m_autoChooser);
@@ -524,9 +657,69 @@ public class RobotContainer implements AutoCloseable {
     }
   }
 
+  private void addAuto(String name, AutoOption auto) {
+    m_autoChooser.addOption(name, auto);
+    m_autos.add(auto);
+  }
+
+  private void setDefaultAuto(String name, AutoOption auto) {
+    m_autoChooser.setDefaultOption(name, auto);
+    m_autos.add(auto);
+  }
+
+  /** The selected auto's index in the order the autos were added, or -1 if none is selected */
+  public int getSelectedAutoIndex() {
+    return m_autos.indexOf(getSelectedAuto());
+  }
+
+  /**
+   * Selects the auto at the index instead of the chooser's selection, to replay a log. An index
+   * that's out of range, like the -1 of a log recorded without one, goes back to the chooser.
+   */
+  public void setReplayedAutoIndex(int index) {
+    m_replayedAuto = index >= 0 && index < m_autos.size() ? m_autos.get(index) : null;
+  }
+
+  private AutoOption getSelectedAuto() {
+    return m_replayedAuto != null ? m_replayedAuto : m_autoChooser.getSelected();
+  }
+
+  /**
+   * Returns the selected auto if it has finished building, or null if it is still being built.
+   * This never blocks, so callers should keep polling until a command is returned.
+   */
   public Command getAutonomousCommand() {
-    // An example command will be run in autonomous
-    return m_autoChooser.getSelected();
+    buildSelectedAuto();
+    return m_selectedAutoCommand;
+  }
+
+  /**
+   * Starts loading the selected auto's trajectories in the background if the selection has
+   * changed, and composes the auto once they're loaded.
+   */
+  private void buildSelectedAuto() {
+    AutoOption selectedAuto = getSelectedAuto();
+    if (selectedAuto != null && selectedAuto != m_selectedAuto) {
+      m_selectedAutoTrajectories.cancel(false);
+      m_selectedAuto = selectedAuto;
+      m_selectedAutoCommand = null;
+      m_selectedAutoFailed = false;
+      m_selectedAutoTrajectories = m_autoBuilder.submit(selectedAuto.loadTrajectories);
+    }
+    if (m_selectedAuto == null
+        || m_selectedAutoCommand != null
+        || m_selectedAutoFailed
+        || !m_selectedAutoTrajectories.isDone()) return;
+
+    try {
+      m_selectedAutoTrajectories.get();
+      // The trajectories are cached now, so this only constructs the commands
+      m_selectedAutoCommand = m_selectedAuto.buildCommand.get();
+    } catch (InterruptedException | ExecutionException | RuntimeException e) {
+      DriverStation.reportError("Failed to build auto", e.getStackTrace());
+      // Don't report the same failure every loop
+      m_selectedAutoFailed = true;
+    }
   }
 
   public SwerveDrive getSwerveDrive() {
@@ -573,28 +766,72 @@ public class RobotContainer implements AutoCloseable {
   //    return m_distanceSensor;
   //  }
 
+  // Reads every device once, before anything in the loop uses its values
+  public void readSensors() {
+    m_swerveDrive.readSensors();
+    m_elevator.readSensors();
+    m_wrist.readSensors();
+    m_intake.readSensors();
+    m_vision.readSensors();
+  }
+
   public void periodic() {
     // m_fieldSim.periodic();
     // Rumbles the controller if the robot is on target based off FieldSim
     xboxController.getHID().setRumble(RumbleType.kBothRumble, m_stateHandler.isOnTarget() ? 1 : 0);
     //    m_distanceSensor.periodic();
     // m_logManager.periodic();
+    logSuperstructureFrame();
+    m_memoryMonitor.periodic();
+  }
+
+  private void logSuperstructureFrame() {
+    m_superstructureFrame.set(0, m_elevator.getHeightMeters());
+    m_superstructureFrame.set(1, m_elevator.getDesiredPositionMeters());
+    m_superstructureFrame.set(2, m_elevator.getVelocityMetersPerSecond());
+    m_superstructureFrame.set(3, m_elevator.getMotorOutputCurrent());
+    m_superstructureFrame.set(4, m_elevator.getPercentOutput());
+    m_superstructureFrame.set(5, m_wrist.getPositionDegrees());
+    m_superstructureFrame.set(6, Units.radiansToDegrees(m_wrist.getDesiredPositionRadians()));
+    m_superstructureFrame.set(7, m_wrist.getVelocityDegreesPerSecond());
+    m_superstructureFrame.set(8, m_wrist.getPercentOutput());
+    m_superstructureFrame.set(9, m_wrist.getMotorOutputVoltage());
+    m_superstructureFrame.set(10, m_wrist.getMotorOutputCurrent());
+    m_superstructureFrame.set(11, m_intake.getIntakeVelocity());
+    m_superstructureFrame.set(12, m_intake.getMotorOutputCurrent());
+    m_superstructureFrame.set(13, m_intake.getPercentOutput());
+    m_superstructureFrame.set(14, m_intake.getIntakeState().ordinal());
+    m_superstructureFrame.append();
   }
 
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    buildSelectedAuto();
+  }
 
   public void testPeriodic() {
     m_stateHandler.testPeriodic();
   }
 
   public void simulationPeriodic() {
-    m_memorylog.simulationPeriodic();
-
     if (DriverStation.isDisabled()) m_fieldSim.setTrajectory(autoPlotter.getSelected());
   }
 
   @Override
   public void close() throws Exception {
+    m_autoBuilder.shutdownNow();
+    // The scheduler outlives this container, and would keep running the closed subsystems
+    var scheduler = CommandScheduler.getInstance();
+    scheduler.cancelAll();
+    scheduler.unregisterSubsystem(
+        m_swerveDrive,
+        m_elevator,
+        m_intake,
+        m_wrist,
+        m_controls,
+        m_vision,
+        m_led,
+        m_stateHandler,
+        m_fieldSim);
     m_fieldSim.close();
     m_stateHandler.close();
     m_vision.close();
@@ -606,6 +843,10 @@ public class RobotContainer implements AutoCloseable {
     m_controls.close();
 
     //    m_distanceSensor.close();
-    m_logger.close();
+    m_memoryMonitor.close();
+    m_superstructureFrame.close();
+    m_logManager.close();
+    // DataLogManager owns the log, and FrameLog keeps writing to it after this container is gone
+    m_logger.flush();
   }
 }
@@ -2,6 +2,7 @@ package frc.robot.commands.auto;
 
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
@@ -12,7 +13,7 @@ import frc.robot.Constants.INTAKE.INTAKE_STATE;
 import frc.robot.Constants.STATE_HANDLER.SETPOINT;
 import frc.robot.commands.intake.AutoSetIntakeSetpoint;
 import frc.robot.commands.statehandler.AutoSetSetpoint;
-import frc.robot.commands.swerve.AutoBalance;
+import frc.robot.commands.swerve.PredictiveAutoBalance;
 import frc.robot.commands.swerve.SetSwerveNeutralMode;
 import frc.robot.commands.swerve.SetSwerveOdometry;
 import frc.robot.simulation.FieldSim;
@@ -23,6 +24,7 @@ import frc.robot.subsystems.SwerveDrive;
 import frc.robot.subsystems.Vision;
 import frc.robot.subsystems.Wrist;
 import frc.robot.utils.TrajectoryUtils;
+import java.util.List;
 
 public class CenterOneBalance extends SequentialCommandGroup {
   public CenterOneBalance(
@@ -35,15 +37,7 @@ public class CenterOneBalance extends SequentialCommandGroup {
       Vision vision,
       StateHandler stateHandler) {
 
-    double maxVel = Units.feetToMeters(8);
-    double maxAccel = Units.feetToMeters(8);
-    if (RobotBase.isSimulation()) {
-      maxVel = Units.feetToMeters(4);
-      maxAccel = Units.feetToMeters(4);
-    }
-    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
-
-    var trajectories = TrajectoryUtils.readTrajectory(pathName, constraints);
+    var trajectories = loadTrajectories(pathName);
     var swerveCommands =
         TrajectoryUtils.generatePPSwerveControllerCommand(swerveDrive, trajectories);
 
@@ -71,8 +65,20 @@ public class CenterOneBalance extends SequentialCommandGroup {
                 .withTimeout(WAIT.STOW_HIGH_CONE.get())),
         new WaitCommand(WAIT.STOW_HIGH_CONE.get()),
         swerveCommands.get(0),
-        new AutoBalance(swerveDrive),
+        new PredictiveAutoBalance(swerveDrive),
         new SetSwerveNeutralMode(swerveDrive, NeutralMode.Brake)
             .andThen(() -> swerveDrive.drive(0, 0, 0, false, false)));
   }
+
+  /** Loads the trajectories, so RobotContainer can load them before building the auto */
+  public static List<PathPlannerTrajectory> loadTrajectories(String pathName) {
+    double maxVel = Units.feetToMeters(8);
+    double maxAccel = Units.feetToMeters(8);
+    if (RobotBase.isSimulation()) {
+      maxVel = Units.feetToMeters(4);
+      maxAccel = Units.feetToMeters(4);
+    }
+    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
+    return TrajectoryUtils.readTrajectory(pathName, constraints);
+  }
 }
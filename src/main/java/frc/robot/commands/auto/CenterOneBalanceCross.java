@@ -2,6 +2,7 @@ package frc.robot.commands.auto;
 
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.*;
@@ -14,8 +15,8 @@ import frc.robot.commands.DelayedInterruptingCommand;
 import frc.robot.commands.intake.AutoSetIntakeSetpoint;
 import frc.robot.commands.statehandler.AutoSetSetpoint;
 import frc.robot.commands.statehandler.SetSetpoint;
-import frc.robot.commands.swerve.AutoBalance;
 import frc.robot.commands.swerve.DriveForwardWithVisionInput;
+import frc.robot.commands.swerve.PredictiveAutoBalance;
 import frc.robot.commands.swerve.SetSwerveNeutralMode;
 import frc.robot.commands.swerve.SetSwerveOdometry;
 import frc.robot.simulation.FieldSim;
@@ -26,6 +27,7 @@ import frc.robot.subsystems.SwerveDrive;
 import frc.robot.subsystems.Vision;
 import frc.robot.subsystems.Wrist;
 import frc.robot.utils.TrajectoryUtils;
+import java.util.List;
 
 public class CenterOneBalanceCross extends SequentialCommandGroup {
   public CenterOneBalanceCross(
@@ -38,15 +40,7 @@ public class CenterOneBalanceCross extends SequentialCommandGroup {
       Vision vision,
       StateHandler stateHandler) {
 
-    double maxVel = Units.feetToMeters(6);
-    double maxAccel = Units.feetToMeters(6);
-    if (RobotBase.isSimulation()) {
-      maxVel = Units.feetToMeters(4);
-      maxAccel = Units.feetToMeters(4);
-    }
-    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
-
-    var m_trajectories = TrajectoryUtils.readTrajectory(pathName, constraints);
+    var m_trajectories = loadTrajectories(pathName);
     var swerveCommands =
         TrajectoryUtils.generatePPSwerveControllerCommand(swerveDrive, m_trajectories);
 
@@ -90,8 +84,20 @@ public class CenterOneBalanceCross extends SequentialCommandGroup {
             swerveCommands.get(1),
             new SequentialCommandGroup(
                 new SetSetpoint(stateHandler, elevator, wrist, SETPOINT.STOWED).withTimeout(0.5))),
-        new AutoBalance(swerveDrive),
+        new PredictiveAutoBalance(swerveDrive),
         new SetSwerveNeutralMode(swerveDrive, NeutralMode.Brake)
             .andThen(() -> swerveDrive.drive(0, 0, 0, false, false)));
   }
+
+  /** Loads the trajectories, so RobotContainer can load them before building the auto */
+  public static List<PathPlannerTrajectory> loadTrajectories(String pathName) {
+    double maxVel = Units.feetToMeters(6);
+    double maxAccel = Units.feetToMeters(6);
+    if (RobotBase.isSimulation()) {
+      maxVel = Units.feetToMeters(4);
+      maxAccel = Units.feetToMeters(4);
+    }
+    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
+    return TrajectoryUtils.readTrajectory(pathName, constraints);
+  }
 }
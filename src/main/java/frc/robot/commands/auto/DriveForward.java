@@ -28,16 +28,7 @@ public class DriveForward extends SequentialCommandGroup {
       Elevator elevator,
       StateHandler stateHandler) {
 
-    double maxVel = Units.feetToMeters(6);
-    double maxAccel = Units.feetToMeters(6);
-    if (RobotBase.isSimulation()) {
-      maxVel = Units.feetToMeters(4);
-      maxAccel = Units.feetToMeters(4);
-    }
-    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
-
-    List<PathPlannerTrajectory> trajectories =
-        TrajectoryUtils.readTrajectory(pathName, constraints);
+    List<PathPlannerTrajectory> trajectories = loadTrajectories(pathName);
     List<PPSwerveControllerCommand> swerveCommands =
         TrajectoryUtils.generatePPSwerveControllerCommand(swerveDrive, trajectories);
 
@@ -50,4 +41,16 @@ public class DriveForward extends SequentialCommandGroup {
         new SetSwerveNeutralMode(swerveDrive, NeutralMode.Brake)
             .andThen(() -> swerveDrive.drive(0, 0, 0, false, false)));
   }
+
+  /** Loads the trajectories, so RobotContainer can load them before building the auto */
+  public static List<PathPlannerTrajectory> loadTrajectories(String pathName) {
+    double maxVel = Units.feetToMeters(6);
+    double maxAccel = Units.feetToMeters(6);
+    if (RobotBase.isSimulation()) {
+      maxVel = Units.feetToMeters(4);
+      maxAccel = Units.feetToMeters(4);
+    }
+    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
+    return TrajectoryUtils.readTrajectory(pathName, constraints);
+  }
 }
@@ -4,49 +4,187 @@
 
 package frc.robot.commands.auto;
 
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPoint;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.trajectory.Trajectory;
-import edu.wpi.first.math.trajectory.TrajectoryConfig;
-import edu.wpi.first.math.trajectory.TrajectoryGenerator;
-import edu.wpi.first.math.util.Units;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Constants.AUTO;
 import frc.robot.Constants.SWERVE_DRIVE;
+import frc.robot.commands.swerve.FollowColumnarTrajectory;
+import frc.robot.simulation.SimConstants;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.utils.ChargedUpNodeMask;
+import frc.robot.utils.ColumnarTrajectory;
+import frc.robot.utils.ModuleMap;
+import frc.robot.utils.NavigationGraph;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Generates a path from the current pose to the scoring pose of the node picked by {@link
+ * ChargedUpNodeMask#getTargetNode(Pose2d)} and follows it. The path is routed around the charging
+ * stations using the {@link NavigationGraph} and generated off the main thread, and the command
+ * gives up if it isn't ready within {@link AUTO#kDynamicPathGenerationTimeoutSeconds}.
+ */
 public class DynamicPathGeneration extends CommandBase {
+  private static final ExecutorService m_pathGenerator =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "DynamicPathGeneration");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  // Below this speed the robot's direction of travel is meaningless
+  private static final double kMinStartVelocityMetersPerSecond = 0.1;
+  // Closer than this, the path would have no direction to head in
+  private static final double kMinPathLengthMeters = 0.05;
+
+  private final SwerveDrive m_swerveDrive;
+  private final NavigationGraph m_navigationGraph;
+
+  private Future<ColumnarTrajectory> m_trajectory;
+  private FollowColumnarTrajectory m_followCommand;
+  private double m_startTime;
+  private boolean m_failed;
+  private boolean m_isAtScoringPose;
+
   /** Creates a new DynamicPathGeneration. */
-  public DynamicPathGeneration() {
-
-    TrajectoryConfig config =
-        new TrajectoryConfig(Units.feetToMeters(3), Units.feetToMeters(3))
-            .setKinematics(SWERVE_DRIVE.kSwerveKinematics);
-
-    Trajectory trajectory =
-        TrajectoryGenerator.generateTrajectory(
-            new Pose2d(0, 0, new Rotation2d(0)),
-            List.of(new Translation2d(1, 1), new Translation2d(2, -1)),
-            new Pose2d(3, 0, new Rotation2d(0)),
-            config);
+  public DynamicPathGeneration(SwerveDrive swerveDrive) {
+    m_swerveDrive = swerveDrive;
+    m_navigationGraph = NavigationGraph.getInstance();
+
     // Use addRequirements() here to declare subsystem dependencies.
+    addRequirements(m_swerveDrive);
   }
 
   // Called when the command is initially scheduled.
   @Override
-  public void initialize() {}
+  public void initialize() {
+    m_trajectory = null;
+    m_followCommand = null;
+    m_failed = false;
+    m_isAtScoringPose = false;
+
+    var startPose = m_swerveDrive.getPoseMeters();
+    var targetNode = ChargedUpNodeMask.getTargetNode(startPose);
+    if (targetNode.equals(new Pose2d())) {
+      m_failed = true;
+      return;
+    }
+
+    var scoringPose = getScoringPose(targetNode.getTranslation());
+    if (startPose.getTranslation().getDistance(scoringPose.getTranslation())
+        < kMinPathLengthMeters) {
+      m_isAtScoringPose = true;
+      return;
+    }
+    var startVelocity = getFieldRelativeVelocity(startPose);
+
+    m_startTime = Timer.getFPGATimestamp();
+    m_trajectory =
+        m_pathGenerator.submit(() -> generateTrajectory(startPose, startVelocity, scoringPose));
+  }
 
   // Called every time the scheduler runs while the command is scheduled.
   @Override
-  public void execute() {}
+  public void execute() {
+    if (m_failed || m_isAtScoringPose) return;
+
+    if (m_followCommand == null) {
+      if (!m_trajectory.isDone()) {
+        if (Timer.getFPGATimestamp() - m_startTime > AUTO.kDynamicPathGenerationTimeoutSeconds) {
+          m_trajectory.cancel(true);
+          DriverStation.reportWarning("DynamicPathGeneration timed out", false);
+          m_failed = true;
+        }
+        return;
+      }
+
+      try {
+        m_followCommand = new FollowColumnarTrajectory(m_swerveDrive, m_trajectory.get());
+      } catch (InterruptedException | ExecutionException e) {
+        DriverStation.reportError("DynamicPathGeneration failed", e.getStackTrace());
+        m_failed = true;
+        return;
+      }
+      m_followCommand.initialize();
+    }
+
+    m_followCommand.execute();
+  }
 
   // Called once the command ends or is interrupted.
   @Override
-  public void end(boolean interrupted) {}
+  public void end(boolean interrupted) {
+    if (m_followCommand != null) m_followCommand.end(interrupted);
+    else if (m_trajectory != null) m_trajectory.cancel(true);
+  }
 
   // Returns true when the command should end.
   @Override
   public boolean isFinished() {
-    return false;
+    return m_failed
+        || m_isAtScoringPose
+        || (m_followCommand != null && m_followCommand.isFinished());
+  }
+
+  /** Plans a route around the charging stations and turns it into a trajectory */
+  private ColumnarTrajectory generateTrajectory(
+      Pose2d startPose, Translation2d startVelocity, Pose2d scoringPose) {
+    var waypoints =
+        m_navigationGraph.findPath(startPose.getTranslation(), scoringPose.getTranslation());
+    if (waypoints.isEmpty()) {
+      waypoints = List.of(startPose.getTranslation(), scoringPose.getTranslation());
+    }
+    int last = waypoints.size() - 1;
+
+    var points = new ArrayList<PathPoint>();
+    // When stopped, leave heading for the next waypoint instead of along an arbitrary angle
+    double startSpeed = startVelocity.getNorm();
+    Rotation2d startHeading =
+        startSpeed < kMinStartVelocityMetersPerSecond
+            ? waypoints.get(1).minus(waypoints.get(0)).getAngle()
+            : startVelocity.getAngle();
+    points.add(new PathPoint(waypoints.get(0), startHeading, startPose.getRotation(), startSpeed));
+
+    for (int i = 1; i < last; i++) {
+      var heading = waypoints.get(i + 1).minus(waypoints.get(i - 1)).getAngle();
+      points.add(new PathPoint(waypoints.get(i), heading, scoringPose.getRotation()));
+    }
+
+    var endHeading = waypoints.get(last).minus(waypoints.get(last - 1)).getAngle();
+    points.add(new PathPoint(waypoints.get(last), endHeading, scoringPose.getRotation()));
+
+    return ColumnarTrajectory.fromPathPlanner(
+        PathPlanner.generatePath(AUTO.kDynamicPathConstraints, points));
+  }
+
+  private Translation2d getFieldRelativeVelocity(Pose2d pose) {
+    var robotRelativeSpeeds =
+        SWERVE_DRIVE.kFourModuleKinematics.toChassisSpeeds(
+            ModuleMap.orderedValues(m_swerveDrive.getModuleStates(), new SwerveModuleState[0]),
+            new ChassisSpeeds());
+    return new Translation2d(
+            robotRelativeSpeeds.vxMetersPerSecond, robotRelativeSpeeds.vyMetersPerSecond)
+        .rotateBy(pose.getRotation());
+  }
+
+  static Pose2d getScoringPose(Translation2d node) {
+    boolean isBlueGrid = node.getX() < SimConstants.fieldLength / 2.0;
+    return new Pose2d(
+        isBlueGrid ? AUTO.kBlueScoringPoseX : SimConstants.fieldLength - AUTO.kBlueScoringPoseX,
+        node.getY(),
+        Rotation2d.fromDegrees(isBlueGrid ? 180 : 0));
   }
 }
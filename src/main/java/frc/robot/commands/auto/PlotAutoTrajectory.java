@@ -7,7 +7,6 @@ package frc.robot.commands.auto;
 import com.pathplanner.lib.PathPlannerTrajectory;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.simulation.FieldSim;
-import java.util.ArrayList;
 import java.util.List;
 
 public class PlotAutoTrajectory extends CommandBase {
@@ -40,16 +39,8 @@ public class PlotAutoTrajectory extends CommandBase {
   // Called when the command is initially scheduled.
   @Override
   public void initialize() {
-    List<PathPlannerTrajectory> ppTrajectories = new ArrayList<>();
-    //    var isRedPath = m_pathName.startsWith("Red");
-    //    if (isRedPath && m_useAllianceFlip)
-    //      ppTrajectories.addAll(
-    //              ppTrajectories.stream().map(t
-    // ->SimConstants.allianceFlip((Trajectory)t)).collect(Collectors.toList());
-    //    else ppTrajectories.addAll(m_trajectories);
-    ppTrajectories.addAll(m_trajectories);
-
-    m_fieldSim.setTrajectory(ppTrajectories);
+    // Passed as is, since FieldSim only redraws the trajectories when it's given a different list
+    m_fieldSim.setTrajectory(m_trajectories);
   }
 
   @Override
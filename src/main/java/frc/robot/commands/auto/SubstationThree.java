@@ -2,6 +2,7 @@ package frc.robot.commands.auto;
 
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.*;
@@ -25,6 +26,7 @@ import frc.robot.subsystems.SwerveDrive;
 import frc.robot.subsystems.Vision;
 import frc.robot.subsystems.Wrist;
 import frc.robot.utils.TrajectoryUtils;
+import java.util.List;
 
 public class SubstationThree extends SequentialCommandGroup {
   public SubstationThree(
@@ -37,15 +39,7 @@ public class SubstationThree extends SequentialCommandGroup {
       Elevator elevator,
       StateHandler stateHandler) {
 
-    double maxVel = Units.feetToMeters(16);
-    double maxAccel = Units.feetToMeters(16);
-    if (RobotBase.isSimulation()) {
-      maxVel = Units.feetToMeters(4);
-      maxAccel = Units.feetToMeters(4);
-    }
-    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
-
-    var m_trajectories = TrajectoryUtils.readTrajectory(pathName, constraints);
+    var m_trajectories = loadTrajectories(pathName);
     var swerveCommands =
         TrajectoryUtils.generatePPSwerveControllerCommand(swerveDrive, m_trajectories);
 
@@ -119,4 +113,16 @@ public class SubstationThree extends SequentialCommandGroup {
         new SetSwerveNeutralMode(swerveDrive, NeutralMode.Brake)
             .andThen(() -> swerveDrive.drive(0, 0, 0, false, false)));
   }
+
+  /** Loads the trajectories, so RobotContainer can load them before building the auto */
+  public static List<PathPlannerTrajectory> loadTrajectories(String pathName) {
+    double maxVel = Units.feetToMeters(16);
+    double maxAccel = Units.feetToMeters(16);
+    if (RobotBase.isSimulation()) {
+      maxVel = Units.feetToMeters(4);
+      maxAccel = Units.feetToMeters(4);
+    }
+    PathConstraints constraints = new PathConstraints(maxVel, maxAccel);
+    return TrajectoryUtils.readTrajectory(pathName, constraints);
+  }
 }
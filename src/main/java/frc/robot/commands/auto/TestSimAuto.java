@@ -26,12 +26,7 @@ public class TestSimAuto extends SequentialCommandGroup {
       Wrist wrist,
       StateHandler stateHandler,
       FieldSim fieldSim) {
-    m_trajectories =
-        TrajectoryUtils.readTrajectory(
-            pathName,
-            new PathConstraints(
-                SWERVE_DRIVE.kMaxSpeedMetersPerSecond * 0.5,
-                SWERVE_DRIVE.kMaxSpeedMetersPerSecond * 0.5));
+    m_trajectories = loadTrajectories(pathName);
 
     List<PPSwerveControllerCommand> swerveCommands =
         TrajectoryUtils.generatePPSwerveControllerCommand(swerveDrive, m_trajectories);
@@ -50,6 +45,15 @@ public class TestSimAuto extends SequentialCommandGroup {
             new InstantCommand(() -> swerveDrive.drive(0, 0, 0, false, false), swerveDrive)));
   }
 
+  /** Loads the trajectories, so RobotContainer can load them before building the auto */
+  public static List<PathPlannerTrajectory> loadTrajectories(String pathName) {
+    return TrajectoryUtils.readTrajectory(
+        pathName,
+        new PathConstraints(
+            SWERVE_DRIVE.kMaxSpeedMetersPerSecond * 0.5,
+            SWERVE_DRIVE.kMaxSpeedMetersPerSecond * 0.5));
+  }
+
   public List<PathPlannerTrajectory> getTrajectories() {
     return m_trajectories;
   }
@@ -1,7 +1,7 @@
 package frc.robot.commands.swerve;
 
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.Constants.SWERVE_DRIVE;
 import frc.robot.Constants.VISION.CAMERA_SERVER;
@@ -14,6 +14,12 @@ public class DriveForwardWithVisionInput extends CommandBase {
   private final Vision m_vision;
 
   private final DoubleSupplier m_throttleInput;
+  private final SwerveModuleState[] m_states = {
+    new SwerveModuleState(),
+    new SwerveModuleState(),
+    new SwerveModuleState(),
+    new SwerveModuleState()
+  };
 
   private final PIDController strafePIDController =
       new PIDController(0.075, SWERVE_DRIVE.kI_Y, SWERVE_DRIVE.kD_Y);
@@ -39,10 +45,10 @@ public class DriveForwardWithVisionInput extends CommandBase {
     if (m_vision.getValidTarget(CAMERA_SERVER.INTAKE))
       strafeOutput = strafePIDController.calculate(-m_vision.getTargetXAngle(CAMERA_SERVER.INTAKE));
 
-    var chassisSpeeds = new ChassisSpeeds(m_throttleInput.getAsDouble(), strafeOutput, 0);
-    var states = SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(chassisSpeeds);
+    SWERVE_DRIVE.kFourModuleKinematics.toSwerveModuleStates(
+        m_throttleInput.getAsDouble(), strafeOutput, 0, m_states);
 
-    m_swerveDrive.setSwerveModuleStates(states, false);
+    m_swerveDrive.setSwerveModuleStates(m_states, false);
   }
 
   // Called once the command ends or is interrupted.
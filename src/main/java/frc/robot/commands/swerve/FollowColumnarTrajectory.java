@@ -0,0 +1,88 @@
+package frc.robot.commands.swerve;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.utils.ColumnarTrajectory;
+
+/**
+ * Follows a {@link ColumnarTrajectory} the same way PPSwerveControllerCommand follows a
+ * PathPlannerTrajectory: trajectory velocity as feedforward plus the SwerveDrive X/Y/Theta PID
+ * controllers for feedback.
+ */
+public class FollowColumnarTrajectory extends CommandBase {
+  private final SwerveDrive m_swerveDrive;
+  private final ColumnarTrajectory.Cursor m_cursor;
+  private final double m_totalTimeSeconds;
+  private final PIDController m_xController;
+  private final PIDController m_yController;
+  private final PIDController m_turnController;
+
+  private final Timer m_timer = new Timer();
+  private final ChassisSpeeds m_chassisSpeeds = new ChassisSpeeds();
+
+  public FollowColumnarTrajectory(SwerveDrive swerveDrive, ColumnarTrajectory trajectory) {
+    m_swerveDrive = swerveDrive;
+    m_cursor = trajectory.cursor();
+    m_totalTimeSeconds = trajectory.getTotalTimeSeconds();
+    m_xController = swerveDrive.getXPidController();
+    m_yController = swerveDrive.getYPidController();
+    m_turnController = swerveDrive.getThetaPidController();
+
+    addRequirements(m_swerveDrive);
+  }
+
+  @Override
+  public void initialize() {
+    m_cursor.reset();
+    m_xController.reset();
+    m_yController.reset();
+    m_turnController.reset();
+    m_timer.reset();
+    m_timer.start();
+  }
+
+  @Override
+  public void execute() {
+    m_cursor.sample(m_timer.get());
+
+    var pose = m_swerveDrive.getPoseMeters();
+    double heading = m_cursor.getHeadingRadians();
+
+    double vx =
+        m_cursor.getVelocity() * Math.cos(heading)
+            + m_xController.calculate(pose.getX(), m_cursor.getX());
+    double vy =
+        m_cursor.getVelocity() * Math.sin(heading)
+            + m_yController.calculate(pose.getY(), m_cursor.getY());
+    double omega =
+        m_cursor.getHolonomicAngularVelocity()
+            + m_turnController.calculate(
+                pose.getRotation().getRadians(), m_cursor.getHolonomicRotationRadians());
+
+    // Field relative to robot relative
+    double cos = pose.getRotation().getCos();
+    double sin = pose.getRotation().getSin();
+    m_chassisSpeeds.vxMetersPerSecond = vx * cos + vy * sin;
+    m_chassisSpeeds.vyMetersPerSecond = -vx * sin + vy * cos;
+    m_chassisSpeeds.omegaRadiansPerSecond = omega;
+
+    m_swerveDrive.setChassisSpeed(m_chassisSpeeds);
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    m_timer.stop();
+    m_chassisSpeeds.vxMetersPerSecond = 0;
+    m_chassisSpeeds.vyMetersPerSecond = 0;
+    m_chassisSpeeds.omegaRadiansPerSecond = 0;
+    m_swerveDrive.setChassisSpeed(m_chassisSpeeds);
+  }
+
+  @Override
+  public boolean isFinished() {
+    return m_timer.hasElapsed(m_totalTimeSeconds);
+  }
+}
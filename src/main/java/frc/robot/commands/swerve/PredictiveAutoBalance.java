@@ -0,0 +1,147 @@
+package frc.robot.commands.swerve;
+
+import static frc.robot.Constants.AUTO.*;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.SlewRateLimiter;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Constants.SWERVE_DRIVE;
+import frc.robot.subsystems.SwerveDrive;
+
+/**
+ * Balances on the charging station using the roll rate to catch the station as it starts to tip,
+ * instead of waiting for the angle to cross zero like {@link AutoBalance}.
+ *
+ * <p>While the station is tilted, the robot drives uphill at a speed proportional to the tilt,
+ * acceleration limited so the wheels don't slip on the ramp. The tilt is extrapolated {@link
+ * frc.robot.Constants.AUTO#kBalanceLookaheadSeconds} ahead with the roll rate, and as soon as that
+ * predicts the station will be level, the robot stops and locks its modules in an X to let the
+ * station settle. If it settles still tilted, the robot climbs again at half the speed. Finishes
+ * once the station has been level and still for {@link
+ * frc.robot.Constants.AUTO#kBalanceSettleSeconds}.
+ */
+public class PredictiveAutoBalance extends CommandBase {
+  private enum State {
+    CLIMBING,
+    LOCKED
+  }
+
+  // Just above the speed SwerveModule needs before it will turn
+  private static final double kLockSpeedMetersPerSecond =
+      SWERVE_DRIVE.kMaxSpeedMetersPerSecond * 0.011;
+
+  private final SwerveDrive m_swerveDrive;
+
+  private final SlewRateLimiter m_speedLimiter =
+      new SlewRateLimiter(kBalanceMaxAccelerationMetersPerSecondSquared);
+  private final Timer m_settledTimer = new Timer();
+
+  private State m_state;
+  private double m_speedScale;
+  private double m_output;
+
+  private final SwerveModuleState[] m_driveStates = {
+    new SwerveModuleState(0, Rotation2d.fromDegrees(90)),
+    new SwerveModuleState(0, Rotation2d.fromDegrees(90)),
+    new SwerveModuleState(0, Rotation2d.fromDegrees(90)),
+    new SwerveModuleState(0, Rotation2d.fromDegrees(90))
+  };
+  private final SwerveModuleState[] m_lockedStates = {
+    new SwerveModuleState(kLockSpeedMetersPerSecond, Rotation2d.fromDegrees(-45)),
+    new SwerveModuleState(kLockSpeedMetersPerSecond, Rotation2d.fromDegrees(45)),
+    new SwerveModuleState(kLockSpeedMetersPerSecond, Rotation2d.fromDegrees(-45)),
+    new SwerveModuleState(kLockSpeedMetersPerSecond, Rotation2d.fromDegrees(45))
+  };
+
+  public PredictiveAutoBalance(SwerveDrive swerveDrive) {
+    m_swerveDrive = swerveDrive;
+
+    addRequirements(m_swerveDrive);
+  }
+
+  @Override
+  public void initialize() {
+    m_state = State.CLIMBING;
+    m_speedScale = 1;
+    m_speedLimiter.reset(0);
+    m_settledTimer.stop();
+    m_settledTimer.reset();
+  }
+
+  @Override
+  public void execute() {
+    double tiltDegrees = m_swerveDrive.getRollDegrees() + m_swerveDrive.getRollOffsetDegrees();
+    double rateDegreesPerSecond = m_swerveDrive.getRollRateDegreesPerSecond();
+    boolean isLevel = Math.abs(tiltDegrees) < kAutoBalanceAngleThresholdDegrees;
+    boolean isSettled = Math.abs(rateDegreesPerSecond) < kBalanceSettledRateDegreesPerSecond;
+
+    switch (m_state) {
+      case CLIMBING:
+        // Stop early, since the station keeps moving after the robot does
+        double predictedTiltDegrees = tiltDegrees + rateDegreesPerSecond * kBalanceLookaheadSeconds;
+        boolean willBeLevel =
+            Math.abs(predictedTiltDegrees) < kAutoBalanceAngleThresholdDegrees
+                || predictedTiltDegrees * tiltDegrees < 0;
+        if (willBeLevel) {
+          m_state = State.LOCKED;
+        } else {
+          double speed =
+              Math.copySign(
+                  MathUtil.clamp(
+                      kBalanceSpeedPerDegree * Math.abs(tiltDegrees) * m_speedScale,
+                      kBalanceMinSpeedMetersPerSecond,
+                      kBalanceMaxSpeedMetersPerSecond * m_speedScale),
+                  tiltDegrees);
+          drive(m_speedLimiter.calculate(speed));
+        }
+        break;
+      case LOCKED:
+        if (isSettled && !isLevel) {
+          // Stopped short or overshot, so try again more gently
+          m_state = State.CLIMBING;
+          m_speedScale = Math.max(m_speedScale * 0.5, 0.25);
+          m_speedLimiter.reset(0);
+        }
+        break;
+    }
+
+    if (m_state == State.LOCKED) {
+      m_output = 0;
+      lockModules();
+    }
+
+    if (m_state == State.LOCKED && isLevel && isSettled) {
+      m_settledTimer.start();
+    } else {
+      m_settledTimer.stop();
+      m_settledTimer.reset();
+    }
+  }
+
+  private void drive(double speedMetersPerSecond) {
+    m_output = speedMetersPerSecond;
+    for (var state : m_driveStates) state.speedMetersPerSecond = speedMetersPerSecond;
+    m_swerveDrive.setSwerveModuleStates(m_driveStates, false);
+  }
+
+  private void lockModules() {
+    m_swerveDrive.setSwerveModuleStates(m_lockedStates, false);
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    lockModules();
+  }
+
+  @Override
+  public boolean isFinished() {
+    return m_settledTimer.hasElapsed(kBalanceSettleSeconds);
+  }
+
+  public double getOutput() {
+    return m_output;
+  }
+}
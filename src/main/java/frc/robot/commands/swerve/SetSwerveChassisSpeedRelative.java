@@ -1,6 +1,6 @@
 package frc.robot.commands.swerve;
 
-import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.Constants.SWERVE_DRIVE;
 import frc.robot.subsystems.SwerveDrive;
@@ -10,6 +10,12 @@ public class SetSwerveChassisSpeedRelative extends CommandBase {
   private final SwerveDrive m_swerveDrive;
 
   private final DoubleSupplier m_throttleInput, m_strafeInput, m_rotationInput;
+  private final SwerveModuleState[] m_states = {
+    new SwerveModuleState(),
+    new SwerveModuleState(),
+    new SwerveModuleState(),
+    new SwerveModuleState()
+  };
 
   public SetSwerveChassisSpeedRelative(
       SwerveDrive swerveDrive,
@@ -32,14 +38,13 @@ public class SetSwerveChassisSpeedRelative extends CommandBase {
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
-    var chassisSpeeds =
-        new ChassisSpeeds(
-            m_throttleInput.getAsDouble(),
-            m_strafeInput.getAsDouble(),
-            m_rotationInput.getAsDouble());
-    var states = SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(chassisSpeeds);
-
-    m_swerveDrive.setSwerveModuleStates(states, false);
+    SWERVE_DRIVE.kFourModuleKinematics.toSwerveModuleStates(
+        m_throttleInput.getAsDouble(),
+        m_strafeInput.getAsDouble(),
+        m_rotationInput.getAsDouble(),
+        m_states);
+
+    m_swerveDrive.setSwerveModuleStates(m_states, false);
   }
 
   // Called once the command ends or is interrupted.
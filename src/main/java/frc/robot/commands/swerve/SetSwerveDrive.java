@@ -3,6 +3,7 @@ package frc.robot.commands.swerve;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.SwerveDrive;
+import frc.robot.utils.LatencyTracker;
 import java.util.function.DoubleSupplier;
 
 public class SetSwerveDrive extends CommandBase {
@@ -11,6 +12,8 @@ public class SetSwerveDrive extends CommandBase {
 
   private final DoubleSupplier m_throttleInput, m_strafeInput, m_rotationInput;
 
+  private final LatencyTracker m_latencyTracker = LatencyTracker.getInstance();
+
   /**
    * Creates a new ExampleCommand.
    *
@@ -46,6 +49,8 @@ public class SetSwerveDrive extends CommandBase {
     double rotation =
         MathUtil.applyDeadband(Math.abs(m_rotationInput.getAsDouble()), 0.05)
             * Math.signum(m_rotationInput.getAsDouble());
+    m_latencyTracker.markStickRead(
+        Math.max(Math.max(Math.abs(throttle), Math.abs(strafe)), Math.abs(rotation)));
 
     //    if (DriverStation.isFMSAttached()
     //        && Controls.getAllianceColor() == DriverStation.Alliance.Red) {
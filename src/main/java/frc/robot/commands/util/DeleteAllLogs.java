@@ -22,7 +22,6 @@ public class DeleteAllLogs extends InstantCommand {
   // Called when the command is initially scheduled.
   @Override
   public void initialize() {
-    m_logManager.updateLogFilePaths();
     m_logManager.deleteAllLogs();
   }
 
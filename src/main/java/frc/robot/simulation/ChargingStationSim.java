@@ -0,0 +1,121 @@
+package frc.robot.simulation;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import frc.robot.simulation.SimConstants.Community;
+
+/**
+ * Models a charging station platform tilting on its hinge under the weight of the robot.
+ *
+ * <p>The platform and its ramps rotate together about a hinge running along the field Y axis
+ * through the middle of the station. The robot's weight acts at its center, which gives a torque
+ * about the hinge while the robot is on the station. A spring and damper on the hinge stand in for
+ * the station's centering and friction, and the platform stops against the carpet at {@link
+ * #kMaxAngleRadians}. Angles are positive when the +X side of the station is raised.
+ */
+public class ChargingStationSim {
+  private static final double kGravity = 9.81;
+  private static final double kMaxAngleRadians = Units.degreesToRadians(15);
+  private static final double kPlatformMomentOfInertia = 12.0; // kg m^2
+  private static final double kHingeStiffness = 800.0; // N m / rad
+  private static final double kHingeDamping = 150.0; // N m s / rad
+  // Semi-implicit Euler is only stable for small steps with this stiffness
+  private static final int kSubsteps = 4;
+
+  private final double m_hingeX;
+  private final double m_robotMassKg;
+
+  private double m_angleRadians;
+  private double m_angularVelocity;
+  private boolean m_isRobotOnStation;
+
+  /**
+   * @param hingeX Field X position of the hinge
+   * @param robotMassKg Mass of the robot, including the battery and bumpers
+   */
+  public ChargingStationSim(double hingeX, double robotMassKg) {
+    m_hingeX = hingeX;
+    m_robotMassKg = robotMassKg;
+  }
+
+  /** The blue alliance charging station */
+  public static ChargingStationSim blue(double robotMassKg) {
+    return new ChargingStationSim(
+        (Community.chargingStationInnerX + Community.chargingStationOuterX) / 2.0, robotMassKg);
+  }
+
+  /** The red alliance charging station */
+  public static ChargingStationSim red(double robotMassKg) {
+    return new ChargingStationSim(
+        SimConstants.fieldLength
+            - (Community.chargingStationInnerX + Community.chargingStationOuterX) / 2.0,
+        robotMassKg);
+  }
+
+  /** Steps the platform forward with the robot at the given pose. */
+  public void update(Pose2d robotPose, double dtSeconds) {
+    m_isRobotOnStation = isOnStation(robotPose.getTranslation());
+    double robotOffset = robotPose.getX() - m_hingeX;
+
+    double stepSeconds = dtSeconds / kSubsteps;
+    for (int i = 0; i < kSubsteps; i++) {
+      double torque = -kHingeStiffness * m_angleRadians - kHingeDamping * m_angularVelocity;
+      double momentOfInertia = kPlatformMomentOfInertia;
+      if (m_isRobotOnStation) {
+        // The robot pushes its side of the platform down
+        torque -= m_robotMassKg * kGravity * robotOffset * Math.cos(m_angleRadians);
+        momentOfInertia += m_robotMassKg * robotOffset * robotOffset;
+      }
+
+      m_angularVelocity += torque / momentOfInertia * stepSeconds;
+      m_angleRadians += m_angularVelocity * stepSeconds;
+      if (Math.abs(m_angleRadians) > kMaxAngleRadians) {
+        // Resting on the carpet
+        m_angleRadians = MathUtil.clamp(m_angleRadians, -kMaxAngleRadians, kMaxAngleRadians);
+        m_angularVelocity = 0;
+      }
+    }
+  }
+
+  public boolean isOnStation(Translation2d robotTranslation) {
+    double halfLength = Community.chargingStationLength / 2.0;
+    return Math.abs(robotTranslation.getX() - m_hingeX) <= halfLength
+        && robotTranslation.getY() >= Community.chargingStationRightY
+        && robotTranslation.getY() <= Community.chargingStationLeftY;
+  }
+
+  /** Whether the robot was on the station during the last {@link #update(Pose2d, double)} */
+  public boolean isRobotOnStation() {
+    return m_isRobotOnStation;
+  }
+
+  public double getAngleRadians() {
+    return m_angleRadians;
+  }
+
+  public double getAngularVelocityRadiansPerSecond() {
+    return m_angularVelocity;
+  }
+
+  /** Robot pitch from the platform angle, positive with the front of the robot raised */
+  public double getRobotPitchDegrees(Rotation2d robotHeading) {
+    return Units.radiansToDegrees(m_angleRadians) * robotHeading.getCos();
+  }
+
+  /**
+   * Robot roll from the platform angle. Positive roll means driving towards the robot's +Y is
+   * uphill, which is what {@link frc.robot.commands.swerve.AutoBalance} expects.
+   */
+  public double getRobotRollDegrees(Rotation2d robotHeading) {
+    return -Units.radiansToDegrees(m_angleRadians) * robotHeading.getSin();
+  }
+
+  public void reset() {
+    m_angleRadians = 0;
+    m_angularVelocity = 0;
+    m_isRobotOnStation = false;
+  }
+}
@@ -20,6 +20,7 @@ import frc.robot.Constants.VISION.CAMERA_SERVER;
 import frc.robot.subsystems.*;
 import frc.robot.utils.ChargedUpNodeMask;
 import frc.robot.utils.ModuleMap;
+import frc.robot.utils.TrajectoryCache;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -77,29 +78,14 @@ public class FieldSim extends SubsystemBase implements AutoCloseable {
   }
 
   public void setTrajectory(List<PathPlannerTrajectory> trajectories) {
-    if (!m_displayedTrajectories.equals(trajectories)
-        || !m_displayedAlliance.equals(Controls.getAllianceColor())) {
-      List<Pose2d> trajectoryPoses = new ArrayList<>();
-
-      if (Controls.getAllianceColor() == DriverStation.Alliance.Red)
-        for (var trajectory : trajectories) {
-          trajectoryPoses.addAll(
-              trajectory.getStates().stream()
-                  .map(state -> SimConstants.pathPlannerFlip(state.poseMeters))
-                  .collect(Collectors.toList()));
-        }
-      else {
-        for (var trajectory : trajectories) {
-          trajectoryPoses.addAll(
-              trajectory.getStates().stream()
-                  .map(state -> state.poseMeters)
-                  .collect(Collectors.toList()));
-        }
-      }
-
-      m_field2d.getObject("trajectory").setPoses(trajectoryPoses);
+    if (m_displayedTrajectories != trajectories
+        || m_displayedAlliance != Controls.getAllianceColor()) {
       m_displayedTrajectories = trajectories;
       m_displayedAlliance = Controls.getAllianceColor();
+
+      m_field2d
+          .getObject("trajectory")
+          .setPoses(TrajectoryCache.getDisplayPoses(trajectories, m_displayedAlliance));
     }
   }
 
@@ -357,7 +357,11 @@ public final class SimConstants {
   }
 
   public static Pose2d pathPlannerFlip(Pose2d pose) {
-    if (Controls.getAllianceColor() == DriverStation.Alliance.Red) {
+    return pathPlannerFlip(pose, Controls.getAllianceColor());
+  }
+
+  public static Pose2d pathPlannerFlip(Pose2d pose, DriverStation.Alliance alliance) {
+    if (alliance == DriverStation.Alliance.Red) {
       return new Pose2d(pose.getX(), fieldWidth - pose.getY(), pose.getRotation());
     } else {
       return pose;
@@ -0,0 +1,31 @@
+package frc.robot.simulation;
+
+import edu.wpi.first.wpilibj.Timer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Synthetic stick input that steps between zero and alternating positive and negative values, so
+ * simulated latency measurements always see the same inputs at the same times.
+ */
+public class StepInput implements DoubleSupplier {
+  private final double m_amplitude;
+  private final double m_periodSeconds;
+
+  /**
+   * @param amplitude Stick value while stepped
+   * @param periodSeconds How long each level is held
+   */
+  public StepInput(double amplitude, double periodSeconds) {
+    m_amplitude = amplitude;
+    m_periodSeconds = periodSeconds;
+  }
+
+  @Override
+  public double getAsDouble() {
+    // 0, +amplitude, 0, -amplitude, ...
+    long level = (long) Math.floor(Timer.getFPGATimestamp() / m_periodSeconds) % 4;
+    if (level == 1) return m_amplitude;
+    else if (level == 3) return -m_amplitude;
+    else return 0;
+  }
+}
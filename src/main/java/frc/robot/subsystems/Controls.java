@@ -1,20 +1,18 @@
 package frc.robot.subsystems;
 
-import edu.wpi.first.networktables.BooleanPublisher;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StringPublisher;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
+import frc.robot.utils.LoopOverrunMonitor;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 
 @SuppressWarnings("RedundantThrows")
 public class Controls extends SubsystemBase implements AutoCloseable {
-  private StringPublisher allianceString;
-  private BooleanPublisher allianceBoolean;
-
   private boolean isInit;
   private static DriverStation.Alliance allianceColor = DriverStation.Alliance.Red;
+  private final Telemetry m_controlsTab = Telemetry.shuffleboard("Controls");
 
   public Controls() {
     initSmartDashboard();
@@ -53,12 +51,11 @@ public class Controls extends SubsystemBase implements AutoCloseable {
 
   /** Initializes values on SmartDashboard */
   private void initSmartDashboard() {
-    var controlsTab =
-        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("Controls");
-    allianceString = controlsTab.getStringTopic("alliance_string").publish();
-    allianceBoolean = controlsTab.getBooleanTopic("Alliance").publish();
+    m_controlsTab.addEnum(
+        "alliance_string", DriverStation.Alliance.class, Tier.NORMAL, Controls::getAllianceColor);
+    m_controlsTab.addBoolean("Alliance", Tier.NORMAL, Controls::getAllianceColorBoolean);
     try {
-      controlsTab.getStringTopic("Robot Name").publish().set(Constants.robotName);
+      m_controlsTab.stringEntry("Robot Name").set(Constants.robotName);
     } catch (Exception m_ignored) {
 
     }
@@ -73,19 +70,12 @@ public class Controls extends SubsystemBase implements AutoCloseable {
     allianceColor = DriverStation.getAlliance();
   }
 
-  /** Sends values to SmartDashboard */
-  private void updateSmartDashboard() {
-    allianceString.set(getAllianceColor().toString());
-    allianceBoolean.set(getAllianceColorBoolean());
-  }
-
   @Override
   public void periodic() {
+    LoopOverrunMonitor.getInstance().markSection(getName());
     if (RobotBase.isSimulation() || (RobotBase.isReal() && DriverStation.isDisabled())) {
       updateAllianceColor();
     }
-    // This method will be called once per scheduler run
-    updateSmartDashboard();
   }
 
   @Override
@@ -95,5 +85,7 @@ public class Controls extends SubsystemBase implements AutoCloseable {
 
   @SuppressWarnings("RedundantThrows")
   @Override
-  public void close() throws Exception {}
+  public void close() throws Exception {
+    m_controlsTab.close();
+  }
 }
@@ -21,13 +21,6 @@ import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.networktables.BooleanPublisher;
-import edu.wpi.first.networktables.DoublePublisher;
-import edu.wpi.first.networktables.NetworkTable;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StringPublisher;
-import edu.wpi.first.util.datalog.DataLog;
-import edu.wpi.first.util.datalog.DoubleLogEntry;
 import edu.wpi.first.wpilibj.*;
 import edu.wpi.first.wpilibj.simulation.BatterySim;
 import edu.wpi.first.wpilibj.simulation.ElevatorSim;
@@ -40,7 +33,15 @@ import frc.robot.Constants.CAN;
 import frc.robot.Constants.CONTROL_MODE;
 import frc.robot.Constants.ELEVATOR;
 import frc.robot.Constants.ELEVATOR.THRESHOLD;
-import frc.robot.Constants.STATE_HANDLER;
+import frc.robot.subsystems.io.ElevatorIO;
+import frc.robot.subsystems.io.ElevatorIOReplay;
+import frc.robot.subsystems.io.ElevatorIOTalonFX;
+import frc.robot.utils.FlightRecorder;
+import frc.robot.utils.InputsLogger;
+import frc.robot.utils.LogReplay;
+import frc.robot.utils.LoopOverrunMonitor;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 
 public class Elevator extends SubsystemBase implements AutoCloseable {
 
@@ -59,7 +60,6 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
   private CONTROL_MODE m_controlMode = CONTROL_MODE.CLOSED_LOOP;
   private boolean m_testMode = false;
 
-  private final boolean m_limitCanUtil = STATE_HANDLER.limitCanUtilization;
   private NeutralMode m_neutralMode = NeutralMode.Brake;
 
   // Positional limits set by the state handler
@@ -83,6 +83,11 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
   // setpoint
   private static int m_simEncoderSign = 1;
   private final Timer m_timer = new Timer();
+  private final ElevatorIO m_io;
+  private final ElevatorIO.Inputs m_inputs = new ElevatorIO.Inputs();
+  private final InputsLogger m_inputsLogger = new InputsLogger(ElevatorIO.kLogName, m_inputs);
+  private final Telemetry m_smartDashboard = Telemetry.smartDashboard();
+  private final Telemetry m_elevatorTab = Telemetry.shuffleboard("Elevator");
   private boolean m_unitTestBoolean = false; // DO NOT MAKE FINAL. WILL BREAK UNIT TESTS
   private double m_lastTimestamp = 0;
   private double m_currentTimestamp = 0;
@@ -98,28 +103,12 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
           THRESHOLD.ABSOLUTE_MAX.get(),
           true);
 
-  // Shuffleboard setup
-  private DoublePublisher kHeightPub,
-      kEncoderCountsPub,
-      kDesiredHeightPub,
-      kHeightInchesPub,
-      kPercentOutputPub,
-      kCurrentAccelPub,
-      kCurrentVelPub;
-  private StringPublisher kClosedLoopModePub, currentCommandStatePub;
-  private BooleanPublisher lowerLimitSwitchPub;
-
   // Mechanism2d visualization setup
   private MechanismLigament2d m_elevatorLigament2d;
 
-  // Logging setup
-  private final DataLog log = DataLogManager.getLog();
-  private final DoubleLogEntry outputCurrentEntry = new DoubleLogEntry(log, "/elevator/current");
-  private final DoubleLogEntry setpointMetersEntry = new DoubleLogEntry(log, "/elevator/setpoint");
-  private final DoubleLogEntry positionMetersEntry = new DoubleLogEntry(log, "/elevator/position");
-
   /* Constructs a new Elevator. Mostly motor setup */
   public Elevator() {
+    FlightRecorder.startCanCall(getName(), "config");
     for (TalonFX motor : elevatorMotors) {
       motor.configFactoryDefault();
       motor.setNeutralMode(m_neutralMode);
@@ -146,7 +135,10 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
     // elevatorMotors[1].setInverted(TalonFXInvertType.OpposeMaster);
     elevatorMotors[1].setStatusFramePeriod(StatusFrame.Status_1_General, 255);
     elevatorMotors[1].setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 255);
+    FlightRecorder.endCanCall();
 
+    m_io = LogReplay.isActive() ? new ElevatorIOReplay() : new ElevatorIOTalonFX(elevatorMotors[0]);
+    readSensors();
     initShuffleboard();
     m_timer.reset();
     m_timer.start();
@@ -173,9 +165,20 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
     }
   }
 
+  // Reads the main motor once and logs it. RobotContainer.readSensors() calls this at the start of
+  // each loop
+  public void readSensors() {
+    m_io.updateInputs(m_inputs);
+    m_inputsLogger.log();
+  }
+
   // Elevator's motor output as a percentage
+  public double getMotorOutputCurrent() {
+    return m_inputs.statorCurrent;
+  }
+
   public double getPercentOutput() {
-    return elevatorMotors[0].getMotorOutputPercent();
+    return m_inputs.percentOutput;
   }
 
   public void setPercentOutput(double output) {
@@ -194,19 +197,23 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
       if (getHeightMeters() < (getLowerLimitMeters() + 0.005)) output = Math.max(output, 0);
     }
 
+    FlightRecorder.startCanCall(getName(), "set");
     elevatorMotors[0].set(ControlMode.PercentOutput, output);
+    FlightRecorder.endCanCall();
   }
 
   // Sets the calculated trapezoid state of the motors
   public void setSetpointTrapezoidState(TrapezoidProfile.State state) {
     // TODO: Find out why feedforward is no longer needed?
+    FlightRecorder.startCanCall(getName(), "set");
     elevatorMotors[0].set(
         TalonFXControlMode.Position,
         state.position / ELEVATOR.encoderCountsToMeters,
         DemandType.ArbitraryFeedForward,
         //        calculateFeedforward(state)
         0);
-    elevatorMotors[1].set(ControlMode.PercentOutput, elevatorMotors[0].getMotorOutputPercent());
+    elevatorMotors[1].set(ControlMode.PercentOutput, getPercentOutput());
+    FlightRecorder.endCanCall();
   }
 
   private double calculateFeedforward(TrapezoidProfile.State state) {
@@ -225,12 +232,12 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
 
   // Returns the elevator's velocity in meters per second.
   public double getVelocityMetersPerSecond() {
-    return elevatorMotors[0].getSelectedSensorVelocity() * ELEVATOR.encoderCountsToMeters * 10;
+    return m_inputs.velocityCounts * ELEVATOR.encoderCountsToMeters * 10;
   }
 
   // Returns the raw sensor position with no conversions
   public double getHeightEncoderCounts() {
-    return elevatorMotors[0].getSelectedSensorPosition();
+    return m_inputs.positionCounts;
   }
 
   // Returns true if elevator is within half of an inch of its set position
@@ -249,13 +256,18 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
   // Sets the perceived position of the motors
   // Usually used to zero the motors if the robot is started in a non-stowed position
   public void setSensorPosition(double meters) {
+    FlightRecorder.startCanCall(getName(), "config");
     elevatorMotors[0].setSelectedSensorPosition(meters / ELEVATOR.encoderCountsToMeters);
+    FlightRecorder.endCanCall();
+    m_inputs.positionCounts = meters / ELEVATOR.encoderCountsToMeters;
   }
 
   public void setNeutralMode(NeutralMode mode) {
     m_neutralMode = mode;
+    FlightRecorder.startCanCall(getName(), "config");
     elevatorMotors[0].setNeutralMode(mode);
     elevatorMotors[1].setNeutralMode(mode);
+    FlightRecorder.endCanCall();
   }
 
   public NeutralMode getNeutralMode() {
@@ -295,11 +307,13 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
   }
 
   public void setPIDvalues(double f, double p, double i, double d, double iZone) {
+    FlightRecorder.startCanCall(getName(), "config");
     elevatorMotors[0].config_kF(ELEVATOR.kSlotIdx, f);
     elevatorMotors[0].config_kP(ELEVATOR.kSlotIdx, p);
     elevatorMotors[0].config_kI(ELEVATOR.kSlotIdx, i);
     elevatorMotors[0].config_kD(ELEVATOR.kSlotIdx, d);
     elevatorMotors[0].config_IntegralZone(ELEVATOR.kSlotIdx, iZone);
+    FlightRecorder.endCanCall();
   }
 
   public void setSimpleMotorFeedForward(double g, double v, double a) {
@@ -353,58 +367,46 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
     m_elevatorLigament2d = ligament;
   }
 
-  // Initializes shuffleboard values. Does not update them
+  // Initializes shuffleboard values. TelemetryScheduler updates them
   private void initShuffleboard() {
     SmartDashboard.putData("Elevator Subsystem", this);
 
-    NetworkTable elevatorNtTab =
-        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("Elevator");
-
-    kHeightPub = elevatorNtTab.getDoubleTopic("Height Meters").publish();
-    kHeightInchesPub = elevatorNtTab.getDoubleTopic("Height Inches").publish();
-    kDesiredHeightPub = elevatorNtTab.getDoubleTopic("Desired Height Inches").publish();
-    kEncoderCountsPub = elevatorNtTab.getDoubleTopic("Encoder Counts").publish();
-    kPercentOutputPub = elevatorNtTab.getDoubleTopic("Percent Output").publish();
-    kClosedLoopModePub = elevatorNtTab.getStringTopic("Closed-Loop Mode").publish();
-    currentCommandStatePub = elevatorNtTab.getStringTopic("Current Command State").publish();
-    lowerLimitSwitchPub = elevatorNtTab.getBooleanTopic("Lower Limit Switch").publish();
-    kCurrentAccelPub = elevatorNtTab.getDoubleTopic("Current Acceleration").publish();
-    kCurrentVelPub = elevatorNtTab.getDoubleTopic("Current Velocity").publish();
+    m_smartDashboard.addBoolean("Elevator Closed Loop", Tier.NORMAL, this::isClosedLoopControl);
+    m_smartDashboard.addDouble(
+        "Elevator Height Inches", Tier.CRITICAL, () -> Units.metersToInches(getHeightMeters()));
+    m_smartDashboard.addDouble("motorspeed", Tier.NORMAL, this::getPercentOutput);
+
+    m_elevatorTab.addEnum(
+        "Closed-Loop Mode", CONTROL_MODE.class, Tier.NORMAL, this::getClosedLoopControlMode);
+    m_elevatorTab.addDouble(
+        "Height Inches", Tier.NORMAL, () -> Units.metersToInches(getHeightMeters()));
+    m_elevatorTab.addDouble(
+        "Desired Height Inches",
+        Tier.NORMAL,
+        () -> Units.metersToInches(getDesiredPositionMeters()));
+    m_elevatorTab.addBoolean("Lower Limit Switch", Tier.NORMAL, this::getLimitSwitch);
+    m_elevatorTab.addDouble(
+        "Current Acceleration",
+        Tier.NORMAL,
+        () -> Units.metersToInches(m_currentConstraints.maxAcceleration));
+    m_elevatorTab.addDouble(
+        "Current Velocity",
+        Tier.NORMAL,
+        () -> Units.metersToInches(m_currentConstraints.maxVelocity));
+
+    m_elevatorTab.addDouble("Encoder Counts", Tier.DEBUG, this::getHeightEncoderCounts);
+    m_elevatorTab.addDouble("Height Meters", Tier.DEBUG, this::getHeightMeters);
+    m_elevatorTab.addDouble("Percent Output", Tier.DEBUG, this::getPercentOutput);
+    m_elevatorTab.addEnum(
+        "Current Command State", CONTROL_MODE.class, Tier.DEBUG, this::getClosedLoopControlMode);
 
     try {
-      elevatorNtTab.getDoubleTopic("setpoint").publish().set(0);
+      m_elevatorTab.doubleEntry("setpoint").set(0);
     } catch (Exception m_ignored) {
 
     }
   }
 
-  public void updateShuffleboard() {
-    SmartDashboard.putBoolean("Elevator Closed Loop", isClosedLoopControl());
-    SmartDashboard.putNumber("Elevator Height Inches", Units.metersToInches(getHeightMeters()));
-    SmartDashboard.putNumber("motorspeed", getPercentOutput());
-
-    kClosedLoopModePub.set(getClosedLoopControlMode().toString());
-    kHeightInchesPub.set(Units.metersToInches(getHeightMeters()));
-    kDesiredHeightPub.set(Units.metersToInches(getDesiredPositionMeters()));
-    lowerLimitSwitchPub.set(getLimitSwitch());
-    kCurrentAccelPub.set(Units.metersToInches(m_currentConstraints.maxAcceleration));
-    kCurrentVelPub.set(Units.metersToInches(m_currentConstraints.maxVelocity));
-
-    if (!m_limitCanUtil) {
-      // Put not required stuff here
-      kEncoderCountsPub.set(getHeightEncoderCounts());
-      kHeightPub.set(getHeightMeters());
-      kPercentOutputPub.set(getPercentOutput());
-      currentCommandStatePub.set(getClosedLoopControlMode().toString());
-    }
-  }
-
-  public void updateLog() {
-    outputCurrentEntry.append(elevatorMotors[0].getStatorCurrent());
-    setpointMetersEntry.append(m_desiredPositionMeters);
-    positionMetersEntry.append(getHeightMeters());
-  }
-
   // Update elevator height using encoders and bottom limit switch
   private void updateHeightMeters() {
     /* Uses limit switch to act as a baseline
@@ -426,10 +428,8 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
   // This method will be called once per scheduler run
   @Override
   public void periodic() {
+    LoopOverrunMonitor.getInstance().markSection(getName());
     // initElevatorMotorFollower();
-    updateLog();
-    updateShuffleboard(); // Yes, this needs to be called in the periodic. The simulation does not
-    // work without this
     if (!m_testMode) {
       updateHeightMeters();
     }
@@ -506,6 +506,9 @@ public class Elevator extends SubsystemBase implements AutoCloseable {
   @Override
   // Safely closes the subsystem
   public void close() throws Exception {
+    m_inputsLogger.close();
+    m_smartDashboard.close();
+    m_elevatorTab.close();
     //    lowerLimitSwitch.close();
     if (m_elevatorLigament2d != null) m_elevatorLigament2d.close();
   }
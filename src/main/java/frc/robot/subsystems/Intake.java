@@ -14,9 +14,6 @@ import com.ctre.phoenix.unmanaged.Unmanaged;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.system.plant.LinearSystemId;
-import edu.wpi.first.util.datalog.DataLog;
-import edu.wpi.first.util.datalog.DoubleLogEntry;
-import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
@@ -26,6 +23,15 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.CAN;
 import frc.robot.Constants.INTAKE;
 import frc.robot.Constants.INTAKE.INTAKE_STATE;
+import frc.robot.subsystems.io.IntakeIO;
+import frc.robot.subsystems.io.IntakeIOReplay;
+import frc.robot.subsystems.io.IntakeIOTalonFX;
+import frc.robot.utils.FlightRecorder;
+import frc.robot.utils.InputsLogger;
+import frc.robot.utils.LogReplay;
+import frc.robot.utils.LoopOverrunMonitor;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 
 public class Intake extends SubsystemBase implements AutoCloseable {
   /** Creates a new Intake. */
@@ -37,13 +43,14 @@ public class Intake extends SubsystemBase implements AutoCloseable {
   private INTAKE_STATE m_state = INTAKE_STATE.NONE;
 
   private final TalonFX intakeMotor = new TalonFX(CAN.intakeMotor);
+  private final IntakeIO m_io =
+      LogReplay.isActive() ? new IntakeIOReplay() : new IntakeIOTalonFX(intakeMotor);
+  private final IntakeIO.Inputs m_inputs = new IntakeIO.Inputs();
+  private final InputsLogger m_inputsLogger = new InputsLogger(IntakeIO.kLogName, m_inputs);
+  private final Telemetry m_smartDashboard = Telemetry.smartDashboard();
 
   //  private final DistanceSensor m_distanceSensor;
 
-  // Log setup
-  private final DataLog log = DataLogManager.getLog();
-  private final DoubleLogEntry currentEntry = new DoubleLogEntry(log, "/intake/current");
-
   private final FlywheelSim m_intakeSim =
       new FlywheelSim(
           // Sim Values
@@ -59,6 +66,7 @@ public class Intake extends SubsystemBase implements AutoCloseable {
     // one or two motors
 
     // factory default configs
+    FlightRecorder.startCanCall(getName(), "config");
     intakeMotor.configFactoryDefault();
     intakeMotor.setInverted(true);
 
@@ -75,7 +83,9 @@ public class Intake extends SubsystemBase implements AutoCloseable {
 
     intakeMotor.config_kF(0, INTAKE.kF);
     intakeMotor.config_kP(0, INTAKE.kP);
+    FlightRecorder.endCanCall();
 
+    readSensors();
     initSmartDashboard();
 
     m_intakeLigament2d.setColor(new Color8Bit(255, 114, 118)); // Light red
@@ -115,17 +125,30 @@ public class Intake extends SubsystemBase implements AutoCloseable {
     return m_state;
   }
 
+  // Reads the motor once and logs it. RobotContainer.readSensors() calls this at the start of each
+  // loop
+  public void readSensors() {
+    m_io.updateInputs(m_inputs);
+    m_inputsLogger.log();
+  }
+
   public double getMotorOutputCurrent() {
-    return intakeMotor.getStatorCurrent();
+    return m_inputs.statorCurrent;
   }
 
   public double getIntakeVelocity() {
-    return intakeMotor.getSelectedSensorVelocity();
+    return m_inputs.velocityCounts;
+  }
+
+  public double getPercentOutput() {
+    return m_inputs.percentOutput;
   }
 
   // set percent output function
   public void setPercentOutput(double value) {
+    FlightRecorder.startCanCall(getName(), "set");
     intakeMotor.set(ControlMode.PercentOutput, value);
+    FlightRecorder.endCanCall();
   }
 
   public TalonFX getIntakeMotor() {
@@ -167,23 +190,17 @@ public class Intake extends SubsystemBase implements AutoCloseable {
   }
 
   // Shuffleboard or SmartDashboard function
-  public void initSmartDashboard() {}
-
-  public void updateSmartDashboard() {
-    SmartDashboard.putString("Intake State", getIntakeState().toString());
-    SmartDashboard.putNumber("Intake Velocity", getIntakeVelocity());
-    SmartDashboard.putNumber("Intake Percent Output", intakeMotor.getMotorOutputPercent());
-  }
-
-  public void updateLog() {
-    currentEntry.append(getMotorOutputCurrent());
+  public void initSmartDashboard() {
+    m_smartDashboard.addEnum(
+        "Intake State", INTAKE_STATE.class, Tier.CRITICAL, this::getIntakeState);
+    m_smartDashboard.addDouble("Intake Velocity", Tier.NORMAL, this::getIntakeVelocity);
+    m_smartDashboard.addDouble("Intake Percent Output", Tier.NORMAL, this::getPercentOutput);
   }
 
   @Override
   public void periodic() {
+    LoopOverrunMonitor.getInstance().markSection(getName());
     // This method will be called once per scheduler run
-    updateSmartDashboard();
-    updateLog();
     updateIntakeState();
     // TODO: If the cube or cone distance sensors see a game object, run the intake intakeMotor to
     // hold the game piece in.
@@ -214,6 +231,8 @@ public class Intake extends SubsystemBase implements AutoCloseable {
   @SuppressWarnings("RedundantThrows")
   @Override
   public void close() throws Exception {
+    m_inputsLogger.close();
+    m_smartDashboard.close();
     m_intakeLigament2d.close();
   }
 }
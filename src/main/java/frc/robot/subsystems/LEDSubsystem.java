@@ -33,6 +33,10 @@ import frc.robot.Constants.CAN;
 import frc.robot.Constants.LED;
 import frc.robot.Constants.LED.*;
 import frc.robot.Constants.STATE_HANDLER.SUPERSTRUCTURE_STATE;
+import frc.robot.utils.FlightRecorder;
+import frc.robot.utils.LoopOverrunMonitor;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 
 // creates LED subsystem
 public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
@@ -45,6 +49,7 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
   private Animation m_toAnimate = null;
 
   private final StringPublisher ledStatePub;
+  private final Telemetry m_smartDashboard = Telemetry.smartDashboard();
 
   // Mechanism2d visualization setup
   public final Mechanism2d m_mech2d = new Mechanism2d(1, 1);
@@ -54,6 +59,7 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
 
   // Create LED strip
   public LEDSubsystem(Controls controls) {
+    FlightRecorder.startCanCall(getName(), "config");
     m_candle.configFactoryDefault(); // sets up LED strip
     // sets up LED strip
     CANdleConfiguration configAll = new CANdleConfiguration();
@@ -73,9 +79,12 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
         CANdleStatusFrame.CANdleStatusFrame_Status_5_PixelPulseTrain, 255);
     m_candle.setStatusFramePeriod(CANdleStatusFrame.CANdleStatusFrame_Status_6_BottomPixels, 255);
     m_candle.setStatusFramePeriod(CANdleStatusFrame.CANdleStatusFrame_Status_7_TopPixels, 255);
+    FlightRecorder.endCanCall();
     var nt_instance =
         NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("Controls");
     ledStatePub = nt_instance.getStringTopic("LED State").publish();
+    m_smartDashboard.addEnum(
+        "LED Mode", SUPERSTRUCTURE_STATE.class, Tier.NORMAL, () -> currentRobotState);
 
     // Initialize visualization
     m_ligament2d.setLineWeight(1000); // making the line THICK
@@ -203,7 +212,9 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
 
   @Override
   public void periodic() {
+    LoopOverrunMonitor.getInstance().markSection(getName());
     // null indicates that the animation is "Solid"
+    FlightRecorder.startCanCall(getName(), "set");
     if (m_toAnimate == null && !setSolid) {
       setSolid = true;
       m_candle.setLEDs(red, green, blue, 0, 0, LED.LEDcount); // setting all LEDs to color
@@ -211,6 +222,7 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
       setSolid = false;
       m_candle.animate(m_toAnimate); // setting the candle animation to m_animation if not null
     }
+    FlightRecorder.endCanCall();
 
     if (DriverStation.isDisabled()) {
       if (RobotController.getBatteryVoltage()
@@ -218,11 +230,11 @@ public class LEDSubsystem extends SubsystemBase implements AutoCloseable {
         expressState(SUPERSTRUCTURE_STATE.LOW_BATTERY);
       }
     }
-
-    SmartDashboard.putString("LED Mode", currentRobotState.toString());
   }
 
   @SuppressWarnings("RedundantThrows")
   @Override
-  public void close() throws Exception {}
+  public void close() throws Exception {
+    m_smartDashboard.close();
+  }
 }
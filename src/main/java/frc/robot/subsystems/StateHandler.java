@@ -14,10 +14,6 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.networktables.BooleanPublisher;
-import edu.wpi.first.networktables.DoublePublisher;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StringPublisher;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.Timer;
@@ -34,7 +30,10 @@ import frc.robot.Constants.STATE_HANDLER.SETPOINT;
 import frc.robot.Constants.STATE_HANDLER.SUPERSTRUCTURE_STATE;
 import frc.robot.Constants.STATE_HANDLER.ZONE;
 import frc.robot.Constants.WRIST;
+import frc.robot.utils.LoopOverrunMonitor;
 import frc.robot.utils.SetpointSolver;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 import java.util.ArrayList;
 
 public class StateHandler extends SubsystemBase implements AutoCloseable {
@@ -53,13 +52,13 @@ public class StateHandler extends SubsystemBase implements AutoCloseable {
   private SETPOINT m_desiredSetpoint = SETPOINT.STOWED;
   private ZONE m_currentZone = ZONE.UNDEFINED;
 
-  private final boolean m_limitCanUtil = STATE_HANDLER.limitCanUtilization;
-
   private boolean m_smartScoringEnabled;
   private boolean m_canScore;
   private boolean m_isOnTarget;
   private boolean m_isAutoStowEnabled = true;
   private final Timer m_inactiveTimer = new Timer();
+  private final Telemetry m_smartDashboard = Telemetry.smartDashboard();
+  private final Telemetry m_stateHandlerTab = Telemetry.shuffleboard("StateHandler");
   private boolean inactiveTimerEnabled = false;
   private double timestamp;
 
@@ -101,16 +100,6 @@ public class StateHandler extends SubsystemBase implements AutoCloseable {
   private final SendableChooser<SCORING_STATE> m_scoringStateChooser = new SendableChooser<>();
   private boolean m_testScoringState;
 
-  private StringPublisher m_currentStatePub, m_desiredStatePub, m_currentZonePub;
-
-  private BooleanPublisher m_isEnabledPub;
-  private DoublePublisher m_elevatorHeightMetersPub,
-      m_elevatorLowerLimitPub,
-      m_elevatorUpperLimitPub,
-      m_wristAnglePub,
-      m_wristLowerLimitPub,
-      m_wristUpperLimitPub;
-
   public StateHandler(
       Intake intake, Wrist wrist, SwerveDrive swerveDrive, Elevator elevator, Vision vision) {
     m_intake = intake;
@@ -500,42 +489,29 @@ public class StateHandler extends SubsystemBase implements AutoCloseable {
   }
 
   private void initSmartDashboard() {
-    var stateHandlerTab =
-        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("StateHandler");
-
-    try {
-      stateHandlerTab.getBooleanTopic("limitCANUtilization").publish().set(m_limitCanUtil);
-    } catch (Exception m_ignored) {
-
-    }
-
-    m_isEnabledPub = stateHandlerTab.getBooleanTopic("isEnabled").publish();
-    m_currentStatePub = stateHandlerTab.getStringTopic("currentState").publish();
-    m_desiredStatePub = stateHandlerTab.getStringTopic("desiredState").publish();
-    m_currentZonePub = stateHandlerTab.getStringTopic("currentZone").publish();
-    m_elevatorHeightMetersPub = stateHandlerTab.getDoubleTopic("elevatorHeightInches").publish();
-    m_elevatorLowerLimitPub = stateHandlerTab.getDoubleTopic("elevatorMinLimit").publish();
-    m_elevatorUpperLimitPub = stateHandlerTab.getDoubleTopic("elevatorMaxLimit").publish();
-    m_wristAnglePub = stateHandlerTab.getDoubleTopic("wristAngleDegrees").publish();
-    m_wristLowerLimitPub = stateHandlerTab.getDoubleTopic("wristMinLimit").publish();
-    m_wristUpperLimitPub = stateHandlerTab.getDoubleTopic("wristMaxLimit").publish();
-  }
-
-  private void updateSmartDashboard() {
-    SmartDashboard.putString("Superstructure State", getCurrentState().toString());
-    m_isEnabledPub.set(getIsStateHandlerEnabled());
-    m_currentStatePub.set(getCurrentDisplayedState().toString());
-    m_desiredStatePub.set(getDesiredState().toString());
-    m_currentZonePub.set(getCurrentZone().toString());
-    m_elevatorHeightMetersPub.set(Units.metersToInches(m_elevator.getHeightMeters()));
-    m_wristAnglePub.set(m_wrist.getPositionDegrees());
-
-    if (!m_limitCanUtil) {
-      m_elevatorUpperLimitPub.set(Units.metersToInches(elevatorUpperLimitMeters));
-      m_elevatorLowerLimitPub.set(Units.metersToInches(elevatorLowerLimitMeters));
-      m_wristUpperLimitPub.set(Units.radiansToDegrees(wristUpperLimitRadians));
-      m_wristLowerLimitPub.set(Units.radiansToDegrees(wristLowerLimitRadians));
-    }
+    m_smartDashboard.addEnum(
+        "Superstructure State", SUPERSTRUCTURE_STATE.class, Tier.CRITICAL, this::getCurrentState);
+
+    m_stateHandlerTab.addBoolean("isEnabled", Tier.NORMAL, this::getIsStateHandlerEnabled);
+    m_stateHandlerTab.addEnum(
+        "currentState", SUPERSTRUCTURE_STATE.class, Tier.NORMAL, this::getCurrentDisplayedState);
+    m_stateHandlerTab.addEnum(
+        "desiredState", SUPERSTRUCTURE_STATE.class, Tier.NORMAL, this::getDesiredState);
+    m_stateHandlerTab.addEnum("currentZone", ZONE.class, Tier.NORMAL, this::getCurrentZone);
+    m_stateHandlerTab.addDouble(
+        "elevatorHeightInches",
+        Tier.NORMAL,
+        () -> Units.metersToInches(m_elevator.getHeightMeters()));
+    m_stateHandlerTab.addDouble("wristAngleDegrees", Tier.NORMAL, m_wrist::getPositionDegrees);
+
+    m_stateHandlerTab.addDouble(
+        "elevatorMaxLimit", Tier.DEBUG, () -> Units.metersToInches(elevatorUpperLimitMeters));
+    m_stateHandlerTab.addDouble(
+        "elevatorMinLimit", Tier.DEBUG, () -> Units.metersToInches(elevatorLowerLimitMeters));
+    m_stateHandlerTab.addDouble(
+        "wristMaxLimit", Tier.DEBUG, () -> Units.radiansToDegrees(wristUpperLimitRadians));
+    m_stateHandlerTab.addDouble(
+        "wristMinLimit", Tier.DEBUG, () -> Units.radiansToDegrees(wristLowerLimitRadians));
   }
 
   // TODO: Fix this
@@ -545,7 +521,7 @@ public class StateHandler extends SubsystemBase implements AutoCloseable {
 
   @Override
   public void periodic() {
-    updateSmartDashboard();
+    LoopOverrunMonitor.getInstance().markSection(getName());
     updateZoneLimits();
     updateCommandedSetpoints();
 
@@ -653,6 +629,8 @@ public class StateHandler extends SubsystemBase implements AutoCloseable {
   @SuppressWarnings("RedundantThrows")
   @Override
   public void close() throws Exception {
+    m_smartDashboard.close();
+    m_stateHandlerTab.close();
     m_superStructureMech2d.close();
     m_chassisRoot2d.close();
     m_elevatorRoot2d.close();
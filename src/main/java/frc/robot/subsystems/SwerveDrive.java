@@ -13,30 +13,47 @@ import com.ctre.phoenix.sensors.Pigeon2;
 import com.ctre.phoenix.unmanaged.Unmanaged;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.networktables.DoublePublisher;
-import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color8Bit;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.CAN;
-import frc.robot.Constants.STATE_HANDLER;
 import frc.robot.Constants.SWERVE_DRIVE;
 import frc.robot.Constants.SWERVE_DRIVE.SWERVE_MODULE_POSITION;
+import frc.robot.simulation.ChargingStationSim;
+import frc.robot.subsystems.io.GyroIO;
+import frc.robot.subsystems.io.GyroIOPigeon2;
+import frc.robot.subsystems.io.GyroIOReplay;
+import frc.robot.subsystems.io.GyroIOSim;
+import frc.robot.utils.FlightRecorder;
+import frc.robot.utils.FrameLog;
+import frc.robot.utils.HeadingController;
+import frc.robot.utils.InputsLogger;
+import frc.robot.utils.LogReplay;
+import frc.robot.utils.LoopOverrunMonitor;
 import frc.robot.utils.ModuleMap;
+import frc.robot.utils.SwervePoseEstimator;
+import frc.robot.utils.SwerveSetpointGenerator;
+import frc.robot.utils.SwerveSlipFilter;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SwerveDrive extends SubsystemBase implements AutoCloseable {
@@ -76,20 +93,31 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
   private final Pigeon2 m_pigeon = new Pigeon2(CAN.pigeon, "rio");
   private double m_rollOffset;
 
-  private final boolean m_limitCanUtil = STATE_HANDLER.limitCanUtilization;
-
   private boolean m_limitJoystickInput = false;
 
-  private final SwerveDrivePoseEstimator m_odometry;
+  private final SwervePoseEstimator m_odometry;
+  private final SwerveSlipFilter m_slipFilter =
+      new SwerveSlipFilter(
+          ModuleMap.orderedValues(SWERVE_DRIVE.kModuleTranslations, new Translation2d[0]),
+          SWERVE_DRIVE.kSlipThresholdMetersPerSecond);
 
   private MechanismLigament2d m_swerveChassis2d;
 
-  @SuppressWarnings("CanBeFinal")
-  private boolean m_simOverride = false; // DO NOT MAKE FINAL. WILL BREAK UNIT TESTS
-
   private double m_simYaw;
+  private final ChassisSpeeds m_simChassisSpeeds = new ChassisSpeeds();
   private double m_simRoll;
-  private DoublePublisher pitchPub, rollPub, yawPub, odometryXPub, odometryYPub, odometryYawPub;
+  private double m_simPitch;
+  private final GyroIO m_gyroIO;
+  private final GyroIO.Inputs m_gyroInputs = new GyroIO.Inputs();
+  private final InputsLogger m_gyroInputsLogger = new InputsLogger(GyroIO.kLogName, m_gyroInputs);
+  private final Telemetry m_smartDashboard = Telemetry.smartDashboard();
+  private final Telemetry m_swerveTab = Telemetry.shuffleboard("Swerve");
+  private final FrameLog.Frame m_frame =
+      FrameLog.getInstance().frame("/frames/swerve", getFrameFields());
+  private final ChargingStationSim[] m_chargingStationSims = {
+    ChargingStationSim.blue(SWERVE_DRIVE.kRobotMassKg),
+    ChargingStationSim.red(SWERVE_DRIVE.kRobotMassKg)
+  };
 
   private boolean useHeadingTarget = false;
   private double m_desiredHeadingRadians;
@@ -101,6 +129,14 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
   private final PIDController m_turnController =
       new PIDController(SWERVE_DRIVE.kP_Theta, SWERVE_DRIVE.kI_Theta, SWERVE_DRIVE.kD_Theta);
 
+  private final HeadingController m_headingController =
+      new HeadingController(
+          SWERVE_DRIVE.kP_Heading,
+          SWERVE_DRIVE.kD_Heading,
+          SWERVE_DRIVE.kMaxRotationRadiansPerSecond,
+          SWERVE_DRIVE.kMaxHeadingAccelerationRadiansPerSecondSquared,
+          SWERVE_DRIVE.kHeadingToleranceRadians);
+
   private double m_rotationOutput;
 
   ChassisSpeeds chassisSpeeds;
@@ -108,14 +144,44 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
   private final double m_limitedVelocity = SWERVE_DRIVE.kLimitedSpeedMetersPerSecond;
   private double m_currentMaxVelocity = m_maxVelocity;
 
+  private final SwerveSetpointGenerator m_setpointGenerator =
+      new SwerveSetpointGenerator(
+          ModuleMap.orderedValues(SWERVE_DRIVE.kModuleTranslations, new Translation2d[0]),
+          SWERVE_DRIVE.kMaxModuleAccelerationMetersPerSecondSquared,
+          SWERVE_DRIVE.kMaxModuleSteeringRateRadiansPerSecond);
+  // In the generator's module order, so the setpoint is applied without building a list
+  private final SwerveModule[] m_orderedModules =
+      ModuleMap.orderedValues(m_swerveModules, new SwerveModule[0]);
+  // Measured module states and positions in the same order, filled in place every loop
+  private final SwerveModuleState[] m_measuredStates = {
+    new SwerveModuleState(),
+    new SwerveModuleState(),
+    new SwerveModuleState(),
+    new SwerveModuleState()
+  };
+  private final SwerveModulePosition[] m_measuredPositions = {
+    new SwerveModulePosition(),
+    new SwerveModulePosition(),
+    new SwerveModulePosition(),
+    new SwerveModulePosition()
+  };
+
   public SwerveDrive() {
+    FlightRecorder.startCanCall(getName(), "config");
     m_pigeon.configFactoryDefault();
     m_pigeon.setYaw(0);
+    FlightRecorder.endCanCall();
+    if (LogReplay.isActive()) m_gyroIO = new GyroIOReplay();
+    else if (RobotBase.isSimulation())
+      m_gyroIO = new GyroIOSim(m_pigeon, () -> m_simPitch, () -> m_simRoll);
+    else m_gyroIO = new GyroIOPigeon2(m_pigeon);
+    readSensors();
+    m_slipFilter.reset(getSwerveDriveModulePositionsArray(), getHeadingRotation2d());
     m_odometry =
-        new SwerveDrivePoseEstimator(
-            SWERVE_DRIVE.kSwerveKinematics,
+        new SwervePoseEstimator(
+            SWERVE_DRIVE.kFourModuleKinematics,
             getHeadingRotation2d(),
-            getSwerveDriveModulePositionsArray(),
+            m_slipFilter.getCorrectedPositions(),
             new Pose2d());
 
     m_turnController.enableContinuousInput(-Math.PI, Math.PI);
@@ -165,6 +231,7 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
 
     /** Setting field vs Robot Relative */
     if (useHeadingTarget) {
+      calculateRotationSpeed();
       rotation = m_rotationOutput;
       chassisSpeeds =
           ChassisSpeeds.fromFieldRelativeSpeeds(throttle, strafe, rotation, getHeadingRotation2d());
@@ -176,14 +243,13 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
               : new ChassisSpeeds(throttle, strafe, rotation);
     }
 
-    Map<SWERVE_MODULE_POSITION, SwerveModuleState> moduleStates =
-        ModuleMap.of(SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(chassisSpeeds));
-
-    SwerveDriveKinematics.desaturateWheelSpeeds(
-        ModuleMap.orderedValues(moduleStates, new SwerveModuleState[0]), m_currentMaxVelocity);
-
-    for (SwerveModule module : ModuleMap.orderedValuesList(m_swerveModules))
-      module.setDesiredState(moduleStates.get(module.getModulePosition()), isOpenLoop);
+    m_setpointGenerator.generate(
+        chassisSpeeds.vxMetersPerSecond,
+        chassisSpeeds.vyMetersPerSecond,
+        chassisSpeeds.omegaRadiansPerSecond,
+        m_currentMaxVelocity,
+        TimedRobot.kDefaultPeriod);
+    applySetpointStates(isOpenLoop);
   }
 
   /** Set robot heading to a clear target */
@@ -191,42 +257,80 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
     m_desiredHeadingRadians = MathUtil.inputModulus(radians, -Math.PI, Math.PI);
   }
 
+  /** Steps the heading controller towards the target heading. Call once per loop. */
   public void calculateRotationSpeed() {
-    if (Math.abs(getHeadingRotation2d().getRadians() - m_desiredHeadingRadians)
-        > Units.degreesToRadians(1))
-      m_rotationOutput =
-          m_turnController.calculate(getHeadingRotation2d().getRadians(), m_desiredHeadingRadians);
-    else m_rotationOutput = 0;
+    m_rotationOutput =
+        m_headingController.calculate(
+            getHeadingRotation2d().getRadians(),
+            Units.degreesToRadians(getYawRateDegreesPerSecond()),
+            m_desiredHeadingRadians);
   }
 
   /*
    * ability to let head of swerve drive face the target
    */
   public void enableHeadingTarget(boolean enable) {
+    if (enable && !useHeadingTarget) {
+      // Start the profile from how the robot is already turning
+      m_headingController.reset(
+          getHeadingRotation2d().getRadians(),
+          Units.degreesToRadians(getYawRateDegreesPerSecond()));
+    }
     useHeadingTarget = enable;
   }
 
+  public boolean isAtHeadingTarget() {
+    return m_headingController.atGoal();
+  }
+
+  /**
+   * Sets the module states directly, without acceleration limiting. Use this for states that
+   * aren't kinematically consistent on purpose, like locking the modules in an X.
+   */
   public void setSwerveModuleStates(SwerveModuleState[] states, boolean isOpenLoop) {
     SwerveDriveKinematics.desaturateWheelSpeeds(states, m_currentMaxVelocity);
 
     for (SwerveModule module : ModuleMap.orderedValuesList(m_swerveModules))
       module.setDesiredState(states[module.getModulePosition().ordinal()], isOpenLoop);
+
+    m_setpointGenerator.reset(states);
   }
 
+  /** Sets the module states from a trajectory follower through the setpoint generator. */
   public void setSwerveModuleStatesAuto(SwerveModuleState[] states) {
-    setSwerveModuleStates(states, false);
+    m_setpointGenerator.generate(states, m_currentMaxVelocity, TimedRobot.kDefaultPeriod);
+    applySetpointStates(false);
   }
 
   public void setChassisSpeed(ChassisSpeeds chassisSpeeds) {
-    var states = SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(chassisSpeeds);
-    setSwerveModuleStates(states, false);
+    m_setpointGenerator.generate(
+        chassisSpeeds.vxMetersPerSecond,
+        chassisSpeeds.vyMetersPerSecond,
+        chassisSpeeds.omegaRadiansPerSecond,
+        m_currentMaxVelocity,
+        TimedRobot.kDefaultPeriod);
+    applySetpointStates(false);
+  }
+
+  private void applySetpointStates(boolean isOpenLoop) {
+    for (int i = 0; i < m_orderedModules.length; i++) {
+      m_orderedModules[i].setDesiredState(
+          m_setpointGenerator.getModuleSpeedMetersPerSecond(i),
+          Units.radiansToDegrees(m_setpointGenerator.getModuleAngleRadians(i)),
+          isOpenLoop,
+          true);
+    }
   }
 
   public void setOdometry(Pose2d pose) {
     if (RobotBase.isSimulation()) {
       m_pigeon.getSimCollection().setRawHeading(pose.getRotation().getDegrees());
+      // Otherwise the next simulationPeriodic() puts the heading back
+      m_simYaw = -pose.getRotation().getRadians();
     } else m_pigeon.setYaw(pose.getRotation().getDegrees());
-    m_odometry.resetPosition(getHeadingRotation2d(), getSwerveDriveModulePositionsArray(), pose);
+    m_gyroInputs.yawDegrees = pose.getRotation().getDegrees();
+    m_slipFilter.reset(getSwerveDriveModulePositionsArray(), getHeadingRotation2d());
+    m_odometry.resetPosition(getHeadingRotation2d(), m_slipFilter.getCorrectedPositions(), pose);
 
     for (var position : SWERVE_MODULE_POSITION.values()) {
       var transform =
@@ -238,8 +342,20 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
     }
   }
 
+  /**
+   * Reads and logs the gyro and every module's encoders once. Robot.loopFunc() calls this through
+   * RobotContainer.readSensors() at the start of each loop, and every getter uses these values
+   * until the next loop.
+   */
+  public void readSensors() {
+    m_gyroIO.updateInputs(m_gyroInputs);
+    m_gyroInputsLogger.log();
+
+    for (SwerveModule module : m_orderedModules) module.readSensors();
+  }
+
   public void setRollOffset() {
-    m_rollOffset = -m_pigeon.getRoll(); // -2.63
+    m_rollOffset = -m_gyroInputs.rollDegrees; // -2.63
   }
 
   public double getRollOffsetDegrees() {
@@ -247,16 +363,25 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
   }
 
   public double getPitchDegrees() {
-    return m_pigeon.getPitch();
+    return m_gyroInputs.pitchDegrees;
   }
 
   public double getRollDegrees() {
-    if (m_simOverride) return m_simRoll;
-    else return m_pigeon.getRoll();
+    return m_gyroInputs.rollDegrees;
+  }
+
+  /** Rate of change of {@link #getRollDegrees()} */
+  public double getRollRateDegreesPerSecond() {
+    return m_gyroInputs.rollRateDegreesPerSecond;
+  }
+
+  /** Rate of change of {@link #getHeadingDegrees()}, counterclockwise positive */
+  public double getYawRateDegreesPerSecond() {
+    return m_gyroInputs.yawRateDegreesPerSecond;
   }
 
   public double getHeadingDegrees() {
-    return m_pigeon.getYaw();
+    return m_gyroInputs.yawDegrees;
   }
 
   public Rotation2d getHeadingRotation2d() {
@@ -289,6 +414,22 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
     return ModuleMap.orderedValues(getModulePositions(), new SwerveModulePosition[0]);
   }
 
+  // The same array every call, so don't keep it past the loop
+  private SwerveModuleState[] getMeasuredStates() {
+    for (int i = 0; i < m_orderedModules.length; i++) {
+      m_orderedModules[i].getState(m_measuredStates[i]);
+    }
+    return m_measuredStates;
+  }
+
+  // The same array every call, so don't keep it past the loop
+  private SwerveModulePosition[] getMeasuredPositions() {
+    for (int i = 0; i < m_orderedModules.length; i++) {
+      m_orderedModules[i].getPosition(m_measuredPositions[i]);
+    }
+    return m_measuredPositions;
+  }
+
   public Map<SWERVE_MODULE_POSITION, Pose2d> getModulePoses() {
     Map<SWERVE_MODULE_POSITION, Pose2d> map = new HashMap<>();
     for (SWERVE_MODULE_POSITION i : m_swerveModules.keySet())
@@ -336,7 +477,7 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
     m_currentMaxVelocity = mps;
   }
 
-  public SwerveDrivePoseEstimator getOdometry() {
+  public SwervePoseEstimator getOdometry() {
     return m_odometry;
   }
 
@@ -345,14 +486,20 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
     // DriverStation.Alliance.Red)
     //      m_pigeon.setYaw(180);
     //    else
+    FlightRecorder.startCanCall(getName(), "config");
     m_pigeon.setYaw(0);
     m_pigeon.setAccumZAngle(0);
+    FlightRecorder.endCanCall();
+    m_gyroInputs.yawDegrees = 0;
   }
 
   public void updateOdometry() {
-    m_odometry.update(getHeadingRotation2d(), getSwerveDriveModulePositionsArray());
+    var heading = getHeadingRotation2d();
+    m_odometry.update(
+        heading,
+        m_slipFilter.update(getMeasuredPositions(), heading, TimedRobot.kDefaultPeriod));
 
-    for (SwerveModule module : ModuleMap.orderedValuesList(m_swerveModules)) {
+    for (SwerveModule module : m_orderedModules) {
       Transform2d moduleTransform =
           new Transform2d(
               SWERVE_DRIVE.kModuleTranslations.get(module.getModulePosition()),
@@ -364,59 +511,96 @@ public class SwerveDrive extends SubsystemBase implements AutoCloseable {
   private void initSmartDashboard() {
     SmartDashboard.putData(this);
 
-    var swerveTab =
-        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("Swerve");
-    pitchPub = swerveTab.getDoubleTopic("Pitch").publish();
-    rollPub = swerveTab.getDoubleTopic("Roll").publish();
-    yawPub = swerveTab.getDoubleTopic("Yaw").publish();
-    odometryXPub = swerveTab.getDoubleTopic("Odometry X").publish();
-    odometryYPub = swerveTab.getDoubleTopic("Odometry Y").publish();
-    odometryYawPub = swerveTab.getDoubleTopic("Odometry Yaw").publish();
-  }
-
-  private void updateSmartDashboard() {
-    SmartDashboard.putNumber("gyro " + m_pigeon + " heading", getHeadingDegrees());
-    SmartDashboard.putBoolean("Swerve Module Init Status", getModuleInitStatus());
-    SmartDashboard.putNumber("Roll Offset", m_rollOffset);
-
-    pitchPub.set(getPitchDegrees());
-    rollPub.set(getRollDegrees() + getRollOffsetDegrees());
-    yawPub.set(getHeadingDegrees());
-
-    if (!m_limitCanUtil) {
-      // Put not required stuff here
-      odometryXPub.set(getOdometry().getEstimatedPosition().getX());
-      odometryYPub.set(getOdometry().getEstimatedPosition().getY());
-      odometryYawPub.set(getOdometry().getEstimatedPosition().getRotation().getDegrees());
-    }
+    m_smartDashboard.addDouble("Gyro Heading", Tier.CRITICAL, this::getHeadingDegrees);
+    m_smartDashboard.addBoolean(
+        "Swerve Module Init Status", Tier.NORMAL, this::getModuleInitStatus);
+    m_smartDashboard.addDouble("Roll Offset", Tier.NORMAL, () -> m_rollOffset);
+
+    m_swerveTab.addDouble("Pitch", Tier.CRITICAL, this::getPitchDegrees);
+    m_swerveTab.addDouble("Roll", Tier.CRITICAL, () -> getRollDegrees() + getRollOffsetDegrees());
+    m_swerveTab.addDouble("Yaw", Tier.NORMAL, this::getHeadingDegrees);
+    m_swerveTab.addInteger("Slipping Modules", Tier.NORMAL, m_slipFilter::getSlippingModuleCount);
+    m_swerveTab.addDouble("Odometry X", Tier.DEBUG, () -> getPoseMeters().getX());
+    m_swerveTab.addDouble("Odometry Y", Tier.DEBUG, () -> getPoseMeters().getY());
+    m_swerveTab.addDouble(
+        "Odometry Yaw", Tier.DEBUG, () -> getPoseMeters().getRotation().getDegrees());
   }
 
   @Override
   public void periodic() {
-    if (DriverStation.isEnabled() && useHeadingTarget) {
-      calculateRotationSpeed();
-    }
+    LoopOverrunMonitor.getInstance().markSection(getName());
+    if (DriverStation.isDisabled()) m_setpointGenerator.reset(getMeasuredStates());
 
     updateOdometry();
-    updateSmartDashboard();
+    logFrame();
+  }
+
+  // 4 fields per module in SWERVE_MODULE_POSITION order, then the gyro and the pose
+  private static String[] getFrameFields() {
+    List<String> fields = new ArrayList<>();
+    for (SWERVE_MODULE_POSITION position : SWERVE_MODULE_POSITION.values()) {
+      fields.add(position.name() + "/headingDegrees");
+      fields.add(position.name() + "/velocityMetersPerSecond");
+      fields.add(position.name() + "/commandedHeadingDegrees");
+      fields.add(position.name() + "/commandedVelocityMetersPerSecond");
+    }
+    fields.addAll(
+        List.of("yawDegrees", "pitchDegrees", "rollDegrees", "poseX", "poseY", "poseDegrees"));
+    return fields.toArray(new String[0]);
+  }
+
+  private void logFrame() {
+    int field = 0;
+    for (SwerveModule module : m_orderedModules) {
+      m_frame.set(field++, module.getHeadingDegrees());
+      m_frame.set(field++, module.getVelocityMetersPerSecond());
+      m_frame.set(field++, module.getCommandedHeadingDegrees());
+      m_frame.set(field++, module.getCommandedVelocityMetersPerSecond());
+    }
+    var pose = getPoseMeters();
+    m_frame.set(field++, getHeadingDegrees());
+    m_frame.set(field++, getPitchDegrees());
+    m_frame.set(field++, getRollDegrees());
+    m_frame.set(field++, pose.getX());
+    m_frame.set(field++, pose.getY());
+    m_frame.set(field, pose.getRotation().getDegrees());
+    m_frame.append();
   }
 
   @Override
   public void simulationPeriodic() {
-    ChassisSpeeds chassisSpeed =
-        SWERVE_DRIVE.kSwerveKinematics.toChassisSpeeds(
-            ModuleMap.orderedValues(getModuleStates(), new SwerveModuleState[0]));
+    var chassisSpeed =
+        SWERVE_DRIVE.kFourModuleKinematics.toChassisSpeeds(getMeasuredStates(), m_simChassisSpeeds);
 
     double dt = StateHandler.getSimDt();
     m_simYaw += chassisSpeed.omegaRadiansPerSecond * dt;
 
     Unmanaged.feedEnable(20);
     m_pigeon.getSimCollection().setRawHeading(-Units.radiansToDegrees(m_simYaw));
+
+    // The Pigeon2 sim can't be tilted, so pitch and roll come from the charging station model
+    var pose = getPoseMeters();
+    m_simPitch = 0;
+    m_simRoll = 0;
+    for (var chargingStation : m_chargingStationSims) {
+      chargingStation.update(pose, dt);
+      if (chargingStation.isRobotOnStation()) {
+        m_simPitch = chargingStation.getRobotPitchDegrees(pose.getRotation());
+        m_simRoll = chargingStation.getRobotRollDegrees(pose.getRotation());
+      }
+    }
   }
 
   @Override
   public void close() throws Exception {
+    m_gyroInputsLogger.close();
+    m_frame.close();
+    m_smartDashboard.close();
+    m_swerveTab.close();
     if (m_swerveChassis2d != null) m_swerveChassis2d.close();
-    for (var module : ModuleMap.orderedValuesList(m_swerveModules)) module.close();
+    for (var module : ModuleMap.orderedValuesList(m_swerveModules)) {
+      CommandScheduler.getInstance().unregisterSubsystem(module);
+      module.close();
+    }
   }
 }
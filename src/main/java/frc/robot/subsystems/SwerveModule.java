@@ -19,22 +19,24 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.system.plant.LinearSystemId;
-import edu.wpi.first.networktables.BooleanPublisher;
-import edu.wpi.first.networktables.DoublePublisher;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.util.datalog.DataLog;
-import edu.wpi.first.util.datalog.DoubleLogEntry;
-import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.robot.Constants.STATE_HANDLER;
 import frc.robot.Constants.SWERVE_DRIVE;
 import frc.robot.Constants.SWERVE_DRIVE.SWERVE_MODULE_POSITION;
 import frc.robot.Constants.SWERVE_MODULE;
+import frc.robot.subsystems.io.SwerveModuleIO;
+import frc.robot.subsystems.io.SwerveModuleIOReplay;
+import frc.robot.subsystems.io.SwerveModuleIOTalonFX;
 import frc.robot.utils.CtreUtils;
+import frc.robot.utils.FlightRecorder;
+import frc.robot.utils.InputsLogger;
+import frc.robot.utils.LatencyTracker;
+import frc.robot.utils.LogReplay;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 
 public class SwerveModule extends SubsystemBase implements AutoCloseable {
   private final SWERVE_MODULE_POSITION m_modulePosition;
@@ -44,10 +46,17 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
   private final CANCoder m_angleEncoder;
   private final double m_angleOffset;
   private double m_lastAngle;
+  private final CtreUtils.ModuleSetpoint m_setpoint = new CtreUtils.ModuleSetpoint();
+  private final LatencyTracker m_latencyTracker = LatencyTracker.getInstance();
   private Pose2d m_pose;
+  // Only rebuilt when the heading changes, since odometry reads it every loop
+  private Rotation2d m_headingRotation = new Rotation2d();
+  private double m_headingRotationDegrees;
   private boolean m_initSuccess = false;
-
-  private final boolean m_limitCanUtil = STATE_HANDLER.limitCanUtilization;
+  private final SwerveModuleIO m_io;
+  private final SwerveModuleIO.Inputs m_inputs = new SwerveModuleIO.Inputs();
+  private final InputsLogger m_inputsLogger;
+  private final Telemetry m_moduleTab = Telemetry.shuffleboard("Swerve");
 
   private final SimpleMotorFeedforward feedforward =
       new SimpleMotorFeedforward(
@@ -76,14 +85,6 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
   private final int m_driveEncoderSimSign;
   private final int m_turnEncoderSimSign;
 
-  // Logging setup
-
-  private final DoubleLogEntry moduleTurnCurrentEntry;
-  private final DoubleLogEntry moduleDriveCurrentEntry;
-
-  private DoublePublisher moduleMotorHeadingPub, moduleEncoderHeadingPub;
-  private BooleanPublisher moduleEncoderHealthPub;
-
   public SwerveModule(
       SWERVE_MODULE_POSITION modulePosition,
       TalonFX turnMotor,
@@ -96,9 +97,15 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
     m_driveMotor = driveMotor;
     m_angleEncoder = angleEncoder;
     m_angleOffset = angleOffset;
+    m_io =
+        LogReplay.isActive()
+            ? new SwerveModuleIOReplay(modulePosition)
+            : new SwerveModuleIOTalonFX(turnMotor, driveMotor);
+    m_inputsLogger = new InputsLogger(SwerveModuleIO.getLogName(modulePosition), m_inputs);
 
     initModuleHeading();
 
+    FlightRecorder.startCanCall(getName(), "config");
     m_turnMotor.configFactoryDefault();
     m_turnMotor.configAllSettings(CtreUtils.generateTurnMotorConfig());
     m_turnMotor.setInverted(true);
@@ -110,18 +117,15 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
     m_driveMotor.setInverted(false);
     m_driveMotor.setNeutralMode(NeutralMode.Brake);
     m_turnMotor.setNeutralMode(NeutralMode.Brake);
+    FlightRecorder.endCanCall();
 
     m_driveEncoderSimSign = m_driveMotor.getInverted() ? -1 : 1;
 
     // m_angleEncoder.configMagnetOffset(m_angleOffset);
+    readSensors();
     m_lastAngle = getHeadingDegrees();
 
     initSmartDashboard();
-    DataLog m_log = DataLogManager.getLog();
-    moduleTurnCurrentEntry =
-        new DoubleLogEntry(m_log, "/swerve/" + m_modulePosition.name() + "/turnCurrent");
-    moduleDriveCurrentEntry =
-        new DoubleLogEntry(m_log, "/swerve/" + m_modulePosition.name() + "/driveCurrent");
 
     // To distinguish modules in CommandScheduler
     setName("SwerveModule_" + m_modulePosition.ordinal());
@@ -129,15 +133,18 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
 
   private void initModuleHeading() {
     if (RobotBase.isReal()) Timer.delay(0.2);
+    FlightRecorder.startCanCall(getName(), "config");
     m_angleEncoder.configFactoryDefault();
     m_angleEncoder.configAllSettings(CtreUtils.generateCanCoderConfig());
     m_angleEncoder.setStatusFramePeriod(CANCoderStatusFrame.SensorData, 255);
     m_angleEncoder.setStatusFramePeriod(CANCoderStatusFrame.VbatAndFaults, 255);
     resetAngleToAbsolute();
+    FlightRecorder.endCanCall();
 
     // Check if the offset was applied properly. Delay to give it some time to set
     if (RobotBase.isReal()) {
       Timer.delay(0.1);
+      readSensors();
       m_initSuccess =
           Math.abs(getHeadingDegrees() + m_angleOffset - m_angleEncoder.getAbsolutePosition())
               < 1.0;
@@ -159,62 +166,119 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
   public void resetAngle(double angle) {
     double newAngle = m_angleEncoder.getAbsolutePosition() - m_angleOffset + angle;
     m_turnMotor.setSelectedSensorPosition(newAngle / SWERVE_MODULE.kTurningMotorDistancePerPulse);
+    m_inputs.turnPositionCounts = newAngle / SWERVE_MODULE.kTurningMotorDistancePerPulse;
+  }
+
+  /** Reads and logs the encoders once. {@link SwerveDrive#readSensors()} calls this each loop. */
+  public void readSensors() {
+    m_io.updateInputs(m_inputs);
+    m_inputsLogger.log();
   }
 
   public double getHeadingDegrees() {
-    return m_turnMotor.getSelectedSensorPosition() * SWERVE_MODULE.kTurningMotorDistancePerPulse;
+    return m_inputs.turnPositionCounts * SWERVE_MODULE.kTurningMotorDistancePerPulse;
   }
 
   public Rotation2d getHeadingRotation2d() {
-    return Rotation2d.fromDegrees(getHeadingDegrees());
+    double degrees = getHeadingDegrees();
+    if (degrees != m_headingRotationDegrees) {
+      m_headingRotation = Rotation2d.fromDegrees(degrees);
+      m_headingRotationDegrees = degrees;
+    }
+    return m_headingRotation;
   }
 
   public double getVelocityMetersPerSecond() {
-    return m_driveMotor.getSelectedSensorVelocity()
-        * SWERVE_MODULE.kDriveMotorDistancePerPulse
-        * 10;
+    return m_inputs.driveVelocityCounts * SWERVE_MODULE.kDriveMotorDistancePerPulse * 10;
   }
 
   public double getDriveMeters() {
-    return m_driveMotor.getSelectedSensorPosition() * SWERVE_MODULE.kDriveMotorDistancePerPulse;
+    return m_inputs.drivePositionCounts * SWERVE_MODULE.kDriveMotorDistancePerPulse;
   }
 
   public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop) {
-    desiredState = CtreUtils.optimize(desiredState, getHeadingRotation2d());
+    setDesiredState(desiredState, isOpenLoop, false);
+  }
+
+  /**
+   * @param steerWhenStopped Turn the module even if the desired speed is too low to move it. The
+   *     setpoint generator uses this to line modules up before accelerating.
+   */
+  public void setDesiredState(
+      SwerveModuleState desiredState, boolean isOpenLoop, boolean steerWhenStopped) {
+    setDesiredState(
+        desiredState.speedMetersPerSecond,
+        desiredState.angle.getDegrees(),
+        isOpenLoop,
+        steerWhenStopped);
+  }
+
+  /** Same as {@link #setDesiredState(SwerveModuleState, boolean, boolean)}, without a state */
+  public void setDesiredState(
+      double speedMetersPerSecond,
+      double angleDegrees,
+      boolean isOpenLoop,
+      boolean steerWhenStopped) {
+    CtreUtils.optimize(speedMetersPerSecond, angleDegrees, getHeadingDegrees(), m_setpoint);
 
+    FlightRecorder.startCanCall(getName(), "set");
     if (isOpenLoop) {
       double percentOutput =
-          desiredState.speedMetersPerSecond / SWERVE_DRIVE.kMaxSpeedMetersPerSecond;
+          m_setpoint.speedMetersPerSecond / SWERVE_DRIVE.kMaxSpeedMetersPerSecond;
       m_driveMotor.set(ControlMode.PercentOutput, percentOutput);
     } else {
       double velocity =
-          desiredState.speedMetersPerSecond / (SWERVE_MODULE.kDriveMotorDistancePerPulse * 10);
+          m_setpoint.speedMetersPerSecond / (SWERVE_MODULE.kDriveMotorDistancePerPulse * 10);
       m_driveMotor.set(
           ControlMode.Velocity,
           velocity,
           DemandType.ArbitraryFeedForward,
-          feedforward.calculate(desiredState.speedMetersPerSecond));
+          feedforward.calculate(m_setpoint.speedMetersPerSecond));
     }
 
     double angle =
-        (Math.abs(desiredState.speedMetersPerSecond)
-                <= (SWERVE_DRIVE.kMaxSpeedMetersPerSecond * 0.01))
+        !steerWhenStopped
+                && (Math.abs(m_setpoint.speedMetersPerSecond)
+                    <= (SWERVE_DRIVE.kMaxSpeedMetersPerSecond * 0.01))
             ? m_lastAngle
-            : desiredState.angle
-                .getDegrees(); // Prevent rotating module if speed is less than 1%. Prevents
-    // Jittering.
+            : m_setpoint.angleDegrees; // Prevent rotating module if speed is less than 1%.
+    // Prevents Jittering.
     m_turnMotor.set(ControlMode.Position, angle / SWERVE_MODULE.kTurningMotorDistancePerPulse);
+    FlightRecorder.endCanCall();
     m_lastAngle = angle;
+    m_latencyTracker.markMotorOutput(m_setpoint.speedMetersPerSecond);
+  }
+
+  /** Heading setDesiredState() last sent to the turn motor */
+  public double getCommandedHeadingDegrees() {
+    return m_lastAngle;
+  }
+
+  /** Speed setDesiredState() last sent to the drive motor, after optimizing */
+  public double getCommandedVelocityMetersPerSecond() {
+    return m_setpoint.speedMetersPerSecond;
   }
 
   public SwerveModuleState getState() {
     return new SwerveModuleState(getVelocityMetersPerSecond(), getHeadingRotation2d());
   }
 
+  /** Writes the measured state into output, for code that runs every loop */
+  public void getState(SwerveModuleState output) {
+    output.speedMetersPerSecond = getVelocityMetersPerSecond();
+    output.angle = getHeadingRotation2d();
+  }
+
   public SwerveModulePosition getPosition() {
     return new SwerveModulePosition(getDriveMeters(), getHeadingRotation2d());
   }
 
+  /** Writes the measured position into output, for code that runs every loop */
+  public void getPosition(SwerveModulePosition output) {
+    output.distanceMeters = getDriveMeters();
+    output.angle = getHeadingRotation2d();
+  }
+
   public void setModulePose(Pose2d pose) {
     m_pose = pose;
   }
@@ -224,45 +288,27 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
   }
 
   public void setDriveNeutralMode(NeutralMode mode) {
+    FlightRecorder.startCanCall(getName(), "config");
     m_driveMotor.setNeutralMode(mode);
+    FlightRecorder.endCanCall();
   }
 
   public void setTurnNeutralMode(NeutralMode mode) {
+    FlightRecorder.startCanCall(getName(), "config");
     m_turnMotor.setNeutralMode(mode);
+    FlightRecorder.endCanCall();
   }
 
   private void initSmartDashboard() {
-    var moduleTab =
-        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("Swerve");
-    moduleEncoderHeadingPub =
-        moduleTab.getDoubleTopic("Module (" + m_moduleNumber + ") Encoder Heading").publish();
-    moduleTab
-        .getDoubleTopic("Module (" + m_moduleNumber + ") Encoder Offset")
-        .publish()
-        .set(m_angleOffset);
-    moduleEncoderHealthPub =
-        moduleTab.getBooleanTopic("Module (" + m_moduleNumber + ") Encoder Health").publish();
-    moduleMotorHeadingPub =
-        moduleTab.getDoubleTopic("Module (" + m_moduleNumber + ") Motor Heading").publish();
-  }
-
-  private void updateSmartDashboard() {
-    moduleMotorHeadingPub.set(getHeadingDegrees());
-    moduleEncoderHealthPub.set(getInitSuccess());
-    if (!m_limitCanUtil) {
-      moduleEncoderHeadingPub.set(m_angleEncoder.getAbsolutePosition());
-    }
-  }
-
-  public void updateLog() {
-    moduleTurnCurrentEntry.append(m_turnMotor.getMotorOutputVoltage());
-    moduleDriveCurrentEntry.append(m_driveMotor.getMotorOutputVoltage());
-  }
-
-  @Override
-  public void periodic() {
-    updateSmartDashboard();
-    //    updateLog();
+    m_moduleTab.doubleEntry("Module (" + m_moduleNumber + ") Encoder Offset").set(m_angleOffset);
+    m_moduleTab.addDouble(
+        "Module (" + m_moduleNumber + ") Motor Heading", Tier.NORMAL, this::getHeadingDegrees);
+    m_moduleTab.addBoolean(
+        "Module (" + m_moduleNumber + ") Encoder Health", Tier.NORMAL, this::getInitSuccess);
+    m_moduleTab.addDouble(
+        "Module (" + m_moduleNumber + ") Encoder Heading",
+        Tier.DEBUG,
+        m_angleEncoder::getAbsolutePosition);
   }
 
   @Override
@@ -314,5 +360,8 @@ public class SwerveModule extends SubsystemBase implements AutoCloseable {
 
   @SuppressWarnings("RedundantThrows")
   @Override
-  public void close() throws Exception {}
+  public void close() throws Exception {
+    m_inputsLogger.close();
+    m_moduleTab.close();
+  }
 }
@@ -10,7 +10,6 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.net.PortForwarder;
-import edu.wpi.first.networktables.DoubleArrayPublisher;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.util.datalog.DataLog;
@@ -25,6 +24,14 @@ import frc.robot.Constants.INTAKE.INTAKE_STATE;
 import frc.robot.Constants.VISION;
 import frc.robot.Constants.VISION.CAMERA_SERVER;
 import frc.robot.Constants.VISION.PIPELINE;
+import frc.robot.subsystems.io.VisionIO;
+import frc.robot.subsystems.io.VisionIOLimelight;
+import frc.robot.subsystems.io.VisionIOReplay;
+import frc.robot.utils.InputsLogger;
+import frc.robot.utils.LogReplay;
+import frc.robot.utils.LoopOverrunMonitor;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 import java.util.stream.DoubleStream;
 
 public class Vision extends SubsystemBase implements AutoCloseable {
@@ -40,8 +47,10 @@ public class Vision extends SubsystemBase implements AutoCloseable {
   private final NetworkTable m_rightLocalizer;
   private final NetworkTable m_fLocalizer;
 
-  private final DoubleArrayPublisher m_leftLocalizerPositionPub;
-  private final DoubleArrayPublisher m_rightLocalizerPositionPub;
+  private final VisionIO m_io;
+  private final VisionIO.Inputs m_inputs = new VisionIO.Inputs();
+  private final InputsLogger m_inputsLogger = new InputsLogger(VisionIO.kLogName, m_inputs);
+  private final Telemetry m_smartDashboard = Telemetry.smartDashboard();
 
   private final DoubleLogEntry limelightTargetValid;
   private final DoubleLogEntry leftLocalizerTargetValid;
@@ -78,6 +87,10 @@ public class Vision extends SubsystemBase implements AutoCloseable {
     m_leftLocalizer = NetworkTableInstance.getDefault().getTable("lLocalizer");
     m_rightLocalizer = NetworkTableInstance.getDefault().getTable("rLocalizer");
     m_fLocalizer = NetworkTableInstance.getDefault().getTable("fusedLocalizer");
+    m_io =
+        LogReplay.isActive()
+            ? new VisionIOReplay()
+            : new VisionIOLimelight(m_intakeNt, m_leftLocalizer, m_rightLocalizer, m_fLocalizer);
 
     PortForwarder.add(5800, CAMERA_SERVER.INTAKE.toString(), 5800);
     PortForwarder.add(5801, CAMERA_SERVER.INTAKE.toString(), 5801);
@@ -93,17 +106,9 @@ public class Vision extends SubsystemBase implements AutoCloseable {
     limelightTargetValid = new DoubleLogEntry(logger, "/vision/limelight_tv");
     leftLocalizerTargetValid = new DoubleLogEntry(logger, "/vision/fLocalizer_tv");
 
-    m_leftLocalizerPositionPub =
-        NetworkTableInstance.getDefault()
-            .getTable("lLocalizer")
-            .getDoubleArrayTopic("camToRobotT3D")
-            .publish();
-
-    m_rightLocalizerPositionPub =
-        NetworkTableInstance.getDefault()
-            .getTable("rLocalizer")
-            .getDoubleArrayTopic("camToRobotT3D")
-            .publish();
+    // These never change, and the server keeps them for when the Limelights reconnect
+    Telemetry.table("lLocalizer").doubleArrayEntry("camToRobotT3D").set(localizerPosition(0));
+    Telemetry.table("rLocalizer").doubleArrayEntry("camToRobotT3D").set(localizerPosition(1));
 
     resetSearch();
     resetPipelineSearch();
@@ -118,6 +123,30 @@ public class Vision extends SubsystemBase implements AutoCloseable {
     }
   }
 
+  /**
+   * Reads and logs what the Limelights published once. RobotContainer.readSensors() calls this at
+   * the start of each loop. Only the targeting inputs go through the IO, since the tag and pose
+   * arrays are only displayed.
+   */
+  public void readSensors() {
+    m_io.updateInputs(m_inputs);
+    m_inputsLogger.log();
+  }
+
+  // Index of a localizer in the inputs, or -1 for the intake camera
+  private static int getLocalizerIndex(CAMERA_SERVER location) {
+    switch (location) {
+      case LEFT_LOCALIZER:
+        return 0;
+      case RIGHT_LOCALIZER:
+        return 1;
+      case FUSED_LOCALIZER:
+        return 2;
+      default:
+        return -1;
+    }
+  }
+
   public MechanismLigament2d getLimelightLigament() {
     return m_limelightLigament2d;
   }
@@ -135,18 +164,9 @@ public class Vision extends SubsystemBase implements AutoCloseable {
    * Whether the limelight has any valid targets (0 or 1)
    */
   public double getValidTargetType(CAMERA_SERVER location) {
-    switch (location) {
-      case INTAKE:
-        return m_intakeNt.getEntry("tv").getDouble(0);
-      case LEFT_LOCALIZER:
-        return m_leftLocalizer.getEntry("tv").getDouble(0);
-      case RIGHT_LOCALIZER:
-        return m_rightLocalizer.getEntry("tv").getDouble(0);
-      case FUSED_LOCALIZER:
-        return m_fLocalizer.getEntry("tv").getDouble(0);
-      default:
-        return 0;
-    }
+    if (location == CAMERA_SERVER.INTAKE) return m_inputs.intakeTargetValid;
+    int localizer = getLocalizerIndex(location);
+    return localizer >= 0 ? m_inputs.localizerTargetValid[localizer] : 0;
   }
 
   public double[] getAprilTagIds(CAMERA_SERVER location) {
@@ -166,7 +186,7 @@ public class Vision extends SubsystemBase implements AutoCloseable {
   public double getTargetXAngle(CAMERA_SERVER location) {
     switch (location) {
       case INTAKE:
-        return -m_intakeNt.getEntry("tx").getDouble(0);
+        return -m_inputs.intakeTargetXAngle;
       default:
         return 0;
     }
@@ -178,7 +198,7 @@ public class Vision extends SubsystemBase implements AutoCloseable {
   public double getTargetYAngle(CAMERA_SERVER location) {
     switch (location) {
       case INTAKE:
-        return m_intakeNt.getEntry("ty").getDouble(0);
+        return m_inputs.intakeTargetYAngle;
       default:
         return 0;
     }
@@ -190,7 +210,7 @@ public class Vision extends SubsystemBase implements AutoCloseable {
   public double getCameraLatency(CAMERA_SERVER location) {
     switch (location) {
       case INTAKE:
-        return m_intakeNt.getEntry("tl").getDouble(0);
+        return m_inputs.intakeLatency;
       default:
         return 0;
     }
@@ -202,7 +222,7 @@ public class Vision extends SubsystemBase implements AutoCloseable {
   public double getTargetArea(CAMERA_SERVER location) {
     switch (location) {
       case INTAKE:
-        return m_intakeNt.getEntry("ta").getDouble(0);
+        return m_inputs.intakeTargetArea;
       default:
         return 0;
     }
@@ -237,7 +257,7 @@ public class Vision extends SubsystemBase implements AutoCloseable {
   public double getPipeline(CAMERA_SERVER location) {
     switch (location) {
       case INTAKE:
-        return m_intakeNt.getEntry("pipeline").getDouble(0);
+        return m_inputs.intakePipeline;
       default:
         return 0.0;
     }
@@ -353,11 +373,9 @@ public class Vision extends SubsystemBase implements AutoCloseable {
    */
   public double[] getBotPose(CAMERA_SERVER location) {
     DriverStation.Alliance allianceColor = Controls.getAllianceColor();
-    double[] botPose = new double[0];
+    int localizer = getLocalizerIndex(location);
     switch (location) {
       case LEFT_LOCALIZER:
-        botPose = m_leftLocalizer.getEntry("botpose").getDoubleArray(defaultDoubleArray);
-        break;
         //      case RIGHT_LOCALIZER:
         //        var rawBotPose = defaultDoubleArray;
         //        switch (allianceColor) {
@@ -383,14 +401,11 @@ public class Vision extends SubsystemBase implements AutoCloseable {
         //            break;
         //        }
       case RIGHT_LOCALIZER:
-        botPose = m_rightLocalizer.getEntry("botpose").getDoubleArray(defaultDoubleArray);
-        break;
       case FUSED_LOCALIZER:
-        botPose = m_fLocalizer.getEntry("botpose").getDoubleArray(defaultDoubleArray);
-        break;
+        return m_inputs.localizerBotPose[localizer];
+      default:
+        return defaultDoubleArray;
     }
-    if (botPose.length > 0) return botPose;
-    else return defaultDoubleArray;
   }
 
   /**
@@ -399,16 +414,8 @@ public class Vision extends SubsystemBase implements AutoCloseable {
    * @return Robot Pose in meters
    */
   public double getDetectionTimestamp(CAMERA_SERVER location) {
-    switch (location) {
-      case LEFT_LOCALIZER:
-        return m_leftLocalizer.getEntry("timestamp").getDouble(0);
-      case RIGHT_LOCALIZER:
-        return m_rightLocalizer.getEntry("timestamp").getDouble(0);
-      case FUSED_LOCALIZER:
-        return m_fLocalizer.getEntry("timestamp").getDouble(0);
-      default:
-        return 0;
-    }
+    int localizer = getLocalizerIndex(location);
+    return localizer >= 0 ? m_inputs.localizerTimestamp[localizer] : 0;
   }
 
   public Pose2d getRobotPose2d(CAMERA_SERVER location) {
@@ -515,34 +522,19 @@ public class Vision extends SubsystemBase implements AutoCloseable {
 
   public void initSmartDashboard() {
     SmartDashboard.putData(this);
+    m_smartDashboard.addDouble("pipeline", Tier.NORMAL, () -> getPipeline(CAMERA_SERVER.INTAKE));
   }
 
-  public void updateSmartDashboard() {
-    SmartDashboard.putNumber("pipeline", getPipeline(CAMERA_SERVER.INTAKE));
+  /** Camera position relative to the robot, as the Limelight expects it */
+  private static double[] localizerPosition(int camera) {
+    var translation = VISION.LOCALIZER_CAMERA_POSITION[camera].getTranslation();
+    return new double[] {translation.getX(), translation.getY(), translation.getZ(), 0, 0, 0};
   }
 
   @Override
   public void periodic() {
-    m_leftLocalizerPositionPub.set(
-        new double[] {
-          VISION.LOCALIZER_CAMERA_POSITION[0].getTranslation().getX(),
-          VISION.LOCALIZER_CAMERA_POSITION[0].getTranslation().getY(),
-          VISION.LOCALIZER_CAMERA_POSITION[0].getTranslation().getZ(),
-          0,
-          0,
-          0
-        });
-    m_rightLocalizerPositionPub.set(
-        new double[] {
-          VISION.LOCALIZER_CAMERA_POSITION[1].getTranslation().getX(),
-          VISION.LOCALIZER_CAMERA_POSITION[1].getTranslation().getY(),
-          VISION.LOCALIZER_CAMERA_POSITION[1].getTranslation().getZ(),
-          0,
-          0,
-          0
-        });
+    LoopOverrunMonitor.getInstance().markSection(getName());
     // This method will be called once per scheduler run
-    updateSmartDashboard();
     // updateVisionPose(CAMERA_SERVER.FUSED_LOCALIZER);
     // searchLimelightPipeline(CAMERA_SERVER.INTAKE);
     updatePipeline();
@@ -558,6 +550,8 @@ public class Vision extends SubsystemBase implements AutoCloseable {
   @SuppressWarnings("RedundantThrows")
   @Override
   public void close() throws Exception {
+    m_inputsLogger.close();
+    m_smartDashboard.close();
     if (m_limelightLigament2d != null) m_limelightLigament2d.close();
   }
 }
@@ -17,12 +17,6 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.networktables.DoublePublisher;
-import edu.wpi.first.networktables.NetworkTable;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StringPublisher;
-import edu.wpi.first.util.datalog.DataLog;
-import edu.wpi.first.util.datalog.DoubleLogEntry;
 import edu.wpi.first.wpilibj.*;
 import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
@@ -35,6 +29,15 @@ import frc.robot.Constants.DIO;
 import frc.robot.Constants.INTAKE.INTAKE_STATE;
 import frc.robot.Constants.WRIST;
 import frc.robot.Constants.WRIST.THRESHOLD;
+import frc.robot.subsystems.io.WristIO;
+import frc.robot.subsystems.io.WristIOReplay;
+import frc.robot.subsystems.io.WristIOTalonFX;
+import frc.robot.utils.FlightRecorder;
+import frc.robot.utils.InputsLogger;
+import frc.robot.utils.LogReplay;
+import frc.robot.utils.LoopOverrunMonitor;
+import frc.robot.utils.Telemetry;
+import frc.robot.utils.TelemetryScheduler.Tier;
 
 public class Wrist extends SubsystemBase implements AutoCloseable {
 
@@ -97,29 +100,23 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
   private final MechanismLigament2d m_wristLigament2d =
       new MechanismLigament2d("Fourbar", WRIST.length, WRIST.fourbarAngleDegrees);
 
-  // Logging setup
-  private final DataLog log = DataLogManager.getLog();
-  private final DoubleLogEntry voltageEntry = new DoubleLogEntry(log, "/wrist/voltage");
-  private final DoubleLogEntry currentEntry = new DoubleLogEntry(log, "/wrist/current");
-  private final DoubleLogEntry desiredPositionEntry =
-      new DoubleLogEntry(log, "/wrist/desiredPositionDegrees");
-  private final DoubleLogEntry commandedPositionEntry =
-      new DoubleLogEntry(log, "/wrist/commandedPositionDegrees");
-  private final DoubleLogEntry positionDegreesEntry =
-      new DoubleLogEntry(log, "/wrist/positionDegrees");
-
-  private DoublePublisher kCommandedAngleDegreesPub;
-  private DoublePublisher kDesiredAngleDegreesPub;
-  private DoublePublisher kCurrentAngleDegreesPub;
-  private DoublePublisher currentTrapezoidVelocity;
-  private DoublePublisher currentTrapezoidAcceleration;
-  private StringPublisher currentCommandStatePub;
+  private Telemetry.DoubleEntry kCommandedAngleDegreesPub;
+  private Telemetry.DoubleEntry currentTrapezoidVelocity;
+  private Telemetry.DoubleEntry currentTrapezoidAcceleration;
+
+  private final WristIO m_io =
+      LogReplay.isActive() ? new WristIOReplay() : new WristIOTalonFX(wristMotor);
+  private final WristIO.Inputs m_inputs = new WristIO.Inputs();
+  private final InputsLogger m_inputsLogger = new InputsLogger(WristIO.kLogName, m_inputs);
+  private final Telemetry m_wristTab = Telemetry.shuffleboard("Wrist");
+  private final Telemetry m_smartDashboard = Telemetry.smartDashboard();
 
   /** Creates a new Wrist. */
   public Wrist(Intake intake) {
     m_intake = intake;
 
     // Factory default configs
+    FlightRecorder.startCanCall(getName(), "config");
     wristMotor.configFactoryDefault();
     wristMotor.setNeutralMode(NeutralMode.Brake);
     wristMotor.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor, 0, 0);
@@ -134,7 +131,9 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
     wristMotor.configStatorCurrentLimit(new StatorCurrentLimitConfiguration(true, 40, 30, 0.2));
 
     wristMotor.configAllowableClosedloopError(0, 1 / WRIST.encoderUnitsToDegrees);
+    FlightRecorder.endCanCall();
 
+    readSensors();
     initSmartDashboard();
     m_timer.reset();
     m_timer.start();
@@ -150,6 +149,8 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
       double wristResetAngleDegrees = -15.0;
       resetAngleDegrees(wristResetAngleDegrees);
 
+      // Check what the motor reports, not what was just set
+      readSensors();
       if (Math.abs(getPositionDegrees() - wristResetAngleDegrees) <= 0.05)
         m_wristInitialized = true;
     }
@@ -167,8 +168,15 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
     return m_wristLigament2d;
   }
 
+  // Reads the motor once and logs it. RobotContainer.readSensors() calls this at the start of each
+  // loop
+  public void readSensors() {
+    m_io.updateInputs(m_inputs);
+    m_inputsLogger.log();
+  }
+
   public double getPercentOutput() {
-    return wristMotor.getMotorOutputPercent();
+    return m_inputs.percentOutput;
   }
 
   public void setUserInput(double input) {
@@ -214,7 +222,9 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
       }
     }
 
+    FlightRecorder.startCanCall(getName(), "set");
     wristMotor.set(ControlMode.PercentOutput, output);
+    FlightRecorder.endCanCall();
   }
 
   // code to limit the minimum/maximum setpoint of the wrist/ might be status frames
@@ -230,11 +240,14 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
 
   // Sets the setpoint of the wrist using a state calculated in periodic
   public void setSetpointTrapezoidState(TrapezoidProfile.State state) {
+    double feedforward = calculateFeedforward(state);
+    FlightRecorder.startCanCall(getName(), "set");
     wristMotor.set(
         ControlMode.Position,
         Units.radiansToDegrees(state.position) / WRIST.encoderUnitsToDegrees,
         DemandType.ArbitraryFeedForward,
-        calculateFeedforward(state));
+        feedforward);
+    FlightRecorder.endCanCall();
   }
 
   private double calculateFeedforward(TrapezoidProfile.State state) {
@@ -246,11 +259,13 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
   }
 
   public void setPIDvalues(double f, double p, double i, double d, double izone) {
+    FlightRecorder.startCanCall(getName(), "config");
     wristMotor.config_kF(WRIST.kSlotIdx, f);
     wristMotor.config_kP(WRIST.kSlotIdx, p);
     wristMotor.config_kI(WRIST.kSlotIdx, i);
     wristMotor.config_kD(WRIST.kSlotIdx, d);
     wristMotor.config_IntegralZone(WRIST.kSlotIdx, izone);
+    FlightRecorder.endCanCall();
   }
 
   public void setArmMotorFeedForward(double s, double g, double v, double a) {
@@ -285,7 +300,7 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
   }
 
   public double getVelocityDegreesPerSecond() {
-    return wristMotor.getSelectedSensorVelocity() * WRIST.encoderUnitsToDegrees * 10;
+    return m_inputs.velocityCounts * WRIST.encoderUnitsToDegrees * 10;
   }
 
   // Converts the angle of the wrist into a Rotation2d object to be applied to a Pose2d
@@ -295,13 +310,16 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
 
   // Returns the raw sensor value in encoder counts
   private double getSensorPosition() {
-    return wristMotor.getSelectedSensorPosition();
+    return m_inputs.positionCounts;
   }
 
   // reset angle of the wrist. ~-15 degrees is the position of the wrist when the intake is touching
   // the ground.
   public void resetAngleDegrees(double angleDegrees) {
+    FlightRecorder.startCanCall(getName(), "config");
     wristMotor.setSelectedSensorPosition(angleDegrees / WRIST.encoderUnitsToDegrees);
+    FlightRecorder.endCanCall();
+    m_inputs.positionCounts = angleDegrees / WRIST.encoderUnitsToDegrees;
   }
 
   public void setLowerLimit(double radians) {
@@ -349,7 +367,9 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
     else if (getPositionDegrees() >= 30) m_newKI = 0;
 
     if (m_currentKI != m_newKI) {
+      FlightRecorder.startCanCall(getName(), "config");
       wristMotor.config_kI(0, m_newKI);
+      FlightRecorder.endCanCall();
       m_currentKI = m_newKI;
     }
   }
@@ -357,53 +377,38 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
   private void initSmartDashboard() {
     SmartDashboard.putData(this);
 
-    NetworkTable wristTab =
-        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("Wrist");
-
-    kCommandedAngleDegreesPub = wristTab.getDoubleTopic("Commanded Angle Degrees").publish();
-    kDesiredAngleDegreesPub = wristTab.getDoubleTopic("Desired Angle Degrees").publish();
-    kCurrentAngleDegreesPub = wristTab.getDoubleTopic("Current Angle Degrees").publish();
-    currentCommandStatePub = wristTab.getStringTopic("Command State").publish();
-    currentTrapezoidAcceleration = wristTab.getDoubleTopic("Trapezoid Acceleration").publish();
-    currentTrapezoidVelocity = wristTab.getDoubleTopic("Trapezoid Velocity").publish();
-
-    SmartDashboard.putNumber("WristPercentOutput", getPercentOutput());
-    SmartDashboard.putNumber("Wrist m_setpoint", m_setpoint.position * 180 / Math.PI);
-    SmartDashboard.putNumber(
-        "Wrist Error", (m_setpoint.position * 180 / Math.PI) - getPositionDegrees());
-  }
-
-  public void updateSmartDashboard() {
-    SmartDashboard.putString("Wrist Closed Loop", getClosedLoopControlMode().name());
-    SmartDashboard.putNumber("Wrist Angles Degrees", getPositionDegrees());
-    SmartDashboard.putNumber("Wrist m_setpoint", m_setpoint.position * 180 / Math.PI);
-    SmartDashboard.putNumber(
-        "Wrist Error", (m_setpoint.position * 180 / Math.PI) - getPositionDegrees());
-
-    SmartDashboard.putNumber("WristPercentOutput", getPercentOutput());
-    currentCommandStatePub.set(getClosedLoopControlMode().toString());
-    kDesiredAngleDegreesPub.set(Units.radiansToDegrees(getDesiredPositionRadians()));
-    kCurrentAngleDegreesPub.set(getPositionDegrees());
-  }
-
-  public void updateLog() {
-    voltageEntry.append(getMotorOutputVoltage());
-    currentEntry.append(getMotorOutputCurrent());
-    desiredPositionEntry.append(getDesiredPositionRadians());
-    positionDegreesEntry.append(getPositionDegrees());
+    kCommandedAngleDegreesPub = m_wristTab.doubleEntry("Commanded Angle Degrees");
+    currentTrapezoidAcceleration = m_wristTab.doubleEntry("Trapezoid Acceleration");
+    currentTrapezoidVelocity = m_wristTab.doubleEntry("Trapezoid Velocity");
+    m_wristTab.addEnum(
+        "Command State", CONTROL_MODE.class, Tier.NORMAL, this::getClosedLoopControlMode);
+    m_wristTab.addDouble(
+        "Desired Angle Degrees",
+        Tier.NORMAL,
+        () -> Units.radiansToDegrees(getDesiredPositionRadians()));
+    m_wristTab.addDouble("Current Angle Degrees", Tier.NORMAL, this::getPositionDegrees);
+
+    m_smartDashboard.addEnum(
+        "Wrist Closed Loop", CONTROL_MODE.class, Tier.NORMAL, this::getClosedLoopControlMode);
+    m_smartDashboard.addDouble("Wrist Angles Degrees", Tier.CRITICAL, this::getPositionDegrees);
+    m_smartDashboard.addDouble(
+        "Wrist m_setpoint", Tier.NORMAL, () -> Units.radiansToDegrees(m_setpoint.position));
+    m_smartDashboard.addDouble(
+        "Wrist Error",
+        Tier.NORMAL,
+        () -> Units.radiansToDegrees(m_setpoint.position) - getPositionDegrees());
+    m_smartDashboard.addDouble("WristPercentOutput", Tier.NORMAL, this::getPercentOutput);
   }
 
   @Override
   public void periodic() {
+    LoopOverrunMonitor.getInstance().markSection(getName());
     initializeWristAngle();
 
     if (!m_testMode) {
       updateIValue();
     }
 
-    updateSmartDashboard();
-    //    updateLog();
-
     TrapezoidProfile profile;
     double currentTime = m_timer.get();
     switch (m_controlMode) {
@@ -462,6 +467,9 @@ public class Wrist extends SubsystemBase implements AutoCloseable {
   @SuppressWarnings("RedundantThrows")
   @Override
   public void close() throws Exception {
+    m_inputsLogger.close();
+    m_wristTab.close();
+    m_smartDashboard.close();
     m_wristLigament2d.close();
     resetSwitch.close();
   }
@@ -0,0 +1,39 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utils.LoggableInputs;
+
+/** Where the {@link frc.robot.subsystems.Elevator} reads its main motor from */
+public interface ElevatorIO {
+  String kLogName = "/inputs/elevator";
+
+  /** Main motor signals as of the start of the loop */
+  class Inputs implements LoggableInputs {
+    public double positionCounts;
+    public double velocityCounts;
+    public double percentOutput;
+    public double statorCurrent;
+
+    @Override
+    public String[] getFieldNames() {
+      return new String[] {"positionCounts", "velocityCounts", "percentOutput", "statorCurrent"};
+    }
+
+    @Override
+    public void toLog(double[] values) {
+      values[0] = positionCounts;
+      values[1] = velocityCounts;
+      values[2] = percentOutput;
+      values[3] = statorCurrent;
+    }
+
+    @Override
+    public void fromLog(double[] values) {
+      positionCounts = values[0];
+      velocityCounts = values[1];
+      percentOutput = values[2];
+      statorCurrent = values[3];
+    }
+  }
+
+  void updateInputs(Inputs inputs);
+}
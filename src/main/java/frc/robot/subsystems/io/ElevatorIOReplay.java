@@ -0,0 +1,11 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utils.LogReplay;
+
+/** Reads the elevator inputs recorded in the log being replayed */
+public class ElevatorIOReplay implements ElevatorIO {
+  @Override
+  public void updateInputs(Inputs inputs) {
+    LogReplay.getInstance().read(kLogName, inputs);
+  }
+}
@@ -0,0 +1,20 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+
+/** Reads the elevator's main TalonFX, on the robot or through its simulated state */
+public class ElevatorIOTalonFX implements ElevatorIO {
+  private final TalonFX m_motor;
+
+  public ElevatorIOTalonFX(TalonFX motor) {
+    m_motor = motor;
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.positionCounts = m_motor.getSelectedSensorPosition();
+    inputs.velocityCounts = m_motor.getSelectedSensorVelocity();
+    inputs.percentOutput = m_motor.getMotorOutputPercent();
+    inputs.statorCurrent = m_motor.getStatorCurrent();
+  }
+}
@@ -0,0 +1,49 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utils.LoggableInputs;
+
+/** Where the {@link frc.robot.subsystems.SwerveDrive} reads its gyro from */
+public interface GyroIO {
+  String kLogName = "/inputs/gyro";
+
+  /** Gyro signals as of the start of the loop */
+  class Inputs implements LoggableInputs {
+    public double yawDegrees;
+    public double pitchDegrees;
+    public double rollDegrees;
+    public double rollRateDegreesPerSecond;
+    // Counterclockwise positive, like the yaw
+    public double yawRateDegreesPerSecond;
+
+    @Override
+    public String[] getFieldNames() {
+      return new String[] {
+        "yawDegrees",
+        "pitchDegrees",
+        "rollDegrees",
+        "rollRateDegreesPerSecond",
+        "yawRateDegreesPerSecond"
+      };
+    }
+
+    @Override
+    public void toLog(double[] values) {
+      values[0] = yawDegrees;
+      values[1] = pitchDegrees;
+      values[2] = rollDegrees;
+      values[3] = rollRateDegreesPerSecond;
+      values[4] = yawRateDegreesPerSecond;
+    }
+
+    @Override
+    public void fromLog(double[] values) {
+      yawDegrees = values[0];
+      pitchDegrees = values[1];
+      rollDegrees = values[2];
+      rollRateDegreesPerSecond = values[3];
+      yawRateDegreesPerSecond = values[4];
+    }
+  }
+
+  void updateInputs(Inputs inputs);
+}
@@ -0,0 +1,24 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix.sensors.Pigeon2;
+
+/** Reads the Pigeon2 on the robot */
+public class GyroIOPigeon2 implements GyroIO {
+  private final Pigeon2 m_pigeon;
+  // x, y and z rates. On the robot, the roll rate is the x rate
+  private final double[] m_rawGyroDegreesPerSecond = new double[3];
+
+  public GyroIOPigeon2(Pigeon2 pigeon) {
+    m_pigeon = pigeon;
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.yawDegrees = m_pigeon.getYaw();
+    inputs.pitchDegrees = m_pigeon.getPitch();
+    inputs.rollDegrees = m_pigeon.getRoll();
+    m_pigeon.getRawGyro(m_rawGyroDegreesPerSecond);
+    inputs.rollRateDegreesPerSecond = m_rawGyroDegreesPerSecond[0];
+    inputs.yawRateDegreesPerSecond = m_rawGyroDegreesPerSecond[2];
+  }
+}
@@ -0,0 +1,37 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix.sensors.Pigeon2;
+import edu.wpi.first.wpilibj.TimedRobot;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Reads the yaw from the simulated Pigeon2. The Pigeon2 sim can't be tilted and doesn't report
+ * rates, so pitch and roll come from the drivetrain's model and the rates from their change since
+ * the last loop.
+ */
+public class GyroIOSim implements GyroIO {
+  private final Pigeon2 m_pigeon;
+  private final DoubleSupplier m_pitchDegrees;
+  private final DoubleSupplier m_rollDegrees;
+  private double m_previousYawDegrees;
+  private double m_previousRollDegrees;
+
+  public GyroIOSim(Pigeon2 pigeon, DoubleSupplier pitchDegrees, DoubleSupplier rollDegrees) {
+    m_pigeon = pigeon;
+    m_pitchDegrees = pitchDegrees;
+    m_rollDegrees = rollDegrees;
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.yawDegrees = m_pigeon.getYaw();
+    inputs.pitchDegrees = m_pitchDegrees.getAsDouble();
+    inputs.rollDegrees = m_rollDegrees.getAsDouble();
+    inputs.rollRateDegreesPerSecond =
+        (inputs.rollDegrees - m_previousRollDegrees) / TimedRobot.kDefaultPeriod;
+    inputs.yawRateDegreesPerSecond =
+        (inputs.yawDegrees - m_previousYawDegrees) / TimedRobot.kDefaultPeriod;
+    m_previousRollDegrees = inputs.rollDegrees;
+    m_previousYawDegrees = inputs.yawDegrees;
+  }
+}
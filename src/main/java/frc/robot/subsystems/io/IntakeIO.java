@@ -0,0 +1,36 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utils.LoggableInputs;
+
+/** Where the {@link frc.robot.subsystems.Intake} reads its motor from */
+public interface IntakeIO {
+  String kLogName = "/inputs/intake";
+
+  /** Motor signals as of the start of the loop */
+  class Inputs implements LoggableInputs {
+    public double velocityCounts;
+    public double statorCurrent;
+    public double percentOutput;
+
+    @Override
+    public String[] getFieldNames() {
+      return new String[] {"velocityCounts", "statorCurrent", "percentOutput"};
+    }
+
+    @Override
+    public void toLog(double[] values) {
+      values[0] = velocityCounts;
+      values[1] = statorCurrent;
+      values[2] = percentOutput;
+    }
+
+    @Override
+    public void fromLog(double[] values) {
+      velocityCounts = values[0];
+      statorCurrent = values[1];
+      percentOutput = values[2];
+    }
+  }
+
+  void updateInputs(Inputs inputs);
+}
@@ -0,0 +1,19 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+
+/** Reads the intake's TalonFX, on the robot or through its simulated state */
+public class IntakeIOTalonFX implements IntakeIO {
+  private final TalonFX m_motor;
+
+  public IntakeIOTalonFX(TalonFX motor) {
+    m_motor = motor;
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.velocityCounts = m_motor.getSelectedSensorVelocity();
+    inputs.statorCurrent = m_motor.getStatorCurrent();
+    inputs.percentOutput = m_motor.getMotorOutputPercent();
+  }
+}
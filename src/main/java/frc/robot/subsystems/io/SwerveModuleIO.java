@@ -0,0 +1,39 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.Constants.SWERVE_DRIVE.SWERVE_MODULE_POSITION;
+import frc.robot.utils.LoggableInputs;
+
+/** Where a {@link frc.robot.subsystems.SwerveModule} reads its encoders from */
+public interface SwerveModuleIO {
+  static String getLogName(SWERVE_MODULE_POSITION position) {
+    return "/inputs/swerve/" + position.name();
+  }
+
+  /** Encoder signals as of the start of the loop */
+  class Inputs implements LoggableInputs {
+    public double turnPositionCounts;
+    public double drivePositionCounts;
+    public double driveVelocityCounts;
+
+    @Override
+    public String[] getFieldNames() {
+      return new String[] {"turnPositionCounts", "drivePositionCounts", "driveVelocityCounts"};
+    }
+
+    @Override
+    public void toLog(double[] values) {
+      values[0] = turnPositionCounts;
+      values[1] = drivePositionCounts;
+      values[2] = driveVelocityCounts;
+    }
+
+    @Override
+    public void fromLog(double[] values) {
+      turnPositionCounts = values[0];
+      drivePositionCounts = values[1];
+      driveVelocityCounts = values[2];
+    }
+  }
+
+  void updateInputs(Inputs inputs);
+}
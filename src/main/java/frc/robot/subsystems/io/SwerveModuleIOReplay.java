@@ -0,0 +1,18 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.Constants.SWERVE_DRIVE.SWERVE_MODULE_POSITION;
+import frc.robot.utils.LogReplay;
+
+/** Reads a module's inputs recorded in the log being replayed */
+public class SwerveModuleIOReplay implements SwerveModuleIO {
+  private final String m_logName;
+
+  public SwerveModuleIOReplay(SWERVE_MODULE_POSITION position) {
+    m_logName = SwerveModuleIO.getLogName(position);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    LogReplay.getInstance().read(m_logName, inputs);
+  }
+}
@@ -0,0 +1,21 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+
+/** Reads a module's turn and drive TalonFXs, on the robot or through their simulated state */
+public class SwerveModuleIOTalonFX implements SwerveModuleIO {
+  private final TalonFX m_turnMotor;
+  private final TalonFX m_driveMotor;
+
+  public SwerveModuleIOTalonFX(TalonFX turnMotor, TalonFX driveMotor) {
+    m_turnMotor = turnMotor;
+    m_driveMotor = driveMotor;
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.turnPositionCounts = m_turnMotor.getSelectedSensorPosition();
+    inputs.drivePositionCounts = m_driveMotor.getSelectedSensorPosition();
+    inputs.driveVelocityCounts = m_driveMotor.getSelectedSensorVelocity();
+  }
+}
@@ -0,0 +1,79 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utils.LoggableInputs;
+
+/** Where {@link frc.robot.subsystems.Vision} reads the Limelights from */
+public interface VisionIO {
+  String kLogName = "/inputs/vision";
+
+  // The left, right and fused localizers, in that order
+  int kLocalizers = 3;
+  int kBotPoseLength = 7;
+  String[] kLocalizerNames = {"left", "right", "fused"};
+
+  /** What the Limelights had published as of the start of the loop */
+  class Inputs implements LoggableInputs {
+    public double intakeTargetValid;
+    public double intakeTargetXAngle;
+    public double intakeTargetYAngle;
+    public double intakeTargetArea;
+    public double intakeLatency;
+    public double intakePipeline;
+
+    public final double[] localizerTargetValid = new double[kLocalizers];
+    public final double[] localizerTimestamp = new double[kLocalizers];
+    public final double[][] localizerBotPose = new double[kLocalizers][kBotPoseLength];
+
+    @Override
+    public String[] getFieldNames() {
+      String[] fields = new String[6 + kLocalizers * (2 + kBotPoseLength)];
+      fields[0] = "intake/tv";
+      fields[1] = "intake/tx";
+      fields[2] = "intake/ty";
+      fields[3] = "intake/ta";
+      fields[4] = "intake/tl";
+      fields[5] = "intake/pipeline";
+      int field = 6;
+      for (String localizer : kLocalizerNames) {
+        fields[field++] = localizer + "/tv";
+        fields[field++] = localizer + "/timestamp";
+        for (int i = 0; i < kBotPoseLength; i++) fields[field++] = localizer + "/botpose" + i;
+      }
+      return fields;
+    }
+
+    @Override
+    public void toLog(double[] values) {
+      values[0] = intakeTargetValid;
+      values[1] = intakeTargetXAngle;
+      values[2] = intakeTargetYAngle;
+      values[3] = intakeTargetArea;
+      values[4] = intakeLatency;
+      values[5] = intakePipeline;
+      int field = 6;
+      for (int localizer = 0; localizer < kLocalizers; localizer++) {
+        values[field++] = localizerTargetValid[localizer];
+        values[field++] = localizerTimestamp[localizer];
+        for (double value : localizerBotPose[localizer]) values[field++] = value;
+      }
+    }
+
+    @Override
+    public void fromLog(double[] values) {
+      intakeTargetValid = values[0];
+      intakeTargetXAngle = values[1];
+      intakeTargetYAngle = values[2];
+      intakeTargetArea = values[3];
+      intakeLatency = values[4];
+      intakePipeline = values[5];
+      int field = 6;
+      for (int localizer = 0; localizer < kLocalizers; localizer++) {
+        localizerTargetValid[localizer] = values[field++];
+        localizerTimestamp[localizer] = values[field++];
+        for (int i = 0; i < kBotPoseLength; i++) localizerBotPose[localizer][i] = values[field++];
+      }
+    }
+  }
+
+  void updateInputs(Inputs inputs);
+}
@@ -0,0 +1,53 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+
+/**
+ * Reads the Limelights' NetworkTables entries. In simulation nothing publishes them, so every
+ * input reads as its default.
+ */
+public class VisionIOLimelight implements VisionIO {
+  private static final double[] kEmptyArray = new double[0];
+
+  private final NetworkTableEntry m_intakeTv, m_intakeTx, m_intakeTy, m_intakeTa, m_intakeTl;
+  private final NetworkTableEntry m_intakePipeline;
+  private final NetworkTableEntry[] m_localizerTv = new NetworkTableEntry[kLocalizers];
+  private final NetworkTableEntry[] m_localizerTimestamp = new NetworkTableEntry[kLocalizers];
+  private final NetworkTableEntry[] m_localizerBotPose = new NetworkTableEntry[kLocalizers];
+
+  /** Takes the localizer tables in the order of {@link VisionIO#kLocalizerNames} */
+  public VisionIOLimelight(NetworkTable intake, NetworkTable... localizers) {
+    m_intakeTv = intake.getEntry("tv");
+    m_intakeTx = intake.getEntry("tx");
+    m_intakeTy = intake.getEntry("ty");
+    m_intakeTa = intake.getEntry("ta");
+    m_intakeTl = intake.getEntry("tl");
+    m_intakePipeline = intake.getEntry("pipeline");
+    for (int i = 0; i < kLocalizers; i++) {
+      m_localizerTv[i] = localizers[i].getEntry("tv");
+      m_localizerTimestamp[i] = localizers[i].getEntry("timestamp");
+      m_localizerBotPose[i] = localizers[i].getEntry("botpose");
+    }
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.intakeTargetValid = m_intakeTv.getDouble(0);
+    inputs.intakeTargetXAngle = m_intakeTx.getDouble(0);
+    inputs.intakeTargetYAngle = m_intakeTy.getDouble(0);
+    inputs.intakeTargetArea = m_intakeTa.getDouble(0);
+    inputs.intakeLatency = m_intakeTl.getDouble(0);
+    inputs.intakePipeline = m_intakePipeline.getDouble(0);
+
+    for (int i = 0; i < kLocalizers; i++) {
+      inputs.localizerTargetValid[i] = m_localizerTv[i].getDouble(0);
+      inputs.localizerTimestamp[i] = m_localizerTimestamp[i].getDouble(0);
+      // A missing or short pose reads as zeros past its end
+      double[] botPose = m_localizerBotPose[i].getDoubleArray(kEmptyArray);
+      for (int j = 0; j < kBotPoseLength; j++) {
+        inputs.localizerBotPose[i][j] = j < botPose.length ? botPose[j] : 0;
+      }
+    }
+  }
+}
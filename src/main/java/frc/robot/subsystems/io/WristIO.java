@@ -0,0 +1,36 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utils.LoggableInputs;
+
+/** Where the {@link frc.robot.subsystems.Wrist} reads its motor from */
+public interface WristIO {
+  String kLogName = "/inputs/wrist";
+
+  /** Motor signals as of the start of the loop */
+  class Inputs implements LoggableInputs {
+    public double positionCounts;
+    public double velocityCounts;
+    public double percentOutput;
+
+    @Override
+    public String[] getFieldNames() {
+      return new String[] {"positionCounts", "velocityCounts", "percentOutput"};
+    }
+
+    @Override
+    public void toLog(double[] values) {
+      values[0] = positionCounts;
+      values[1] = velocityCounts;
+      values[2] = percentOutput;
+    }
+
+    @Override
+    public void fromLog(double[] values) {
+      positionCounts = values[0];
+      velocityCounts = values[1];
+      percentOutput = values[2];
+    }
+  }
+
+  void updateInputs(Inputs inputs);
+}
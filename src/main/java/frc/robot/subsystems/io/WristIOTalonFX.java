@@ -0,0 +1,19 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+
+/** Reads the wrist's TalonFX, on the robot or through its simulated state */
+public class WristIOTalonFX implements WristIO {
+  private final TalonFX m_motor;
+
+  public WristIOTalonFX(TalonFX motor) {
+    m_motor = motor;
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.positionCounts = m_motor.getSelectedSensorPosition();
+    inputs.velocityCounts = m_motor.getSelectedSensorVelocity();
+    inputs.percentOutput = m_motor.getMotorOutputPercent();
+  }
+}
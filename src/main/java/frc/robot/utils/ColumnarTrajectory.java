@@ -0,0 +1,327 @@
+package frc.robot.utils;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * A trajectory stored as parallel primitive columns instead of a list of state objects. All
+ * angles are stored in radians. Use a {@link Cursor} to sample it while following.
+ */
+public class ColumnarTrajectory {
+  private static final int kInitialCapacity = 256;
+  private static final int kCsvColumns = 10;
+
+  private int m_length;
+  private double[] m_time;
+  private double[] m_x;
+  private double[] m_y;
+  private double[] m_heading;
+  private double[] m_velocity;
+  private double[] m_acceleration;
+  private double[] m_curvature;
+  private double[] m_holonomicRotation;
+  private double[] m_holonomicAngularVelocity;
+
+  private ColumnarTrajectory(int capacity) {
+    m_time = new double[capacity];
+    m_x = new double[capacity];
+    m_y = new double[capacity];
+    m_heading = new double[capacity];
+    m_velocity = new double[capacity];
+    m_acceleration = new double[capacity];
+    m_curvature = new double[capacity];
+    m_holonomicRotation = new double[capacity];
+    m_holonomicAngularVelocity = new double[capacity];
+  }
+
+  /** Loads deploy/pathplanner/generatedCSV/{pathName}.csv */
+  public static ColumnarTrajectory fromGeneratedCsv(String pathName) {
+    var file =
+        new File(Filesystem.getDeployDirectory(), "pathplanner/generatedCSV/" + pathName + ".csv");
+    try {
+      return fromCsv(file);
+    } catch (IOException | IllegalArgumentException e) {
+      DriverStation.reportError(
+          "ColumnarTrajectory::fromGeneratedCsv failed for " + pathName, e.getStackTrace());
+      return new ColumnarTrajectory(0);
+    }
+  }
+
+  /**
+   * Reads a PathPlanner CSV export one line at a time, parsing each value directly into its
+   * column. Lines starting with '#' and blank lines are skipped.
+   */
+  public static ColumnarTrajectory fromCsv(File file) throws IOException {
+    var trajectory = new ColumnarTrajectory(kInitialCapacity);
+    double[] row = new double[kCsvColumns];
+
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath())) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank() || line.trim().startsWith("#")) continue;
+
+        int column = 0;
+        int start = 0;
+        while (start <= line.length() && column < kCsvColumns) {
+          int end = line.indexOf(',', start);
+          if (end < 0) end = line.length();
+          row[column++] = Double.parseDouble(line.substring(start, end).trim());
+          start = end + 1;
+        }
+        if (column != kCsvColumns) {
+          throw new IllegalArgumentException(
+              file.getName() + ":" + lineNumber + " has " + column + " columns");
+        }
+
+        trajectory.add(
+            row[0],
+            row[1],
+            row[2],
+            Math.toRadians(row[3]),
+            row[4],
+            row[5],
+            row[6],
+            Math.toRadians(row[7]),
+            Math.toRadians(row[9]));
+      }
+    }
+    return trajectory;
+  }
+
+  public static ColumnarTrajectory fromPathPlanner(PathPlannerTrajectory pathPlannerTrajectory) {
+    var states = pathPlannerTrajectory.getStates();
+    var trajectory = new ColumnarTrajectory(Math.max(states.size(), 1));
+
+    for (var state : states) {
+      var ppState = (PathPlannerState) state;
+      trajectory.add(
+          ppState.timeSeconds,
+          ppState.poseMeters.getX(),
+          ppState.poseMeters.getY(),
+          ppState.poseMeters.getRotation().getRadians(),
+          ppState.velocityMetersPerSecond,
+          ppState.accelerationMetersPerSecondSq,
+          ppState.curvatureRadPerMeter,
+          ppState.holonomicRotation.getRadians(),
+          ppState.holonomicAngularVelocityRadPerSec);
+    }
+    return trajectory;
+  }
+
+  private void add(
+      double time,
+      double x,
+      double y,
+      double heading,
+      double velocity,
+      double acceleration,
+      double curvature,
+      double holonomicRotation,
+      double holonomicAngularVelocity) {
+    if (m_length > 0 && time < m_time[m_length - 1]) {
+      throw new IllegalArgumentException("Trajectory timestamps must be non-decreasing");
+    }
+    if (m_length == m_time.length) grow();
+
+    m_time[m_length] = time;
+    m_x[m_length] = x;
+    m_y[m_length] = y;
+    m_heading[m_length] = heading;
+    m_velocity[m_length] = velocity;
+    m_acceleration[m_length] = acceleration;
+    m_curvature[m_length] = curvature;
+    m_holonomicRotation[m_length] = holonomicRotation;
+    m_holonomicAngularVelocity[m_length] = holonomicAngularVelocity;
+    m_length++;
+  }
+
+  private void grow() {
+    int capacity = Math.max(m_time.length * 2, kInitialCapacity);
+    m_time = Arrays.copyOf(m_time, capacity);
+    m_x = Arrays.copyOf(m_x, capacity);
+    m_y = Arrays.copyOf(m_y, capacity);
+    m_heading = Arrays.copyOf(m_heading, capacity);
+    m_velocity = Arrays.copyOf(m_velocity, capacity);
+    m_acceleration = Arrays.copyOf(m_acceleration, capacity);
+    m_curvature = Arrays.copyOf(m_curvature, capacity);
+    m_holonomicRotation = Arrays.copyOf(m_holonomicRotation, capacity);
+    m_holonomicAngularVelocity = Arrays.copyOf(m_holonomicAngularVelocity, capacity);
+  }
+
+  public int length() {
+    return m_length;
+  }
+
+  public boolean isEmpty() {
+    return m_length == 0;
+  }
+
+  public double getTotalTimeSeconds() {
+    return m_length == 0 ? 0 : m_time[m_length - 1];
+  }
+
+  public double getTime(int index) {
+    return m_time[index];
+  }
+
+  public double getX(int index) {
+    return m_x[index];
+  }
+
+  public double getY(int index) {
+    return m_y[index];
+  }
+
+  public double getHeadingRadians(int index) {
+    return m_heading[index];
+  }
+
+  public double getVelocity(int index) {
+    return m_velocity[index];
+  }
+
+  public double getHolonomicRotationRadians(int index) {
+    return m_holonomicRotation[index];
+  }
+
+  public Cursor cursor() {
+    return new Cursor(this);
+  }
+
+  /**
+   * Samples a {@link ColumnarTrajectory} into its own fields. Sample times are expected to mostly
+   * increase, so the cursor only walks forward from the last sample, which makes sampling during
+   * following O(1) amortized. Sampling backwards falls back to a binary search. No objects are
+   * allocated while sampling.
+   */
+  public static class Cursor {
+    private final ColumnarTrajectory m_trajectory;
+    private int m_index;
+
+    private double m_x;
+    private double m_y;
+    private double m_heading;
+    private double m_velocity;
+    private double m_acceleration;
+    private double m_curvature;
+    private double m_holonomicRotation;
+    private double m_holonomicAngularVelocity;
+
+    private Cursor(ColumnarTrajectory trajectory) {
+      m_trajectory = trajectory;
+    }
+
+    public void reset() {
+      m_index = 0;
+    }
+
+    /** Samples the trajectory at the given time, clamped to the start and end of the path. */
+    public void sample(double timeSeconds) {
+      var t = m_trajectory;
+      int last = t.m_length - 1;
+      if (last < 0) return;
+
+      if (timeSeconds <= t.m_time[0]) {
+        m_index = 0;
+        copy(0);
+        return;
+      }
+      if (timeSeconds >= t.m_time[last]) {
+        m_index = last;
+        copy(last);
+        return;
+      }
+
+      if (timeSeconds < t.m_time[m_index]) m_index = search(timeSeconds);
+      while (t.m_time[m_index + 1] <= timeSeconds) m_index++;
+
+      int i = m_index;
+      double span = t.m_time[i + 1] - t.m_time[i];
+      double s = span > 0 ? (timeSeconds - t.m_time[i]) / span : 0;
+
+      m_x = lerp(t.m_x, i, s);
+      m_y = lerp(t.m_y, i, s);
+      m_heading = lerpAngle(t.m_heading, i, s);
+      m_velocity = lerp(t.m_velocity, i, s);
+      m_acceleration = lerp(t.m_acceleration, i, s);
+      m_curvature = lerp(t.m_curvature, i, s);
+      m_holonomicRotation = lerpAngle(t.m_holonomicRotation, i, s);
+      m_holonomicAngularVelocity = lerp(t.m_holonomicAngularVelocity, i, s);
+    }
+
+    /** Returns the last index whose timestamp is at or before timeSeconds */
+    private int search(double timeSeconds) {
+      int low = 0;
+      int high = m_trajectory.m_length - 1;
+      while (low < high) {
+        int mid = (low + high + 1) >>> 1;
+        if (m_trajectory.m_time[mid] <= timeSeconds) low = mid;
+        else high = mid - 1;
+      }
+      return low;
+    }
+
+    private void copy(int i) {
+      var t = m_trajectory;
+      m_x = t.m_x[i];
+      m_y = t.m_y[i];
+      m_heading = t.m_heading[i];
+      m_velocity = t.m_velocity[i];
+      m_acceleration = t.m_acceleration[i];
+      m_curvature = t.m_curvature[i];
+      m_holonomicRotation = t.m_holonomicRotation[i];
+      m_holonomicAngularVelocity = t.m_holonomicAngularVelocity[i];
+    }
+
+    private static double lerp(double[] column, int i, double s) {
+      return column[i] + (column[i + 1] - column[i]) * s;
+    }
+
+    private static double lerpAngle(double[] column, int i, double s) {
+      return MathUtil.angleModulus(
+          column[i] + MathUtil.angleModulus(column[i + 1] - column[i]) * s);
+    }
+
+    public double getX() {
+      return m_x;
+    }
+
+    public double getY() {
+      return m_y;
+    }
+
+    public double getHeadingRadians() {
+      return m_heading;
+    }
+
+    public double getVelocity() {
+      return m_velocity;
+    }
+
+    public double getAcceleration() {
+      return m_acceleration;
+    }
+
+    public double getCurvature() {
+      return m_curvature;
+    }
+
+    public double getHolonomicRotationRadians() {
+      return m_holonomicRotation;
+    }
+
+    public double getHolonomicAngularVelocity() {
+      return m_holonomicAngularVelocity;
+    }
+  }
+}
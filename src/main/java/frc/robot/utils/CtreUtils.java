@@ -55,46 +55,56 @@ public final class CtreUtils {
     return sensorConfig;
   }
 
+  /**
+   * Mutable module setpoint so {@link #optimize(double, double, double, ModuleSetpoint)} can be
+   * called every loop without allocating.
+   */
+  public static final class ModuleSetpoint {
+    public double speedMetersPerSecond;
+    public double angleDegrees;
+  }
+
   public static SwerveModuleState optimize(
       SwerveModuleState desiredState, Rotation2d currentAngle) {
-    double targetAngle =
-        placeInAppropriate0To360Scope(currentAngle.getDegrees(), desiredState.angle.getDegrees());
-    double targetSpeed = desiredState.speedMetersPerSecond;
-    double delta = targetAngle - currentAngle.getDegrees();
-    if (Math.abs(delta) > 90) {
-      targetSpeed = -targetSpeed;
-      targetAngle = delta > 90 ? targetAngle - 180 : targetAngle + 180;
-    }
-    return new SwerveModuleState(targetSpeed, Rotation2d.fromDegrees(targetAngle));
+    var setpoint = new ModuleSetpoint();
+    optimize(
+        desiredState.speedMetersPerSecond,
+        desiredState.angle.getDegrees(),
+        currentAngle.getDegrees(),
+        setpoint);
+    return new SwerveModuleState(
+        setpoint.speedMetersPerSecond, Rotation2d.fromDegrees(setpoint.angleDegrees));
   }
 
   /**
-   * @param scopeReference Current Angle
-   * @param newAngle Target Angle
-   * @return Closest angle within scope
+   * Finds the angle closest to the current module angle that points the module in the desired
+   * direction, driving backwards if that turns the module less. The current angle can be wound any
+   * number of turns, and the result is in the same scope so the turn motor doesn't unwind.
+   *
+   * @param desiredSpeedMetersPerSecond Desired module speed
+   * @param desiredAngleDegrees Desired module angle
+   * @param currentAngleDegrees Current (continuous) module angle
+   * @param output Setpoint to write the result into
    */
-  private static double placeInAppropriate0To360Scope(double scopeReference, double newAngle) {
-    double lowerBound;
-    double upperBound;
-    double lowerOffset = scopeReference % 360;
-    if (lowerOffset >= 0) {
-      lowerBound = scopeReference - lowerOffset;
-      upperBound = scopeReference + (360 - lowerOffset);
-    } else {
-      upperBound = scopeReference - lowerOffset;
-      lowerBound = scopeReference - (360 + lowerOffset);
+  public static void optimize(
+      double desiredSpeedMetersPerSecond,
+      double desiredAngleDegrees,
+      double currentAngleDegrees,
+      ModuleSetpoint output) {
+    double delta = desiredAngleDegrees - currentAngleDegrees;
+    // Wrap to [-180, 180] in constant time, regardless of how far the module has wound
+    delta -= 360.0 * Math.round(delta / 360.0);
+
+    double speed = desiredSpeedMetersPerSecond;
+    if (delta > 90) {
+      delta -= 180;
+      speed = -speed;
+    } else if (delta < -90) {
+      delta += 180;
+      speed = -speed;
     }
-    while (newAngle < lowerBound) {
-      newAngle += 360;
-    }
-    while (newAngle > upperBound) {
-      newAngle -= 360;
-    }
-    if (newAngle - scopeReference > 180) {
-      newAngle -= 360;
-    } else if (newAngle - scopeReference < -180) {
-      newAngle += 360;
-    }
-    return newAngle;
+
+    output.speedMetersPerSecond = speed;
+    output.angleDegrees = currentAngleDegrees + delta;
   }
 }
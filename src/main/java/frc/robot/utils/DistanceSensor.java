@@ -6,9 +6,6 @@ package frc.robot.utils;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.networktables.DoublePublisher;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StringPublisher;
 import edu.wpi.first.wpilibj.smartdashboard.Mechanism2d;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismRoot2d;
@@ -17,8 +14,8 @@ import edu.wpi.first.wpilibj.util.Color8Bit;
 import frc.robot.Constants.INTAKE;
 import frc.robot.Constants.INTAKE.INTAKE_STATE;
 import frc.robot.Constants.INTAKE.SENSOR_STATUS;
-import frc.robot.Constants.STATE_HANDLER;
 import frc.robot.simulation.SimConstants;
+import frc.robot.utils.TelemetryScheduler.Tier;
 import java.io.IOException;
 import java.io.StringReader;
 import java.net.DatagramPacket;
@@ -41,22 +38,10 @@ public class DistanceSensor implements AutoCloseable {
   private String receivedData = "";
   private boolean isInitialized = false;
 
-  private final boolean m_limitCanUtil = STATE_HANDLER.limitCanUtilization;
-
   private final Random rand = new Random();
+  private final Telemetry m_distanceSensorTab = Telemetry.shuffleboard("DistanceSensor");
   private Object obj;
 
-  // Shuffleboard setup
-  StringPublisher rawStringPub;
-  DoublePublisher sensor1InchPub,
-      sensor2InchPub,
-      sensor3InchPub,
-      sensor1MMPub,
-      sensor2MMPub,
-      sensor3MMPub,
-      coneInchesPub,
-      cubeInchesPub;
-
   // Mechanism2d visualization setup
   private final Mechanism2d mech2d =
       new Mechanism2d(INTAKE.innerIntakeWidth * 1.5, INTAKE.innerIntakeWidth);
@@ -211,17 +196,16 @@ public class DistanceSensor implements AutoCloseable {
   }
 
   private void initSmartDashboard() {
-    var distanceSensorTab =
-        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("DistanceSensor");
-    rawStringPub = distanceSensorTab.getStringTopic("Raw String Data").publish();
-    sensor1MMPub = distanceSensorTab.getDoubleTopic("Sensor1MM").publish();
-    sensor2MMPub = distanceSensorTab.getDoubleTopic("Sensor2MM").publish();
-    sensor3MMPub = distanceSensorTab.getDoubleTopic("Sensor3MM").publish();
-    sensor1InchPub = distanceSensorTab.getDoubleTopic("Sensor1Inches").publish();
-    sensor2InchPub = distanceSensorTab.getDoubleTopic("Sensor2Inches").publish();
-    sensor3InchPub = distanceSensorTab.getDoubleTopic("Sensor3Inches").publish();
-    coneInchesPub = distanceSensorTab.getDoubleTopic("ConeDistanceInches").publish();
-    cubeInchesPub = distanceSensorTab.getDoubleTopic("CubeDistanceInches").publish();
+    m_distanceSensorTab.addString("Raw String Data", Tier.DEBUG, this::getRawSensorData);
+    for (int i = 1; i <= 3; i++) {
+      int sensor = i;
+      m_distanceSensorTab.addDouble(
+          "Sensor" + i + "MM", Tier.DEBUG, () -> getSensorValueMillimeters(sensor));
+      m_distanceSensorTab.addDouble(
+          "Sensor" + i + "Inches", Tier.DEBUG, () -> getSensorValueInches(sensor));
+    }
+    m_distanceSensorTab.addDouble("ConeDistanceInches", Tier.DEBUG, this::getConeDistanceInches);
+    m_distanceSensorTab.addDouble("CubeDistanceInches", Tier.DEBUG, this::getCubeDistanceInches);
 
     coneIntakeLig.setColor(new Color8Bit(128, 0, 0));
     cubeIntakeLig.setColor(new Color8Bit(128, 0, 0));
@@ -268,36 +252,6 @@ public class DistanceSensor implements AutoCloseable {
     }
   }
 
-  public void updateSmartDashboard() {
-    if (!m_limitCanUtil) {
-      // Put not required stuff here
-      sensor1MMPub.set(getSensorValueMillimeters(1));
-      sensor2MMPub.set(getSensorValueMillimeters(2));
-      sensor3MMPub.set(getSensorValueMillimeters(3));
-      sensor1InchPub.set(getSensorValueInches(1));
-      sensor2InchPub.set(getSensorValueInches(2));
-      sensor3InchPub.set(getSensorValueInches(3));
-      coneInchesPub.set(getConeDistanceInches());
-      cubeInchesPub.set(getCubeDistanceInches());
-      rawStringPub.set(receivedData);
-
-      // Mech2d updates
-      //      coneRoot.setPosition(
-      //          INTAKE.innerIntakeWidth * 0.25
-      //              + Units.inchesToMeters(getConeDistanceInches())
-      //              - getConeWidthMeters() / 2,
-      //          INTAKE.innerIntakeWidth * 0.1);
-      //      cubeRoot.setPosition(
-      //          INTAKE.innerIntakeWidth * 0.25
-      //              + Units.inchesToMeters(getCubeDistanceInches())
-      //              - SimConstants.cubeWidth / 2,
-      //          INTAKE.innerIntakeWidth * 0.9);
-      //      coneLig.setLength(getConeWidthMeters());
-      //      coneIntakeLig.setLength(Units.inchesToMeters(getConeDistanceInches()));
-      //      cubeIntakeLig.setLength(Units.inchesToMeters(getCubeDistanceInches()));
-    }
-  }
-
   public void pollDistanceSensors() {
     // This method will be called once per scheduler run
     // testParserTab.setInteger(testParser());
@@ -341,12 +295,26 @@ public class DistanceSensor implements AutoCloseable {
   }
 
   public void periodic() {
-    updateSmartDashboard();
+    // Mech2d updates
+    //    coneRoot.setPosition(
+    //        INTAKE.innerIntakeWidth * 0.25
+    //            + Units.inchesToMeters(getConeDistanceInches())
+    //            - getConeWidthMeters() / 2,
+    //        INTAKE.innerIntakeWidth * 0.1);
+    //    cubeRoot.setPosition(
+    //        INTAKE.innerIntakeWidth * 0.25
+    //            + Units.inchesToMeters(getCubeDistanceInches())
+    //            - SimConstants.cubeWidth / 2,
+    //        INTAKE.innerIntakeWidth * 0.9);
+    //    coneLig.setLength(getConeWidthMeters());
+    //    coneIntakeLig.setLength(Units.inchesToMeters(getConeDistanceInches()));
+    //    cubeIntakeLig.setLength(Units.inchesToMeters(getCubeDistanceInches()));
   }
 
   @SuppressWarnings("RedundantThrows")
   @Override
   public void close() throws Exception {
+    m_distanceSensorTab.close();
     if (socket != null) socket.close();
   }
 }
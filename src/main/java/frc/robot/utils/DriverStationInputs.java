@@ -0,0 +1,164 @@
+package frc.robot.utils;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The driver station state, joysticks and auto selection the robot code saw in a loop. Replaying
+ * them through the simulated driver station runs the same modes, autos and commands as the recorded
+ * match.
+ */
+public class DriverStationInputs implements LoggableInputs {
+  public static final String kLogName = "/inputs/driverStation";
+
+  // Controllers on ports 0 to 2, and the axes, buttons and POV they have
+  private static final int kSticks = 3;
+  private static final int kAxes = 6;
+  private static final int kStickFields = kAxes + 5;
+
+  public boolean enabled;
+  public boolean autonomous;
+  public boolean test;
+  public boolean dsAttached;
+  public boolean fmsAttached;
+  // AllianceStationID ordinal, or -1 before the alliance is known
+  public int allianceStation = -1;
+  public double matchTime;
+  // RobotContainer's index of the selected auto, which update() leaves to the robot code to set
+  public int selectedAuto = -1;
+
+  public final int[] axisCounts = new int[kSticks];
+  public final double[][] axes = new double[kSticks][kAxes];
+  public final int[] buttonCounts = new int[kSticks];
+  public final int[] buttons = new int[kSticks];
+  public final int[] povCounts = new int[kSticks];
+  public final int[] povs = new int[kSticks];
+
+  /** Copies what the robot code currently sees from the driver station */
+  public void update() {
+    enabled = DriverStation.isEnabled();
+    autonomous = DriverStation.isAutonomous();
+    test = DriverStation.isTest();
+    dsAttached = DriverStation.isDSAttached();
+    fmsAttached = DriverStation.isFMSAttached();
+    int location = DriverStation.getLocation();
+    switch (DriverStation.getAlliance()) {
+      case Red:
+        allianceStation = location > 0 ? location - 1 : -1;
+        break;
+      case Blue:
+        allianceStation = location > 0 ? location + 2 : -1;
+        break;
+      default:
+        allianceStation = -1;
+        break;
+    }
+    matchTime = DriverStation.getMatchTime();
+
+    for (int stick = 0; stick < kSticks; stick++) {
+      axisCounts[stick] = DriverStation.getStickAxisCount(stick);
+      for (int axis = 0; axis < kAxes; axis++) {
+        axes[stick][axis] = axis < axisCounts[stick] ? DriverStation.getStickAxis(stick, axis) : 0;
+      }
+      buttonCounts[stick] = DriverStation.getStickButtonCount(stick);
+      buttons[stick] = DriverStation.getStickButtons(stick);
+      povCounts[stick] = DriverStation.getStickPOVCount(stick);
+      povs[stick] = povCounts[stick] > 0 ? DriverStation.getStickPOV(stick, 0) : -1;
+    }
+  }
+
+  /** Sends these inputs to the simulated driver station, which the next loop reads */
+  public void applyToSim() {
+    DriverStationSim.setEnabled(enabled);
+    DriverStationSim.setAutonomous(autonomous);
+    DriverStationSim.setTest(test);
+    DriverStationSim.setDsAttached(dsAttached);
+    DriverStationSim.setFmsAttached(fmsAttached);
+    if (allianceStation >= 0) {
+      DriverStationSim.setAllianceStationId(AllianceStationID.values()[allianceStation]);
+    }
+    DriverStationSim.setMatchTime(matchTime);
+
+    for (int stick = 0; stick < kSticks; stick++) {
+      DriverStationSim.setJoystickAxisCount(stick, axisCounts[stick]);
+      for (int axis = 0; axis < kAxes; axis++) {
+        DriverStationSim.setJoystickAxis(stick, axis, axes[stick][axis]);
+      }
+      DriverStationSim.setJoystickButtonCount(stick, buttonCounts[stick]);
+      DriverStationSim.setJoystickButtons(stick, buttons[stick]);
+      DriverStationSim.setJoystickPOVCount(stick, povCounts[stick]);
+      DriverStationSim.setJoystickPOV(stick, 0, povs[stick]);
+    }
+    DriverStationSim.notifyNewData();
+  }
+
+  @Override
+  public String[] getFieldNames() {
+    List<String> fields =
+        new ArrayList<>(
+            List.of(
+                "enabled",
+                "autonomous",
+                "test",
+                "dsAttached",
+                "fmsAttached",
+                "allianceStation",
+                "matchTime",
+                "selectedAuto"));
+    for (int stick = 0; stick < kSticks; stick++) {
+      String prefix = "stick" + stick + "/";
+      fields.add(prefix + "axisCount");
+      for (int axis = 0; axis < kAxes; axis++) fields.add(prefix + "axis" + axis);
+      fields.add(prefix + "buttonCount");
+      fields.add(prefix + "buttons");
+      fields.add(prefix + "povCount");
+      fields.add(prefix + "pov");
+    }
+    return fields.toArray(new String[0]);
+  }
+
+  @Override
+  public void toLog(double[] values) {
+    values[0] = enabled ? 1 : 0;
+    values[1] = autonomous ? 1 : 0;
+    values[2] = test ? 1 : 0;
+    values[3] = dsAttached ? 1 : 0;
+    values[4] = fmsAttached ? 1 : 0;
+    values[5] = allianceStation;
+    values[6] = matchTime;
+    values[7] = selectedAuto;
+    for (int stick = 0; stick < kSticks; stick++) {
+      int field = 8 + stick * kStickFields;
+      values[field++] = axisCounts[stick];
+      for (int axis = 0; axis < kAxes; axis++) values[field++] = axes[stick][axis];
+      values[field++] = buttonCounts[stick];
+      values[field++] = buttons[stick];
+      values[field++] = povCounts[stick];
+      values[field] = povs[stick];
+    }
+  }
+
+  @Override
+  public void fromLog(double[] values) {
+    enabled = values[0] != 0;
+    autonomous = values[1] != 0;
+    test = values[2] != 0;
+    dsAttached = values[3] != 0;
+    fmsAttached = values[4] != 0;
+    allianceStation = (int) values[5];
+    matchTime = values[6];
+    selectedAuto = (int) values[7];
+    for (int stick = 0; stick < kSticks; stick++) {
+      int field = 8 + stick * kStickFields;
+      axisCounts[stick] = (int) values[field++];
+      for (int axis = 0; axis < kAxes; axis++) axes[stick][axis] = values[field++];
+      buttonCounts[stick] = (int) values[field++];
+      buttons[stick] = (int) values[field++];
+      povCounts[stick] = (int) values[field++];
+      povs[stick] = (int) values[field];
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package frc.robot.utils;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotBase;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the robot loop, its sections, commands and CAN calls.
+ *
+ * <p>Recording is only possible in simulation, and only when the {@value #kProperty} system
+ * property is set, e.g. {@code JAVA_TOOL_OPTIONS=-Dfrc.jfr=true ./gradlew simulateJava}. The
+ * recording uses the bundled {@value #kConfiguration} settings and is written to the log
+ * directory when the simulation exits, or to the property's value if it's a path ending in .jfr.
+ * Summarize it with {@code ./gradlew summarizeJfr -Pjfr=path/to/file.jfr} (see {@link
+ * FlightRecordingSummary}).
+ *
+ * <p>Every method returns right away when recording is off, so no event class is ever loaded.
+ * The roboRIO's JRE doesn't have to include jdk.jfr. Section events come from {@link
+ * LoopOverrunMonitor}'s marks, so each subsystem's periodic() is the section named after it.
+ * Everything here is called from the main thread.
+ *
+ * <p>The scheduler's only hook around a command's execute() runs after it, so a command's event
+ * starts where the scheduler was done with the command before it: at {@link #startCommands()}
+ * for the first, and otherwise after the last command's execute() or, if it ended, its end(). It
+ * also covers the last command's isFinished() when that command keeps running.
+ */
+public class FlightRecorder {
+  public static final String kProperty = "frc.jfr";
+  public static final String kConfiguration = "robot.jfc";
+
+  private static final boolean kEnabled =
+      RobotBase.isSimulation() && System.getProperty(kProperty) != null;
+
+  private static Recording m_recording;
+  private static LoopEvent m_loop;
+  private static LoopSectionEvent m_section;
+  private static CommandExecuteEvent m_command;
+  private static CanCallEvent m_canCall;
+  private static long m_loops;
+
+  @Name("frc.RobotLoop")
+  @Label("Robot Loop")
+  @Category("Robot")
+  @StackTrace(false)
+  static class LoopEvent extends Event {
+    @Label("Loop")
+    long loop;
+  }
+
+  @Name("frc.LoopSection")
+  @Label("Loop Section")
+  @Category("Robot")
+  @StackTrace(false)
+  static class LoopSectionEvent extends Event {
+    @Label("Section")
+    String section;
+  }
+
+  @Name("frc.CommandExecute")
+  @Label("Command Execute")
+  @Category("Robot")
+  @StackTrace(false)
+  static class CommandExecuteEvent extends Event {
+    @Label("Command")
+    String command;
+  }
+
+  @Name("frc.CanCall")
+  @Label("CAN Call")
+  @Category("Robot")
+  @StackTrace(false)
+  static class CanCallEvent extends Event {
+    @Label("Device")
+    String device;
+
+    @Label("Call")
+    String call;
+  }
+
+  private FlightRecorder() {}
+
+  public static boolean isEnabled() {
+    return kEnabled;
+  }
+
+  /** Starts the recording if it was asked for. Call it first thing in robotInit(). */
+  public static void start() {
+    if (!kEnabled || m_recording != null) return;
+
+    InputStream configuration = FlightRecorder.class.getResourceAsStream("/" + kConfiguration);
+    if (configuration == null) {
+      System.out.println("Couldn't start the flight recording: " + kConfiguration + " is missing");
+      return;
+    }
+
+    Path destination = getDestination();
+    try (Reader reader = new InputStreamReader(configuration, StandardCharsets.UTF_8)) {
+      m_recording = new Recording(Configuration.create(reader));
+      m_recording.setName("Robot");
+      m_recording.setToDisk(true);
+      m_recording.setDestination(destination);
+      m_recording.setDumpOnExit(true);
+      m_recording.start();
+      System.out.println("Flight recording to " + destination);
+    } catch (IOException | ParseException e) {
+      System.out.println("Couldn't start the flight recording: " + e);
+      m_recording = null;
+    }
+  }
+
+  private static Path getDestination() {
+    String value = System.getProperty(kProperty);
+    if (value.endsWith(".jfr")) return Paths.get(value).toAbsolutePath();
+
+    String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+    return Paths.get(DataLogManager.getLogDir(), "FRC_" + time + ".jfr").toAbsolutePath();
+  }
+
+  public static void startLoop() {
+    if (!kEnabled) return;
+    m_loop = new LoopEvent();
+    m_loop.loop = m_loops++;
+    m_loop.begin();
+  }
+
+  /** Ends the loop and whatever section was still running */
+  public static void endLoop() {
+    if (!kEnabled) return;
+    m_command = null;
+    endSection();
+    if (m_loop != null) m_loop.commit();
+    m_loop = null;
+  }
+
+  /** Ends the running section, unless it has the same name, and starts this one */
+  public static void markSection(String section) {
+    if (!kEnabled) return;
+    // The time after the last command isn't any command's
+    m_command = null;
+    if (m_section != null && m_section.section.equals(section)) return;
+
+    endSection();
+    m_section = new LoopSectionEvent();
+    m_section.section = section;
+    m_section.begin();
+  }
+
+  private static void endSection() {
+    if (m_section != null) m_section.commit();
+    m_section = null;
+  }
+
+  /** The scheduler is about to run the scheduled commands. Call it after marking their section. */
+  public static void startCommands() {
+    if (!kEnabled) return;
+    beginCommand();
+  }
+
+  /** The scheduler has run a command's execute(), which ends its event */
+  public static void commandExecuted(String command) {
+    if (!kEnabled || m_command == null) return;
+    m_command.command = command;
+    m_command.commit();
+    beginCommand();
+  }
+
+  /** A command ended, so its end() isn't part of the next command's event */
+  public static void commandEnded() {
+    if (!kEnabled || m_command == null) return;
+    beginCommand();
+  }
+
+  private static void beginCommand() {
+    m_command = new CommandExecuteEvent();
+    m_command.begin();
+  }
+
+  /**
+   * Starts timing a blocking call to a CAN device, like configuring it or setting its output.
+   * Follow the call with {@link #endCanCall()}.
+   */
+  public static void startCanCall(String device, String call) {
+    if (!kEnabled) return;
+    endCanCall();
+    m_canCall = new CanCallEvent();
+    m_canCall.device = device;
+    m_canCall.call = call;
+    m_canCall.begin();
+  }
+
+  public static void endCanCall() {
+    if (!kEnabled) return;
+    if (m_canCall != null) m_canCall.commit();
+    m_canCall = null;
+  }
+}
@@ -0,0 +1,140 @@
+package frc.robot.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Prints the latency percentiles of each component of the robot loop from a {@link
+ * FlightRecorder} recording.
+ *
+ * <p>Run it with {@code ./gradlew summarizeJfr -Pjfr=path/to/file.jfr}. There's one row for the
+ * loop, each section, each command, each CAN device and call, and the GC pauses, with the count,
+ * the 50th, 95th and 99th percentiles and the max in milliseconds, and the total time in seconds.
+ * Rows are grouped by kind, slowest total first.
+ */
+public class FlightRecordingSummary {
+  // The events summarized, in the order their rows are printed
+  private static final String[] kEventTypes = {
+    "frc.RobotLoop", "frc.LoopSection", "frc.CommandExecute", "frc.CanCall", "jdk.GCPhasePause"
+  };
+
+  /** Every duration recorded for one component, in nanoseconds */
+  static class Component {
+    // Loops, sections, commands, CAN calls and then GC pauses
+    final int kind;
+    final String name;
+    private long[] m_durations = new long[64];
+    private int m_size;
+    private boolean m_sorted;
+
+    Component(int kind, String name) {
+      this.kind = kind;
+      this.name = name;
+    }
+
+    void add(long durationNanos) {
+      if (m_size == m_durations.length) m_durations = Arrays.copyOf(m_durations, m_size * 2);
+      m_durations[m_size++] = durationNanos;
+      m_sorted = false;
+    }
+
+    int count() {
+      return m_size;
+    }
+
+    long totalNanos() {
+      long total = 0;
+      for (int i = 0; i < m_size; i++) total += m_durations[i];
+      return total;
+    }
+
+    /** Nearest-rank percentile, like {@link LatencyTracker} */
+    long percentileNanos(double percentile) {
+      if (!m_sorted) {
+        Arrays.sort(m_durations, 0, m_size);
+        m_sorted = true;
+      }
+      int rank = (int) Math.ceil(percentile * m_size);
+      return m_durations[Math.max(rank - 1, 0)];
+    }
+  }
+
+  /** Groups the events' durations by component, keyed by name */
+  static Map<String, Component> summarize(List<RecordedEvent> events) {
+    Map<String, Component> components = new HashMap<>();
+    for (RecordedEvent event : events) {
+      int kind = getKind(event);
+      if (kind < 0) continue;
+      String name = getComponentName(event);
+      components
+          .computeIfAbsent(name, key -> new Component(kind, key))
+          .add(event.getDuration().toNanos());
+    }
+    return components;
+  }
+
+  private static int getKind(RecordedEvent event) {
+    return Arrays.asList(kEventTypes).indexOf(event.getEventType().getName());
+  }
+
+  private static String getComponentName(RecordedEvent event) {
+    switch (event.getEventType().getName()) {
+      case "frc.LoopSection":
+        return "Section: " + event.getString("section");
+      case "frc.CommandExecute":
+        return "Command: " + event.getString("command");
+      case "frc.CanCall":
+        return "CAN: " + event.getString("device") + " " + event.getString("call");
+      case "jdk.GCPhasePause":
+        return "GC pause";
+      default:
+        return "Loop";
+    }
+  }
+
+  static String format(Map<String, Component> components) {
+    List<Component> rows = new ArrayList<>(components.values());
+    // Within a kind, the component that took the most time overall comes first
+    rows.sort(
+        (a, b) ->
+            a.kind != b.kind
+                ? Integer.compare(a.kind, b.kind)
+                : Long.compare(b.totalNanos(), a.totalNanos()));
+
+    StringBuilder summary = new StringBuilder();
+    summary.append(
+        String.format(
+            "%-48s %8s %8s %8s %8s %8s %9s%n",
+            "Component", "Count", "p50 ms", "p95 ms", "p99 ms", "Max ms", "Total s"));
+    for (Component row : rows) {
+      summary.append(
+          String.format(
+              "%-48s %8d %8.3f %8.3f %8.3f %8.3f %9.3f%n",
+              row.name,
+              row.count(),
+              row.percentileNanos(0.5) / 1e6,
+              row.percentileNanos(0.95) / 1e6,
+              row.percentileNanos(0.99) / 1e6,
+              row.percentileNanos(1) / 1e6,
+              row.totalNanos() / 1e9));
+    }
+    return summary.toString();
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1 || args[0].isEmpty()) {
+      System.err.println("Usage: ./gradlew summarizeJfr -Pjfr=path/to/file.jfr");
+      System.exit(1);
+    }
+    Path path = Paths.get(args[0]);
+    System.out.print(format(summarize(RecordingFile.readAllEvents(path))));
+  }
+}
@@ -0,0 +1,195 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Swerve kinematics for exactly four modules, giving the same results as WPILib's
+ * SwerveDriveKinematics without going through EJML every call. The forward kinematics matrix is
+ * only inverted once in the constructor, and both directions are written out by hand into
+ * caller-supplied outputs.
+ *
+ * <p>Modules are in the same order as the locations passed in, which for {@link
+ * frc.robot.Constants.SWERVE_DRIVE#kModuleTranslations} is the SWERVE_MODULE_POSITION order.
+ * Rotation is always about the robot center.
+ */
+public class FourModuleSwerveKinematics {
+  private final double m_x0, m_y0, m_x1, m_y1, m_x2, m_y2, m_x3, m_y3;
+
+  // Rows of the pseudo-inverse of the inverse kinematics matrix, which map the module velocity
+  // components (vx0, vy0, vx1, vy1, ...) to the chassis speeds
+  private final double[] m_vxCoefficients = new double[8];
+  private final double[] m_vyCoefficients = new double[8];
+  private final double[] m_omegaCoefficients = new double[8];
+
+  // Module headings from the last call, kept while the robot is stopped like WPILib does
+  private final Rotation2d[] m_moduleHeadings = {
+    new Rotation2d(), new Rotation2d(), new Rotation2d(), new Rotation2d()
+  };
+
+  public FourModuleSwerveKinematics(Translation2d... moduleLocations) {
+    if (moduleLocations.length != 4) {
+      throw new IllegalArgumentException(
+          "FourModuleSwerveKinematics requires 4 modules, got " + moduleLocations.length);
+    }
+    m_x0 = moduleLocations[0].getX();
+    m_y0 = moduleLocations[0].getY();
+    m_x1 = moduleLocations[1].getX();
+    m_y1 = moduleLocations[1].getY();
+    m_x2 = moduleLocations[2].getX();
+    m_y2 = moduleLocations[2].getY();
+    m_x3 = moduleLocations[3].getX();
+    m_y3 = moduleLocations[3].getY();
+
+    var inverseKinematics = new SimpleMatrix(8, 3);
+    for (int i = 0; i < 4; i++) {
+      inverseKinematics.setRow(i * 2, 0, 1, 0, -moduleLocations[i].getY());
+      inverseKinematics.setRow(i * 2 + 1, 0, 0, 1, moduleLocations[i].getX());
+    }
+    var forwardKinematics = inverseKinematics.pseudoInverse();
+    for (int i = 0; i < 8; i++) {
+      m_vxCoefficients[i] = forwardKinematics.get(0, i);
+      m_vyCoefficients[i] = forwardKinematics.get(1, i);
+      m_omegaCoefficients[i] = forwardKinematics.get(2, i);
+    }
+  }
+
+  /**
+   * Writes the module states for the given chassis speeds into outputStates. If the chassis speeds
+   * are all zero, the modules keep their previous headings.
+   */
+  public void toSwerveModuleStates(
+      double vxMetersPerSecond,
+      double vyMetersPerSecond,
+      double omegaRadiansPerSecond,
+      SwerveModuleState[] outputStates) {
+    if (vxMetersPerSecond == 0.0 && vyMetersPerSecond == 0.0 && omegaRadiansPerSecond == 0.0) {
+      for (int i = 0; i < 4; i++) {
+        outputStates[i].speedMetersPerSecond = 0.0;
+        outputStates[i].angle = m_moduleHeadings[i];
+      }
+      return;
+    }
+
+    writeState(
+        0,
+        vxMetersPerSecond - omegaRadiansPerSecond * m_y0,
+        vyMetersPerSecond + omegaRadiansPerSecond * m_x0,
+        outputStates[0]);
+    writeState(
+        1,
+        vxMetersPerSecond - omegaRadiansPerSecond * m_y1,
+        vyMetersPerSecond + omegaRadiansPerSecond * m_x1,
+        outputStates[1]);
+    writeState(
+        2,
+        vxMetersPerSecond - omegaRadiansPerSecond * m_y2,
+        vyMetersPerSecond + omegaRadiansPerSecond * m_x2,
+        outputStates[2]);
+    writeState(
+        3,
+        vxMetersPerSecond - omegaRadiansPerSecond * m_y3,
+        vyMetersPerSecond + omegaRadiansPerSecond * m_x3,
+        outputStates[3]);
+  }
+
+  public void toSwerveModuleStates(ChassisSpeeds chassisSpeeds, SwerveModuleState[] outputStates) {
+    toSwerveModuleStates(
+        chassisSpeeds.vxMetersPerSecond,
+        chassisSpeeds.vyMetersPerSecond,
+        chassisSpeeds.omegaRadiansPerSecond,
+        outputStates);
+  }
+
+  private void writeState(int module, double vx, double vy, SwerveModuleState state) {
+    var angle = new Rotation2d(vx, vy);
+    state.speedMetersPerSecond = Math.hypot(vx, vy);
+    state.angle = angle;
+    m_moduleHeadings[module] = angle;
+  }
+
+  /** Writes the least squares chassis speeds for the given module states into output. */
+  public ChassisSpeeds toChassisSpeeds(SwerveModuleState[] moduleStates, ChassisSpeeds output) {
+    double vx0 = moduleStates[0].speedMetersPerSecond * moduleStates[0].angle.getCos();
+    double vy0 = moduleStates[0].speedMetersPerSecond * moduleStates[0].angle.getSin();
+    double vx1 = moduleStates[1].speedMetersPerSecond * moduleStates[1].angle.getCos();
+    double vy1 = moduleStates[1].speedMetersPerSecond * moduleStates[1].angle.getSin();
+    double vx2 = moduleStates[2].speedMetersPerSecond * moduleStates[2].angle.getCos();
+    double vy2 = moduleStates[2].speedMetersPerSecond * moduleStates[2].angle.getSin();
+    double vx3 = moduleStates[3].speedMetersPerSecond * moduleStates[3].angle.getCos();
+    double vy3 = moduleStates[3].speedMetersPerSecond * moduleStates[3].angle.getSin();
+
+    output.vxMetersPerSecond = dot(m_vxCoefficients, vx0, vy0, vx1, vy1, vx2, vy2, vx3, vy3);
+    output.vyMetersPerSecond = dot(m_vyCoefficients, vx0, vy0, vx1, vy1, vx2, vy2, vx3, vy3);
+    output.omegaRadiansPerSecond =
+        dot(m_omegaCoefficients, vx0, vy0, vx1, vy1, vx2, vy2, vx3, vy3);
+    return output;
+  }
+
+  /**
+   * Least squares robot motion for the given module motion, such as the module displacements
+   * between two odometry updates. Writes x, y and theta into output.
+   *
+   * @param moduleX X component of each module's motion
+   * @param moduleY Y component of each module's motion
+   * @param output Array of at least 3 elements to write the result into
+   */
+  public void toTwist(double[] moduleX, double[] moduleY, double[] output) {
+    output[0] =
+        dot(
+            m_vxCoefficients,
+            moduleX[0],
+            moduleY[0],
+            moduleX[1],
+            moduleY[1],
+            moduleX[2],
+            moduleY[2],
+            moduleX[3],
+            moduleY[3]);
+    output[1] =
+        dot(
+            m_vyCoefficients,
+            moduleX[0],
+            moduleY[0],
+            moduleX[1],
+            moduleY[1],
+            moduleX[2],
+            moduleY[2],
+            moduleX[3],
+            moduleY[3]);
+    output[2] =
+        dot(
+            m_omegaCoefficients,
+            moduleX[0],
+            moduleY[0],
+            moduleX[1],
+            moduleY[1],
+            moduleX[2],
+            moduleY[2],
+            moduleX[3],
+            moduleY[3]);
+  }
+
+  private static double dot(
+      double[] coefficients,
+      double vx0,
+      double vy0,
+      double vx1,
+      double vy1,
+      double vx2,
+      double vy2,
+      double vx3,
+      double vy3) {
+    return coefficients[0] * vx0
+        + coefficients[1] * vy0
+        + coefficients[2] * vx1
+        + coefficients[3] * vy1
+        + coefficients[4] * vx2
+        + coefficients[5] * vy2
+        + coefficients[6] * vx3
+        + coefficients[7] * vy3;
+  }
+}
@@ -0,0 +1,175 @@
+package frc.robot.utils;
+
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.Constants.LOG;
+import frc.robot.utils.TelemetryScheduler.Tier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs related signals together as one fixed layout record per loop, off the main thread.
+ *
+ * <p>A frame is a list of field names, like the swerve module states or the superstructure
+ * positions and currents. The main thread sets its fields and calls {@link Frame#append()}, which
+ * packs them as little endian doubles into the next slot of the frame's ring buffer. A writer
+ * thread wakes every {@link LOG#kFlushPeriodMs} to write the slots to the {@link DataLog} as raw
+ * records, so the main thread never calls into the log. Everything is allocated when the frame is
+ * created.
+ *
+ * <p>Each frame is one entry with type {@value #kType}, and its metadata lists the field names in
+ * order (see {@link FrameLogDecoder}). If the writer falls a whole buffer behind, new records are
+ * dropped and counted instead of blocking the loop.
+ *
+ * <p>Close a frame when whatever fills it is closed. Its remaining records are still written, then
+ * its entry is finished and the writer stops looking at it.
+ *
+ * <pre>{@code
+ * Frame frame = FrameLog.getInstance().frame("/frames/elevator", "position", "setpoint");
+ * ...
+ * frame.set(0, getHeightMeters());
+ * frame.set(1, m_desiredPositionMeters);
+ * frame.append();
+ * }</pre>
+ */
+public class FrameLog {
+  public static final String kType = "frame";
+  public static final String kMetadataPrefix = "fields=";
+
+  private static FrameLog m_instance;
+
+  private final DataLog m_log;
+  private final List<Frame> m_frames = new CopyOnWriteArrayList<>();
+  private final Thread m_writer;
+
+  FrameLog(DataLog log) {
+    m_log = log;
+    m_writer = new Thread(this::runWriter, "FrameLog");
+    // The JVM ignores thread priorities on Linux, so sleeping between flushes is what throttles it
+    m_writer.setDaemon(true);
+  }
+
+  public static FrameLog getInstance() {
+    if (m_instance == null) {
+      m_instance = new FrameLog(DataLogManager.getLog());
+      // A replay runs loops much faster than the writer's period, so it flushes after each one
+      if (!LogReplay.isActive()) m_instance.m_writer.start();
+      Telemetry.shuffleboard("Logging")
+          .addInteger("Dropped Frame Records", Tier.DEBUG, m_instance::getDroppedRecords);
+    }
+    return m_instance;
+  }
+
+  /** Starts a log entry with one double per field, in the order given */
+  public Frame frame(String name, String... fields) {
+    Frame frame =
+        new Frame(
+            m_log.start(name, kType, kMetadataPrefix + String.join(",", fields)),
+            fields.length,
+            LOG.kFrameBufferSize);
+    m_frames.add(frame);
+    return frame;
+  }
+
+  /** Records dropped because the writer was a whole buffer behind */
+  public long getDroppedRecords() {
+    long dropped = 0;
+    for (Frame frame : m_frames) dropped += frame.m_dropped.get();
+    return dropped;
+  }
+
+  private void runWriter() {
+    while (!Thread.currentThread().isInterrupted()) {
+      flush();
+      try {
+        Thread.sleep(LOG.kFlushPeriodMs);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Writes every appended record to the log. Only the writer thread should call this, except in
+   * tests and replays where the writer isn't started.
+   */
+  public void flush() {
+    for (Frame frame : m_frames) {
+      // Read m_closed first, so every record appended before close() is in this flush
+      boolean closed = frame.m_closed;
+      frame.flush(m_log);
+      if (closed) {
+        m_frames.remove(frame);
+        m_log.finish(frame.m_entry);
+      }
+    }
+  }
+
+  public static final class Frame implements AutoCloseable {
+    private final int m_entry;
+    private final double[] m_values;
+    private final ByteBuffer[] m_slots;
+    private final long[] m_timestamps;
+    private final AtomicLong m_dropped = new AtomicLong();
+
+    // Only the main thread writes m_head and only the writer writes m_tail. A slot is written
+    // before m_head moves past it and read before m_tail does.
+    private volatile long m_head;
+    private volatile long m_tail;
+    private volatile boolean m_closed;
+
+    private Frame(int entry, int fields, int bufferSize) {
+      m_entry = entry;
+      m_values = new double[fields];
+      m_slots = new ByteBuffer[bufferSize];
+      for (int i = 0; i < bufferSize; i++) {
+        m_slots[i] = ByteBuffer.allocate(fields * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      }
+      m_timestamps = new long[bufferSize];
+    }
+
+    /** Sets a field for the next record. Fields keep their value until they're set again. */
+    public void set(int field, double value) {
+      m_values[field] = value;
+    }
+
+    public int getFieldCount() {
+      return m_values.length;
+    }
+
+    /** Queues a record of the current field values, timestamped now */
+    public void append() {
+      long head = m_head;
+      if (head - m_tail >= m_slots.length) {
+        m_dropped.incrementAndGet();
+        return;
+      }
+
+      int slot = (int) (head % m_slots.length);
+      ByteBuffer buffer = m_slots[slot];
+      for (int i = 0; i < m_values.length; i++) buffer.putDouble(i * Double.BYTES, m_values[i]);
+      m_timestamps[slot] = WPIUtilJNI.now();
+      m_head = head + 1;
+    }
+
+    /** Stops logging the frame once its remaining records are written */
+    @Override
+    public void close() {
+      m_closed = true;
+    }
+
+    private void flush(DataLog log) {
+      long head = m_head;
+      for (long tail = m_tail; tail < head; tail++) {
+        int slot = (int) (tail % m_slots.length);
+        // appendRaw() copies the data, so the slot can be reused as soon as m_tail moves
+        log.appendRaw(m_entry, m_slots[slot].array(), m_timestamps[slot]);
+        m_tail = tail + 1;
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package frc.robot.utils;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the {@link FrameLog} frames back out of a .wpilog for offline analysis.
+ *
+ * <p>Run it with {@code ./gradlew decodeFrameLog -Plog=path/to/FRC_xxx.wpilog}, which writes one
+ * CSV per frame next to the log, with a timestamp column in seconds followed by the fields.
+ */
+public class FrameLogDecoder {
+  /** Every record of one frame, in the order they were logged */
+  public static class DecodedFrame {
+    public final String name;
+    public final String[] fields;
+    public final List<Long> timestampsMicroseconds = new ArrayList<>();
+    public final List<double[]> records = new ArrayList<>();
+
+    DecodedFrame(String name, String[] fields) {
+      this.name = name;
+      this.fields = fields;
+    }
+
+    public int getFieldIndex(String field) {
+      for (int i = 0; i < fields.length; i++) {
+        if (fields[i].equals(field)) return i;
+      }
+      throw new IllegalArgumentException("No field " + field + " in frame " + name);
+    }
+  }
+
+  /** Decodes every frame in the log, keyed by entry name */
+  public static Map<String, DecodedFrame> decode(String filename) throws IOException {
+    DataLogReader reader = new DataLogReader(filename);
+    if (!reader.isValid()) throw new IOException(filename + " is not a valid data log");
+
+    Map<String, DecodedFrame> frames = new LinkedHashMap<>();
+    Map<Integer, DecodedFrame> framesByEntry = new HashMap<>();
+    for (DataLogRecord record : reader) {
+      if (record.isStart()) {
+        var start = record.getStartData();
+        if (!start.type.equals(FrameLog.kType)) continue;
+
+        String[] fields = parseFields(start.metadata);
+        DecodedFrame frame =
+            frames.computeIfAbsent(start.name, name -> new DecodedFrame(name, fields));
+        framesByEntry.put(start.entry, frame);
+      } else if (record.isFinish()) {
+        framesByEntry.remove(record.getFinishEntry());
+      } else if (!record.isControl()) {
+        DecodedFrame frame = framesByEntry.get(record.getEntry());
+        if (frame == null) continue;
+
+        byte[] data = record.getRaw();
+        // A record that doesn't match the layout would shift every field, so leave it out
+        if (data.length != frame.fields.length * Double.BYTES) continue;
+
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        double[] values = new double[frame.fields.length];
+        for (int i = 0; i < values.length; i++) values[i] = buffer.getDouble(i * Double.BYTES);
+        frame.timestampsMicroseconds.add(record.getTimestamp());
+        frame.records.add(values);
+      }
+    }
+    return frames;
+  }
+
+  private static String[] parseFields(String metadata) {
+    if (!metadata.startsWith(FrameLog.kMetadataPrefix)) return new String[0];
+    String fields = metadata.substring(FrameLog.kMetadataPrefix.length());
+    return fields.isEmpty() ? new String[0] : fields.split(",");
+  }
+
+  /** Writes {log name}_{frame name}.csv next to the log for each frame */
+  public static void writeCsvs(String filename, Map<String, DecodedFrame> frames)
+      throws IOException {
+    Path logPath = Paths.get(filename).toAbsolutePath();
+    String logName = logPath.getFileName().toString().replaceFirst("\\.wpilog$", "");
+
+    for (DecodedFrame frame : frames.values()) {
+      String frameName = frame.name.replaceFirst("^/", "").replace('/', '_');
+      Path csvPath = logPath.resolveSibling(logName + "_" + frameName + ".csv");
+      try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csvPath))) {
+        writer.println("timestamp," + String.join(",", frame.fields));
+        for (int i = 0; i < frame.records.size(); i++) {
+          StringBuilder line = new StringBuilder();
+          line.append(frame.timestampsMicroseconds.get(i) / 1e6);
+          for (double value : frame.records.get(i)) line.append(',').append(value);
+          writer.println(line);
+        }
+      }
+      System.out.println("Wrote " + frame.records.size() + " records to " + csvPath);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1 || args[0].isEmpty()) {
+      System.err.println("Usage: ./gradlew decodeFrameLog -Plog=path/to/file.wpilog");
+      System.exit(1);
+    }
+    writeCsvs(args[0], decode(args[0]));
+  }
+}
@@ -0,0 +1,89 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * Turns the robot to a heading along a trapezoid profile.
+ *
+ * <p>The profile's velocity is fed forward, so the feedback only has to correct for how far the
+ * robot is from the profile instead of doing all the work, which is what made the plain PID hunt
+ * around the target. Damping uses the difference between the profile's velocity and the gyro's
+ * measured rate rather than differentiating the heading, which is noisy at 50 Hz. There is no
+ * deadband, since with the robot on the profile the output is already zero at the goal.
+ *
+ * <p>The heading measured each loop is the result of the velocity commanded the loop before, so
+ * the feedback compares it against the previous setpoint. Comparing against the new setpoint
+ * makes the robot look a loop behind the whole turn, and the extra output overshoots the goal.
+ */
+public class HeadingController {
+  private final double m_kP;
+  private final double m_kD;
+  private final TrapezoidProfile.Constraints m_constraints;
+  private final double m_toleranceRadians;
+
+  private final TrapezoidProfile.State m_goal = new TrapezoidProfile.State();
+  private TrapezoidProfile.State m_setpoint = new TrapezoidProfile.State();
+  private double m_errorRadians;
+
+  /**
+   * @param kP Angular velocity per radian of error from the profile
+   * @param kD Angular velocity per radian per second of rate error from the profile
+   * @param maxVelocityRadiansPerSecond Cruise velocity of the profile
+   * @param maxAccelerationRadiansPerSecondSquared Acceleration of the profile
+   * @param toleranceRadians How close the heading has to be to count as at the goal
+   */
+  public HeadingController(
+      double kP,
+      double kD,
+      double maxVelocityRadiansPerSecond,
+      double maxAccelerationRadiansPerSecondSquared,
+      double toleranceRadians) {
+    m_kP = kP;
+    m_kD = kD;
+    m_constraints =
+        new TrapezoidProfile.Constraints(
+            maxVelocityRadiansPerSecond, maxAccelerationRadiansPerSecondSquared);
+    m_toleranceRadians = toleranceRadians;
+  }
+
+  /** Starts the profile from the robot's current heading and rate. */
+  public void reset(double headingRadians, double rateRadiansPerSecond) {
+    m_setpoint = new TrapezoidProfile.State(headingRadians, rateRadiansPerSecond);
+    m_errorRadians = 0;
+  }
+
+  /**
+   * Advances the profile one loop towards the goal. Call once per loop.
+   *
+   * @param headingRadians Measured heading. Doesn't need to be wrapped.
+   * @param rateRadiansPerSecond Measured rate from the gyro, counterclockwise positive
+   * @param goalRadians Heading to turn to
+   * @return Angular velocity to command
+   */
+  public double calculate(double headingRadians, double rateRadiansPerSecond, double goalRadians) {
+    // Keep the goal and setpoint within half a turn of the heading so it turns the short way
+    m_goal.position = headingRadians + MathUtil.angleModulus(goalRadians - headingRadians);
+    m_goal.velocity = 0;
+    m_setpoint.position =
+        headingRadians + MathUtil.angleModulus(m_setpoint.position - headingRadians);
+    m_errorRadians = m_goal.position - headingRadians;
+
+    double feedback =
+        m_kP * (m_setpoint.position - headingRadians)
+            + m_kD * (m_setpoint.velocity - rateRadiansPerSecond);
+
+    m_setpoint =
+        new TrapezoidProfile(m_constraints, m_goal, m_setpoint)
+            .calculate(TimedRobot.kDefaultPeriod);
+
+    return m_setpoint.velocity + feedback;
+  }
+
+  /** Whether the profile has finished and the heading is within tolerance of the goal */
+  public boolean atGoal() {
+    return Math.abs(m_errorRadians) < m_toleranceRadians
+        && Math.abs(m_goal.position - m_setpoint.position) < m_toleranceRadians;
+  }
+}
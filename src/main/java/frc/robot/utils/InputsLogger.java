@@ -0,0 +1,27 @@
+package frc.robot.utils;
+
+/** Logs a set of inputs as a {@link FrameLog} frame, under the name {@link LogReplay} reads */
+public class InputsLogger implements AutoCloseable {
+  private final LoggableInputs m_inputs;
+  private final double[] m_values;
+  private final FrameLog.Frame m_frame;
+
+  public InputsLogger(String name, LoggableInputs inputs) {
+    m_inputs = inputs;
+    String[] fields = inputs.getFieldNames();
+    m_values = new double[fields.length];
+    m_frame = FrameLog.getInstance().frame(name, fields);
+  }
+
+  /** Logs the current values of the inputs */
+  public void log() {
+    m_inputs.toLog(m_values);
+    for (int i = 0; i < m_values.length; i++) m_frame.set(i, m_values[i]);
+    m_frame.append();
+  }
+
+  @Override
+  public void close() {
+    m_frame.close();
+  }
+}
@@ -0,0 +1,209 @@
+package frc.robot.utils;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.Constants.LATENCY;
+import java.util.Arrays;
+
+/**
+ * Measures how long a driver's stick movement takes to reach the swerve motors.
+ *
+ * <p>Robot.loopFunc() marks the loop start and the scheduler boundaries. The loop starts before
+ * the sensors are read and before TimedRobot refreshes the driver station data, so "Loop Start To
+ * Stick" includes both. SetSwerveDrive marks when it reads the sticks and SwerveModule marks every
+ * motor output. Each loop's intervals go into rolling windows, and the 50th, 95th and 99th
+ * percentiles and the max of each are published in milliseconds.
+ *
+ * <p>Two things aren't visible from robot code: the time from the stick moving to the driver
+ * station packet arriving, and the time from handing a control frame to Phoenix to it going out on
+ * the CAN bus, which can be up to the frame period later.
+ *
+ * <p>A step response is also timed whenever the sticks leave their deadband, from the read until
+ * the first nonzero drive output. It's counted in loops too, which doesn't depend on CPU speed, so
+ * it can be compared exactly between runs of the simulation step input.
+ */
+public class LatencyTracker {
+  public enum Phase {
+    LOOP_START,
+    SCHEDULER_START,
+    SCHEDULER_END,
+    LOOP_END
+  }
+
+  public enum Metric {
+    LOOP_START_TO_STICK("Loop Start To Stick"),
+    STICK_TO_MOTOR("Stick To Motor"),
+    SCHEDULER("Scheduler"),
+    LOOP("Loop"),
+    STEP_RESPONSE("Step Response");
+
+    private final String m_name;
+
+    Metric(String name) {
+      m_name = name;
+    }
+  }
+
+  private static LatencyTracker m_instance;
+
+  private final long[] m_phaseMicroseconds = new long[Phase.values().length];
+  private long m_stickReadMicroseconds;
+  private long m_lastMotorOutputMicroseconds;
+  private boolean m_stickRead;
+  private boolean m_motorOutput;
+  private long m_loopCount;
+
+  private boolean m_stickWasCentered = true;
+  private boolean m_stepPending;
+  private long m_stepReadMicroseconds;
+  private long m_stepLoop;
+  private long m_stepResponseLoops = -1;
+
+  private final Window[] m_windows = new Window[Metric.values().length];
+  private final DoubleArrayPublisher[] m_publishers =
+      new DoubleArrayPublisher[Metric.values().length];
+  private final IntegerPublisher m_stepResponseLoopsPub;
+  private final double[] m_publishedValues = new double[4];
+
+  LatencyTracker() {
+    NetworkTable table =
+        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("Latency");
+    for (Metric metric : Metric.values()) {
+      m_windows[metric.ordinal()] = new Window(LATENCY.kWindowSize);
+      m_publishers[metric.ordinal()] = table.getDoubleArrayTopic(metric.m_name).publish();
+    }
+    m_stepResponseLoopsPub = table.getIntegerTopic("Step Response Loops").publish();
+  }
+
+  public static LatencyTracker getInstance() {
+    if (m_instance == null) {
+      m_instance = new LatencyTracker();
+    }
+    return m_instance;
+  }
+
+  private static long nowMicroseconds() {
+    return System.nanoTime() / 1000;
+  }
+
+  public void mark(Phase phase) {
+    m_phaseMicroseconds[phase.ordinal()] = nowMicroseconds();
+    if (phase == Phase.LOOP_START) {
+      m_stickRead = false;
+      m_motorOutput = false;
+    } else if (phase == Phase.LOOP_END) {
+      endLoop();
+    }
+  }
+
+  /**
+   * Call right after reading the driver's sticks.
+   *
+   * @param magnitude Largest stick input after the deadband
+   */
+  public void markStickRead(double magnitude) {
+    m_stickReadMicroseconds = nowMicroseconds();
+    m_stickRead = true;
+
+    boolean centered = magnitude == 0;
+    if (m_stickWasCentered && !centered) {
+      m_stepPending = true;
+      m_stepReadMicroseconds = m_stickReadMicroseconds;
+      m_stepLoop = m_loopCount;
+    }
+    m_stickWasCentered = centered;
+  }
+
+  /**
+   * Call right after sending a module's control frames.
+   *
+   * @param speedMetersPerSecond Drive speed that was commanded
+   */
+  public void markMotorOutput(double speedMetersPerSecond) {
+    m_lastMotorOutputMicroseconds = nowMicroseconds();
+    m_motorOutput = true;
+
+    if (m_stepPending && Math.abs(speedMetersPerSecond) > 1e-3) {
+      m_stepPending = false;
+      m_windows[Metric.STEP_RESPONSE.ordinal()].add(
+          m_lastMotorOutputMicroseconds - m_stepReadMicroseconds);
+      m_stepResponseLoops = m_loopCount - m_stepLoop;
+    }
+  }
+
+  private void endLoop() {
+    long loopStart = m_phaseMicroseconds[Phase.LOOP_START.ordinal()];
+    if (m_stickRead) {
+      m_windows[Metric.LOOP_START_TO_STICK.ordinal()].add(m_stickReadMicroseconds - loopStart);
+      if (m_motorOutput && m_lastMotorOutputMicroseconds >= m_stickReadMicroseconds) {
+        m_windows[Metric.STICK_TO_MOTOR.ordinal()].add(
+            m_lastMotorOutputMicroseconds - m_stickReadMicroseconds);
+      }
+    }
+    m_windows[Metric.SCHEDULER.ordinal()].add(
+        m_phaseMicroseconds[Phase.SCHEDULER_END.ordinal()]
+            - m_phaseMicroseconds[Phase.SCHEDULER_START.ordinal()]);
+    m_windows[Metric.LOOP.ordinal()].add(m_phaseMicroseconds[Phase.LOOP_END.ordinal()] - loopStart);
+
+    m_loopCount++;
+    if (m_loopCount % LATENCY.kPublishPeriodLoops == 0) publish();
+  }
+
+  private void publish() {
+    for (Metric metric : Metric.values()) {
+      Window window = m_windows[metric.ordinal()];
+      if (window.size() == 0) continue;
+
+      m_publishedValues[0] = window.percentile(0.5) / 1000.0;
+      m_publishedValues[1] = window.percentile(0.95) / 1000.0;
+      m_publishedValues[2] = window.percentile(0.99) / 1000.0;
+      m_publishedValues[3] = window.percentile(1) / 1000.0;
+      m_publishers[metric.ordinal()].set(m_publishedValues);
+    }
+    m_stepResponseLoopsPub.set(m_stepResponseLoops);
+  }
+
+  /** Percentile of the recent samples of a metric, or -1 if there are none */
+  public long getPercentileMicroseconds(Metric metric, double percentile) {
+    Window window = m_windows[metric.ordinal()];
+    return window.size() == 0 ? -1 : window.percentile(percentile);
+  }
+
+  /** Loops from the last step input to the drive motors responding, or -1 if none yet */
+  public long getStepResponseLoops() {
+    return m_stepResponseLoops;
+  }
+
+  /** Fixed size window of the most recent samples */
+  static class Window {
+    private final long[] m_samples;
+    private final long[] m_sorted;
+    private int m_next;
+    private int m_size;
+
+    Window(int capacity) {
+      m_samples = new long[capacity];
+      m_sorted = new long[capacity];
+    }
+
+    void add(long sample) {
+      m_samples[m_next] = sample;
+      m_next = (m_next + 1) % m_samples.length;
+      m_size = Math.min(m_size + 1, m_samples.length);
+    }
+
+    int size() {
+      return m_size;
+    }
+
+    /** Nearest-rank percentile. Sorts a copy, so only call this when publishing. */
+    long percentile(double percentile) {
+      System.arraycopy(m_samples, 0, m_sorted, 0, m_size);
+      Arrays.sort(m_sorted, 0, m_size);
+      int rank = (int) Math.ceil(percentile * m_size);
+      return m_sorted[Math.max(rank - 1, 0)];
+    }
+  }
+}
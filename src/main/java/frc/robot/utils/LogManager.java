@@ -4,80 +4,309 @@
 
 package frc.robot.utils;
 
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Constants.LOG;
 import frc.robot.Constants.UTIL;
 import frc.robot.commands.util.DeleteAllLogs;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
-/** Add your docs here. */
-public class LogManager {
-  private final String mainPath = new File("").getAbsolutePath();
+/**
+ * Keeps the log directory within its size and age budget, on a background thread.
+ *
+ * <p>The thread watches the log directory and, at most every {@link LOG#kCleanupPeriodSeconds}
+ * after something in it changed, deletes logs older than {@link LOG#kMaxLogAgeDays} and then the
+ * oldest logs until they all fit in {@link LOG#kMaxLogDirBytes}. While the robot is disabled it
+ * also gzips closed .wpilogs, and stops within {@link LOG#kCompressChunkBytes} once the robot is
+ * enabled, deleting the partial .gz. The log being written, which is the newest .wpilog, is never
+ * touched. The robot loop only ever sets a flag, so it never waits on the filesystem.
+ *
+ * <p>The thread runs at normal priority. The JVM ignores thread priorities on Linux, so lowering
+ * it wouldn't keep it off the robot loop. Only compressing while disabled does that.
+ *
+ * <p>What it did is published under Shuffleboard/Logging.
+ */
+public class LogManager implements AutoCloseable {
+  private static final String kLogExtension = ".wpilog";
+  private static final String kCompressedExtension = ".wpilog.gz";
 
-  private final String tempPath = "/tmp/";
+  private final Path m_logDir;
+  private final long m_maxLogDirBytes;
+  private final BooleanSupplier m_canCompress;
+  private final Thread m_thread;
+  private final AtomicBoolean m_deleteAllRequested = new AtomicBoolean();
+  private volatile boolean m_running = true;
+  private long m_lastCleanupMillis;
 
-  private ArrayList<String> logFilePaths = new ArrayList<>();
+  private final Telemetry.IntegerEntry m_logBytesPub, m_logFilesPub;
+  private final Telemetry.IntegerEntry m_deletedLogsPub, m_compressedLogsPub;
+  private final Telemetry.StringEntry m_lastCleanupPub;
+  private long m_deletedLogs, m_compressedLogs;
+
+  private final String tempPath = "/tmp/";
 
   public LogManager() {
+    this(getLogDir(), LOG.kMaxLogDirBytes, DriverStation::isDisabled);
+    m_thread.start();
     SmartDashboard.putData("Delete All Logs", new DeleteAllLogs(this));
   }
 
-  public ArrayList<String> getLogFilePaths() {
-    ArrayList<String> filePaths = new ArrayList<>();
+  /** Doesn't start the thread, so tests can call {@link #cleanup()} directly */
+  LogManager(Path logDir, long maxLogDirBytes, BooleanSupplier canCompress) {
+    m_logDir = logDir;
+    m_maxLogDirBytes = maxLogDirBytes;
+    m_canCompress = canCompress;
+    m_thread = new Thread(this::run, "LogManager");
+    m_thread.setDaemon(true);
+
+    var loggingTab = Telemetry.shuffleboard("Logging");
+    m_logBytesPub = loggingTab.integerEntry("Log Bytes");
+    m_logFilesPub = loggingTab.integerEntry("Log Files");
+    m_deletedLogsPub = loggingTab.integerEntry("Deleted Logs");
+    m_compressedLogsPub = loggingTab.integerEntry("Compressed Logs");
+    m_lastCleanupPub = loggingTab.stringEntry("Last Cleanup");
+  }
+
+  private static Path getLogDir() {
+    return Paths.get(DataLogManager.getLogDir()).toAbsolutePath();
+  }
+
+  /** Deletes every log except the one being written, on the next pass of the thread */
+  public void deleteAllLogs() {
+    m_deleteAllRequested.set(true);
+  }
 
-    File folder = new File(mainPath);
+  private void run() {
+    WatchService watcher = null;
     try {
-      File[] allFiles = folder.listFiles();
+      watcher = FileSystems.getDefault().newWatchService();
+      m_logDir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    } catch (IOException e) {
+      // Without a watcher every poll counts as a change
+      System.out.println("LogManager can't watch " + m_logDir + ", scanning instead: " + e);
+      watcher = null;
+    }
 
-      assert allFiles != null;
-      for (File file : allFiles) {
-        if (file.isFile() && file.getName().contains("wpilog")) {
-          filePaths.add(file.getAbsolutePath());
+    boolean changed = true;
+    while (m_running) {
+      try {
+        if (watcher != null) {
+          WatchKey key = watcher.poll(1, TimeUnit.SECONDS);
+          if (key != null) {
+            changed |= !key.pollEvents().isEmpty();
+            key.reset();
+          }
+        } else {
+          Thread.sleep(1000);
+          changed = true;
         }
+      } catch (InterruptedException e) {
+        break;
       }
-    } catch (Exception ignored) {
 
+      long now = System.currentTimeMillis();
+      boolean due = now - m_lastCleanupMillis >= LOG.kCleanupPeriodSeconds * 1000;
+      if (m_deleteAllRequested.get() || (changed && due)) {
+        changed = false;
+        m_lastCleanupMillis = now;
+        cleanup();
+      }
     }
 
-    return filePaths;
+    try {
+      if (watcher != null) watcher.close();
+    } catch (IOException ignored) {
+
+    }
   }
 
-  // WIP
-  public void autoDeleteLogs(double secondsSinceModify) {
-    for (String file : logFilePaths) {
-      BasicFileAttributes attr;
-      try {
-        attr = Files.readAttributes(Paths.get(file), BasicFileAttributes.class);
-        if (Math.abs(attr.lastModifiedTime().toMillis() - System.currentTimeMillis())
-            > secondsSinceModify) {
-          File fileObj = new File(file);
-          if (fileObj.delete()) {
-            System.out.println("Successfully deleted log file " + fileObj.getName());
-          } else {
-            System.out.println("Failed to delete log file " + fileObj.getName());
-          }
+  private static class LogFile {
+    final Path path;
+    final long bytes;
+    final long modifiedMillis;
+
+    LogFile(Path path) throws IOException {
+      this.path = path;
+      bytes = Files.size(path);
+      modifiedMillis = Files.getLastModifiedTime(path).toMillis();
+    }
+
+    boolean isCompressed() {
+      return path.getFileName().toString().endsWith(kCompressedExtension);
+    }
+  }
+
+  /** Applies the budgets and compresses closed logs. Only the thread calls this, or tests. */
+  void cleanup() {
+    List<LogFile> logs;
+    try {
+      logs = listLogs();
+    } catch (IOException e) {
+      m_lastCleanupPub.set("Couldn't list " + m_logDir + ": " + e.getMessage());
+      return;
+    }
+
+    // Oldest first, and the newest .wpilog is the one DataLogManager is writing
+    logs.sort(Comparator.comparingLong(log -> log.modifiedMillis));
+    LogFile activeLog = null;
+    for (LogFile log : logs) {
+      if (!log.isCompressed()) activeLog = log;
+    }
+    if (activeLog != null) logs.remove(activeLog);
+
+    int deleted = 0;
+    long deletedBytes = 0;
+    long maxAgeMillis = TimeUnit.DAYS.toMillis(LOG.kMaxLogAgeDays);
+    long now = System.currentTimeMillis();
+    long totalBytes = activeLog != null ? activeLog.bytes : 0;
+    for (LogFile log : logs) totalBytes += log.bytes;
+
+    boolean deleteAll = m_deleteAllRequested.getAndSet(false);
+    List<LogFile> kept = new ArrayList<>();
+    for (LogFile log : logs) {
+      boolean overBudget = totalBytes > m_maxLogDirBytes;
+      if ((deleteAll || overBudget || now - log.modifiedMillis > maxAgeMillis) && delete(log)) {
+        deleted++;
+        deletedBytes += log.bytes;
+        totalBytes -= log.bytes;
+      } else {
+        kept.add(log);
+      }
+    }
+
+    int compressed = 0;
+    if (m_canCompress.getAsBoolean()) {
+      for (LogFile log : kept) {
+        if (!canCompress()) break;
+        if (log.isCompressed()) continue;
+
+        long compressedBytes = compress(log);
+        if (compressedBytes >= 0) {
+          compressed++;
+          totalBytes += compressedBytes - log.bytes;
         }
-      } catch (IOException e) {
-        //        e.printStackTrace();
       }
     }
+
+    m_deletedLogs += deleted;
+    m_compressedLogs += compressed;
+    m_logBytesPub.set(totalBytes);
+    m_logFilesPub.set(kept.size() + (activeLog != null ? 1 : 0));
+    m_deletedLogsPub.set(m_deletedLogs);
+    m_compressedLogsPub.set(m_compressedLogs);
+    if (deleted > 0 || compressed > 0) {
+      String summary =
+          String.format(
+              "Deleted %d logs (%.1f MB), compressed %d", deleted, deletedBytes / 1e6, compressed);
+      m_lastCleanupPub.set(summary);
+      System.out.println("LogManager: " + summary);
+    }
   }
 
-  public void deleteAllLogs() {
-    for (String file : logFilePaths) {
-      File fileObj = new File(file);
-      if (fileObj.delete()) {
-        System.out.println("Successfully deleted log file " + fileObj.getName());
-      } else {
-        System.out.println("Failed to delete log file " + fileObj.getName());
+  private List<LogFile> listLogs() throws IOException {
+    List<LogFile> logs = new ArrayList<>();
+    try (Stream<Path> files = Files.list(m_logDir)) {
+      for (Path path : (Iterable<Path>) files::iterator) {
+        String name = path.getFileName().toString();
+        if (!Files.isRegularFile(path)) continue;
+        if (!name.endsWith(kLogExtension) && !name.endsWith(kCompressedExtension)) continue;
+
+        try {
+          logs.add(new LogFile(path));
+        } catch (IOException e) {
+          // Deleted since it was listed
+        }
+      }
+    }
+    return logs;
+  }
+
+  private static boolean delete(LogFile log) {
+    try {
+      Files.deleteIfExists(log.path);
+      return true;
+    } catch (IOException e) {
+      System.out.println("Failed to delete log file " + log.path.getFileName());
+      return false;
+    }
+  }
+
+  private boolean canCompress() {
+    return m_running && m_canCompress.getAsBoolean();
+  }
+
+  /**
+   * Gzips a log next to itself, keeping its modified time so it ages the same, then deletes it.
+   * Stops before the next chunk if the robot was enabled.
+   *
+   * @return Size of the compressed log, or -1 if it failed or stopped and the original was kept
+   */
+  private long compress(LogFile log) {
+    Path compressedPath = Paths.get(log.path + ".gz");
+    Path partialPath = Paths.get(log.path + ".gz.tmp");
+    try {
+      boolean stopped = false;
+      try (InputStream in = Files.newInputStream(log.path);
+          OutputStream out = new GZIPOutputStream(Files.newOutputStream(partialPath))) {
+        byte[] chunk = new byte[LOG.kCompressChunkBytes];
+        int read;
+        while ((read = in.read(chunk)) >= 0) {
+          if (!canCompress()) {
+            stopped = true;
+            break;
+          }
+          out.write(chunk, 0, read);
+        }
+      }
+      if (stopped) {
+        Files.delete(partialPath);
+        return -1;
       }
+      Files.setLastModifiedTime(partialPath, FileTime.fromMillis(log.modifiedMillis));
+      Files.move(partialPath, compressedPath, StandardCopyOption.ATOMIC_MOVE);
+      Files.delete(log.path);
+      return Files.size(compressedPath);
+    } catch (IOException e) {
+      System.out.println("Failed to compress log file " + log.path.getFileName() + ": " + e);
+      try {
+        Files.deleteIfExists(partialPath);
+      } catch (IOException ignored) {
+
+      }
+      return -1;
     }
   }
 
+  @Override
+  public void close() {
+    m_running = false;
+    m_thread.interrupt();
+  }
+
   // Checks if the initialize file exists under the temporary folder.
   public boolean initTempExists() {
     try {
@@ -98,9 +327,4 @@ public class LogManager {
       //      DriverStation.reportWarning("Failed to create init file", e.getStackTrace());
     }
   }
-
-  public void updateLogFilePaths() {
-    logFilePaths = getLogFilePaths();
-    // deleteAllLogs();
-  }
 }
@@ -0,0 +1,110 @@
+package frc.robot.utils;
+
+import frc.robot.utils.FrameLogDecoder.DecodedFrame;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plays the inputs recorded by {@link InputsLogger} back, one robot loop at a time.
+ *
+ * <p>The driver station inputs are logged once per loop, after the sensors are read, so each of
+ * their records marks the end of a loop. A loop's value for every other frame is the last record
+ * logged before that mark. Fields are matched by name, so a log recorded before a field was added
+ * or removed still plays, with the new fields left at their current values.
+ *
+ * <p>While a replay is active, subsystems read from the replay IO implementations instead of the
+ * hardware. See {@link frc.robot.Replay} for the loop that drives it.
+ */
+public class LogReplay {
+  private static LogReplay m_instance;
+
+  private final Map<String, DecodedFrame> m_frames;
+  private final DecodedFrame m_clock;
+  private final Map<String, Cursor> m_cursors = new HashMap<>();
+  private int m_loop = -1;
+
+  private static class Cursor {
+    int record = -1;
+    // Index of each of the inputs' fields in the recorded frame, or -1 if it wasn't recorded
+    final int[] fieldIndices;
+    final double[] values;
+
+    Cursor(DecodedFrame frame, String[] fields) {
+      fieldIndices = new int[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        fieldIndices[i] = -1;
+        for (int j = 0; j < frame.fields.length; j++) {
+          if (frame.fields[j].equals(fields[i])) fieldIndices[i] = j;
+        }
+      }
+      values = new double[fields.length];
+    }
+  }
+
+  LogReplay(Map<String, DecodedFrame> frames) {
+    m_frames = frames;
+    m_clock = frames.get(DriverStationInputs.kLogName);
+    if (m_clock == null) {
+      throw new IllegalArgumentException("The log has no " + DriverStationInputs.kLogName);
+    }
+  }
+
+  /** Loads a log and makes it the active replay */
+  public static LogReplay start(String filename) throws IOException {
+    m_instance = new LogReplay(FrameLogDecoder.decode(filename));
+    return m_instance;
+  }
+
+  public static boolean isActive() {
+    return m_instance != null;
+  }
+
+  public static LogReplay getInstance() {
+    return m_instance;
+  }
+
+  /**
+   * Moves to the next recorded loop.
+   *
+   * @return false once every loop has been played
+   */
+  public boolean advance() {
+    if (m_loop < getLoopCount()) m_loop++;
+    return m_loop < getLoopCount();
+  }
+
+  public int getLoopCount() {
+    return m_clock.records.size();
+  }
+
+  /** When the current loop was recorded, in FPGA seconds */
+  public double getTimestampSeconds() {
+    return m_clock.timestampsMicroseconds.get(m_loop) / 1e6;
+  }
+
+  /**
+   * Sets the inputs to what was recorded under the name for the current loop. They're left alone
+   * if the frame wasn't recorded or has nothing yet.
+   */
+  public void read(String name, LoggableInputs inputs) {
+    DecodedFrame frame = m_frames.get(name);
+    if (frame == null || m_loop < 0) return;
+
+    Cursor cursor =
+        m_cursors.computeIfAbsent(name, key -> new Cursor(frame, inputs.getFieldNames()));
+    long loopEnd = m_clock.timestampsMicroseconds.get(m_loop);
+    while (cursor.record + 1 < frame.records.size()
+        && frame.timestampsMicroseconds.get(cursor.record + 1) <= loopEnd) {
+      cursor.record++;
+    }
+    if (cursor.record < 0) return;
+
+    double[] recorded = frame.records.get(cursor.record);
+    inputs.toLog(cursor.values);
+    for (int i = 0; i < cursor.values.length; i++) {
+      if (cursor.fieldIndices[i] >= 0) cursor.values[i] = recorded[cursor.fieldIndices[i]];
+    }
+    inputs.fromLog(cursor.values);
+  }
+}
@@ -0,0 +1,14 @@
+package frc.robot.utils;
+
+/**
+ * Values read from the outside world once per loop, which can be logged as a {@link FrameLog}
+ * frame and read back by {@link LogReplay}.
+ */
+public interface LoggableInputs {
+  /** Names of the fields, in the order {@link #toLog} and {@link #fromLog} use */
+  String[] getFieldNames();
+
+  void toLog(double[] values);
+
+  void fromLog(double[] values);
+}
@@ -0,0 +1,311 @@
+package frc.robot.utils;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants.LATENCY;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Works out what made each loop overrun its period: a GC pause, one section of the loop, or
+ * unknown.
+ *
+ * <p>Robot.loopFunc() starts and ends each loop and marks its phases, each subsystem marks the
+ * start of its periodic(), and bindings on the scheduler's button loop mark the trigger polling and
+ * the commands, so every part of the loop is charged to a section. GC pauses come from the
+ * collectors' JMX notifications, which arrive on another thread shortly after the pause, so a loop
+ * is judged at the end of the next one. An overrun is blamed on GC if the pauses during it cover
+ * {@link LATENCY#kOverrunAttributionFraction} of the time over the period. Otherwise it's blamed on
+ * the section that ran the most over its average, if that covers the same share, and it's unknown
+ * if nothing does.
+ *
+ * <p>Counts over the last {@link LATENCY#kOverrunWindow} overruns and since startup are published
+ * under Shuffleboard/Overruns, each overrun is logged to /overruns, and the simulation prints the
+ * report every {@link LATENCY#kOverrunReportPeriodSeconds}. The same marks time the sections for
+ * {@link FlightRecorder}.
+ */
+public class LoopOverrunMonitor {
+  public static final String kGc = "GC";
+  public static final String kUnknown = "Unknown";
+
+  private static final int kMaxSections = 32;
+  private static final int kMaxGcPauses = 32;
+  // How fast a section's average follows its time in loops that didn't overrun
+  private static final double kAverageGain = 0.05;
+
+  private static LoopOverrunMonitor m_instance;
+
+  private final long m_periodNanos;
+  private final Map<String, Integer> m_sectionIndices = new HashMap<>();
+  private final List<String> m_sectionNames = new ArrayList<>();
+  private final double[] m_averageNanos = new double[kMaxSections];
+
+  private long[] m_sectionNanos = new long[kMaxSections];
+  private int m_section = -1;
+  private long m_sectionStartNanos;
+  private long m_loopStartNanos;
+
+  // The last loop, if it overran, waiting for its GC notifications
+  private long[] m_pendingSectionNanos = new long[kMaxSections];
+  private boolean m_pending;
+  private long m_pendingStartNanos, m_pendingEndNanos;
+
+  // Written by the JMX notification thread
+  private long m_jvmStartNanos;
+  private final long[] m_gcStartNanos = new long[kMaxGcPauses];
+  private final long[] m_gcEndNanos = new long[kMaxGcPauses];
+  private int m_gcPauses;
+
+  // Causes of the last overruns, and how many of each are in that window and since startup
+  private final Map<String, Integer> m_causeIndices = new HashMap<>();
+  private final List<String> m_causeNames = new ArrayList<>();
+  private final int[] m_recentCauses = new int[LATENCY.kOverrunWindow];
+  private int m_recentNext, m_recentSize;
+  private final long[] m_windowCounts = new long[kMaxSections + 2];
+  private final long[] m_totalCounts = new long[kMaxSections + 2];
+  private long m_loops;
+  private long m_lastReportNanos = System.nanoTime();
+
+  private final StringLogEntry m_overrunLog;
+  private final Telemetry.StringEntry m_reportPub;
+  private final Telemetry.IntegerEntry m_overrunsPub, m_gcOverrunsPub, m_loopsPub;
+
+  LoopOverrunMonitor(long periodNanos, StringLogEntry overrunLog) {
+    m_periodNanos = periodNanos;
+    m_overrunLog = overrunLog;
+    getCauseIndex(kGc);
+    getCauseIndex(kUnknown);
+
+    var overrunsTab = Telemetry.shuffleboard("Overruns");
+    m_reportPub = overrunsTab.stringEntry("Report");
+    m_overrunsPub = overrunsTab.integerEntry("Total Overruns");
+    m_gcOverrunsPub = overrunsTab.integerEntry("Total GC Overruns");
+    m_loopsPub = overrunsTab.integerEntry("Loops");
+  }
+
+  public static LoopOverrunMonitor getInstance() {
+    if (m_instance == null) {
+      m_instance =
+          new LoopOverrunMonitor(
+              (long) (TimedRobot.kDefaultPeriod * 1e9),
+              new StringLogEntry(DataLogManager.getLog(), "/overruns"));
+      m_instance.listenForGc();
+    }
+    return m_instance;
+  }
+
+  private void listenForGc() {
+    // GcInfo times are milliseconds since the JVM started
+    m_jvmStartNanos =
+        System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (collector instanceof NotificationEmitter) {
+        var emitter = (NotificationEmitter) collector;
+        emitter.addNotificationListener(this::handleNotification, null, null);
+      }
+    }
+  }
+
+  private void handleNotification(Notification notification, Object handback) {
+    String type = notification.getType();
+    if (!type.equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+
+    var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    recordGcPause(
+        m_jvmStartNanos + info.getGcInfo().getStartTime() * 1_000_000,
+        m_jvmStartNanos + info.getGcInfo().getEndTime() * 1_000_000);
+  }
+
+  synchronized void recordGcPause(long startNanos, long endNanos) {
+    int slot = m_gcPauses % kMaxGcPauses;
+    m_gcStartNanos[slot] = startNanos;
+    m_gcEndNanos[slot] = endNanos;
+    m_gcPauses++;
+  }
+
+  // Time the recent GC pauses overlap the interval
+  private synchronized long getGcNanos(long startNanos, long endNanos) {
+    long gcNanos = 0;
+    for (int i = Math.max(m_gcPauses - kMaxGcPauses, 0); i < m_gcPauses; i++) {
+      int slot = i % kMaxGcPauses;
+      long overlap =
+          Math.min(m_gcEndNanos[slot], endNanos) - Math.max(m_gcStartNanos[slot], startNanos);
+      if (overlap > 0) gcNanos += overlap;
+    }
+    return gcNanos;
+  }
+
+  public void startLoop(String section) {
+    FlightRecorder.startLoop();
+    FlightRecorder.markSection(section);
+    startLoop(section, System.nanoTime());
+  }
+
+  void startLoop(String section, long nowNanos) {
+    m_loopStartNanos = nowNanos;
+    m_section = -1;
+    markSection(section, nowNanos);
+  }
+
+  /** Charges the time from here to the next mark to the section */
+  public void markSection(String section) {
+    FlightRecorder.markSection(section);
+    markSection(section, System.nanoTime());
+  }
+
+  void markSection(String section, long nowNanos) {
+    chargeSection(nowNanos);
+    m_section = getSectionIndex(section);
+  }
+
+  private void chargeSection(long nowNanos) {
+    if (m_section >= 0) m_sectionNanos[m_section] += nowNanos - m_sectionStartNanos;
+    m_sectionStartNanos = nowNanos;
+  }
+
+  private int getSectionIndex(String section) {
+    Integer index = m_sectionIndices.get(section);
+    if (index != null) return index;
+
+    // Past the limit, new sections share the last one
+    if (m_sectionNames.size() == kMaxSections) return kMaxSections - 1;
+    m_sectionNames.add(section);
+    m_sectionIndices.put(section, m_sectionNames.size() - 1);
+    return m_sectionNames.size() - 1;
+  }
+
+  public void endLoop() {
+    endLoop(System.nanoTime());
+    FlightRecorder.endLoop();
+  }
+
+  void endLoop(long nowNanos) {
+    chargeSection(nowNanos);
+    m_section = -1;
+    m_loops++;
+
+    // The last loop's GC notifications have had a whole loop to arrive
+    if (m_pending) {
+      m_pending = false;
+      attribute();
+    }
+
+    if (nowNanos - m_loopStartNanos > m_periodNanos) {
+      long[] swap = m_pendingSectionNanos;
+      m_pendingSectionNanos = m_sectionNanos;
+      m_sectionNanos = swap;
+      m_pending = true;
+      m_pendingStartNanos = m_loopStartNanos;
+      m_pendingEndNanos = nowNanos;
+    } else {
+      for (int i = 0; i < m_sectionNames.size(); i++) {
+        m_averageNanos[i] += kAverageGain * (m_sectionNanos[i] - m_averageNanos[i]);
+      }
+    }
+    for (int i = 0; i < m_sectionNames.size(); i++) m_sectionNanos[i] = 0;
+  }
+
+  private void attribute() {
+    long loopNanos = m_pendingEndNanos - m_pendingStartNanos;
+    long excessNanos = loopNanos - m_periodNanos;
+    double threshold = LATENCY.kOverrunAttributionFraction * excessNanos;
+    long gcNanos = getGcNanos(m_pendingStartNanos, m_pendingEndNanos);
+
+    String cause = kUnknown;
+    if (gcNanos >= threshold) {
+      cause = kGc;
+    } else {
+      double worstNanos = threshold;
+      for (int i = 0; i < m_sectionNames.size(); i++) {
+        double overNanos = m_pendingSectionNanos[i] - m_averageNanos[i];
+        if (overNanos >= worstNanos) {
+          worstNanos = overNanos;
+          cause = m_sectionNames.get(i);
+        }
+      }
+    }
+    count(cause);
+
+    m_overrunLog.append(
+        String.format("%.1f ms: %s (GC %.1f ms)", loopNanos / 1e6, cause, gcNanos / 1e6));
+    m_reportPub.set(getReport());
+    m_overrunsPub.set(getTotalCount(null));
+    m_gcOverrunsPub.set(getTotalCount(kGc));
+    m_loopsPub.set(m_loops);
+  }
+
+  private int getCauseIndex(String cause) {
+    Integer index = m_causeIndices.get(cause);
+    if (index != null) return index;
+
+    if (m_causeNames.size() == m_totalCounts.length) return m_causeIndices.get(kUnknown);
+    m_causeNames.add(cause);
+    m_causeIndices.put(cause, m_causeNames.size() - 1);
+    return m_causeNames.size() - 1;
+  }
+
+  private void count(String cause) {
+    int index = getCauseIndex(cause);
+    if (m_recentSize == m_recentCauses.length) m_windowCounts[m_recentCauses[m_recentNext]]--;
+    else m_recentSize++;
+    m_recentCauses[m_recentNext] = index;
+    m_recentNext = (m_recentNext + 1) % m_recentCauses.length;
+    m_windowCounts[index]++;
+    m_totalCounts[index]++;
+  }
+
+  /** Overruns blamed on a cause in the recent window, or all of them if the cause is null */
+  public long getWindowCount(String cause) {
+    if (cause == null) return m_recentSize;
+    Integer index = m_causeIndices.get(cause);
+    return index != null ? m_windowCounts[index] : 0;
+  }
+
+  /** Overruns blamed on a cause since startup, or all of them if the cause is null */
+  public long getTotalCount(String cause) {
+    if (cause == null) {
+      long total = 0;
+      for (long count : m_totalCounts) total += count;
+      return total;
+    }
+    Integer index = m_causeIndices.get(cause);
+    return index != null ? m_totalCounts[index] : 0;
+  }
+
+  /** Like "Last 16 overruns: GC 12, Vision 3, Unknown 1. 16 of 3000 loops since startup: ..." */
+  public String getReport() {
+    StringBuilder report = new StringBuilder();
+    report.append("Last ").append(m_recentSize).append(" overruns:");
+    appendCounts(report, m_windowCounts);
+    report.append(". ").append(getTotalCount(null)).append(" of ").append(m_loops);
+    report.append(" loops since startup:");
+    appendCounts(report, m_totalCounts);
+    return report.toString();
+  }
+
+  private void appendCounts(StringBuilder report, long[] counts) {
+    boolean first = true;
+    for (int i = 0; i < m_causeNames.size(); i++) {
+      if (counts[i] == 0) continue;
+      report.append(first ? " " : ", ").append(m_causeNames.get(i)).append(' ').append(counts[i]);
+      first = false;
+    }
+  }
+
+  /** Prints the report now and then, so it can be read from a simulation run */
+  public void simulationPeriodic() {
+    long now = System.nanoTime();
+    if ((now - m_lastReportNanos) / 1e9 < LATENCY.kOverrunReportPeriodSeconds) return;
+    m_lastReportNanos = now;
+    System.out.println("Loop overruns: " + getReport());
+  }
+}
@@ -0,0 +1,236 @@
+package frc.robot.utils;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import frc.robot.Constants.MEMORY;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Watches the heap without disturbing it, on the robot and in simulation.
+ *
+ * <p>Every collection is reported by a JMX notification, which logs its duration and cause as it
+ * happens. Once per {@link MEMORY#kPublishPeriodSeconds}, {@link #periodic()} publishes how fast
+ * the main loop thread allocates, the longest pause since the last publish, and the old generation
+ * as of the last collection along with its trend. Usage after a collection is what's actually
+ * live, so a steady climb in it is a leak. Nothing here ever asks for a collection.
+ *
+ * <p>Under Shuffleboard/Memory, and in the log as the /frames/memory frame plus the
+ * /memory/gcPauseMs and /memory/gc entries.
+ */
+public class MemoryMonitor implements AutoCloseable {
+  private static final double kBytesPerMB = 1024 * 1024;
+
+  private final com.sun.management.ThreadMXBean m_threadBean;
+  private final long m_mainThreadId;
+  private final List<MemoryPoolMXBean> m_heapPools = new ArrayList<>();
+  private final MemoryPoolMXBean m_oldGenPool;
+  private final List<NotificationEmitter> m_emitters = new ArrayList<>();
+  private final NotificationListener m_listener = this::handleNotification;
+
+  // Written by the JMX notification thread
+  private final AtomicLong m_gcCount = new AtomicLong();
+  private final AtomicLong m_gcTimeMs = new AtomicLong();
+  private final AtomicLong m_maxPauseMs = new AtomicLong();
+  private final DoubleLogEntry m_gcPauseLog;
+  private final StringLogEntry m_gcLog;
+
+  private long m_lastPublishNanos;
+  private long m_lastAllocatedBytes;
+  private final double[] m_trendSeconds = new double[MEMORY.kTrendWindowSamples];
+  private final double[] m_trendOldGenMB = new double[MEMORY.kTrendWindowSamples];
+  private int m_trendSamples;
+  private final long m_startNanos = System.nanoTime();
+
+  private final FrameLog.Frame m_frame =
+      FrameLog.getInstance()
+          .frame(
+              "/frames/memory",
+              "allocationRateMBps",
+              "maxGcPauseMs",
+              "gcCount",
+              "gcTimeMs",
+              "heapUsedMB",
+              "oldGenAfterGcMB",
+              "oldGenTrendMBPerMinute");
+  private final Telemetry.DoubleEntry m_allocationRatePub, m_maxPausePub, m_heapUsedPub;
+  private final Telemetry.DoubleEntry m_oldGenAfterGcPub, m_oldGenTrendPub;
+  private final Telemetry.IntegerEntry m_gcCountPub;
+
+  /** Call from the main loop thread, whose allocations are the ones measured */
+  public MemoryMonitor(DataLog log) {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+      m_threadBean = (com.sun.management.ThreadMXBean) threadBean;
+      m_threadBean.setThreadAllocatedMemoryEnabled(true);
+    } else m_threadBean = null;
+    m_mainThreadId = Thread.currentThread().getId();
+
+    MemoryPoolMXBean oldGenPool = null;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() != MemoryType.HEAP) continue;
+      m_heapPools.add(pool);
+      // "Tenured Gen" for the serial collector, "G1 Old Gen" or "PS Old Gen" otherwise
+      String name = pool.getName();
+      if (name.contains("Old") || name.contains("Tenured")) oldGenPool = pool;
+    }
+    m_oldGenPool = oldGenPool;
+
+    m_gcPauseLog = new DoubleLogEntry(log, "/memory/gcPauseMs");
+    m_gcLog = new StringLogEntry(log, "/memory/gc");
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (collector instanceof NotificationEmitter) {
+        var emitter = (NotificationEmitter) collector;
+        emitter.addNotificationListener(m_listener, null, null);
+        m_emitters.add(emitter);
+      }
+    }
+
+    var memoryTab = Telemetry.shuffleboard("Memory");
+    m_allocationRatePub = memoryTab.doubleEntry("Allocation Rate MBps", 0.01);
+    m_maxPausePub = memoryTab.doubleEntry("Max GC Pause Ms");
+    m_heapUsedPub = memoryTab.doubleEntry("Heap Used MB", 0.01);
+    m_oldGenAfterGcPub = memoryTab.doubleEntry("Old Gen After GC MB", 0.01);
+    m_oldGenTrendPub = memoryTab.doubleEntry("Old Gen Trend MB Per Minute", 0.001);
+    m_gcCountPub = memoryTab.integerEntry("GC Count");
+
+    m_lastPublishNanos = m_startNanos;
+    m_lastAllocatedBytes = getMainThreadAllocatedBytes();
+  }
+
+  private void handleNotification(Notification notification, Object handback) {
+    String type = notification.getType();
+    if (!type.equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+
+    var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    long durationMs = info.getGcInfo().getDuration();
+    m_gcCount.incrementAndGet();
+    m_gcTimeMs.addAndGet(durationMs);
+    m_maxPauseMs.accumulateAndGet(durationMs, Math::max);
+    // DataLog is thread safe, so the pauses are logged when they end
+    m_gcPauseLog.append(durationMs);
+    m_gcLog.append(info.getGcName() + " " + info.getGcAction() + ": " + info.getGcCause());
+  }
+
+  private long getMainThreadAllocatedBytes() {
+    return m_threadBean != null ? m_threadBean.getThreadAllocatedBytes(m_mainThreadId) : 0;
+  }
+
+  /** Heap in use after the last collection, or 0 before the first one */
+  private long getHeapAfterGcBytes() {
+    long bytes = 0;
+    for (MemoryPoolMXBean pool : m_heapPools) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (usage != null) bytes += usage.getUsed();
+    }
+    return bytes;
+  }
+
+  private double getOldGenAfterGcMB() {
+    if (m_oldGenPool == null) return getHeapAfterGcBytes() / kBytesPerMB;
+    MemoryUsage usage = m_oldGenPool.getCollectionUsage();
+    return usage != null ? usage.getUsed() / kBytesPerMB : 0;
+  }
+
+  private double getHeapUsedMB() {
+    long bytes = 0;
+    for (MemoryPoolMXBean pool : m_heapPools) bytes += pool.getUsage().getUsed();
+    return bytes / kBytesPerMB;
+  }
+
+  // Least squares slope of the old generation after GC over the window, in MB per minute
+  private double updateTrend(double seconds, double oldGenMB) {
+    if (m_trendSamples == m_trendSeconds.length) {
+      System.arraycopy(m_trendSeconds, 1, m_trendSeconds, 0, m_trendSamples - 1);
+      System.arraycopy(m_trendOldGenMB, 1, m_trendOldGenMB, 0, m_trendSamples - 1);
+      m_trendSamples--;
+    }
+    m_trendSeconds[m_trendSamples] = seconds;
+    m_trendOldGenMB[m_trendSamples] = oldGenMB;
+    m_trendSamples++;
+    return fitSlope(m_trendSeconds, m_trendOldGenMB, m_trendSamples) * 60;
+  }
+
+  /** Least squares slope of the first count points, or 0 if there aren't two distinct xs */
+  public static double fitSlope(double[] x, double[] y, int count) {
+    if (count < 2) return 0;
+
+    double meanX = 0, meanY = 0;
+    for (int i = 0; i < count; i++) {
+      meanX += x[i];
+      meanY += y[i];
+    }
+    meanX /= count;
+    meanY /= count;
+
+    double covariance = 0, variance = 0;
+    for (int i = 0; i < count; i++) {
+      double dx = x[i] - meanX;
+      covariance += dx * (y[i] - meanY);
+      variance += dx * dx;
+    }
+    return variance > 0 ? covariance / variance : 0;
+  }
+
+  /** Publishes once per period. Call from the main loop thread every loop. */
+  public void periodic() {
+    long now = System.nanoTime();
+    double elapsedSeconds = (now - m_lastPublishNanos) / 1e9;
+    if (elapsedSeconds < MEMORY.kPublishPeriodSeconds) return;
+    m_lastPublishNanos = now;
+
+    long allocatedBytes = getMainThreadAllocatedBytes();
+    double allocationRateMBps =
+        (allocatedBytes - m_lastAllocatedBytes) / kBytesPerMB / elapsedSeconds;
+    m_lastAllocatedBytes = allocatedBytes;
+
+    double maxPauseMs = m_maxPauseMs.getAndSet(0);
+    double oldGenAfterGcMB = getOldGenAfterGcMB();
+    double oldGenTrendMBPerMinute = updateTrend((now - m_startNanos) / 1e9, oldGenAfterGcMB);
+    double heapUsedMB = getHeapUsedMB();
+    long gcCount = m_gcCount.get();
+
+    m_allocationRatePub.set(allocationRateMBps);
+    m_maxPausePub.set(maxPauseMs);
+    m_heapUsedPub.set(heapUsedMB);
+    m_oldGenAfterGcPub.set(oldGenAfterGcMB);
+    m_oldGenTrendPub.set(oldGenTrendMBPerMinute);
+    m_gcCountPub.set(gcCount);
+
+    m_frame.set(0, allocationRateMBps);
+    m_frame.set(1, maxPauseMs);
+    m_frame.set(2, gcCount);
+    m_frame.set(3, m_gcTimeMs.get());
+    m_frame.set(4, heapUsedMB);
+    m_frame.set(5, oldGenAfterGcMB);
+    m_frame.set(6, oldGenTrendMBPerMinute);
+    m_frame.append();
+  }
+
+  @Override
+  public void close() {
+    for (NotificationEmitter emitter : m_emitters) {
+      try {
+        emitter.removeNotificationListener(m_listener);
+      } catch (ListenerNotFoundException ignored) {
+
+      }
+    }
+    m_frame.close();
+  }
+}
@@ -0,0 +1,319 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.SWERVE_DRIVE;
+import frc.robot.simulation.SimConstants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds shortest paths around the charging stations of both communities. Each station is inflated
+ * by the robot's circumscribed radius, and the visibility graph between the inflated corners is
+ * built once at startup. A query only has to connect the start and goal to that graph and run A*
+ * over eight nodes.
+ *
+ * <p>The cable bumps run from the field wall to the charging stations, so blocking them would close
+ * the lane between the stations and the wall. Instead a path can drive over a bump, and each one it
+ * crosses adds {@link #kCableBumpCostMeters} to its length.
+ */
+public class NavigationGraph {
+  private static NavigationGraph m_instance;
+
+  // Keeps graph nodes just outside the inflated obstacles, so an edge running along an obstacle
+  // doesn't count as crossing it
+  private static final double kNodeClearanceMeters = 0.01;
+  // The robot slows down to cross a cable bump, so a path only crosses one if going around is
+  // longer than this
+  static final double kCableBumpCostMeters = 1.0;
+
+  // Inflated charging stations, which paths can't go through
+  private final double[] m_minX = new double[2];
+  private final double[] m_minY = new double[2];
+  private final double[] m_maxX = new double[2];
+  private final double[] m_maxY = new double[2];
+  // Cable bumps, which paths can cross at a cost
+  private final double[] m_bumpMinX = new double[2];
+  private final double[] m_bumpMinY = new double[2];
+  private final double[] m_bumpMaxX = new double[2];
+  private final double[] m_bumpMaxY = new double[2];
+
+  private final int m_staticNodeCount;
+  private final int m_startNode;
+  private final int m_goalNode;
+  private final double[] m_nodeX;
+  private final double[] m_nodeY;
+  private final double[][] m_staticCost;
+
+  // Per-query scratch space
+  private final double[] m_startCost;
+  private final double[] m_goalCost;
+  private final double[] m_gScore;
+  private final int[] m_parent;
+  private final boolean[] m_open;
+  private final boolean[] m_closed;
+  private double m_directCost;
+
+  private NavigationGraph(double inflationMeters) {
+    setBounds(
+        SimConstants.Community.chargingStationCorners,
+        inflationMeters,
+        m_minX,
+        m_minY,
+        m_maxX,
+        m_maxY);
+    setBounds(
+        SimConstants.Community.cableBumpCorners, 0, m_bumpMinX, m_bumpMinY, m_bumpMaxX, m_bumpMaxY);
+
+    // Graph nodes are the corners of the inflated obstacles that the robot can actually reach
+    var nodes = new ArrayList<Translation2d>();
+    for (int i = 0; i < m_minX.length; i++) {
+      double left = m_minX[i] - kNodeClearanceMeters;
+      double right = m_maxX[i] + kNodeClearanceMeters;
+      double bottom = m_minY[i] - kNodeClearanceMeters;
+      double top = m_maxY[i] + kNodeClearanceMeters;
+      addNodeIfReachable(nodes, left, bottom);
+      addNodeIfReachable(nodes, left, top);
+      addNodeIfReachable(nodes, right, bottom);
+      addNodeIfReachable(nodes, right, top);
+    }
+
+    m_staticNodeCount = nodes.size();
+    m_startNode = m_staticNodeCount;
+    m_goalNode = m_staticNodeCount + 1;
+    m_nodeX = new double[m_staticNodeCount + 2];
+    m_nodeY = new double[m_staticNodeCount + 2];
+    for (int i = 0; i < m_staticNodeCount; i++) {
+      m_nodeX[i] = nodes.get(i).getX();
+      m_nodeY[i] = nodes.get(i).getY();
+    }
+
+    m_staticCost = new double[m_staticNodeCount][m_staticNodeCount];
+    for (int a = 0; a < m_staticNodeCount; a++) {
+      for (int b = a + 1; b < m_staticNodeCount; b++) {
+        double cost = getEdgeCost(m_nodeX[a], m_nodeY[a], m_nodeX[b], m_nodeY[b], -1, -1);
+        m_staticCost[a][b] = m_staticCost[b][a] = cost;
+      }
+      m_staticCost[a][a] = Double.POSITIVE_INFINITY;
+    }
+
+    m_startCost = new double[m_staticNodeCount];
+    m_goalCost = new double[m_staticNodeCount];
+    m_gScore = new double[m_staticNodeCount + 2];
+    m_parent = new int[m_staticNodeCount + 2];
+    m_open = new boolean[m_staticNodeCount + 2];
+    m_closed = new boolean[m_staticNodeCount + 2];
+  }
+
+  /**
+   * Sets the Blue obstacle's bounds at index 0, and the same obstacle mirrored onto the Red side of
+   * the field at index 1.
+   */
+  private static void setBounds(
+      Translation2d[] corners,
+      double inflationMeters,
+      double[] minXs,
+      double[] minYs,
+      double[] maxXs,
+      double[] maxYs) {
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (var corner : corners) {
+      minX = Math.min(minX, corner.getX());
+      minY = Math.min(minY, corner.getY());
+      maxX = Math.max(maxX, corner.getX());
+      maxY = Math.max(maxY, corner.getY());
+    }
+
+    minXs[0] = minX - inflationMeters;
+    maxXs[0] = maxX + inflationMeters;
+    minXs[1] = SimConstants.fieldLength - maxX - inflationMeters;
+    maxXs[1] = SimConstants.fieldLength - minX + inflationMeters;
+    minYs[0] = minYs[1] = minY - inflationMeters;
+    maxYs[0] = maxYs[1] = maxY + inflationMeters;
+  }
+
+  public static synchronized NavigationGraph getInstance() {
+    if (m_instance == null) {
+      m_instance =
+          new NavigationGraph(SWERVE_DRIVE.kBumperToBumperLength / 2.0 * Math.sqrt(2.0));
+    }
+    return m_instance;
+  }
+
+  private void addNodeIfReachable(List<Translation2d> nodes, double x, double y) {
+    if (x < 0 || x > SimConstants.fieldLength || y < 0 || y > SimConstants.fieldWidth) return;
+    if (getContainingObstacle(x, y) >= 0) return;
+    nodes.add(new Translation2d(x, y));
+  }
+
+  /** Returns true if the point is inside one of the inflated obstacles */
+  public boolean isBlocked(Translation2d point) {
+    return getContainingObstacle(point.getX(), point.getY()) >= 0;
+  }
+
+  private int getContainingObstacle(double x, double y) {
+    for (int i = 0; i < m_minX.length; i++) {
+      if (x > m_minX[i] && x < m_maxX[i] && y > m_minY[i] && y < m_maxY[i]) return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns true if the segment doesn't pass through the interior of any inflated obstacle.
+   * Obstacles containing either endpoint are ignored, so a robot that is already inside one (e.g.
+   * on the charging station) can still drive out of it.
+   */
+  private boolean isVisible(
+      double x0, double y0, double x1, double y1, int ignoredObstacleA, int ignoredObstacleB) {
+    for (int i = 0; i < m_minX.length; i++) {
+      if (i == ignoredObstacleA || i == ignoredObstacleB) continue;
+      if (segmentIntersects(m_minX[i], m_minY[i], m_maxX[i], m_maxY[i], x0, y0, x1, y1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** {@link #kCableBumpCostMeters} for each cable bump the segment crosses */
+  private double getBumpCost(double x0, double y0, double x1, double y1) {
+    double cost = 0;
+    for (int i = 0; i < m_bumpMinX.length; i++) {
+      if (segmentIntersects(
+          m_bumpMinX[i], m_bumpMinY[i], m_bumpMaxX[i], m_bumpMaxY[i], x0, y0, x1, y1)) {
+        cost += kCableBumpCostMeters;
+      }
+    }
+    return cost;
+  }
+
+  /** Length of the segment plus the cost of the bumps it crosses, or infinity if it's blocked */
+  private double getEdgeCost(
+      double x0, double y0, double x1, double y1, int ignoredObstacleA, int ignoredObstacleB) {
+    if (!isVisible(x0, y0, x1, y1, ignoredObstacleA, ignoredObstacleB)) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return Math.hypot(x1 - x0, y1 - y0) + getBumpCost(x0, y0, x1, y1);
+  }
+
+  /** Slab test of a segment against the open interior of a rectangle */
+  private static boolean segmentIntersects(
+      double minX,
+      double minY,
+      double maxX,
+      double maxY,
+      double x0,
+      double y0,
+      double x1,
+      double y1) {
+    double tMin = 0;
+    double tMax = 1;
+
+    double dx = x1 - x0;
+    if (Math.abs(dx) < 1e-12) {
+      if (x0 <= minX || x0 >= maxX) return false;
+    } else {
+      double t1 = (minX - x0) / dx;
+      double t2 = (maxX - x0) / dx;
+      tMin = Math.max(tMin, Math.min(t1, t2));
+      tMax = Math.min(tMax, Math.max(t1, t2));
+    }
+
+    double dy = y1 - y0;
+    if (Math.abs(dy) < 1e-12) {
+      if (y0 <= minY || y0 >= maxY) return false;
+    } else {
+      double t1 = (minY - y0) / dy;
+      double t2 = (maxY - y0) / dy;
+      tMin = Math.max(tMin, Math.min(t1, t2));
+      tMax = Math.min(tMax, Math.max(t1, t2));
+    }
+
+    return tMin < tMax;
+  }
+
+  /**
+   * Finds the shortest path between two field positions that avoids the inflated obstacles.
+   *
+   * @return The waypoints of the path, including the start and goal, or an empty list if the goal
+   *     can't be reached
+   */
+  public synchronized List<Translation2d> findPath(Translation2d start, Translation2d goal) {
+    double startX = start.getX();
+    double startY = start.getY();
+    double goalX = goal.getX();
+    double goalY = goal.getY();
+    int startObstacle = getContainingObstacle(startX, startY);
+    int goalObstacle = getContainingObstacle(goalX, goalY);
+
+    // Straight there if there's nothing in the way, not even a bump
+    m_directCost = getEdgeCost(startX, startY, goalX, goalY, startObstacle, goalObstacle);
+    if (m_directCost == Math.hypot(goalX - startX, goalY - startY)) {
+      return List.of(start, goal);
+    }
+
+    m_nodeX[m_startNode] = startX;
+    m_nodeY[m_startNode] = startY;
+    m_nodeX[m_goalNode] = goalX;
+    m_nodeY[m_goalNode] = goalY;
+    for (int i = 0; i < m_staticNodeCount; i++) {
+      m_startCost[i] = getEdgeCost(startX, startY, m_nodeX[i], m_nodeY[i], startObstacle, -1);
+      m_goalCost[i] = getEdgeCost(m_nodeX[i], m_nodeY[i], goalX, goalY, goalObstacle, -1);
+    }
+
+    Arrays.fill(m_gScore, Double.POSITIVE_INFINITY);
+    Arrays.fill(m_parent, -1);
+    Arrays.fill(m_open, false);
+    Arrays.fill(m_closed, false);
+    m_gScore[m_startNode] = 0;
+    m_open[m_startNode] = true;
+
+    // The graph is small enough that scanning for the best open node beats a priority queue
+    while (true) {
+      int current = -1;
+      double bestF = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < m_nodeX.length; i++) {
+        if (!m_open[i]) continue;
+        double f = m_gScore[i] + Math.hypot(goalX - m_nodeX[i], goalY - m_nodeY[i]);
+        if (f < bestF) {
+          bestF = f;
+          current = i;
+        }
+      }
+      if (current < 0) return List.of();
+      if (current == m_goalNode) break;
+
+      m_open[current] = false;
+      m_closed[current] = true;
+
+      for (int next = 0; next < m_nodeX.length; next++) {
+        if (m_closed[next] || next == m_startNode) continue;
+        double g = m_gScore[current] + getCost(current, next);
+        if (g < m_gScore[next]) {
+          m_gScore[next] = g;
+          m_parent[next] = current;
+          m_open[next] = true;
+        }
+      }
+    }
+
+    var path = new ArrayList<Translation2d>();
+    for (int node = m_goalNode; node >= 0; node = m_parent[node]) {
+      if (node == m_startNode) path.add(start);
+      else if (node == m_goalNode) path.add(goal);
+      else path.add(new Translation2d(m_nodeX[node], m_nodeY[node]));
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  private double getCost(int from, int to) {
+    // Driving straight over a bump can still be shorter than going around it
+    if (from == m_startNode) return to == m_goalNode ? m_directCost : m_startCost[to];
+    if (to == m_goalNode) return m_goalCost[from];
+    return m_staticCost[from][to];
+  }
+}
@@ -0,0 +1,445 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Drop-in replacement for WPILib's SwerveDrivePoseEstimator that gives the same estimates, but
+ * keeps its latency compensation history in preallocated primitive arrays instead of a TreeMap of
+ * interpolation records.
+ *
+ * <p>The history is a ring buffer sorted by timestamp, so finding where a vision measurement
+ * belongs is a binary search. Inserting the corrected sample shifts and replays only the entries
+ * newer than the measurement. Nothing is allocated per update or vision measurement, other than the
+ * Pose2d returned by {@link #getEstimatedPosition()} when the estimate has changed.
+ *
+ * <p>If the history fills up before entries are {@link #kBufferDurationSeconds} old, the oldest
+ * entries are dropped early, so vision measurements older than that are ignored.
+ */
+public class SwervePoseEstimator {
+  private static final double kBufferDurationSeconds = 1.5;
+  private static final int kDefaultHistoryCapacity = 256;
+  private static final int kModuleCount = 4;
+
+  private final FourModuleSwerveKinematics m_kinematics;
+  private final double[] m_q = new double[3];
+  private final double[] m_visionK = new double[3];
+
+  // Odometry, which follows SwerveDriveOdometry
+  private double m_poseX;
+  private double m_poseY;
+  private double m_poseRadians;
+  private double m_previousAngleRadians;
+  private double m_gyroOffsetRadians;
+  private final double[] m_previousDistances = new double[kModuleCount];
+  private Pose2d m_estimatedPose;
+
+  // History ring buffer. Module values are stored kModuleCount per entry.
+  private final int m_capacity;
+  private final double[] m_historyTimes;
+  private final double[] m_historyX;
+  private final double[] m_historyY;
+  private final double[] m_historyRadians;
+  private final double[] m_historyGyroRadians;
+  private final double[] m_historyDistances;
+  private final double[] m_historyAngles;
+  private int m_head;
+  private int m_size;
+
+  // Scratch space so updates don't allocate
+  private final double[] m_distances = new double[kModuleCount];
+  private final double[] m_angles = new double[kModuleCount];
+  private final double[] m_moduleDx = new double[kModuleCount];
+  private final double[] m_moduleDy = new double[kModuleCount];
+  private final double[] m_twist = new double[3];
+  private final double[] m_pose = new double[3];
+
+  /**
+   * Constructs a pose estimator with the same default standard deviations as WPILib's: 0.1 meters
+   * and radians for the state and 0.9 meters and radians for vision.
+   */
+  public SwervePoseEstimator(
+      FourModuleSwerveKinematics kinematics,
+      Rotation2d gyroAngle,
+      SwerveModulePosition[] modulePositions,
+      Pose2d initialPoseMeters) {
+    this(
+        kinematics,
+        gyroAngle,
+        modulePositions,
+        initialPoseMeters,
+        VecBuilder.fill(0.1, 0.1, 0.1),
+        VecBuilder.fill(0.9, 0.9, 0.9),
+        kDefaultHistoryCapacity);
+  }
+
+  /**
+   * @param stateStdDevs Standard deviations of the odometry pose estimate (x, y and heading)
+   * @param visionMeasurementStdDevs Standard deviations of vision pose measurements
+   * @param historyCapacity Number of odometry updates and vision measurements to keep. This should
+   *     cover {@link #kBufferDurationSeconds} of both.
+   */
+  public SwervePoseEstimator(
+      FourModuleSwerveKinematics kinematics,
+      Rotation2d gyroAngle,
+      SwerveModulePosition[] modulePositions,
+      Pose2d initialPoseMeters,
+      Matrix<N3, N1> stateStdDevs,
+      Matrix<N3, N1> visionMeasurementStdDevs,
+      int historyCapacity) {
+    m_kinematics = kinematics;
+    for (int i = 0; i < 3; i++) m_q[i] = stateStdDevs.get(i, 0) * stateStdDevs.get(i, 0);
+    setVisionMeasurementStdDevs(visionMeasurementStdDevs);
+
+    m_capacity = historyCapacity;
+    m_historyTimes = new double[m_capacity];
+    m_historyX = new double[m_capacity];
+    m_historyY = new double[m_capacity];
+    m_historyRadians = new double[m_capacity];
+    m_historyGyroRadians = new double[m_capacity];
+    m_historyDistances = new double[m_capacity * kModuleCount];
+    m_historyAngles = new double[m_capacity * kModuleCount];
+
+    resetPosition(gyroAngle, modulePositions, initialPoseMeters);
+  }
+
+  /**
+   * Sets how much vision measurements are trusted compared to odometry. Larger values trust vision
+   * less.
+   */
+  public void setVisionMeasurementStdDevs(Matrix<N3, N1> visionMeasurementStdDevs) {
+    for (int i = 0; i < 3; i++) {
+      double r = visionMeasurementStdDevs.get(i, 0) * visionMeasurementStdDevs.get(i, 0);
+      // Closed form Kalman gain for a continuous model with A = 0 and C = I
+      m_visionK[i] = m_q[i] == 0.0 ? 0.0 : m_q[i] / (m_q[i] + Math.sqrt(m_q[i] * r));
+    }
+  }
+
+  /** Resets the estimate to the given pose and clears the history. */
+  public void resetPosition(
+      Rotation2d gyroAngle, SwerveModulePosition[] modulePositions, Pose2d poseMeters) {
+    for (int i = 0; i < kModuleCount; i++) {
+      m_distances[i] = modulePositions[i].distanceMeters;
+      m_angles[i] = modulePositions[i].angle.getRadians();
+    }
+    resetOdometry(
+        gyroAngle.getRadians(),
+        m_distances,
+        poseMeters.getX(),
+        poseMeters.getY(),
+        poseMeters.getRotation().getRadians());
+    m_head = 0;
+    m_size = 0;
+  }
+
+  public Pose2d getEstimatedPosition() {
+    if (m_estimatedPose == null)
+      m_estimatedPose = new Pose2d(m_poseX, m_poseY, new Rotation2d(m_poseRadians));
+    return m_estimatedPose;
+  }
+
+  /** Updates the estimate with odometry, using the current FPGA time. */
+  public Pose2d update(Rotation2d gyroAngle, SwerveModulePosition[] modulePositions) {
+    return updateWithTime(Timer.getFPGATimestamp(), gyroAngle, modulePositions);
+  }
+
+  /** Updates the estimate with odometry measured at the given time. */
+  public Pose2d updateWithTime(
+      double currentTimeSeconds, Rotation2d gyroAngle, SwerveModulePosition[] modulePositions) {
+    for (int i = 0; i < kModuleCount; i++) {
+      m_distances[i] = modulePositions[i].distanceMeters;
+      m_angles[i] = modulePositions[i].angle.getRadians();
+    }
+    double gyroRadians = gyroAngle.getRadians();
+    updateOdometry(gyroRadians, m_distances, m_angles);
+    addSample(currentTimeSeconds, gyroRadians, m_distances, m_angles);
+    return getEstimatedPosition();
+  }
+
+  /**
+   * Corrects the estimate with a vision measurement taken at the given time. Odometry updates
+   * after the measurement are replayed on top of the corrected pose.
+   *
+   * @param timestampSeconds Time the measurement was taken, in the same timebase as {@link
+   *     #updateWithTime(double, Rotation2d, SwerveModulePosition[])}
+   */
+  public void addVisionMeasurement(Pose2d visionRobotPoseMeters, double timestampSeconds) {
+    if (m_size == 0) return;
+    if (m_historyTimes[index(m_size - 1)] - kBufferDurationSeconds > timestampSeconds) return;
+
+    // Odometry at the time of the measurement, written into m_pose, m_distances and m_angles
+    double gyroRadians = sample(timestampSeconds);
+
+    // Move part of the way from the odometry pose towards the vision pose
+    log(
+        m_pose[0],
+        m_pose[1],
+        m_pose[2],
+        visionRobotPoseMeters.getX(),
+        visionRobotPoseMeters.getY(),
+        visionRobotPoseMeters.getRotation().getRadians(),
+        m_twist);
+    exp(
+        m_pose[0],
+        m_pose[1],
+        m_pose[2],
+        m_visionK[0] * m_twist[0],
+        m_visionK[1] * m_twist[1],
+        m_visionK[2] * m_twist[2],
+        m_pose);
+
+    resetOdometry(gyroRadians, m_distances, m_pose[0], m_pose[1], m_pose[2]);
+    int replayStart = addSample(timestampSeconds, gyroRadians, m_distances, m_angles) + 1;
+
+    for (int k = replayStart; k < m_size; k++) {
+      int entry = index(k);
+      for (int i = 0; i < kModuleCount; i++) {
+        m_distances[i] = m_historyDistances[entry * kModuleCount + i];
+        m_angles[i] = m_historyAngles[entry * kModuleCount + i];
+      }
+      updateOdometry(m_historyGyroRadians[entry], m_distances, m_angles);
+      m_historyX[entry] = m_poseX;
+      m_historyY[entry] = m_poseY;
+      m_historyRadians[entry] = m_poseRadians;
+    }
+  }
+
+  /**
+   * Same as {@link #addVisionMeasurement(Pose2d, double)}, but sets the vision standard deviations
+   * first.
+   */
+  public void addVisionMeasurement(
+      Pose2d visionRobotPoseMeters,
+      double timestampSeconds,
+      Matrix<N3, N1> visionMeasurementStdDevs) {
+    setVisionMeasurementStdDevs(visionMeasurementStdDevs);
+    addVisionMeasurement(visionRobotPoseMeters, timestampSeconds);
+  }
+
+  private void resetOdometry(
+      double gyroRadians, double[] distances, double poseX, double poseY, double poseRadians) {
+    m_poseX = poseX;
+    m_poseY = poseY;
+    m_poseRadians = poseRadians;
+    m_previousAngleRadians = poseRadians;
+    m_gyroOffsetRadians = poseRadians - gyroRadians;
+    System.arraycopy(distances, 0, m_previousDistances, 0, kModuleCount);
+    m_estimatedPose = null;
+  }
+
+  /** Same math as SwerveDriveOdometry.update() */
+  private void updateOdometry(double gyroRadians, double[] distances, double[] angles) {
+    double angle = MathUtil.angleModulus(gyroRadians + m_gyroOffsetRadians);
+    for (int i = 0; i < kModuleCount; i++) {
+      double delta = distances[i] - m_previousDistances[i];
+      m_moduleDx[i] = delta * Math.cos(angles[i]);
+      m_moduleDy[i] = delta * Math.sin(angles[i]);
+      m_previousDistances[i] = distances[i];
+    }
+    m_kinematics.toTwist(m_moduleDx, m_moduleDy, m_twist);
+
+    exp(
+        m_poseX,
+        m_poseY,
+        m_poseRadians,
+        m_twist[0],
+        m_twist[1],
+        MathUtil.angleModulus(angle - m_previousAngleRadians),
+        m_pose);
+    m_poseX = m_pose[0];
+    m_poseY = m_pose[1];
+    m_poseRadians = angle;
+    m_previousAngleRadians = angle;
+    m_estimatedPose = null;
+  }
+
+  /** Physical index of the k-th oldest entry */
+  private int index(int k) {
+    return (m_head + k) % m_capacity;
+  }
+
+  /** Logical index of the newest entry at or before the given time, or -1 if there is none */
+  private int floorIndex(double timeSeconds) {
+    int low = 0;
+    int high = m_size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (m_historyTimes[index(mid)] <= timeSeconds) low = mid + 1;
+      else high = mid - 1;
+    }
+    return high;
+  }
+
+  /**
+   * Stores the current odometry pose with the given inputs, replacing an entry with the same time
+   * and dropping entries that are too old.
+   *
+   * @return The logical index of the new entry
+   */
+  private int addSample(
+      double timeSeconds, double gyroRadians, double[] distances, double[] angles) {
+    int k = floorIndex(timeSeconds);
+    if (k < 0 || m_historyTimes[index(k)] != timeSeconds) {
+      k++;
+      if (m_size == m_capacity) {
+        if (k == 0) return -1;
+        // Full, so drop the oldest entry to make room
+        m_head = index(1);
+        m_size--;
+        k--;
+      }
+      // Shift newer entries up by one to keep the buffer sorted
+      for (int j = m_size; j > k; j--) copyEntry(index(j - 1), index(j));
+      m_size++;
+    }
+
+    int entry = index(k);
+    m_historyTimes[entry] = timeSeconds;
+    m_historyX[entry] = m_poseX;
+    m_historyY[entry] = m_poseY;
+    m_historyRadians[entry] = m_poseRadians;
+    m_historyGyroRadians[entry] = gyroRadians;
+    System.arraycopy(distances, 0, m_historyDistances, entry * kModuleCount, kModuleCount);
+    System.arraycopy(angles, 0, m_historyAngles, entry * kModuleCount, kModuleCount);
+
+    double newestTime = m_historyTimes[index(m_size - 1)];
+    while (m_size > 1 && k > 0 && newestTime - m_historyTimes[m_head] >= kBufferDurationSeconds) {
+      m_head = index(1);
+      m_size--;
+      k--;
+    }
+    return k;
+  }
+
+  private void copyEntry(int from, int to) {
+    m_historyTimes[to] = m_historyTimes[from];
+    m_historyX[to] = m_historyX[from];
+    m_historyY[to] = m_historyY[from];
+    m_historyRadians[to] = m_historyRadians[from];
+    m_historyGyroRadians[to] = m_historyGyroRadians[from];
+    System.arraycopy(
+        m_historyDistances,
+        from * kModuleCount,
+        m_historyDistances,
+        to * kModuleCount,
+        kModuleCount);
+    System.arraycopy(
+        m_historyAngles, from * kModuleCount, m_historyAngles, to * kModuleCount, kModuleCount);
+  }
+
+  /**
+   * Interpolates the history at the given time the same way WPILib's interpolation records do,
+   * writing the pose into m_pose and the module positions into m_distances and m_angles.
+   *
+   * @return The gyro angle at the given time
+   */
+  private double sample(double timeSeconds) {
+    int floor = floorIndex(timeSeconds);
+    if (floor < 0) return readEntry(index(0));
+    if (floor == m_size - 1 || m_historyTimes[index(floor)] == timeSeconds)
+      return readEntry(index(floor));
+
+    int start = index(floor);
+    int end = index(floor + 1);
+    double t =
+        (timeSeconds - m_historyTimes[start]) / (m_historyTimes[end] - m_historyTimes[start]);
+
+    for (int i = 0; i < kModuleCount; i++) {
+      double startDistance = m_historyDistances[start * kModuleCount + i];
+      double startAngle = m_historyAngles[start * kModuleCount + i];
+      double endDistance = m_historyDistances[end * kModuleCount + i];
+      double endAngle = m_historyAngles[end * kModuleCount + i];
+
+      m_distances[i] = startDistance + (endDistance - startDistance) * t;
+      m_angles[i] = startAngle + MathUtil.angleModulus(endAngle - startAngle) * t;
+      double delta = m_distances[i] - startDistance;
+      m_moduleDx[i] = delta * Math.cos(m_angles[i]);
+      m_moduleDy[i] = delta * Math.sin(m_angles[i]);
+    }
+    m_kinematics.toTwist(m_moduleDx, m_moduleDy, m_twist);
+
+    double dTheta =
+        MathUtil.angleModulus(m_historyGyroRadians[end] - m_historyGyroRadians[start]) * t;
+    exp(
+        m_historyX[start],
+        m_historyY[start],
+        m_historyRadians[start],
+        m_twist[0],
+        m_twist[1],
+        dTheta,
+        m_pose);
+    return m_historyGyroRadians[start] + dTheta;
+  }
+
+  private double readEntry(int entry) {
+    m_pose[0] = m_historyX[entry];
+    m_pose[1] = m_historyY[entry];
+    m_pose[2] = m_historyRadians[entry];
+    System.arraycopy(m_historyDistances, entry * kModuleCount, m_distances, 0, kModuleCount);
+    System.arraycopy(m_historyAngles, entry * kModuleCount, m_angles, 0, kModuleCount);
+    return m_historyGyroRadians[entry];
+  }
+
+  /** Pose2d.exp() without the allocations. Writes x, y and heading into output. */
+  private static void exp(
+      double x, double y, double radians, double dx, double dy, double dTheta, double[] output) {
+    double sinTheta = Math.sin(dTheta);
+    double cosTheta = Math.cos(dTheta);
+    double s;
+    double c;
+    if (Math.abs(dTheta) < 1e-9) {
+      s = 1.0 - 1.0 / 6.0 * dTheta * dTheta;
+      c = 0.5 * dTheta;
+    } else {
+      s = sinTheta / dTheta;
+      c = (1 - cosTheta) / dTheta;
+    }
+    double tx = dx * s - dy * c;
+    double ty = dx * c + dy * s;
+
+    double cos = Math.cos(radians);
+    double sin = Math.sin(radians);
+    output[0] = x + tx * cos - ty * sin;
+    output[1] = y + tx * sin + ty * cos;
+    output[2] = MathUtil.angleModulus(radians + dTheta);
+  }
+
+  /** Pose2d.log() without the allocations. Writes the twist from start to end into output. */
+  private static void log(
+      double startX,
+      double startY,
+      double startRadians,
+      double endX,
+      double endY,
+      double endRadians,
+      double[] output) {
+    // End pose relative to the start pose
+    double cos = Math.cos(startRadians);
+    double sin = Math.sin(startRadians);
+    double dx = endX - startX;
+    double dy = endY - startY;
+    double tx = dx * cos + dy * sin;
+    double ty = -dx * sin + dy * cos;
+
+    double dTheta = MathUtil.angleModulus(endRadians - startRadians);
+    double halfDTheta = dTheta / 2.0;
+    double cosMinusOne = Math.cos(dTheta) - 1;
+    double halfThetaByTanOfHalfDTheta;
+    if (Math.abs(cosMinusOne) < 1e-9) {
+      halfThetaByTanOfHalfDTheta = 1.0 - 1.0 / 12.0 * dTheta * dTheta;
+    } else {
+      halfThetaByTanOfHalfDTheta = -(halfDTheta * Math.sin(dTheta)) / cosMinusOne;
+    }
+
+    output[0] = tx * halfThetaByTanOfHalfDTheta + ty * halfDTheta;
+    output[1] = -tx * halfDTheta + ty * halfThetaByTanOfHalfDTheta;
+    output[2] = dTheta;
+  }
+}
@@ -0,0 +1,278 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Limits how quickly the swerve setpoint can change. Instead of jumping straight to the desired
+ * chassis speeds, the setpoint moves along the straight line from the previous chassis speeds to
+ * the desired ones, only as far as every module's acceleration and steering rate allow. Because the
+ * chassis speeds are interpolated instead of each module separately, the module states always
+ * agree with each other kinematically.
+ *
+ * <p>Module locations are assumed to be centered on the robot, which lets module states be turned
+ * back into chassis speeds without a matrix pseudo-inverse. The setpoint is kept as each module's
+ * speed and angle in radians, read with {@link #getModuleSpeedMetersPerSecond(int)} and {@link
+ * #getModuleAngleRadians(int)}, so generating and applying it allocates nothing. {@link
+ * #getModuleStates(SwerveModuleState[])} copies it into module states, which needs a new Rotation2d
+ * for every angle that changed.
+ */
+public class SwerveSetpointGenerator {
+  // Module speeds below this don't have a meaningful direction
+  private static final double kStoppedSpeedMetersPerSecond = 1e-3;
+  private static final int kSteeringSearchIterations = 10;
+
+  private final int m_moduleCount;
+  private final double[] m_moduleX;
+  private final double[] m_moduleY;
+  private final double m_moduleRadiusSquaredSum;
+
+  private final double m_maxAccelerationMetersPerSecondSquared;
+  private final double m_maxSteeringRateRadiansPerSecond;
+
+  // Previous setpoint
+  private double m_vx;
+  private double m_vy;
+  private double m_omega;
+  private final double[] m_moduleSpeeds;
+  private final double[] m_moduleAngles;
+
+  // Desired chassis speeds for the current call
+  private double m_desiredVx;
+  private double m_desiredVy;
+  private double m_desiredOmega;
+
+  // Output of solveChassisSpeeds()
+  private double m_solvedVx;
+  private double m_solvedVy;
+  private double m_solvedOmega;
+
+  public SwerveSetpointGenerator(
+      Translation2d[] moduleLocations,
+      double maxAccelerationMetersPerSecondSquared,
+      double maxSteeringRateRadiansPerSecond) {
+    m_moduleCount = moduleLocations.length;
+    m_moduleX = new double[m_moduleCount];
+    m_moduleY = new double[m_moduleCount];
+    double radiusSquaredSum = 0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_moduleX[i] = moduleLocations[i].getX();
+      m_moduleY[i] = moduleLocations[i].getY();
+      radiusSquaredSum += m_moduleX[i] * m_moduleX[i] + m_moduleY[i] * m_moduleY[i];
+    }
+    m_moduleRadiusSquaredSum = radiusSquaredSum;
+
+    m_maxAccelerationMetersPerSecondSquared = maxAccelerationMetersPerSecondSquared;
+    m_maxSteeringRateRadiansPerSecond = maxSteeringRateRadiansPerSecond;
+
+    m_moduleSpeeds = new double[m_moduleCount];
+    m_moduleAngles = new double[m_moduleCount];
+  }
+
+  /**
+   * Sets the previous setpoint to the given module states, e.g. the measured states while disabled
+   * or states that were commanded without going through this generator.
+   */
+  public void reset(SwerveModuleState[] states) {
+    solveChassisSpeeds(states);
+    m_vx = m_solvedVx;
+    m_vy = m_solvedVy;
+    m_omega = m_solvedOmega;
+
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_moduleSpeeds[i] = states[i].speedMetersPerSecond;
+      m_moduleAngles[i] = states[i].angle.getRadians();
+    }
+  }
+
+  /** Moves the setpoint towards the desired chassis speeds */
+  public void generate(
+      double vx, double vy, double omega, double maxModuleSpeedMetersPerSecond, double dtSeconds) {
+    // Desaturate on the chassis speeds so the module states stay consistent
+    double maxModuleSpeed = 0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      maxModuleSpeed =
+          Math.max(maxModuleSpeed, Math.hypot(moduleVx(vx, omega, i), moduleVy(vy, omega, i)));
+    }
+    double scale =
+        maxModuleSpeed > maxModuleSpeedMetersPerSecond
+            ? maxModuleSpeedMetersPerSecond / maxModuleSpeed
+            : 1;
+    m_desiredVx = vx * scale;
+    m_desiredVy = vy * scale;
+    m_desiredOmega = omega * scale;
+
+    double s = 1;
+
+    // Acceleration: every module velocity vector is linear in s, so each limit is closed form
+    double maxVelocityStep = m_maxAccelerationMetersPerSecondSquared * dtSeconds;
+    for (int i = 0; i < m_moduleCount; i++) {
+      double dvx = moduleVx(m_desiredVx, m_desiredOmega, i) - moduleVx(m_vx, m_omega, i);
+      double dvy = moduleVy(m_desiredVy, m_desiredOmega, i) - moduleVy(m_vy, m_omega, i);
+      double dv = Math.hypot(dvx, dvy);
+      if (dv > maxVelocityStep) s = Math.min(s, maxVelocityStep / dv);
+    }
+
+    // Steering: search for the largest s that doesn't turn any moving module too quickly
+    double maxSteeringStep = m_maxSteeringRateRadiansPerSecond * dtSeconds;
+    if (!isSteeringFeasible(s, maxSteeringStep)) {
+      if (isStopped()) {
+        // Turn the modules in place before starting to move
+        steerInPlace(maxSteeringStep);
+        return;
+      }
+
+      double low = 0;
+      double high = s;
+      for (int n = 0; n < kSteeringSearchIterations; n++) {
+        double mid = (low + high) / 2.0;
+        if (isSteeringFeasible(mid, maxSteeringStep)) low = mid;
+        else high = mid;
+      }
+      s = low;
+    }
+
+    m_vx += (m_desiredVx - m_vx) * s;
+    m_vy += (m_desiredVy - m_vy) * s;
+    m_omega += (m_desiredOmega - m_omega) * s;
+
+    for (int i = 0; i < m_moduleCount; i++) {
+      double moduleVx = moduleVx(m_vx, m_omega, i);
+      double moduleVy = moduleVy(m_vy, m_omega, i);
+      double speed = Math.hypot(moduleVx, moduleVy);
+
+      // Keep the previous angle when stopped instead of snapping the module to 0
+      if (speed > kStoppedSpeedMetersPerSecond) {
+        double angle = Math.atan2(moduleVy, moduleVx);
+        // Drive backwards instead of turning more than 90 degrees
+        if (Math.abs(MathUtil.angleModulus(angle - m_moduleAngles[i])) > Math.PI / 2.0) {
+          angle = MathUtil.angleModulus(angle + Math.PI);
+          speed = -speed;
+        }
+        m_moduleAngles[i] = angle;
+      } else {
+        speed = 0;
+      }
+      m_moduleSpeeds[i] = speed;
+    }
+  }
+
+  /**
+   * Same as {@link #generate(double, double, double, double, double)}, but takes the desired module
+   * states, such as those from PathPlanner.
+   */
+  public void generate(
+      SwerveModuleState[] desiredStates, double maxModuleSpeedMetersPerSecond, double dtSeconds) {
+    solveChassisSpeeds(desiredStates);
+    generate(m_solvedVx, m_solvedVy, m_solvedOmega, maxModuleSpeedMetersPerSecond, dtSeconds);
+  }
+
+  /** Least squares inverse kinematics, which simplifies to this when the modules are centered */
+  private void solveChassisSpeeds(SwerveModuleState[] states) {
+    double vxSum = 0;
+    double vySum = 0;
+    double omegaSum = 0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      double speed = states[i].speedMetersPerSecond;
+      double moduleVx = speed * states[i].angle.getCos();
+      double moduleVy = speed * states[i].angle.getSin();
+      vxSum += moduleVx;
+      vySum += moduleVy;
+      omegaSum += m_moduleX[i] * moduleVy - m_moduleY[i] * moduleVx;
+    }
+
+    m_solvedVx = vxSum / m_moduleCount;
+    m_solvedVy = vySum / m_moduleCount;
+    m_solvedOmega = omegaSum / m_moduleRadiusSquaredSum;
+  }
+
+  private double moduleVx(double vx, double omega, int module) {
+    return vx - omega * m_moduleY[module];
+  }
+
+  private double moduleVy(double vy, double omega, int module) {
+    return vy + omega * m_moduleX[module];
+  }
+
+  private boolean isStopped() {
+    return Math.abs(m_vx) < kStoppedSpeedMetersPerSecond
+        && Math.abs(m_vy) < kStoppedSpeedMetersPerSecond
+        && Math.abs(m_omega) < kStoppedSpeedMetersPerSecond;
+  }
+
+  private boolean isSteeringFeasible(double s, double maxSteeringStep) {
+    double vx = m_vx + (m_desiredVx - m_vx) * s;
+    double vy = m_vy + (m_desiredVy - m_vy) * s;
+    double omega = m_omega + (m_desiredOmega - m_omega) * s;
+    boolean isStopped = isStopped();
+
+    for (int i = 0; i < m_moduleCount; i++) {
+      // While the robot is moving, a module that happens to be stopped can point anywhere without
+      // slipping. When the whole robot is stopped, the modules are turned in place instead.
+      if (!isStopped && Math.abs(m_moduleSpeeds[i]) < kStoppedSpeedMetersPerSecond) continue;
+
+      double moduleVx = moduleVx(vx, omega, i);
+      double moduleVy = moduleVy(vy, omega, i);
+      if (Math.hypot(moduleVx, moduleVy) < kStoppedSpeedMetersPerSecond) continue;
+
+      if (getSteeringError(Math.atan2(moduleVy, moduleVx), m_moduleAngles[i]) > maxSteeringStep)
+        return false;
+    }
+    return true;
+  }
+
+  private void steerInPlace(double maxSteeringStep) {
+    for (int i = 0; i < m_moduleCount; i++) {
+      double moduleVx = moduleVx(m_desiredVx, m_desiredOmega, i);
+      double moduleVy = moduleVy(m_desiredVy, m_desiredOmega, i);
+      if (Math.hypot(moduleVx, moduleVy) > kStoppedSpeedMetersPerSecond) {
+        double error = MathUtil.angleModulus(Math.atan2(moduleVy, moduleVx) - m_moduleAngles[i]);
+        // Turn towards whichever end of the module is closer
+        if (error > Math.PI / 2.0) error -= Math.PI;
+        else if (error < -Math.PI / 2.0) error += Math.PI;
+        m_moduleAngles[i] =
+            MathUtil.angleModulus(
+                m_moduleAngles[i] + MathUtil.clamp(error, -maxSteeringStep, maxSteeringStep));
+      }
+      m_moduleSpeeds[i] = 0;
+    }
+  }
+
+  /** Steering needed to reach an angle, allowing the module to drive backwards */
+  private static double getSteeringError(double desiredAngle, double currentAngle) {
+    double error = Math.abs(MathUtil.angleModulus(desiredAngle - currentAngle));
+    return Math.min(error, Math.PI - error);
+  }
+
+  public double getModuleSpeedMetersPerSecond(int module) {
+    return m_moduleSpeeds[module];
+  }
+
+  public double getModuleAngleRadians(int module) {
+    return m_moduleAngles[module];
+  }
+
+  /** Writes the setpoint into module states, keeping the angles that didn't change */
+  public void getModuleStates(SwerveModuleState[] outputStates) {
+    for (int i = 0; i < m_moduleCount; i++) {
+      var state = outputStates[i];
+      state.speedMetersPerSecond = m_moduleSpeeds[i];
+      if (state.angle == null || state.angle.getRadians() != m_moduleAngles[i])
+        state.angle = new Rotation2d(m_moduleAngles[i]);
+    }
+  }
+
+  public double getVxMetersPerSecond() {
+    return m_vx;
+  }
+
+  public double getVyMetersPerSecond() {
+    return m_vy;
+  }
+
+  public double getOmegaRadiansPerSecond() {
+    return m_omega;
+  }
+}
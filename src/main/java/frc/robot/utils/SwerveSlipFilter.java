@@ -0,0 +1,161 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Detects slipping wheels and removes them from odometry.
+ *
+ * <p>The rotation of the robot each loop is taken from the gyro. Given that rotation, every module
+ * gives its own estimate of how far the robot translated, and for a rigid robot with no slip they
+ * all agree. A module whose estimate is too far from the median is considered slipping and is
+ * down-weighted or dropped. The translation becomes the weighted mean, which is the weighted
+ * least-squares twist when the rotation is known.
+ *
+ * <p>The result is fed to the pose estimator as a set of corrected module positions that are
+ * kinematically consistent with the weighted twist, so WPILib's own twist calculation reproduces
+ * it exactly. No objects are allocated per update except the Rotation2d angles of the corrected
+ * positions.
+ */
+public class SwerveSlipFilter {
+  // Modules this many times past the slip threshold are dropped instead of down-weighted
+  private static final double kExcludeRatio = 3.0;
+
+  private final int m_moduleCount;
+  private final double[] m_moduleX;
+  private final double[] m_moduleY;
+  private final double m_slipThresholdMetersPerSecond;
+
+  private final double[] m_previousDistances;
+  private double m_previousGyroRadians;
+
+  // Per-module estimates of the robot translation this loop
+  private final double[] m_translationX;
+  private final double[] m_translationY;
+  private final boolean[] m_isSlipping;
+  private int m_slippingModuleCount;
+
+  private final SwerveModulePosition[] m_correctedPositions;
+
+  public SwerveSlipFilter(Translation2d[] moduleLocations, double slipThresholdMetersPerSecond) {
+    m_moduleCount = moduleLocations.length;
+    m_moduleX = new double[m_moduleCount];
+    m_moduleY = new double[m_moduleCount];
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_moduleX[i] = moduleLocations[i].getX();
+      m_moduleY[i] = moduleLocations[i].getY();
+    }
+    m_slipThresholdMetersPerSecond = slipThresholdMetersPerSecond;
+
+    m_previousDistances = new double[m_moduleCount];
+    m_translationX = new double[m_moduleCount];
+    m_translationY = new double[m_moduleCount];
+    m_isSlipping = new boolean[m_moduleCount];
+    m_correctedPositions = new SwerveModulePosition[m_moduleCount];
+    for (int i = 0; i < m_moduleCount; i++) m_correctedPositions[i] = new SwerveModulePosition();
+  }
+
+  /** Resets the filter so the corrected positions match the measured positions. */
+  public void reset(SwerveModulePosition[] measuredPositions, Rotation2d gyroAngle) {
+    for (int i = 0; i < m_moduleCount; i++) {
+      m_previousDistances[i] = measuredPositions[i].distanceMeters;
+      m_correctedPositions[i].distanceMeters = measuredPositions[i].distanceMeters;
+      m_correctedPositions[i].angle = measuredPositions[i].angle;
+      m_isSlipping[i] = false;
+    }
+    m_previousGyroRadians = gyroAngle.getRadians();
+    m_slippingModuleCount = 0;
+  }
+
+  /**
+   * Updates the corrected module positions with this loop's measurements.
+   *
+   * @return The corrected module positions to pass to the pose estimator. The same array is
+   *     returned every call.
+   */
+  public SwerveModulePosition[] update(
+      SwerveModulePosition[] measuredPositions, Rotation2d gyroAngle, double dtSeconds) {
+    double gyroRadians = gyroAngle.getRadians();
+    double dTheta = MathUtil.angleModulus(gyroRadians - m_previousGyroRadians);
+    m_previousGyroRadians = gyroRadians;
+
+    // Remove the rotation measured by the gyro from each module's displacement
+    for (int i = 0; i < m_moduleCount; i++) {
+      double delta = measuredPositions[i].distanceMeters - m_previousDistances[i];
+      m_previousDistances[i] = measuredPositions[i].distanceMeters;
+      m_translationX[i] = delta * measuredPositions[i].angle.getCos() + dTheta * m_moduleY[i];
+      m_translationY[i] = delta * measuredPositions[i].angle.getSin() - dTheta * m_moduleX[i];
+    }
+
+    double medianX = median(m_translationX);
+    double medianY = median(m_translationY);
+
+    double slipThresholdMeters = m_slipThresholdMetersPerSecond * dtSeconds;
+    double weightSum = 0;
+    double translationX = 0;
+    double translationY = 0;
+    m_slippingModuleCount = 0;
+    for (int i = 0; i < m_moduleCount; i++) {
+      double residual = Math.hypot(m_translationX[i] - medianX, m_translationY[i] - medianY);
+      double weight = 1;
+      m_isSlipping[i] = residual > slipThresholdMeters;
+      if (m_isSlipping[i]) {
+        double ratio = slipThresholdMeters / residual;
+        weight = ratio > 1.0 / kExcludeRatio ? ratio * ratio : 0;
+        m_slippingModuleCount++;
+      }
+      weightSum += weight;
+      translationX += weight * m_translationX[i];
+      translationY += weight * m_translationY[i];
+    }
+
+    if (weightSum > 0) {
+      translationX /= weightSum;
+      translationY /= weightSum;
+    } else {
+      translationX = medianX;
+      translationY = medianY;
+    }
+
+    // Module displacements consistent with the weighted twist
+    for (int i = 0; i < m_moduleCount; i++) {
+      double moduleDx = translationX - dTheta * m_moduleY[i];
+      double moduleDy = translationY + dTheta * m_moduleX[i];
+      double distance = Math.hypot(moduleDx, moduleDy);
+
+      var position = m_correctedPositions[i];
+      if (distance > 1e-9) {
+        position.distanceMeters += distance;
+        position.angle = new Rotation2d(moduleDx, moduleDy);
+      }
+    }
+    return m_correctedPositions;
+  }
+
+  /** Median without sorting or allocating, which matters since this runs every loop */
+  private double median(double[] values) {
+    if (m_moduleCount == 4) {
+      double min = Math.min(Math.min(values[0], values[1]), Math.min(values[2], values[3]));
+      double max = Math.max(Math.max(values[0], values[1]), Math.max(values[2], values[3]));
+      return (values[0] + values[1] + values[2] + values[3] - min - max) / 2.0;
+    }
+
+    double sum = 0;
+    for (int i = 0; i < m_moduleCount; i++) sum += values[i];
+    return sum / m_moduleCount;
+  }
+
+  public SwerveModulePosition[] getCorrectedPositions() {
+    return m_correctedPositions;
+  }
+
+  public boolean isSlipping(int module) {
+    return m_isSlipping[module];
+  }
+
+  public int getSlippingModuleCount() {
+    return m_slippingModuleCount;
+  }
+}
@@ -0,0 +1,262 @@
+package frc.robot.utils;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import frc.robot.utils.TelemetryScheduler.Tier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Typed dashboard values that are only sent when they change.
+ *
+ * <p>Each entry registers its NetworkTables publisher once, when it's created, so nothing is looked
+ * up or concatenated by key every loop. Setting an entry to the value it already has does nothing,
+ * which is safe because the NetworkTables server keeps the last value and hands it to dashboards
+ * that connect later. Enum entries cache the string for each constant, so changing state doesn't
+ * allocate either.
+ *
+ * <pre>{@code
+ * private final Telemetry.DoubleEntry m_heightEntry =
+ *     Telemetry.shuffleboard("Elevator").doubleEntry("Height Inches");
+ * ...
+ * m_heightEntry.set(Units.metersToInches(getHeightMeters()));
+ * }</pre>
+ *
+ * <p>Values read every loop should be added with a {@link Tier} instead, so {@link
+ * TelemetryScheduler} decides how often to read and publish them.
+ *
+ * <pre>{@code
+ * Telemetry.shuffleboard("Elevator")
+ *     .addDouble("Height Inches", Tier.CRITICAL, () -> Units.metersToInches(getHeightMeters()));
+ * }</pre>
+ *
+ * <p>Those stay registered until the {@code Telemetry} they were added with is closed, so a
+ * subsystem that adds them should keep it and close it in its own close().
+ */
+public class Telemetry implements AutoCloseable {
+  // Smaller than anything the dashboards display
+  private static final double kDefaultEpsilon = 1e-4;
+
+  private final NetworkTable m_table;
+  private final List<TelemetryScheduler.Registration> m_registrations = new ArrayList<>();
+
+  private Telemetry(NetworkTable table) {
+    m_table = table;
+  }
+
+  /** Entries under SmartDashboard/, where SmartDashboard.putNumber() and friends put them */
+  public static Telemetry smartDashboard() {
+    return new Telemetry(NetworkTableInstance.getDefault().getTable("SmartDashboard"));
+  }
+
+  /** Entries under a top level table, for values other programs read, like the Limelights */
+  public static Telemetry table(String name) {
+    return new Telemetry(NetworkTableInstance.getDefault().getTable(name));
+  }
+
+  /** Entries under Shuffleboard/{tab}/ */
+  public static Telemetry shuffleboard(String tab) {
+    return new Telemetry(
+        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable(tab));
+  }
+
+  public DoubleEntry doubleEntry(String name) {
+    return doubleEntry(name, kDefaultEpsilon);
+  }
+
+  /** @param epsilon Changes this small or smaller aren't sent */
+  public DoubleEntry doubleEntry(String name, double epsilon) {
+    return new DoubleEntry(m_table.getDoubleTopic(name).publish(), epsilon);
+  }
+
+  public DoubleArrayEntry doubleArrayEntry(String name) {
+    return new DoubleArrayEntry(m_table.getDoubleArrayTopic(name).publish(), kDefaultEpsilon);
+  }
+
+  public IntegerEntry integerEntry(String name) {
+    return new IntegerEntry(m_table.getIntegerTopic(name).publish());
+  }
+
+  public BooleanEntry booleanEntry(String name) {
+    return new BooleanEntry(m_table.getBooleanTopic(name).publish());
+  }
+
+  public StringEntry stringEntry(String name) {
+    return new StringEntry(m_table.getStringTopic(name).publish());
+  }
+
+  public <E extends Enum<E>> EnumEntry<E> enumEntry(String name, Class<E> enumClass) {
+    return new EnumEntry<>(m_table.getStringTopic(name).publish(), enumClass);
+  }
+
+  public void addDouble(String name, Tier tier, DoubleSupplier value) {
+    DoubleEntry entry = doubleEntry(name);
+    register(tier, () -> entry.set(value.getAsDouble()));
+  }
+
+  public void addDoubleArray(String name, Tier tier, Supplier<double[]> value) {
+    DoubleArrayEntry entry = doubleArrayEntry(name);
+    register(tier, () -> entry.set(value.get()));
+  }
+
+  public void addInteger(String name, Tier tier, LongSupplier value) {
+    IntegerEntry entry = integerEntry(name);
+    register(tier, () -> entry.set(value.getAsLong()));
+  }
+
+  public void addBoolean(String name, Tier tier, BooleanSupplier value) {
+    BooleanEntry entry = booleanEntry(name);
+    register(tier, () -> entry.set(value.getAsBoolean()));
+  }
+
+  public void addString(String name, Tier tier, Supplier<String> value) {
+    StringEntry entry = stringEntry(name);
+    register(tier, () -> entry.set(value.get()));
+  }
+
+  public <E extends Enum<E>> void addEnum(
+      String name, Class<E> enumClass, Tier tier, Supplier<E> value) {
+    EnumEntry<E> entry = enumEntry(name, enumClass);
+    register(tier, () -> entry.set(value.get()));
+  }
+
+  private void register(Tier tier, Runnable signal) {
+    m_registrations.add(TelemetryScheduler.getInstance().register(tier, signal));
+  }
+
+  /** Stops publishing the values added with a tier */
+  @Override
+  public void close() {
+    for (var registration : m_registrations) registration.close();
+    m_registrations.clear();
+  }
+
+  /** NaN counts as equal to NaN and different from everything else */
+  private static boolean differs(double a, double b, double epsilon) {
+    return Double.compare(a, b) != 0 && !(Math.abs(a - b) <= epsilon);
+  }
+
+  public static final class DoubleEntry {
+    private final DoublePublisher m_publisher;
+    private final double m_epsilon;
+    private boolean m_hasValue;
+    private double m_value;
+
+    private DoubleEntry(DoublePublisher publisher, double epsilon) {
+      m_publisher = publisher;
+      m_epsilon = epsilon;
+    }
+
+    public void set(double value) {
+      if (m_hasValue && !differs(value, m_value, m_epsilon)) return;
+      m_hasValue = true;
+      m_value = value;
+      m_publisher.set(value);
+    }
+  }
+
+  public static final class DoubleArrayEntry {
+    private final DoubleArrayPublisher m_publisher;
+    private final double m_epsilon;
+    private double[] m_values;
+
+    private DoubleArrayEntry(DoubleArrayPublisher publisher, double epsilon) {
+      m_publisher = publisher;
+      m_epsilon = epsilon;
+    }
+
+    public void set(double[] values) {
+      if (m_values != null && m_values.length == values.length) {
+        boolean changed = false;
+        for (int i = 0; i < values.length && !changed; i++) {
+          changed = differs(values[i], m_values[i], m_epsilon);
+        }
+        if (!changed) return;
+        System.arraycopy(values, 0, m_values, 0, values.length);
+      } else {
+        m_values = values.clone();
+      }
+      m_publisher.set(values);
+    }
+  }
+
+  public static final class IntegerEntry {
+    private final IntegerPublisher m_publisher;
+    private boolean m_hasValue;
+    private long m_value;
+
+    private IntegerEntry(IntegerPublisher publisher) {
+      m_publisher = publisher;
+    }
+
+    public void set(long value) {
+      if (m_hasValue && value == m_value) return;
+      m_hasValue = true;
+      m_value = value;
+      m_publisher.set(value);
+    }
+  }
+
+  public static final class BooleanEntry {
+    private final BooleanPublisher m_publisher;
+    private boolean m_hasValue;
+    private boolean m_value;
+
+    private BooleanEntry(BooleanPublisher publisher) {
+      m_publisher = publisher;
+    }
+
+    public void set(boolean value) {
+      if (m_hasValue && value == m_value) return;
+      m_hasValue = true;
+      m_value = value;
+      m_publisher.set(value);
+    }
+  }
+
+  public static final class StringEntry {
+    private final StringPublisher m_publisher;
+    private String m_value;
+
+    private StringEntry(StringPublisher publisher) {
+      m_publisher = publisher;
+    }
+
+    /** Publishes "null" for null, like String.valueOf() */
+    public void set(String value) {
+      if (value == null) value = "null";
+      if (value.equals(m_value)) return;
+      m_value = value;
+      m_publisher.set(value);
+    }
+  }
+
+  public static final class EnumEntry<E extends Enum<E>> {
+    private final StringPublisher m_publisher;
+    private final String[] m_names;
+    private E m_value;
+
+    private EnumEntry(StringPublisher publisher, Class<E> enumClass) {
+      m_publisher = publisher;
+      E[] constants = enumClass.getEnumConstants();
+      m_names = new String[constants.length];
+      for (int i = 0; i < constants.length; i++) m_names[i] = constants[i].toString();
+    }
+
+    /** Publishes "null" for null, like String.valueOf() */
+    public void set(E value) {
+      if (value == m_value) return;
+      m_value = value;
+      m_publisher.set(value != null ? m_names[value.ordinal()] : "null");
+    }
+  }
+}
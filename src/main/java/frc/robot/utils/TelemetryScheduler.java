@@ -0,0 +1,229 @@
+package frc.robot.utils;
+
+import edu.wpi.first.networktables.BooleanEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Publishes registered telemetry signals at a rate set by their tier.
+ *
+ * <p>Critical signals go out every loop, normal ones every 5th loop (10 Hz) and debug ones every
+ * 50th loop (1 Hz), depending on the profile. Signals in a tier are staggered by the order they
+ * were registered, so with 20 normal signals each loop publishes 4 of them instead of one loop
+ * publishing all 20. Since a signal reads its value only when it's published, slower tiers also
+ * mean fewer CAN reads.
+ *
+ * <p>The profile is picked with the "Telemetry Profile" chooser. When the FMS is attached the
+ * competition profile is always used, which turns the debug tier off. It can still be published
+ * once by setting Shuffleboard/Telemetry/Publish Debug to true.
+ *
+ * <p>Removing a signal moves the ones registered after it up, which only shifts which loop they're
+ * published on.
+ */
+public class TelemetryScheduler {
+  public enum Tier {
+    CRITICAL,
+    NORMAL,
+    DEBUG
+  }
+
+  public enum Profile {
+    COMPETITION(1, 5, 0),
+    PRACTICE(1, 5, 50),
+    DEBUG(1, 1, 1);
+
+    private final int[] m_periodLoops;
+
+    Profile(int... periodLoops) {
+      m_periodLoops = periodLoops;
+    }
+
+    /** Loops between publishes of each signal in the tier, or 0 if the tier is off */
+    public int getPeriodLoops(Tier tier) {
+      return m_periodLoops[tier.ordinal()];
+    }
+  }
+
+  // An on demand debug publish is spread over a second, like the practice profile does
+  private static final int kOnDemandPeriodLoops = 50;
+  private static final int kCountPeriodLoops = 50;
+
+  private static TelemetryScheduler m_instance;
+
+  private final EnumMap<Tier, List<Runnable>> m_signals = new EnumMap<>(Tier.class);
+  private Profile m_profile = Profile.PRACTICE;
+  private long m_loop;
+  private int m_onDemandLoopsRemaining;
+
+  private SendableChooser<Profile> m_profileChooser;
+  private BooleanEntry m_publishDebugEntry;
+  private Telemetry.EnumEntry<Profile> m_profilePub;
+  private Telemetry.IntegerEntry m_signalCountPub, m_maxSignalsPerLoopPub;
+  private Telemetry.DoubleEntry m_averageSignalsPerLoopPub;
+  private int m_maxSignalsPerLoop;
+  private int m_signalsSinceCount;
+
+  TelemetryScheduler() {
+    for (Tier tier : Tier.values()) {
+      m_signals.put(tier, new ArrayList<>());
+    }
+  }
+
+  public static TelemetryScheduler getInstance() {
+    if (m_instance == null) {
+      m_instance = new TelemetryScheduler();
+      m_instance.initSmartDashboard();
+    }
+    return m_instance;
+  }
+
+  private void initSmartDashboard() {
+    m_profileChooser = new SendableChooser<>();
+    for (Profile profile : Profile.values()) {
+      m_profileChooser.addOption(profile.toString(), profile);
+    }
+    m_profileChooser.setDefaultOption(m_profile.toString(), m_profile);
+    SmartDashboard.putData("Telemetry Profile", m_profileChooser);
+
+    m_publishDebugEntry =
+        NetworkTableInstance.getDefault()
+            .getTable("Shuffleboard")
+            .getSubTable("Telemetry")
+            .getBooleanTopic("Publish Debug")
+            .getEntry(false);
+    m_publishDebugEntry.set(false);
+
+    var telemetryTab = Telemetry.shuffleboard("Telemetry");
+    m_profilePub = telemetryTab.enumEntry("Profile", Profile.class);
+    m_signalCountPub = telemetryTab.integerEntry("Signals");
+    m_maxSignalsPerLoopPub = telemetryTab.integerEntry("Max Signals Per Loop");
+    m_averageSignalsPerLoopPub = telemetryTab.doubleEntry("Average Signals Per Loop");
+  }
+
+  /** Stops publishing a registered signal */
+  public interface Registration extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /**
+   * Adds a signal that publishes its current value when run. Close the registration when whatever
+   * the signal reads is closed, or it keeps being read.
+   */
+  public Registration register(Tier tier, Runnable signal) {
+    List<Runnable> signals = m_signals.get(tier);
+    signals.add(signal);
+    return () -> signals.remove(signal);
+  }
+
+  public void setProfile(Profile profile) {
+    m_profile = profile;
+  }
+
+  public Profile getProfile() {
+    return m_profile;
+  }
+
+  /** Publishes every debug signal once over the next second, even if the tier is off */
+  public void requestDebugPublish() {
+    m_onDemandLoopsRemaining = kOnDemandPeriodLoops;
+  }
+
+  public int getSignalCount(Tier tier) {
+    return m_signals.get(tier).size();
+  }
+
+  /** Call once per robot loop */
+  public void periodic() {
+    if (m_profileChooser != null) {
+      readSmartDashboard();
+    }
+
+    int published = run();
+
+    if (m_profileChooser != null) {
+      updateCounts(published);
+    }
+  }
+
+  private void readSmartDashboard() {
+    m_profile =
+        DriverStation.isFMSAttached() ? Profile.COMPETITION : m_profileChooser.getSelected();
+    if (m_publishDebugEntry.get()) {
+      m_publishDebugEntry.set(false);
+      requestDebugPublish();
+    }
+  }
+
+  /**
+   * Publishes the signals due this loop.
+   *
+   * @return How many signals were published
+   */
+  int run() {
+    int published = 0;
+    for (Tier tier : Tier.values()) {
+      int periodLoops = getPeriodLoops(tier);
+      if (periodLoops == 0) continue;
+
+      // Signal i is due on loops where loop % period == i % period
+      List<Runnable> signals = m_signals.get(tier);
+      for (int i = (int) (m_loop % periodLoops); i < signals.size(); i += periodLoops) {
+        signals.get(i).run();
+        published++;
+      }
+    }
+
+    if (m_onDemandLoopsRemaining > 0) m_onDemandLoopsRemaining--;
+    m_loop++;
+    return published;
+  }
+
+  private int getPeriodLoops(Tier tier) {
+    int periodLoops = m_profile.getPeriodLoops(tier);
+    if (periodLoops == 0 && tier == Tier.DEBUG && m_onDemandLoopsRemaining > 0) {
+      // Start the on demand cycle wherever the loop count is and still hit every signal once
+      return kOnDemandPeriodLoops;
+    }
+    return periodLoops;
+  }
+
+  private void updateCounts(int published) {
+    m_maxSignalsPerLoop = Math.max(m_maxSignalsPerLoop, published);
+    m_signalsSinceCount += published;
+
+    if (m_loop % kCountPeriodLoops == 0) {
+      m_profilePub.set(m_profile);
+      m_signalCountPub.set(
+          getSignalCount(Tier.CRITICAL) + getSignalCount(Tier.NORMAL) + getSignalCount(Tier.DEBUG));
+      m_maxSignalsPerLoopPub.set(m_maxSignalsPerLoop);
+      m_averageSignalsPerLoopPub.set((double) m_signalsSinceCount / kCountPeriodLoops);
+      m_maxSignalsPerLoop = 0;
+      m_signalsSinceCount = 0;
+    }
+  }
+
+  /**
+   * How many signals a profile publishes on each loop of a one second cycle, from the signals
+   * registered so far, without publishing anything.
+   */
+  public int[] getSignalsPerLoop(Profile profile) {
+    int[] counts = new int[kCountPeriodLoops];
+    for (Tier tier : Tier.values()) {
+      int periodLoops = profile.getPeriodLoops(tier);
+      if (periodLoops == 0) continue;
+
+      for (int i = 0; i < getSignalCount(tier); i++) {
+        for (int loop = i % periodLoops; loop < counts.length; loop += periodLoops) {
+          counts[loop]++;
+        }
+      }
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,144 @@
+package frc.robot.utils;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.simulation.SimConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches loaded (and alliance flipped) trajectories by path name and constraints, along with the
+ * down-sampled poses used to draw them on the Field2d for each alliance. Loading a path or
+ * switching alliances after the first time is then just a lookup.
+ */
+public class TrajectoryCache {
+  // Minimum distance between two poses drawn on the Field2d
+  private static final double kDisplayPoseSpacingMeters = 0.05;
+
+  private static final Map<String, List<PathPlannerTrajectory>> m_trajectories =
+      new ConcurrentHashMap<>();
+
+  // The most trajectories whose display poses are kept, so trajectories that aren't cached above,
+  // like generated ones, can't pile up
+  static final int kMaxDisplayedTrajectories = 32;
+
+  // Least recently drawn first. Guarded by itself.
+  private static final Map<DisplayKey, List<Pose2d>> m_displayPoses =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DisplayKey, List<Pose2d>> eldest) {
+          return size() > kMaxDisplayedTrajectories;
+        }
+      };
+
+  /** A trajectory by identity, since equals() compares every state, and an alliance */
+  private static class DisplayKey {
+    private final PathPlannerTrajectory m_trajectory;
+    private final DriverStation.Alliance m_alliance;
+
+    DisplayKey(PathPlannerTrajectory trajectory, DriverStation.Alliance alliance) {
+      m_trajectory = trajectory;
+      m_alliance = alliance;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof DisplayKey)) return false;
+      var key = (DisplayKey) other;
+      return m_trajectory == key.m_trajectory && m_alliance == key.m_alliance;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(m_trajectory) + m_alliance.ordinal();
+    }
+  }
+
+  private TrajectoryCache() {}
+
+  /**
+   * Returns the cached trajectories for this key, calling loader until a load succeeds. The file
+   * name already says which alliance a path is for, since Red paths start with "Red".
+   */
+  public static List<PathPlannerTrajectory> getTrajectories(
+      String fileName,
+      PathConstraints pathConstraint,
+      PathConstraints[] segmentConstraints,
+      Supplier<List<PathPlannerTrajectory>> loader) {
+    var key = new StringBuilder(fileName);
+    appendConstraints(key, pathConstraint);
+    for (var constraint : segmentConstraints) appendConstraints(key, constraint);
+
+    var trajectories =
+        m_trajectories.computeIfAbsent(
+            key.toString(),
+            k -> {
+              var loaded = loader.get();
+              // Failed loads are empty. They aren't cached, so they're retried the next time.
+              return loaded.isEmpty() ? null : Collections.unmodifiableList(loaded);
+            });
+    return trajectories != null ? trajectories : List.of();
+  }
+
+  private static void appendConstraints(StringBuilder key, PathConstraints constraints) {
+    key.append('|').append(constraints.maxVelocity).append(',').append(constraints.maxAcceleration);
+  }
+
+  /**
+   * Returns the poses of the trajectories, flipped for the given alliance the same way as {@link
+   * SimConstants#pathPlannerFlip(Pose2d, DriverStation.Alliance)} and spaced at least {@link
+   * #kDisplayPoseSpacingMeters} apart.
+   */
+  public static List<Pose2d> getDisplayPoses(
+      List<PathPlannerTrajectory> trajectories, DriverStation.Alliance alliance) {
+    synchronized (m_displayPoses) {
+      // Most paths are one trajectory, whose cached poses are returned as is
+      if (trajectories.size() == 1) return getTrajectoryDisplayPoses(trajectories.get(0), alliance);
+
+      List<Pose2d> poses = new ArrayList<>();
+      for (var trajectory : trajectories) {
+        poses.addAll(getTrajectoryDisplayPoses(trajectory, alliance));
+      }
+      return poses;
+    }
+  }
+
+  private static List<Pose2d> getTrajectoryDisplayPoses(
+      PathPlannerTrajectory trajectory, DriverStation.Alliance alliance) {
+    return m_displayPoses.computeIfAbsent(
+        new DisplayKey(trajectory, alliance), k -> generateDisplayPoses(trajectory, alliance));
+  }
+
+  private static List<Pose2d> generateDisplayPoses(
+      PathPlannerTrajectory trajectory, DriverStation.Alliance alliance) {
+    List<Pose2d> poses = new ArrayList<>();
+    var states = trajectory.getStates();
+    Pose2d lastPose = null;
+    for (int i = 0; i < states.size(); i++) {
+      var pose = states.get(i).poseMeters;
+      boolean isLastState = i == states.size() - 1;
+      if (lastPose != null
+          && !isLastState
+          && pose.getTranslation().getDistance(lastPose.getTranslation())
+              < kDisplayPoseSpacingMeters) continue;
+
+      poses.add(SimConstants.pathPlannerFlip(pose, alliance));
+      lastPose = pose;
+    }
+    return Collections.unmodifiableList(poses);
+  }
+
+  public static void clear() {
+    m_trajectories.clear();
+    synchronized (m_displayPoses) {
+      m_displayPoses.clear();
+    }
+  }
+}
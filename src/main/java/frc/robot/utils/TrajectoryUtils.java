@@ -11,6 +11,7 @@ import com.pathplanner.lib.commands.PPSwerveControllerCommand;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Filesystem;
 import frc.robot.Constants.SWERVE_DRIVE;
+import frc.robot.commands.swerve.FollowColumnarTrajectory;
 import frc.robot.subsystems.SwerveDrive;
 import java.io.File;
 import java.util.ArrayList;
@@ -22,9 +23,21 @@ public class TrajectoryUtils {
     return readTrajectory(fileName, segmentConstraints, segmentConstraints);
   }
 
+  /**
+   * Loads a PathPlanner path group. Results are cached by name and constraints, so Red paths that
+   * fall back to a flipped Blue path are only transformed once.
+   */
   public static List<PathPlannerTrajectory> readTrajectory(
       String fileName, PathConstraints pathConstraint, PathConstraints... segmentConstraints) {
+    return TrajectoryCache.getTrajectories(
+        fileName,
+        pathConstraint,
+        segmentConstraints,
+        () -> loadTrajectory(fileName, pathConstraint, segmentConstraints));
+  }
 
+  private static List<PathPlannerTrajectory> loadTrajectory(
+      String fileName, PathConstraints pathConstraint, PathConstraints... segmentConstraints) {
     if (pathConstraint.maxVelocity == 0 || pathConstraint.maxAcceleration == 0) {
       DriverStation.reportError(fileName + " has an invalid velocity/acceleration", true);
     }
@@ -92,4 +105,23 @@ public class TrajectoryUtils {
     }
     return commands;
   }
+
+  /** Follows deploy/pathplanner/generatedCSV/{pathName}.csv using a {@link ColumnarTrajectory} */
+  public static FollowColumnarTrajectory generateColumnarSwerveCommand(
+      SwerveDrive swerveDrive, String pathName) {
+    return new FollowColumnarTrajectory(
+        swerveDrive, ColumnarTrajectory.fromGeneratedCsv(pathName));
+  }
+
+  public static List<FollowColumnarTrajectory> generateColumnarSwerveCommand(
+      SwerveDrive swerveDrive, List<PathPlannerTrajectory> trajectories) {
+    List<FollowColumnarTrajectory> commands = new ArrayList<>();
+
+    for (var trajectory : trajectories) {
+      commands.add(
+          new FollowColumnarTrajectory(
+              swerveDrive, ColumnarTrajectory.fromPathPlanner(trajectory)));
+    }
+    return commands;
+  }
 }
@@ -0,0 +1,238 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.MatchDriver.Phase;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times the whole robot loop, from reading the sensors through the scheduler, RobotContainer,
+ * telemetry and simulationPeriodic(), on a stepped sim clock with {@link MatchDriver}.
+ *
+ * <p>Run it with {@code ./gradlew benchmark}, or {@code -Ploops=20000} to change the number of
+ * loops timed in each mode. Teleop runs the scripted stick inputs, and autonomous runs each option
+ * in the auto chooser in turn with a short disabled time between them, which isn't timed. Each mode
+ * gets {@value #kWarmupLoops} loops to warm up first. The loop time percentiles and the bytes the
+ * loop thread allocates per loop are printed and written to {@value #kResultsPath}.
+ *
+ * <p>The results are compared with the baseline in {@value #kBaselinePath}, which is tracked in
+ * git. The benchmark fails if a mode's median loop time is over {@value #kMaxSlowdown} times slower
+ * or it allocates {@value #kMaxAllocationGrowth} times more per loop. Times depend on the machine,
+ * so record the baseline where the comparison runs, with {@code -PupdateBaseline}, and commit it.
+ * The machine it was measured on is in its header. Without a baseline the benchmark fails instead
+ * of recording one, so a new baseline is always something someone chose to commit.
+ */
+public class LoopBenchmark {
+  private static final int kWarmupLoops = 2000;
+  private static final double kAutoDisabledSeconds = 2;
+  private static final double kMaxSlowdown = 1.25;
+  private static final double kMaxAllocationGrowth = 1.1;
+  private static final String kResultsPath = "build/reports/benchmark.properties";
+  private static final String kBaselinePath = "benchmarks/loop-baseline.properties";
+
+  private final com.sun.management.ThreadMXBean m_threadBean =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private final long m_threadId = Thread.currentThread().getId();
+
+  /** Loop times and allocations of one mode */
+  static class Result {
+    final String mode;
+    private final long[] m_nanos;
+    private long m_allocatedBytes;
+    private int m_size;
+
+    Result(String mode, int loops) {
+      this.mode = mode;
+      m_nanos = new long[loops];
+    }
+
+    void add(long nanos, long allocatedBytes) {
+      m_nanos[m_size++] = nanos;
+      m_allocatedBytes += allocatedBytes;
+    }
+
+    /** Nearest-rank percentile in milliseconds, like LatencyTracker */
+    double percentileMs(double percentile) {
+      long[] sorted = Arrays.copyOf(m_nanos, m_size);
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(percentile * m_size);
+      return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    double meanMs() {
+      long total = 0;
+      for (int i = 0; i < m_size; i++) total += m_nanos[i];
+      return total / 1e6 / m_size;
+    }
+
+    double bytesPerLoop() {
+      return (double) m_allocatedBytes / m_size;
+    }
+
+    void store(Properties properties) {
+      properties.setProperty(mode + ".loops", Integer.toString(m_size));
+      properties.setProperty(mode + ".meanMs", format(meanMs()));
+      properties.setProperty(mode + ".p50Ms", format(percentileMs(0.5)));
+      properties.setProperty(mode + ".p95Ms", format(percentileMs(0.95)));
+      properties.setProperty(mode + ".p99Ms", format(percentileMs(0.99)));
+      properties.setProperty(mode + ".maxMs", format(percentileMs(1)));
+      properties.setProperty(mode + ".bytesPerLoop", String.format("%.0f", bytesPerLoop()));
+    }
+
+    private static String format(double ms) {
+      return String.format("%.4f", ms);
+    }
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testLoopTime() throws IOException {
+    int loops = Integer.getInteger("benchmark.loops", 10000);
+    var driver = new MatchDriver();
+    List<Result> results = new ArrayList<>();
+    results.add(runTeleop(driver, loops));
+    results.add(runAutonomous(driver, loops));
+
+    Properties measured = new Properties();
+    for (Result result : results) result.store(measured);
+    Path resultsPath = Paths.get(kResultsPath);
+    Files.createDirectories(resultsPath.getParent());
+    write(measured, resultsPath);
+
+    Path baselinePath = Paths.get(kBaselinePath);
+    if (Boolean.getBoolean("benchmark.updateBaseline")) {
+      Files.createDirectories(baselinePath.getParent());
+      write(measured, baselinePath);
+      System.out.println("Recorded the baseline in " + baselinePath + ", commit it to track it");
+    }
+    assertTrue(
+        Files.exists(baselinePath),
+        "No baseline in " + baselinePath + ", record one with -PupdateBaseline and commit it");
+    Properties baseline = new Properties();
+    try (Reader reader = Files.newBufferedReader(baselinePath)) {
+      baseline.load(reader);
+    }
+
+    StringBuilder report = new StringBuilder();
+    List<String> regressions = new ArrayList<>();
+    report.append(
+        String.format(
+            "%-11s %9s %9s %9s %9s %9s %12s%n",
+            "Mode", "Mean ms", "p50 ms", "p95 ms", "p99 ms", "Max ms", "Bytes/loop"));
+    for (Result result : results) {
+      report.append(
+          String.format(
+              "%-11s %9.3f %9.3f %9.3f %9.3f %9.3f %12.0f%n",
+              result.mode,
+              result.meanMs(),
+              result.percentileMs(0.5),
+              result.percentileMs(0.95),
+              result.percentileMs(0.99),
+              result.percentileMs(1),
+              result.bytesPerLoop()));
+      report.append(compare(result.mode + ".p50Ms", kMaxSlowdown, measured, baseline, regressions));
+      String bytesKey = result.mode + ".bytesPerLoop";
+      report.append(compare(bytesKey, kMaxAllocationGrowth, measured, baseline, regressions));
+    }
+    System.out.print(report);
+    assertTrue(regressions.isEmpty(), "Regressed from the baseline: " + regressions + "\n" + report);
+  }
+
+  private Result runTeleop(MatchDriver driver, int loops) {
+    Result result = new Result("teleop", loops);
+    for (int i = 0; i < kWarmupLoops + loops; i++) {
+      double seconds = (i * MatchDriver.kPeriodSeconds) % MatchDriver.kTeleopSeconds;
+      long bytes = getAllocatedBytes();
+      long start = System.nanoTime();
+      driver.step(Phase.TELEOP, seconds);
+      long nanos = System.nanoTime() - start;
+      if (i >= kWarmupLoops) result.add(nanos, getAllocatedBytes() - bytes);
+    }
+    return result;
+  }
+
+  private Result runAutonomous(MatchDriver driver, int loops) {
+    Result result = new Result("autonomous", loops);
+    long disabledLoops = Math.round(kAutoDisabledSeconds / MatchDriver.kPeriodSeconds);
+    long autoLoops = Math.round(MatchDriver.kAutoSeconds / MatchDriver.kPeriodSeconds);
+    int timed = 0;
+    for (long i = 0; timed < kWarmupLoops + loops; i++) {
+      long loop = i % (disabledLoops + autoLoops);
+      if (loop == 0) driver.selectNextAuto();
+      if (loop < disabledLoops) {
+        driver.step(Phase.DISABLED, loop * MatchDriver.kPeriodSeconds);
+        continue;
+      }
+
+      long bytes = getAllocatedBytes();
+      long start = System.nanoTime();
+      driver.step(Phase.AUTONOMOUS, (loop - disabledLoops) * MatchDriver.kPeriodSeconds);
+      long nanos = System.nanoTime() - start;
+      if (timed++ >= kWarmupLoops) result.add(nanos, getAllocatedBytes() - bytes);
+    }
+    return result;
+  }
+
+  private long getAllocatedBytes() {
+    return m_threadBean.getThreadAllocatedBytes(m_threadId);
+  }
+
+  // One line comparing a measurement with its baseline, and a regression if it's over the limit
+  private static String compare(
+      String key,
+      double maxRatio,
+      Properties measured,
+      Properties baseline,
+      List<String> regressions) {
+    double value = Double.parseDouble(measured.getProperty(key));
+    String baselineValue = baseline.getProperty(key);
+    if (baselineValue == null) return String.format("  %s: no baseline%n", key);
+
+    double expected = Double.parseDouble(baselineValue);
+    double ratio = expected > 0 ? value / expected : 1;
+    if (ratio > maxRatio) regressions.add(key);
+    return String.format(
+        "  %s: %.4f vs %.4f baseline, %+.1f%%%n", key, value, expected, (ratio - 1) * 100);
+  }
+
+  private static void write(Properties properties, Path path) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(path)) {
+      properties.store(
+          writer,
+          "Robot loop benchmark on Java "
+              + System.getProperty("java.version")
+              + ", "
+              + System.getProperty("os.name")
+              + " "
+              + System.getProperty("os.arch")
+              + ", "
+              + Runtime.getRuntime().availableProcessors()
+              + " processors, "
+              + getCpuModel());
+    }
+  }
+
+  // The first "model name" in /proc/cpuinfo, which is only there on Linux
+  private static String getCpuModel() {
+    try {
+      for (String line : Files.readAllLines(Paths.get("/proc/cpuinfo"))) {
+        if (line.startsWith("model name")) return line.substring(line.indexOf(':') + 1).trim();
+      }
+    } catch (IOException ignored) {
+
+    }
+    return "unknown CPU";
+  }
+}
@@ -0,0 +1,152 @@
+package frc.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.USB;
+import frc.robot.utils.DriverStationInputs;
+
+/**
+ * Runs the whole robot through scripted matches on a stepped clock, as fast as it will go.
+ *
+ * <p>Each match is {@value #kDisabledSeconds} s disabled, {@value #kAutoSeconds} s of autonomous,
+ * then {@value #kDisabledSeconds} s disabled and {@value #kTeleopSeconds} s of teleop. Each match
+ * runs the next option in the auto chooser, which is selected at its start so it has the disabled
+ * time to build. Teleop sweeps the joysticks' axes and holds one button, trigger or POV direction
+ * at a time. The alliance alternates between matches.
+ *
+ * <p>Like {@link Replay}, it calls the robot's loopFunc() directly, so the sim clock only moves by
+ * one period per loop.
+ */
+class MatchDriver {
+  enum Phase {
+    DISABLED,
+    AUTONOMOUS,
+    TELEOP
+  }
+
+  static final double kPeriodSeconds = TimedRobot.kDefaultPeriod;
+  static final double kDisabledSeconds = 3;
+  static final double kAutoSeconds = 15;
+  static final double kTeleopSeconds = 135;
+  static final double kMatchSeconds = 2 * kDisabledSeconds + kAutoSeconds + kTeleopSeconds;
+  private static final long kMatchLoops = Math.round(kMatchSeconds / kPeriodSeconds);
+
+  // One input is held for the first second of every few
+  private static final double kInputSeconds = 4;
+  private static final int kJoystickButtons = 2;
+  private static final int kXboxButtons = 10;
+  private static final int kXboxLeftTriggerAxis = 2;
+  private static final int kXboxRightTriggerAxis = 3;
+  private static final int kInputs = 2 * kJoystickButtons + kXboxButtons + 2 + 4;
+
+  private final Robot m_robot;
+  private final DriverStationInputs m_inputs = new DriverStationInputs();
+  private final NetworkTable m_autoChooser =
+      NetworkTableInstance.getDefault().getTable("SmartDashboard").getSubTable("Auto Selector");
+  private int m_auto = -1;
+  private long m_loops;
+
+  MatchDriver() {
+    if (!HAL.initialize(500, 0)) throw new IllegalStateException("Failed to initialize the HAL");
+    SimHooks.pauseTiming();
+    m_robot = new Robot();
+    m_robot.robotInit();
+    m_robot.simulationInit();
+
+    m_inputs.dsAttached = true;
+    for (int stick : new int[] {USB.leftJoystick, USB.rightJoystick, USB.xBoxController}) {
+      m_inputs.axisCounts[stick] = 6;
+    }
+    m_inputs.buttonCounts[USB.leftJoystick] = kJoystickButtons;
+    m_inputs.buttonCounts[USB.rightJoystick] = kJoystickButtons;
+    m_inputs.buttonCounts[USB.xBoxController] = kXboxButtons;
+    m_inputs.povCounts[USB.xBoxController] = 1;
+  }
+
+  /** Simulated time run so far */
+  double getSeconds() {
+    return m_loops * kPeriodSeconds;
+  }
+
+  /** Runs one loop of the match script */
+  void stepMatch() {
+    long match = m_loops / kMatchLoops;
+    double matchSeconds = (m_loops % kMatchLoops) * kPeriodSeconds;
+    if (m_loops % kMatchLoops == 0) {
+      m_inputs.allianceStation = match % 2 == 0 ? 0 : 3;
+      selectNextAuto();
+    }
+
+    if (matchSeconds < kDisabledSeconds) {
+      step(Phase.DISABLED, matchSeconds);
+    } else if ((matchSeconds -= kDisabledSeconds) < kAutoSeconds) {
+      step(Phase.AUTONOMOUS, matchSeconds);
+    } else if ((matchSeconds -= kAutoSeconds) < kDisabledSeconds) {
+      step(Phase.DISABLED, matchSeconds);
+    } else {
+      step(Phase.TELEOP, matchSeconds - kDisabledSeconds);
+    }
+  }
+
+  /** Runs one loop in a phase, the given time after it started */
+  void step(Phase phase, double phaseSeconds) {
+    m_inputs.enabled = phase != Phase.DISABLED;
+    m_inputs.autonomous = phase == Phase.AUTONOMOUS;
+    m_inputs.matchTime =
+        phase == Phase.AUTONOMOUS
+            ? kAutoSeconds - phaseSeconds
+            : phase == Phase.TELEOP ? kTeleopSeconds - phaseSeconds : -1;
+    setSticks(phase == Phase.TELEOP ? phaseSeconds : -1);
+
+    m_inputs.applyToSim();
+    m_robot.loopFunc();
+    SimHooks.stepTiming(kPeriodSeconds);
+    m_loops++;
+  }
+
+  /** Selects the next option in the auto chooser, which starts building it */
+  void selectNextAuto() {
+    String[] autos = m_autoChooser.getEntry("options").getStringArray(new String[0]);
+    if (autos.length == 0) return;
+    m_auto = (m_auto + 1) % autos.length;
+    m_autoChooser.getEntry("selected").setString(autos[m_auto]);
+  }
+
+  // Centers everything and releases every input for negative times
+  private void setSticks(double seconds) {
+    boolean active = seconds >= 0;
+    setAxis(USB.leftJoystick, 0, active ? 0.8 * Math.sin(seconds * 0.7) : 0);
+    setAxis(USB.leftJoystick, 1, active ? 0.8 * Math.cos(seconds * 0.5) : 0);
+    setAxis(USB.rightJoystick, 0, active ? 0.6 * Math.sin(seconds * 1.3) : 0);
+    setAxis(USB.xBoxController, 1, active ? 0.5 * Math.sin(seconds * 0.9) : 0);
+    setAxis(USB.xBoxController, 5, active ? 0.5 * Math.cos(seconds * 1.1) : 0);
+    setAxis(USB.xBoxController, kXboxLeftTriggerAxis, 0);
+    setAxis(USB.xBoxController, kXboxRightTriggerAxis, 0);
+    m_inputs.buttons[USB.leftJoystick] = 0;
+    m_inputs.buttons[USB.rightJoystick] = 0;
+    m_inputs.buttons[USB.xBoxController] = 0;
+    m_inputs.povs[USB.xBoxController] = -1;
+    if (!active || seconds % kInputSeconds >= 1) return;
+
+    // The joysticks' buttons, the xbox controller's buttons, its triggers and then its POV
+    int input = (int) (seconds / kInputSeconds) % kInputs;
+    if (input < kJoystickButtons) {
+      m_inputs.buttons[USB.leftJoystick] = 1 << input;
+    } else if ((input -= kJoystickButtons) < kJoystickButtons) {
+      m_inputs.buttons[USB.rightJoystick] = 1 << input;
+    } else if ((input -= kJoystickButtons) < kXboxButtons) {
+      m_inputs.buttons[USB.xBoxController] = 1 << input;
+    } else if ((input -= kXboxButtons) < 2) {
+      setAxis(USB.xBoxController, input == 0 ? kXboxLeftTriggerAxis : kXboxRightTriggerAxis, 1);
+    } else {
+      m_inputs.povs[USB.xBoxController] = (input - 2) * 90;
+    }
+  }
+
+  private void setAxis(int stick, int axis, double value) {
+    m_inputs.axes[stick][axis] = value;
+  }
+}
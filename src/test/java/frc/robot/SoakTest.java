@@ -0,0 +1,166 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.utils.MemoryMonitor;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks for leaks by running the robot through an hour of simulated matches with {@link
+ * MatchDriver}, which takes a few minutes instead of an hour.
+ *
+ * <p>Run it with {@code ./gradlew soakTest}, or {@code -Pminutes=10} for a shorter run. The heap is
+ * sampled after a full GC at the end of every simulated minute. After {@value #kWarmupMinutes}
+ * minutes of warmup, for the caches, JIT and auto builds, it fails if the least squares trend of
+ * the samples grows faster than {@value #kMaxGrowthBytesPerMinute} bytes per minute. The report,
+ * with the classes that grew the most since the warmup, is printed and written to {@value
+ * #kReportPath}.
+ */
+public class SoakTest {
+  private static final int kWarmupMinutes = 5;
+  private static final long kMaxGrowthBytesPerMinute = 100 * 1024;
+  private static final int kTopClasses = 10;
+  private static final String kReportPath = "build/reports/soak.txt";
+  private static final double kBytesPerMB = 1024 * 1024;
+
+  // Lines of a class histogram look like "  12:    3400    81600  java.lang.String (java.base@17)"
+  private static final Pattern kHistogramLine =
+      Pattern.compile("^\\s*\\d+:\\s+\\d+\\s+(\\d+)\\s+(\\S+)", Pattern.MULTILINE);
+
+  @Test
+  @Tag("soak")
+  public void testHeapTrend() throws Exception {
+    int minutes = Math.max(Integer.getInteger("soak.minutes", 60), 2);
+    int warmupMinutes = Math.min(kWarmupMinutes, minutes / 2);
+
+    var driver = new MatchDriver();
+    double[] sampleMinutes = new double[minutes];
+    double[] heapBytes = new double[minutes];
+    int samples = 0;
+    Map<String, Long> warmHistogram = null;
+    long startNanos = System.nanoTime();
+    for (int minute = 1; minute <= minutes; minute++) {
+      while (driver.getSeconds() < minute * 60) driver.stepMatch();
+
+      long heap = getHeapAfterGcBytes();
+      System.out.printf("Minute %d: %.2f MB after GC%n", minute, heap / kBytesPerMB);
+      if (minute < warmupMinutes) continue;
+      if (minute == warmupMinutes) warmHistogram = parseHistogram(getHistogram());
+      sampleMinutes[samples] = minute;
+      heapBytes[samples] = heap;
+      samples++;
+    }
+    double wallSeconds = (System.nanoTime() - startNanos) / 1e9;
+    double growth = MemoryMonitor.fitSlope(sampleMinutes, heapBytes, samples);
+
+    StringBuilder report = new StringBuilder();
+    report.append(
+        String.format(
+            "%d simulated minutes in %.0f s. Heap after GC grew %.1f KB per minute after %d minutes"
+                + " of warmup, limit %.1f KB.%n",
+            minutes,
+            wallSeconds,
+            growth / 1024,
+            warmupMinutes,
+            kMaxGrowthBytesPerMinute / 1024.0));
+    report.append(String.format("Heap after GC by minute, MB:%n"));
+    for (int i = 0; i < samples; i++) {
+      report.append(String.format("  %.0f: %.2f%n", sampleMinutes[i], heapBytes[i] / kBytesPerMB));
+    }
+    report.append(String.format("Classes that grew the most since the warmup:%n"));
+    for (String line : getTopGrowing(warmHistogram, parseHistogram(getHistogram()), kTopClasses)) {
+      report.append("  ").append(line).append(System.lineSeparator());
+    }
+
+    System.out.print(report);
+    Path reportPath = Paths.get(kReportPath);
+    Files.createDirectories(reportPath.getParent());
+    Files.writeString(reportPath, report);
+    assertTrue(growth <= kMaxGrowthBytesPerMinute, report.toString());
+  }
+
+  private static long getHeapAfterGcBytes() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  // Same as "jcmd <pid> GC.class_histogram", which only counts live objects
+  private static String getHistogram() throws Exception {
+    return (String)
+        ManagementFactory.getPlatformMBeanServer()
+            .invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                "gcClassHistogram",
+                new Object[] {null},
+                new String[] {String[].class.getName()});
+  }
+
+  /** Bytes of each class in a class histogram */
+  static Map<String, Long> parseHistogram(String histogram) {
+    Map<String, Long> bytes = new HashMap<>();
+    Matcher matcher = kHistogramLine.matcher(histogram);
+    while (matcher.find()) bytes.put(matcher.group(2), Long.parseLong(matcher.group(1)));
+    return bytes;
+  }
+
+  /** The classes whose bytes grew the most, largest first, like "java.lang.String +12.5 KB" */
+  static List<String> getTopGrowing(Map<String, Long> before, Map<String, Long> after, int count) {
+    List<Map.Entry<String, Long>> growth = new ArrayList<>();
+    for (var entry : after.entrySet()) {
+      long grown = entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+      if (grown > 0) growth.add(Map.entry(entry.getKey(), grown));
+    }
+    growth.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+
+    List<String> top = new ArrayList<>();
+    for (int i = 0; i < Math.min(count, growth.size()); i++) {
+      var entry = growth.get(i);
+      top.add(String.format("%s +%.1f KB", entry.getKey(), entry.getValue() / 1024.0));
+    }
+    return top;
+  }
+
+  @Test
+  public void testTopGrowing() {
+    String before =
+        " num     #instances         #bytes  class name (module)\n"
+            + "-------------------------------------------------------\n"
+            + "   1:          1000          40960  [B (java.base@17.0.9)\n"
+            + "   2:           500          12000  java.lang.String (java.base@17.0.9)\n"
+            + "   3:            10            480  frc.robot.Gone\n"
+            + "Total          1510          53440\n";
+    String after =
+        "   1:          3000         143360  [B (java.base@17.0.9)\n"
+            + "   2:           500          12000  java.lang.String (java.base@17.0.9)\n"
+            + "   3:           100           2400  frc.robot.New\n";
+
+    Map<String, Long> parsed = parseHistogram(before);
+    assertEquals(3, parsed.size());
+    assertEquals(40960L, parsed.get("[B"));
+
+    // Classes that didn't grow or went away are left out
+    List<String> top = getTopGrowing(parsed, parseHistogram(after), 5);
+    assertEquals(List.of("[B +100.0 KB", "frc.robot.New +2.3 KB"), top);
+  }
+
+  @Test
+  public void testFitSlope() {
+    double[] minutes = {5, 6, 7, 8};
+    double[] bytes = {1000, 1100, 1180, 1320};
+    assertEquals(104, MemoryMonitor.fitSlope(minutes, bytes, 4), 1e-9);
+    assertEquals(0, MemoryMonitor.fitSlope(minutes, bytes, 1));
+  }
+}
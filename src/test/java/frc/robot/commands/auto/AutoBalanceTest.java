@@ -42,7 +42,6 @@ public class AutoBalanceTest {
     var cmd = new AutoBalance(m_swerveDrive);
 
     // Override values for testing
-    setPrivateField(m_swerveDrive, "m_simOverride", true);
     setPrivateField(m_swerveDrive, "m_rollOffset", 0);
 
     cmd.initialize();
@@ -51,10 +50,12 @@ public class AutoBalanceTest {
     setPrivateField(m_swerveDrive, "m_simRoll", -15);
     // Manually run the command and check if it finishes because CommandScheduler doesn't work
     // properly in test
+    m_swerveDrive.readSensors();
     cmd.execute();
     output = cmd.getOutput();
     assertTrue(output < 0);
     setPrivateField(m_swerveDrive, "m_simRoll", 15);
+    m_swerveDrive.readSensors();
     cmd.execute();
     output = cmd.getOutput();
     assertTrue(output > 0);
@@ -66,7 +67,6 @@ public class AutoBalanceTest {
     var cmd = new AutoBalance(m_swerveDrive);
 
     // Override values for testing
-    setPrivateField(m_swerveDrive, "m_simOverride", true);
     setPrivateField(m_swerveDrive, "m_rollOffset", 0);
     AUTO.kAutoBalanceTimeout = AUTO.kAutoBalanceTimeout / 100.0;
 
@@ -79,6 +79,7 @@ public class AutoBalanceTest {
     while (m_timer.get() < AUTO.kAutoBalanceTimeout * 4) {
       // Manually run the command and check if it finishes because CommandScheduler doesn't work
       // properly in test
+      m_swerveDrive.readSensors();
       cmd.execute();
 
       if (m_timer.get() < AUTO.kAutoBalanceTimeout) {
@@ -108,7 +109,6 @@ public class AutoBalanceTest {
     var cmd = new AutoBalance(m_swerveDrive);
 
     // Override values for testing
-    setPrivateField(m_swerveDrive, "m_simOverride", true);
     setPrivateField(m_swerveDrive, "m_rollOffset", -5);
     AUTO.kAutoBalanceTimeout = AUTO.kAutoBalanceTimeout / 100.0;
 
@@ -121,6 +121,7 @@ public class AutoBalanceTest {
     while (m_timer.get() < AUTO.kAutoBalanceTimeout * 4) {
       // Manually run the command and check if it finishes because CommandScheduler doesn't work
       // properly in test
+      m_swerveDrive.readSensors();
       cmd.execute();
 
       if (m_timer.get() < AUTO.kAutoBalanceTimeout) {
@@ -0,0 +1,53 @@
+package frc.robot.commands.auto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.Constants.SCORING_STATE;
+import frc.robot.RobotContainer;
+import frc.robot.simulation.SimConstants;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.utils.ChargedUpNodeMask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DynamicPathGenerationTest {
+  protected RobotContainer m_robotContainer;
+  protected SwerveDrive m_swerveDrive;
+
+  @BeforeEach
+  void setup() {
+    assert HAL.initialize(500, 0); // initialize the HAL, crash if failed
+    m_robotContainer = new RobotContainer();
+    m_swerveDrive = m_robotContainer.getSwerveDrive();
+
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.notifyNewData();
+    m_robotContainer.getControls().periodic();
+  }
+
+  @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+  @AfterEach
+  void shutdown() throws Exception {
+    m_robotContainer.close();
+  }
+
+  @Test
+  public void testFinishesAtScoringPose() {
+    var node = SimConstants.Grids.lowTranslations[4];
+    var scoringPose = DynamicPathGeneration.getScoringPose(node);
+    m_swerveDrive.setOdometry(scoringPose);
+    ChargedUpNodeMask.updateNodeMask(scoringPose, SCORING_STATE.LOW);
+    assertEquals(node, ChargedUpNodeMask.getTargetNode(scoringPose).getTranslation());
+
+    // The path there would start and end at the same point, with no heading to follow
+    var command = new DynamicPathGeneration(m_swerveDrive);
+    command.initialize();
+    assertTrue(command.isFinished());
+    command.end(false);
+  }
+}
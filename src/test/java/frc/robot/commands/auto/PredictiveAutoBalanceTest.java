@@ -0,0 +1,158 @@
+package frc.robot.commands.auto;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pathplanner.lib.commands.PPSwerveControllerCommand;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.CommandTestBase;
+import frc.robot.Constants.AUTO;
+import frc.robot.RobotContainer;
+import frc.robot.commands.swerve.AutoBalance;
+import frc.robot.commands.swerve.PredictiveAutoBalance;
+import frc.robot.simulation.SimConstants.Community;
+import frc.robot.subsystems.SwerveDrive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Balances the simulated robot on the charging station SwerveDrive models, running the commands
+ * and the center autos through the CommandScheduler on a stepped clock.
+ */
+public class PredictiveAutoBalanceTest extends CommandTestBase {
+  private static final double kTimeoutSeconds = 15;
+  private static final double kSettleSeconds = 2;
+  // The center autos balance facing the bump side, so driving towards the robot's +Y is field +X
+  private static final Rotation2d kBalanceHeading = Rotation2d.fromDegrees(-90);
+  private static final double kHingeX =
+      (Community.chargingStationInnerX + Community.chargingStationOuterX) / 2.0;
+  private static final double kCenterY =
+      (Community.chargingStationLeftY + Community.chargingStationRightY) / 2.0;
+
+  protected RobotContainer m_robotContainer;
+  protected SwerveDrive m_swerveDrive;
+  private double m_pathEndSeconds;
+
+  @BeforeEach
+  void setup() {
+    assert HAL.initialize(500, 0); // initialize the HAL, crash if failed
+    SimHooks.pauseTiming();
+    m_robotContainer = new RobotContainer();
+    m_swerveDrive = m_robotContainer.getSwerveDrive();
+  }
+
+  @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+  @AfterEach
+  void shutdown() throws Exception {
+    PPSwerveControllerCommand.setLoggingCallbacks(null, null, null, null);
+    m_robotContainer.close();
+    SimHooks.resumeTiming();
+  }
+
+  // One loop of Robot.loopFunc(), which steps every subsystem's simulationPeriodic() in sim
+  private void step() {
+    m_robotContainer.readSensors();
+    CommandScheduler.getInstance().run();
+    SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+  }
+
+  // Puts the robot down at the pose and waits for the station to come to rest under it
+  private void place(Pose2d pose) {
+    m_swerveDrive.setOdometry(pose);
+    for (double time = 0; time < kSettleSeconds; time += TimedRobot.kDefaultPeriod) step();
+  }
+
+  /**
+   * Schedules the command and runs the robot until it finishes.
+   *
+   * @return Seconds until the command finished, or infinity if it never did
+   */
+  private double run(Command command) {
+    CommandScheduler.getInstance().schedule(command);
+    double startSeconds = Timer.getFPGATimestamp();
+    while (command.isScheduled()) {
+      if (Timer.getFPGATimestamp() - startSeconds > kTimeoutSeconds) {
+        command.cancel();
+        return Double.POSITIVE_INFINITY;
+      }
+      step();
+    }
+    return Timer.getFPGATimestamp() - startSeconds;
+  }
+
+  private void assertLevel() {
+    m_robotContainer.readSensors();
+    double tiltDegrees = m_swerveDrive.getRollDegrees() + m_swerveDrive.getRollOffsetDegrees();
+    assertTrue(Math.abs(tiltDegrees) < AUTO.kAutoBalanceAngleThresholdDegrees);
+  }
+
+  /**
+   * Runs a whole auto, which has to finish within the autonomous period.
+   *
+   * @return Seconds from the end of the auto's last path until the auto finished
+   */
+  private double runAuto(Command auto) {
+    // PPSwerveControllerCommand logs its target pose every loop it follows a path
+    PPSwerveControllerCommand.setLoggingCallbacks(
+        null, pose -> m_pathEndSeconds = Timer.getFPGATimestamp(), null, null);
+    double autoSeconds = run(auto);
+    assertTrue(autoSeconds < kTimeoutSeconds, "Auto didn't finish");
+    return Timer.getFPGATimestamp() - m_pathEndSeconds;
+  }
+
+  @Test
+  public void testBalancesFasterThanAutoBalance() {
+    // Resting on the low side of the station, which tips it all the way
+    var start = new Pose2d(kHingeX - 0.9, kCenterY, kBalanceHeading);
+    place(start);
+    double predictiveTime = run(new PredictiveAutoBalance(m_swerveDrive));
+    assertLevel();
+
+    place(start);
+    double autoBalanceTime = run(new AutoBalance(m_swerveDrive));
+
+    assertTrue(predictiveTime < 4.0);
+    assertTrue(predictiveTime < autoBalanceTime - 1.0);
+  }
+
+  @Test
+  public void testCenterOneBalance() {
+    var auto =
+        new CenterOneBalance(
+            "CenterOneBalance",
+            m_swerveDrive,
+            m_robotContainer.getFieldSim(),
+            m_robotContainer.getWrist(),
+            m_robotContainer.getIntake(),
+            m_robotContainer.getElevator(),
+            m_robotContainer.getVision(),
+            m_robotContainer.getStateHandler());
+    double timeToBalance = runAuto(auto);
+    assertTrue(timeToBalance < 1.5, "Balanced " + timeToBalance + " s after the path");
+    assertLevel();
+  }
+
+  @Test
+  public void testCenterOneBalanceCross() {
+    var auto =
+        new CenterOneBalanceCross(
+            "CenterOneBalanceCross",
+            m_swerveDrive,
+            m_robotContainer.getFieldSim(),
+            m_robotContainer.getWrist(),
+            m_robotContainer.getIntake(),
+            m_robotContainer.getElevator(),
+            m_robotContainer.getVision(),
+            m_robotContainer.getStateHandler());
+    double timeToBalance = runAuto(auto);
+    assertTrue(timeToBalance < 1.5, "Balanced " + timeToBalance + " s after the path");
+    assertLevel();
+  }
+}
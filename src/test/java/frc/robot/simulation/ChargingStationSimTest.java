@@ -0,0 +1,99 @@
+package frc.robot.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants.SWERVE_DRIVE;
+import frc.robot.simulation.SimConstants.Community;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ChargingStationSimTest {
+  private static final double kDt = 0.02;
+  private static final double kHingeX =
+      (Community.chargingStationInnerX + Community.chargingStationOuterX) / 2.0;
+  private static final double kCenterY =
+      (Community.chargingStationLeftY + Community.chargingStationRightY) / 2.0;
+  private static final double kMaxAngleDegrees = 15;
+  private static final double kDelta = 1e-6;
+
+  private ChargingStationSim m_blue;
+
+  @BeforeEach
+  void setup() {
+    m_blue = ChargingStationSim.blue(SWERVE_DRIVE.kRobotMassKg);
+  }
+
+  private void run(ChargingStationSim station, Pose2d robotPose, double seconds) {
+    for (int i = 0; i < Math.round(seconds / kDt); i++) station.update(robotPose, kDt);
+  }
+
+  private double angleDegrees(ChargingStationSim station) {
+    return Units.radiansToDegrees(station.getAngleRadians());
+  }
+
+  @Test
+  public void testLevelWithoutRobot() {
+    run(m_blue, new Pose2d(kHingeX - 3, kCenterY, new Rotation2d()), 2);
+
+    assertFalse(m_blue.isRobotOnStation());
+    assertEquals(0, angleDegrees(m_blue), kDelta);
+  }
+
+  @Test
+  public void testTipsTowardsRobot() {
+    run(m_blue, new Pose2d(kHingeX - 0.8, kCenterY, new Rotation2d()), 2);
+
+    assertTrue(m_blue.isRobotOnStation());
+    // The robot pushes the -X side down, raising the +X side onto its stop
+    assertEquals(kMaxAngleDegrees, angleDegrees(m_blue), kDelta);
+    assertEquals(0, m_blue.getAngularVelocityRadiansPerSecond(), kDelta);
+  }
+
+  @Test
+  public void testSettlesWithRobotCentered() {
+    run(m_blue, new Pose2d(kHingeX - 0.8, kCenterY, new Rotation2d()), 2);
+    run(m_blue, new Pose2d(kHingeX, kCenterY, new Rotation2d()), 3);
+
+    assertEquals(0, angleDegrees(m_blue), 2);
+  }
+
+  @Test
+  public void testRobotTilt() {
+    run(m_blue, new Pose2d(kHingeX - 0.8, kCenterY, new Rotation2d()), 2);
+
+    // Facing +X, the front of the robot is raised
+    assertEquals(kMaxAngleDegrees, m_blue.getRobotPitchDegrees(new Rotation2d()), kDelta);
+    assertEquals(0, m_blue.getRobotRollDegrees(new Rotation2d()), kDelta);
+
+    // Facing -Y like the center autos, driving towards the robot's +Y is uphill
+    var heading = Rotation2d.fromDegrees(-90);
+    assertEquals(0, m_blue.getRobotPitchDegrees(heading), kDelta);
+    assertEquals(kMaxAngleDegrees, m_blue.getRobotRollDegrees(heading), kDelta);
+  }
+
+  @Test
+  public void testRedIsMirrored() {
+    var red = ChargingStationSim.red(SWERVE_DRIVE.kRobotMassKg);
+    run(red, new Pose2d(kHingeX - 0.8, kCenterY, new Rotation2d()), 2);
+    assertFalse(red.isRobotOnStation());
+
+    run(red, new Pose2d(SimConstants.fieldLength - kHingeX + 0.8, kCenterY, new Rotation2d()), 2);
+    assertTrue(red.isRobotOnStation());
+    assertEquals(-kMaxAngleDegrees, angleDegrees(red), kDelta);
+  }
+
+  @Test
+  public void testReset() {
+    run(m_blue, new Pose2d(kHingeX - 0.8, kCenterY, new Rotation2d()), 2);
+    m_blue.reset();
+
+    assertFalse(m_blue.isRobotOnStation());
+    assertEquals(0, m_blue.getAngleRadians(), kDelta);
+    assertEquals(0, m_blue.getAngularVelocityRadiansPerSecond(), kDelta);
+  }
+}
@@ -6,12 +6,19 @@ import edu.wpi.first.hal.AllianceStationID;
 import edu.wpi.first.hal.HAL;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.simulation.DriverStationSim;
 import edu.wpi.first.wpilibj.simulation.JoystickSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.RunCommand;
 import frc.robot.CommandTestBase;
+import frc.robot.Constants.SWERVE_DRIVE;
+import frc.robot.Constants.SWERVE_DRIVE.SWERVE_MODULE_POSITION;
 import frc.robot.RobotContainer;
 import frc.robot.simulation.SimConstants;
 import org.junit.jupiter.api.AfterEach;
@@ -20,6 +27,16 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 public class SwerveDriveTest extends CommandTestBase {
+  // Seconds, then the throttle, strafe and rotation inputs, with a step change between each
+  private static final double[][] kTrackingScript = {
+    {0.5, 0, 0, 0},
+    {1.5, 1, 0, 0},
+    {1.5, 0, 1, 0},
+    {1.5, -1, 0, 0},
+    {1.5, 0.5, 0, 0.5},
+    {1, 0, 0, 0}
+  };
+
   protected RobotContainer m_robotContainer;
   protected SwerveDrive m_swerveDrive;
   protected Controls m_controls;
@@ -144,4 +161,99 @@ public class SwerveDriveTest extends CommandTestBase {
     //    System.out.println(m_swerveDrive.getOdometry().getEstimatedPosition().getY() + " > " + 0);
     assertTrue(m_swerveDrive.getOdometry().getEstimatedPosition().getY() > 0);
   }
+
+  /**
+   * Drives {@link #kTrackingScript} on the simulated modules, commanding the desired states directly
+   * like SwerveDrive used to or through drive() and its setpoint generator.
+   *
+   * @return The RMS distance between the module velocities commanded and reached, and the RMS
+   *     scrub, how far the reached module velocities are from any rigid body motion
+   */
+  private double[] measureTracking(boolean useGenerator) {
+    var modules = new SwerveModule[SWERVE_MODULE_POSITION.values().length];
+    var reached = new SwerveModuleState[modules.length];
+    for (int i = 0; i < modules.length; i++) {
+      modules[i] = m_swerveDrive.getSwerveModule(SWERVE_MODULE_POSITION.values()[i]);
+      reached[i] = new SwerveModuleState();
+    }
+    m_swerveDrive.setOdometry(new Pose2d());
+
+    double trackingSquaredSum = 0;
+    double scrubSquaredSum = 0;
+    int samples = 0;
+    for (double[] segment : kTrackingScript) {
+      Runnable drive;
+      if (useGenerator) {
+        drive = () -> m_swerveDrive.drive(segment[1], segment[2], segment[3], false, true);
+      } else {
+        var states =
+            SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(
+                new ChassisSpeeds(
+                    segment[1] * SWERVE_DRIVE.kMaxSpeedMetersPerSecond,
+                    segment[2] * SWERVE_DRIVE.kMaxSpeedMetersPerSecond,
+                    segment[3] * SWERVE_DRIVE.kMaxRotationRadiansPerSecond));
+        drive = () -> m_swerveDrive.setSwerveModuleStates(states, true);
+      }
+      // Takes over from the joystick default command
+      var command = new RunCommand(drive, m_swerveDrive);
+      CommandScheduler.getInstance().schedule(command);
+
+      for (int loop = 0; loop < Math.round(segment[0] / TimedRobot.kDefaultPeriod); loop++) {
+        m_robotContainer.readSensors();
+        for (int i = 0; i < modules.length; i++) {
+          double heading = Math.toRadians(modules[i].getHeadingDegrees());
+          double commandedHeading = Math.toRadians(modules[i].getCommandedHeadingDegrees());
+          double speed = modules[i].getVelocityMetersPerSecond();
+          double commandedSpeed = modules[i].getCommandedVelocityMetersPerSecond();
+          trackingSquaredSum +=
+              Math.pow(speed * Math.cos(heading) - commandedSpeed * Math.cos(commandedHeading), 2)
+                  + Math.pow(
+                      speed * Math.sin(heading) - commandedSpeed * Math.sin(commandedHeading), 2);
+          reached[i].speedMetersPerSecond = speed;
+          reached[i].angle = new Rotation2d(heading);
+        }
+
+        var rigid =
+            SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(
+                SWERVE_DRIVE.kSwerveKinematics.toChassisSpeeds(reached));
+        for (int i = 0; i < modules.length; i++) {
+          scrubSquaredSum +=
+              Math.pow(
+                      reached[i].speedMetersPerSecond * reached[i].angle.getCos()
+                          - rigid[i].speedMetersPerSecond * rigid[i].angle.getCos(),
+                      2)
+                  + Math.pow(
+                      reached[i].speedMetersPerSecond * reached[i].angle.getSin()
+                          - rigid[i].speedMetersPerSecond * rigid[i].angle.getSin(),
+                      2);
+        }
+        samples += modules.length;
+
+        CommandScheduler.getInstance().run();
+        SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+      }
+      command.cancel();
+    }
+    return new double[] {
+      Math.sqrt(trackingSquaredSum / samples), Math.sqrt(scrubSquaredSum / samples)
+    };
+  }
+
+  @Test
+  public void testSetpointGeneratorTracking() {
+    SimHooks.pauseTiming();
+    try {
+      double[] direct = measureTracking(false);
+      double[] generated = measureTracking(true);
+
+      assertTrue(
+          generated[0] < direct[0],
+          "Tracking error " + generated[0] + " m/s with the generator, " + direct[0] + " without");
+      assertTrue(
+          generated[1] < direct[1],
+          "Scrub " + generated[1] + " m/s with the generator, " + direct[1] + " without");
+    } finally {
+      SimHooks.resumeTiming();
+    }
+  }
 }
@@ -0,0 +1,73 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ColumnarTrajectoryTest {
+  private static final double kDelta = 1e-9;
+  private static ColumnarTrajectory trajectory;
+
+  @BeforeAll
+  static void loadTrajectory() throws Exception {
+    trajectory =
+        ColumnarTrajectory.fromCsv(
+            new File("src/main/deploy/pathplanner/generatedCSV/BlueDriveForward.csv"));
+  }
+
+  @Test
+  public void testCsvLoad() {
+    assertFalse(trajectory.isEmpty());
+    assertEquals(0, trajectory.getTime(0), kDelta);
+    for (int i = 1; i < trajectory.length(); i++) {
+      assertTrue(trajectory.getTime(i) >= trajectory.getTime(i - 1));
+    }
+  }
+
+  @Test
+  public void testSampleAtStates() {
+    var cursor = trajectory.cursor();
+    for (int i = 0; i < trajectory.length(); i++) {
+      cursor.sample(trajectory.getTime(i));
+      assertEquals(trajectory.getX(i), cursor.getX(), kDelta);
+      assertEquals(trajectory.getY(i), cursor.getY(), kDelta);
+    }
+  }
+
+  @Test
+  public void testForwardAndBackwardSamplingMatch() {
+    var forward = trajectory.cursor();
+    var backward = trajectory.cursor();
+    double totalTime = trajectory.getTotalTimeSeconds();
+    int steps = 500;
+
+    double[] forwardX = new double[steps + 1];
+    double[] forwardY = new double[steps + 1];
+    for (int i = 0; i <= steps; i++) {
+      forward.sample(totalTime * i / steps);
+      forwardX[i] = forward.getX();
+      forwardY[i] = forward.getY();
+    }
+    for (int i = steps; i >= 0; i--) {
+      backward.sample(totalTime * i / steps);
+      assertEquals(forwardX[i], backward.getX(), kDelta);
+      assertEquals(forwardY[i], backward.getY(), kDelta);
+    }
+  }
+
+  @Test
+  public void testSampleIsClamped() {
+    var cursor = trajectory.cursor();
+    int last = trajectory.length() - 1;
+
+    cursor.sample(-1);
+    assertEquals(trajectory.getX(0), cursor.getX(), kDelta);
+
+    cursor.sample(trajectory.getTotalTimeSeconds() + 1);
+    assertEquals(trajectory.getX(last), cursor.getX(), kDelta);
+  }
+}
@@ -0,0 +1,143 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class CtreUtilsTest {
+  private static final double kDelta = 1e-6;
+
+  /** The loop based implementation CtreUtils.optimize() used before it was made closed form */
+  private static double[] legacyOptimize(
+      double desiredSpeed, double desiredAngle, double currentAngle) {
+    double targetAngle = legacyPlaceInAppropriate0To360Scope(currentAngle, desiredAngle);
+    double targetSpeed = desiredSpeed;
+    double delta = targetAngle - currentAngle;
+    if (Math.abs(delta) > 90) {
+      targetSpeed = -targetSpeed;
+      targetAngle = delta > 90 ? targetAngle - 180 : targetAngle + 180;
+    }
+    return new double[] {targetSpeed, targetAngle};
+  }
+
+  private static double legacyPlaceInAppropriate0To360Scope(
+      double scopeReference, double newAngle) {
+    double lowerBound;
+    double upperBound;
+    double lowerOffset = scopeReference % 360;
+    if (lowerOffset >= 0) {
+      lowerBound = scopeReference - lowerOffset;
+      upperBound = scopeReference + (360 - lowerOffset);
+    } else {
+      upperBound = scopeReference - lowerOffset;
+      lowerBound = scopeReference - (360 + lowerOffset);
+    }
+    while (newAngle < lowerBound) {
+      newAngle += 360;
+    }
+    while (newAngle > upperBound) {
+      newAngle -= 360;
+    }
+    if (newAngle - scopeReference > 180) {
+      newAngle -= 360;
+    } else if (newAngle - scopeReference < -180) {
+      newAngle += 360;
+    }
+    return newAngle;
+  }
+
+  private static void assertMatchesLegacy(
+      double desiredSpeed, double desiredAngle, double currentAngle) {
+    // Exactly 90 degrees away, driving either way is equally good and rounding decides
+    double offset = Math.abs(Math.IEEEremainder(desiredAngle - currentAngle, 360));
+    if (Math.abs(offset - 90) < 1e-9) return;
+
+    var setpoint = new CtreUtils.ModuleSetpoint();
+    CtreUtils.optimize(desiredSpeed, desiredAngle, currentAngle, setpoint);
+    double[] expected = legacyOptimize(desiredSpeed, desiredAngle, currentAngle);
+
+    String message = "desired " + desiredAngle + ", current " + currentAngle;
+    assertEquals(expected[0], setpoint.speedMetersPerSecond, message);
+    assertEquals(expected[1], setpoint.angleDegrees, kDelta, message);
+    assertTrue(Math.abs(setpoint.angleDegrees - currentAngle) <= 90 + kDelta, message);
+  }
+
+  @Test
+  public void testEdgeCases() {
+    double[] angles = {0, 45, 89.5, 90, 90.5, 135, 180, -180, -90, 270, 359.9, 360, 720, -720};
+    for (double desired : angles) {
+      for (double current : angles) {
+        assertMatchesLegacy(1.0, desired, current);
+        assertMatchesLegacy(-2.5, desired, current + 3600);
+        assertMatchesLegacy(0, desired, current - 3600);
+      }
+    }
+  }
+
+  @Test
+  public void testMatchesLegacyForRandomStates() {
+    var random = new Random(3539);
+    for (int i = 0; i < 100000; i++) {
+      double desiredSpeed = (random.nextDouble() - 0.5) * 10;
+      double desiredAngle = (random.nextDouble() - 0.5) * 360;
+      // Modules can wind many turns over a match since the turn motor angle is continuous
+      double currentAngle = (random.nextDouble() - 0.5) * 100000;
+      assertMatchesLegacy(desiredSpeed, desiredAngle, currentAngle);
+    }
+  }
+
+  @Test
+  public void testDoesNotAllocate() {
+    var setpoint = new CtreUtils.ModuleSetpoint();
+    var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    for (int i = 0; i < 100000; i++) CtreUtils.optimize(1, i, -i, setpoint);
+    long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < 1000000; i++) CtreUtils.optimize(1, i, -i, setpoint);
+    long bytesAfter = threadBean.getThreadAllocatedBytes(threadId);
+
+    // Leave some room for the bean call itself, far below one object per call
+    assertTrue(bytesAfter - bytesBefore < 1024, (bytesAfter - bytesBefore) + " bytes allocated");
+  }
+
+  /**
+   * Rough comparison of the two implementations, run with {@code ./gradlew benchmark}. The legacy
+   * loop unwinds every turn of the current angle, so the closed form is far faster here.
+   */
+  @Test
+  @Tag("benchmark")
+  public void benchmarkOptimize() {
+    var setpoint = new CtreUtils.ModuleSetpoint();
+    int iterations = 2000000;
+    double sink = 0;
+
+    for (int pass = 0; pass < 2; pass++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        sink += legacyOptimize(1, i % 360, i * 0.37)[1];
+      }
+      long legacyNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        CtreUtils.optimize(1, i % 360, i * 0.37, setpoint);
+        sink += setpoint.angleDegrees;
+      }
+      long closedFormNanos = System.nanoTime() - start;
+
+      // The first pass only warms up the JIT, and the sink keeps the results from being dropped
+      if (pass == 1) {
+        assertTrue(
+            closedFormNanos < legacyNanos && !Double.isNaN(sink),
+            String.format(
+                "legacy %.1f ns/op, closed form %.1f ns/op",
+                (double) legacyNanos / iterations, (double) closedFormNanos / iterations));
+      }
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FlightRecordingSummaryTest {
+  @TempDir Path m_tempDir;
+
+  private static void section(String name) throws InterruptedException {
+    var event = new FlightRecorder.LoopSectionEvent();
+    event.section = name;
+    event.begin();
+    Thread.sleep(2);
+    event.commit();
+  }
+
+  @Test
+  public void testGroupsByComponent() throws Exception {
+    Path path = m_tempDir.resolve("robot.jfr");
+    try (Recording recording = new Recording()) {
+      // The robot events are enabled by default
+      recording.start();
+      for (int i = 0; i < 3; i++) {
+        var loop = new FlightRecorder.LoopEvent();
+        loop.begin();
+        section("Elevator");
+        section("Wrist");
+        var canCall = new FlightRecorder.CanCallEvent();
+        canCall.device = "Elevator";
+        canCall.call = "set";
+        canCall.begin();
+        canCall.commit();
+        loop.commit();
+      }
+      recording.stop();
+      recording.dump(path);
+    }
+
+    Map<String, FlightRecordingSummary.Component> components =
+        FlightRecordingSummary.summarize(RecordingFile.readAllEvents(path));
+    assertEquals(4, components.size());
+    assertEquals(3, components.get("Loop").count());
+    assertEquals(3, components.get("Section: Elevator").count());
+    assertEquals(3, components.get("CAN: Elevator set").count());
+    assertTrue(components.get("Section: Wrist").percentileNanos(0.5) >= 2_000_000);
+
+    // The loop, then sections, then CAN calls
+    String summary = FlightRecordingSummary.format(components);
+    assertTrue(summary.indexOf("Loop") < summary.indexOf("Section: Wrist"));
+    assertTrue(summary.indexOf("Section: Wrist") < summary.indexOf("CAN: Elevator set"));
+  }
+}
@@ -0,0 +1,99 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.SWERVE_DRIVE;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FourModuleSwerveKinematicsTest {
+  private static final double kDelta = 1e-9;
+
+  private final Translation2d[] m_moduleLocations =
+      ModuleMap.orderedValues(SWERVE_DRIVE.kModuleTranslations, new Translation2d[0]);
+
+  private SwerveDriveKinematics m_wpilibKinematics;
+  private FourModuleSwerveKinematics m_kinematics;
+  private SwerveModuleState[] m_states;
+
+  @BeforeEach
+  void setup() {
+    m_wpilibKinematics = new SwerveDriveKinematics(m_moduleLocations);
+    m_kinematics = new FourModuleSwerveKinematics(m_moduleLocations);
+    m_states = new SwerveModuleState[4];
+    for (int i = 0; i < 4; i++) m_states[i] = new SwerveModuleState();
+  }
+
+  private void assertStatesEqual(SwerveModuleState[] expected, SwerveModuleState[] actual) {
+    for (int i = 0; i < 4; i++) {
+      assertEquals(expected[i].speedMetersPerSecond, actual[i].speedMetersPerSecond, kDelta);
+      assertEquals(expected[i].angle.getCos(), actual[i].angle.getCos(), kDelta);
+      assertEquals(expected[i].angle.getSin(), actual[i].angle.getSin(), kDelta);
+    }
+  }
+
+  @Test
+  public void testInverseKinematicsMatchesWpilib() {
+    var random = new Random(4);
+    for (int i = 0; i < 10000; i++) {
+      var chassisSpeeds =
+          new ChassisSpeeds(
+              (random.nextDouble() - 0.5) * 10,
+              (random.nextDouble() - 0.5) * 10,
+              (random.nextDouble() - 0.5) * 4 * Math.PI);
+
+      m_kinematics.toSwerveModuleStates(chassisSpeeds, m_states);
+      assertStatesEqual(m_wpilibKinematics.toSwerveModuleStates(chassisSpeeds), m_states);
+    }
+  }
+
+  @Test
+  public void testForwardKinematicsMatchesWpilib() {
+    var random = new Random(34);
+    var output = new ChassisSpeeds();
+    for (int i = 0; i < 10000; i++) {
+      // Random module states, which usually aren't kinematically consistent
+      for (int j = 0; j < 4; j++) {
+        m_states[j] =
+            new SwerveModuleState(
+                (random.nextDouble() - 0.5) * 10, new Rotation2d(random.nextDouble() * 10));
+      }
+
+      var expected = m_wpilibKinematics.toChassisSpeeds(m_states);
+      m_kinematics.toChassisSpeeds(m_states, output);
+      assertEquals(expected.vxMetersPerSecond, output.vxMetersPerSecond, kDelta);
+      assertEquals(expected.vyMetersPerSecond, output.vyMetersPerSecond, kDelta);
+      assertEquals(expected.omegaRadiansPerSecond, output.omegaRadiansPerSecond, kDelta);
+    }
+  }
+
+  @Test
+  public void testStoppedModulesKeepHeading() {
+    var turning = new ChassisSpeeds(1, -2, 3);
+    var stopped = new ChassisSpeeds();
+
+    m_kinematics.toSwerveModuleStates(turning, m_states);
+    m_wpilibKinematics.toSwerveModuleStates(turning);
+    m_kinematics.toSwerveModuleStates(stopped, m_states);
+
+    var expected = m_wpilibKinematics.toSwerveModuleStates(stopped);
+    assertStatesEqual(expected, m_states);
+    for (var state : m_states) assertEquals(0, state.speedMetersPerSecond);
+  }
+
+  @Test
+  public void testRequiresFourModules() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new FourModuleSwerveKinematics(
+                m_moduleLocations[0], m_moduleLocations[1], m_moduleLocations[2]));
+  }
+}
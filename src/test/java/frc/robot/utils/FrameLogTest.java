@@ -0,0 +1,85 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.util.datalog.DataLog;
+import frc.robot.Constants.LOG;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FrameLogTest {
+  @TempDir Path m_tempDir;
+  private DataLog m_log;
+  private FrameLog m_frameLog;
+
+  @BeforeEach
+  void setup() {
+    assert HAL.initialize(500, 0);
+    m_log = new DataLog(m_tempDir.toString(), "frames.wpilog");
+    m_frameLog = new FrameLog(m_log);
+  }
+
+  private FrameLogDecoder.DecodedFrame decode(String name) throws Exception {
+    m_log.close();
+    return FrameLogDecoder.decode(m_tempDir.resolve("frames.wpilog").toString()).get(name);
+  }
+
+  @Test
+  public void testRecordsDecode() throws Exception {
+    var frame = m_frameLog.frame("/frames/test", "a", "b", "c");
+    for (int i = 0; i < 3; i++) {
+      frame.set(0, i);
+      frame.set(1, -i);
+      frame.set(2, i * 0.5);
+      frame.append();
+    }
+    m_frameLog.flush();
+
+    var decoded = decode("/frames/test");
+    assertArrayEquals(new String[] {"a", "b", "c"}, decoded.fields);
+    assertEquals(3, decoded.records.size());
+    assertArrayEquals(new double[] {2, -2, 1}, decoded.records.get(2));
+    assertEquals(2, decoded.getFieldIndex("c"));
+    assertTrue(decoded.timestampsMicroseconds.get(1) >= decoded.timestampsMicroseconds.get(0));
+  }
+
+  @Test
+  public void testClosedFrameIsWritten() throws Exception {
+    var frame = m_frameLog.frame("/frames/test", "a");
+    frame.set(0, 1);
+    frame.append();
+    frame.close();
+    m_frameLog.flush();
+
+    // Records appended after close() aren't written, since the frame was removed
+    frame.append();
+    m_frameLog.flush();
+    assertEquals(1, decode("/frames/test").records.size());
+  }
+
+  @Test
+  public void testFullBufferDrops() throws Exception {
+    var frame = m_frameLog.frame("/frames/test", "a");
+    for (int i = 0; i < LOG.kFrameBufferSize + 10; i++) {
+      frame.set(0, i);
+      frame.append();
+    }
+    assertEquals(10, m_frameLog.getDroppedRecords());
+
+    // The oldest records are kept, and the buffer is usable again once it's written
+    m_frameLog.flush();
+    frame.set(0, -1);
+    frame.append();
+    m_frameLog.flush();
+
+    var decoded = decode("/frames/test");
+    assertEquals(LOG.kFrameBufferSize + 1, decoded.records.size());
+    assertEquals(LOG.kFrameBufferSize - 1, decoded.records.get(LOG.kFrameBufferSize - 1)[0]);
+    assertEquals(-1, decoded.records.get(LOG.kFrameBufferSize)[0]);
+  }
+}
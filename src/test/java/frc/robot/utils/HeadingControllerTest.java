@@ -0,0 +1,110 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants.SWERVE_DRIVE;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HeadingControllerTest {
+  private static final double kDt = 0.02;
+  // Roughly what the setpoint generator allows the chassis to turn at
+  private static final double kMaxPlantAccelerationRadiansPerSecondSquared = 20;
+  private static final double kToleranceRadians = Units.degreesToRadians(1);
+
+  private HeadingController m_controller;
+  private double m_heading;
+  private double m_rate;
+  private double m_command;
+
+  @BeforeEach
+  void setup() {
+    m_controller =
+        new HeadingController(
+            SWERVE_DRIVE.kP_Heading,
+            SWERVE_DRIVE.kD_Heading,
+            SWERVE_DRIVE.kMaxRotationRadiansPerSecond,
+            SWERVE_DRIVE.kMaxHeadingAccelerationRadiansPerSecondSquared,
+            kToleranceRadians);
+    m_heading = 0;
+    m_rate = 0;
+    m_command = 0;
+  }
+
+  /** Steps an acceleration limited robot that responds to the command one loop late */
+  private void step(double goalRadians) {
+    double maxChange = kMaxPlantAccelerationRadiansPerSecondSquared * kDt;
+    m_rate += MathUtil.clamp(m_command - m_rate, -maxChange, maxChange);
+    m_heading += m_rate * kDt;
+    m_command = m_controller.calculate(m_heading, m_rate, goalRadians);
+  }
+
+  /** Turns to the goal, checking for overshoot, and returns how long it took to settle */
+  private double turnTo(double goalRadians, double maxSeconds) {
+    double startError = MathUtil.angleModulus(goalRadians - m_heading);
+    double settledSeconds = -1;
+    for (int i = 0; i < Math.round(maxSeconds / kDt); i++) {
+      step(goalRadians);
+      double error = MathUtil.angleModulus(goalRadians - m_heading);
+      assertTrue(error * Math.signum(startError) > -kToleranceRadians, "Overshot the goal");
+
+      boolean settled = Math.abs(error) < kToleranceRadians && Math.abs(m_rate) < 0.1;
+      if (!settled) settledSeconds = -1;
+      else if (settledSeconds < 0) settledSeconds = (i + 1) * kDt;
+    }
+    assertTrue(settledSeconds > 0, "Never settled");
+    return settledSeconds;
+  }
+
+  @Test
+  public void testSnapToAngle() {
+    m_controller.reset(m_heading, m_rate);
+    double seconds = turnTo(Math.PI / 2, 3);
+
+    assertTrue(seconds < 1.0, "Took " + seconds + " s");
+    assertTrue(m_controller.atGoal());
+  }
+
+  @Test
+  public void testSmallCorrection() {
+    m_controller.reset(m_heading, m_rate);
+    double seconds = turnTo(Units.degreesToRadians(5), 2);
+
+    assertTrue(seconds < 0.3, "Took " + seconds + " s");
+  }
+
+  @Test
+  public void testTurnsTheShortWay() {
+    m_heading = Units.degreesToRadians(170);
+    m_controller.reset(m_heading, m_rate);
+    turnTo(Units.degreesToRadians(-170), 2);
+
+    // Crossed +180 instead of going back through 0
+    assertEquals(Units.degreesToRadians(190), m_heading, kToleranceRadians);
+  }
+
+  @Test
+  public void testNoOutputAtGoal() {
+    m_controller.reset(m_heading, m_rate);
+    for (int i = 0; i < 50; i++) step(0);
+
+    assertEquals(0, m_command, 1e-9);
+    assertEquals(0, m_heading, 1e-9);
+  }
+
+  @Test
+  public void testStartsFromCurrentRate() {
+    // Already turning away from the goal when the heading lock is enabled
+    m_rate = -Math.PI;
+    m_command = m_rate;
+    m_controller.reset(m_heading, m_rate);
+    step(Math.PI / 4);
+
+    // The profile decelerates from the current rate instead of reversing instantly
+    assertTrue(m_command < 0);
+    turnTo(Math.PI / 4, 3);
+  }
+}
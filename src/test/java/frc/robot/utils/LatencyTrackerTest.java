@@ -0,0 +1,90 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.utils.LatencyTracker.Metric;
+import frc.robot.utils.LatencyTracker.Phase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LatencyTrackerTest {
+  private LatencyTracker m_tracker;
+
+  @BeforeEach
+  void setup() {
+    assert HAL.initialize(500, 0);
+    m_tracker = new LatencyTracker();
+  }
+
+  /** Runs one loop that reads the sticks, then sends the given speed to all four modules */
+  private void loop(double stick, double speed) {
+    m_tracker.mark(Phase.LOOP_START);
+    m_tracker.mark(Phase.SCHEDULER_START);
+    m_tracker.markStickRead(stick);
+    for (int i = 0; i < 4; i++) m_tracker.markMotorOutput(speed);
+    m_tracker.mark(Phase.SCHEDULER_END);
+    m_tracker.mark(Phase.LOOP_END);
+  }
+
+  @Test
+  public void testPercentiles() {
+    var window = new LatencyTracker.Window(100);
+    for (int i = 1; i <= 100; i++) window.add(i);
+
+    assertEquals(50, window.percentile(0.5));
+    assertEquals(95, window.percentile(0.95));
+    assertEquals(99, window.percentile(0.99));
+    assertEquals(100, window.percentile(1));
+  }
+
+  @Test
+  public void testWindowKeepsRecentSamples() {
+    var window = new LatencyTracker.Window(10);
+    for (int i = 1; i <= 25; i++) window.add(i);
+
+    assertEquals(10, window.size());
+    assertEquals(16, window.percentile(0));
+    assertEquals(25, window.percentile(1));
+  }
+
+  @Test
+  public void testLoopIntervals() {
+    assertEquals(-1, m_tracker.getPercentileMicroseconds(Metric.STICK_TO_MOTOR, 0.5));
+    for (int i = 0; i < 10; i++) loop(0, 0);
+
+    for (Metric metric :
+        new Metric[] {
+          Metric.LOOP_START_TO_STICK, Metric.STICK_TO_MOTOR, Metric.SCHEDULER, Metric.LOOP
+        }) {
+      assertTrue(m_tracker.getPercentileMicroseconds(metric, 0) >= 0);
+    }
+    assertTrue(
+        m_tracker.getPercentileMicroseconds(Metric.LOOP, 1)
+            >= m_tracker.getPercentileMicroseconds(Metric.SCHEDULER, 1));
+    // The sticks never moved
+    assertEquals(-1, m_tracker.getPercentileMicroseconds(Metric.STEP_RESPONSE, 0.5));
+  }
+
+  @Test
+  public void testStepResponseLoops() {
+    for (int i = 0; i < 5; i++) loop(0, 0);
+    assertEquals(-1, m_tracker.getStepResponseLoops());
+
+    // The modules turn for two loops before the drive motors are commanded
+    loop(0.5, 0);
+    loop(0.5, 0);
+    loop(0.5, 0.2);
+    assertEquals(2, m_tracker.getStepResponseLoops());
+    assertTrue(m_tracker.getPercentileMicroseconds(Metric.STEP_RESPONSE, 0.5) >= 0);
+
+    // Holding the stick isn't a new step
+    loop(0.5, 0.4);
+    assertEquals(2, m_tracker.getStepResponseLoops());
+
+    loop(0, 0);
+    loop(-0.5, -0.2);
+    assertEquals(0, m_tracker.getStepResponseLoops());
+  }
+}
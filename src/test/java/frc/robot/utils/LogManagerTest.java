@@ -0,0 +1,123 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.Constants.LOG;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LogManagerTest {
+  @TempDir Path m_logDir;
+  private boolean m_disabled = true;
+
+  @BeforeEach
+  void setup() {
+    assert HAL.initialize(500, 0);
+  }
+
+  /** Writes a log of the given size, last modified the given number of hours ago */
+  private Path writeLog(String name, int bytes, double hoursAgo) throws Exception {
+    Path path = m_logDir.resolve(name);
+    Files.write(path, new byte[bytes]);
+    long modifiedMillis = System.currentTimeMillis() - (long) (hoursAgo * 3600 * 1000);
+    Files.setLastModifiedTime(path, FileTime.fromMillis(modifiedMillis));
+    return path;
+  }
+
+  private LogManager logManager(long maxLogDirBytes) {
+    return new LogManager(m_logDir, maxLogDirBytes, () -> m_disabled);
+  }
+
+  @Test
+  public void testAgeBudgetUsesDays() throws Exception {
+    m_disabled = false;
+    long maxAgeHours = TimeUnit.DAYS.toHours(LOG.kMaxLogAgeDays);
+    Path old = writeLog("old.wpilog", 100, maxAgeHours + 1);
+    Path recent = writeLog("recent.wpilog", 100, maxAgeHours - 1);
+    Path active = writeLog("active.wpilog", 100, 0);
+
+    logManager(Long.MAX_VALUE).cleanup();
+
+    assertFalse(Files.exists(old));
+    assertTrue(Files.exists(recent));
+    assertTrue(Files.exists(active));
+  }
+
+  @Test
+  public void testSizeBudgetDeletesOldestFirst() throws Exception {
+    m_disabled = false;
+    Path oldest = writeLog("a.wpilog", 1000, 3);
+    Path older = writeLog("b.wpilog", 1000, 2);
+    Path newer = writeLog("c.wpilog", 1000, 1);
+    Path active = writeLog("d.wpilog", 1000, 0);
+
+    logManager(2500).cleanup();
+
+    assertFalse(Files.exists(oldest));
+    assertFalse(Files.exists(older));
+    assertTrue(Files.exists(newer));
+    assertTrue(Files.exists(active));
+  }
+
+  @Test
+  public void testClosedLogsCompressedWhileDisabled() throws Exception {
+    Path closed = writeLog("closed.wpilog", 10000, 1);
+    Path active = writeLog("active.wpilog", 10000, 0);
+    long closedModified = Files.getLastModifiedTime(closed).toMillis();
+
+    logManager(Long.MAX_VALUE).cleanup();
+
+    Path compressed = m_logDir.resolve("closed.wpilog.gz");
+    assertFalse(Files.exists(closed));
+    assertTrue(Files.exists(active));
+    assertTrue(Files.size(compressed) < 10000);
+    assertEquals(closedModified, Files.getLastModifiedTime(compressed).toMillis());
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+      assertEquals(10000, in.readAllBytes().length);
+    }
+  }
+
+  @Test
+  public void testCompressionStopsWhenEnabled() throws Exception {
+    int bytes = 4 * LOG.kCompressChunkBytes;
+    Path closed = writeLog("closed.wpilog", bytes, 1);
+    writeLog("active.wpilog", 100, 0);
+
+    // Enabled after the first two chunks of the log
+    var checks = new AtomicInteger();
+    new LogManager(m_logDir, Long.MAX_VALUE, () -> checks.incrementAndGet() <= 4).cleanup();
+
+    assertEquals(bytes, Files.size(closed));
+    assertFalse(Files.exists(m_logDir.resolve("closed.wpilog.gz")));
+    assertFalse(Files.exists(m_logDir.resolve("closed.wpilog.gz.tmp")));
+  }
+
+  @Test
+  public void testDeleteAllKeepsActiveLog() throws Exception {
+    m_disabled = false;
+    Path closed = writeLog("closed.wpilog", 100, 2);
+    Path compressed = writeLog("older.wpilog.gz", 100, 3);
+    Path active = writeLog("active.wpilog", 100, 0);
+    Path other = writeLog("notes.txt", 100, 4);
+
+    var logManager = logManager(Long.MAX_VALUE);
+    logManager.deleteAllLogs();
+    logManager.cleanup();
+
+    assertFalse(Files.exists(closed));
+    assertFalse(Files.exists(compressed));
+    assertTrue(Files.exists(active));
+    assertTrue(Files.exists(other));
+  }
+}
@@ -0,0 +1,217 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.RobotContainer;
+import frc.robot.utils.FrameLogDecoder.DecodedFrame;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class LogReplayTest {
+  private static class TestInputs implements LoggableInputs {
+    double a, b, c;
+
+    @Override
+    public String[] getFieldNames() {
+      return new String[] {"a", "b", "c"};
+    }
+
+    @Override
+    public void toLog(double[] values) {
+      values[0] = a;
+      values[1] = b;
+      values[2] = c;
+    }
+
+    @Override
+    public void fromLog(double[] values) {
+      a = values[0];
+      b = values[1];
+      c = values[2];
+    }
+  }
+
+  private static DecodedFrame frame(String name, String... fields) {
+    return new DecodedFrame(name, fields);
+  }
+
+  private static void record(DecodedFrame frame, long timestamp, double... values) {
+    frame.timestampsMicroseconds.add(timestamp);
+    frame.records.add(values);
+  }
+
+  // Loops end at 20, 40 and 60 ms
+  private static Map<String, DecodedFrame> loops() {
+    var clock = frame(DriverStationInputs.kLogName, new DriverStationInputs().getFieldNames());
+    int fields = clock.fields.length;
+    for (long end = 20_000; end <= 60_000; end += 20_000) record(clock, end, new double[fields]);
+
+    Map<String, DecodedFrame> frames = new HashMap<>();
+    frames.put(clock.name, clock);
+    return frames;
+  }
+
+  @Test
+  public void testLoopAlignment() {
+    var frames = loops();
+    var test = frame("/inputs/test", "a", "b", "c");
+    record(test, 19_000, 1, 1, 1);
+    // Nothing recorded in the second loop, then twice in the third
+    record(test, 45_000, 2, 2, 2);
+    record(test, 59_000, 3, 3, 3);
+    frames.put(test.name, test);
+
+    var replay = new LogReplay(frames);
+    var inputs = new TestInputs();
+    assertEquals(3, replay.getLoopCount());
+
+    assertTrue(replay.advance());
+    replay.read(test.name, inputs);
+    assertEquals(1, inputs.a);
+    assertEquals(0.02, replay.getTimestampSeconds(), 1e-9);
+
+    assertTrue(replay.advance());
+    replay.read(test.name, inputs);
+    assertEquals(1, inputs.a);
+
+    assertTrue(replay.advance());
+    replay.read(test.name, inputs);
+    assertEquals(3, inputs.a);
+
+    assertFalse(replay.advance());
+  }
+
+  @Test
+  public void testFieldsMatchedByName() {
+    var frames = loops();
+    // Recorded in another order, without c and with a field the inputs no longer have
+    var test = frame("/inputs/test", "b", "removed", "a");
+    record(test, 10_000, 2, 5, 1);
+    frames.put(test.name, test);
+
+    var replay = new LogReplay(frames);
+    var inputs = new TestInputs();
+    inputs.c = 3;
+    replay.advance();
+    replay.read(test.name, inputs);
+    assertArrayEquals(new double[] {1, 2, 3}, new double[] {inputs.a, inputs.b, inputs.c});
+
+    // A frame that isn't in the log leaves the inputs alone
+    replay.read("/inputs/missing", inputs);
+    assertEquals(1, inputs.a);
+  }
+
+  @Test
+  public void testDriverStationInputsRoundTrip() {
+    var inputs = new DriverStationInputs();
+    inputs.enabled = true;
+    inputs.allianceStation = 4;
+    inputs.matchTime = 12.5;
+    inputs.selectedAuto = 3;
+    inputs.axes[2][5] = -0.75;
+    inputs.buttons[1] = 0b1010;
+    inputs.povs[0] = 90;
+
+    double[] values = new double[inputs.getFieldNames().length];
+    inputs.toLog(values);
+    var copy = new DriverStationInputs();
+    copy.fromLog(values);
+
+    assertTrue(copy.enabled);
+    assertFalse(copy.autonomous);
+    assertEquals(4, copy.allianceStation);
+    assertEquals(12.5, copy.matchTime);
+    assertEquals(3, copy.selectedAuto);
+    assertEquals(-0.75, copy.axes[2][5]);
+    assertEquals(0b1010, copy.buttons[1]);
+    assertEquals(90, copy.povs[0]);
+  }
+
+  @Test
+  public void testSelectedAutoReplayed() {
+    var recorded = new DriverStationInputs();
+    recorded.autonomous = true;
+    recorded.selectedAuto = 2;
+    var frames = new HashMap<String, DecodedFrame>();
+    var clock = frame(DriverStationInputs.kLogName, recorded.getFieldNames());
+    double[] values = new double[clock.fields.length];
+    recorded.toLog(values);
+    record(clock, 20_000, values);
+    frames.put(clock.name, clock);
+
+    var replay = new LogReplay(frames);
+    var inputs = new DriverStationInputs();
+    replay.advance();
+    replay.read(DriverStationInputs.kLogName, inputs);
+    assertTrue(inputs.autonomous);
+    assertEquals(2, inputs.selectedAuto);
+  }
+
+  @Test
+  public void testSelectedAutoMissingFromOldLogs() {
+    // Logged before the selected auto was, so it stays at -1 and the chooser's selection is used
+    var frames = new HashMap<String, DecodedFrame>();
+    var clock = frame(DriverStationInputs.kLogName, "enabled", "autonomous", "matchTime");
+    record(clock, 20_000, 1, 1, 14);
+    frames.put(clock.name, clock);
+
+    var replay = new LogReplay(frames);
+    var inputs = new DriverStationInputs();
+    replay.advance();
+    replay.read(DriverStationInputs.kLogName, inputs);
+    assertTrue(inputs.autonomous);
+    assertEquals(-1, inputs.selectedAuto);
+  }
+
+  @Test
+  public void testReplaysDataLogManagerLog() throws Exception {
+    assert HAL.initialize(500, 0);
+    int loops = 5;
+    double lastLoggedMatchTime = 1000 + loops;
+    // Logged like the robot does, to the log DataLogManager writes, after RobotContainer is built
+    var inputs = new DriverStationInputs();
+    try (var robotContainer = new RobotContainer();
+        var inputsLogger = new InputsLogger(DriverStationInputs.kLogName, inputs)) {
+      for (int i = 1; i <= loops; i++) {
+        inputs.matchTime = 1000 + i;
+        inputsLogger.log();
+      }
+    }
+
+    // The FrameLog and DataLog threads write the records, so wait for them to reach the file
+    double lastReplayedMatchTime = Double.NaN;
+    for (int attempt = 0; attempt < 50 && lastReplayedMatchTime != lastLoggedMatchTime; attempt++) {
+      Thread.sleep(100);
+      var frames = FrameLogDecoder.decode(getNewestLog().toString());
+      if (!frames.containsKey(DriverStationInputs.kLogName)) continue;
+
+      var replay = new LogReplay(frames);
+      var replayed = new DriverStationInputs();
+      while (replay.advance()) {
+        replay.read(DriverStationInputs.kLogName, replayed);
+        lastReplayedMatchTime = replayed.matchTime;
+      }
+    }
+    assertEquals(lastLoggedMatchTime, lastReplayedMatchTime);
+  }
+
+  private static Path getNewestLog() throws Exception {
+    try (Stream<Path> files = Files.list(Paths.get(DataLogManager.getLogDir()))) {
+      return files
+          .filter(path -> path.getFileName().toString().endsWith(".wpilog"))
+          .max(Comparator.comparingLong(path -> path.toFile().lastModified()))
+          .orElseThrow();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.RunCommand;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LoopOverrunMonitorTest {
+  private static final long kMs = 1_000_000;
+
+  @TempDir Path m_tempDir;
+  private DataLog m_log;
+  private LoopOverrunMonitor m_monitor;
+  private long m_now;
+
+  @BeforeEach
+  void setup() {
+    assert HAL.initialize(500, 0);
+    m_log = new DataLog(m_tempDir.toString(), "overruns.wpilog");
+    m_monitor = new LoopOverrunMonitor(20 * kMs, new StringLogEntry(m_log, "/overruns"));
+
+    // Settle the averages: Sensors 2 ms, Vision 3 ms, Drive 5 ms
+    for (int i = 0; i < 200; i++) loop(2, 3, 5);
+  }
+
+  @AfterEach
+  void cleanup() {
+    m_log.close();
+  }
+
+  private void loop(double sensorsMs, double visionMs, double driveMs) {
+    m_monitor.startLoop("Sensors", m_now);
+    m_now += (long) (sensorsMs * kMs);
+    m_monitor.markSection("Vision", m_now);
+    m_now += (long) (visionMs * kMs);
+    m_monitor.markSection("Drive", m_now);
+    m_now += (long) (driveMs * kMs);
+    m_monitor.endLoop(m_now);
+    // Idle until the next period
+    m_now += 20 * kMs;
+  }
+
+  @Test
+  public void testGcPause() {
+    // A 15 ms pause during Drive makes a 10 ms loop 25 ms
+    long driveStart = m_now + 5 * kMs;
+    m_monitor.recordGcPause(driveStart, driveStart + 15 * kMs);
+    loop(2, 3, 20);
+    assertEquals(0, m_monitor.getTotalCount(null));
+
+    // Judged at the end of the next loop
+    loop(2, 3, 5);
+    assertEquals(1, m_monitor.getTotalCount(LoopOverrunMonitor.kGc));
+    assertEquals(1, m_monitor.getWindowCount(null));
+  }
+
+  @Test
+  public void testSlowSection() {
+    loop(2, 20, 5);
+    loop(2, 3, 5);
+    assertEquals(1, m_monitor.getTotalCount("Vision"));
+    assertEquals(0, m_monitor.getTotalCount(LoopOverrunMonitor.kGc));
+  }
+
+  @Test
+  public void testUnknown() {
+    // Close to the period, so a little slower everywhere overruns with no one section to blame
+    for (int i = 0; i < 200; i++) loop(2, 8, 9.8);
+    loop(2.4, 8.4, 10.2);
+    loop(2, 8, 9.8);
+    assertEquals(1, m_monitor.getTotalCount(LoopOverrunMonitor.kUnknown));
+  }
+
+  @Test
+  public void testPauseOutsideTheLoop() {
+    m_monitor.recordGcPause(m_now - 15 * kMs, m_now - 5 * kMs);
+    loop(2, 20, 5);
+    loop(2, 3, 5);
+    assertEquals(1, m_monitor.getTotalCount("Vision"));
+  }
+
+  @Test
+  public void testSlowCommandExecute() {
+    var scheduler = CommandScheduler.getInstance();
+    scheduler.cancelAll();
+    scheduler.getActiveButtonLoop().clear();
+    // Marks its periodic() like the robot's subsystems
+    var subsystem =
+        new SubsystemBase() {
+          @Override
+          public void periodic() {
+            m_monitor.markSection("Subsystem");
+          }
+        };
+    // Bound like Robot.robotInit() does, after the triggers
+    scheduler.getActiveButtonLoop().bind(() -> m_monitor.markSection("Commands"));
+    scheduler.schedule(new RunCommand(() -> Timer.delay(0.03)).ignoringDisable(true));
+
+    try {
+      // On the real clock, a 30 ms execute() overruns the 20 ms period
+      m_monitor.startLoop("Sensors");
+      scheduler.run();
+      m_monitor.endLoop();
+      m_monitor.startLoop("Sensors");
+      m_monitor.endLoop();
+      assertEquals(1, m_monitor.getTotalCount("Commands"));
+      assertEquals(0, m_monitor.getTotalCount("Subsystem"));
+    } finally {
+      scheduler.cancelAll();
+      scheduler.getActiveButtonLoop().clear();
+      scheduler.unregisterSubsystem(subsystem);
+    }
+  }
+}
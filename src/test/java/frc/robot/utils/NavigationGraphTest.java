@@ -0,0 +1,107 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.simulation.SimConstants;
+import frc.robot.simulation.SimConstants.Community;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class NavigationGraphTest {
+  private final NavigationGraph m_navigationGraph = NavigationGraph.getInstance();
+
+  private static final double chargingStationCenterY =
+      (Community.chargingStationLeftY + Community.chargingStationRightY) / 2.0;
+
+  @Test
+  public void testClearPathIsDirect() {
+    var start = new Translation2d(6, 6);
+    var goal = new Translation2d(8, 6);
+
+    assertEquals(List.of(start, goal), m_navigationGraph.findPath(start, goal));
+  }
+
+  @Test
+  public void testPathAvoidsBlueChargingStation() {
+    var start = new Translation2d(2.0, chargingStationCenterY);
+    var goal = new Translation2d(6.0, chargingStationCenterY);
+
+    var path = m_navigationGraph.findPath(start, goal);
+    assertTrue(path.size() > 2);
+    assertEquals(start, path.get(0));
+    assertEquals(goal, path.get(path.size() - 1));
+    assertFalse(crossesChargingStation(path, false));
+  }
+
+  @Test
+  public void testPathAvoidsRedChargingStation() {
+    var start = new Translation2d(SimConstants.fieldLength - 2.0, chargingStationCenterY);
+    var goal = new Translation2d(SimConstants.fieldLength - 6.0, chargingStationCenterY);
+
+    var path = m_navigationGraph.findPath(start, goal);
+    assertTrue(path.size() > 2);
+    assertFalse(crossesChargingStation(path, true));
+  }
+
+  @Test
+  public void testPathFromChargingStation() {
+    var start =
+        new Translation2d(
+            (Community.chargingStationInnerX + Community.chargingStationOuterX) / 2.0,
+            chargingStationCenterY);
+    var goal = new Translation2d(8, 6);
+
+    assertTrue(m_navigationGraph.isBlocked(start));
+    assertFalse(m_navigationGraph.findPath(start, goal).isEmpty());
+  }
+
+  @Test
+  public void testPathThroughEachLane() {
+    // Just inside the community on one side of the charging station to past it on the same side
+    double bumpLaneY = Community.chargingStationRightY - 0.3;
+    double loadingZoneLaneY = Community.chargingStationLeftY + 0.3;
+    for (boolean isRed : new boolean[] {false, true}) {
+      var bumpLanePath =
+          m_navigationGraph.findPath(mirror(2.0, bumpLaneY, isRed), mirror(6.0, bumpLaneY, isRed));
+      assertFalse(bumpLanePath.isEmpty());
+      assertFalse(crossesChargingStation(bumpLanePath, isRed));
+      for (var point : bumpLanePath) assertTrue(point.getY() < Community.chargingStationRightY);
+
+      var loadingZoneLanePath =
+          m_navigationGraph.findPath(
+              mirror(2.0, loadingZoneLaneY, isRed), mirror(6.0, loadingZoneLaneY, isRed));
+      assertFalse(loadingZoneLanePath.isEmpty());
+      assertFalse(crossesChargingStation(loadingZoneLanePath, isRed));
+      for (var point : loadingZoneLanePath) {
+        assertTrue(point.getY() > Community.chargingStationLeftY);
+      }
+    }
+  }
+
+  private static Translation2d mirror(double blueX, double y, boolean isRed) {
+    return new Translation2d(isRed ? SimConstants.fieldLength - blueX : blueX, y);
+  }
+
+  private static boolean crossesChargingStation(List<Translation2d> path, boolean isRed) {
+    double minX = Community.chargingStationInnerX;
+    double maxX = Community.chargingStationOuterX;
+    if (isRed) {
+      minX = SimConstants.fieldLength - Community.chargingStationOuterX;
+      maxX = SimConstants.fieldLength - Community.chargingStationInnerX;
+    }
+
+    for (int i = 1; i < path.size(); i++) {
+      for (double s = 0; s <= 1; s += 0.01) {
+        var point = path.get(i - 1).interpolate(path.get(i), s);
+        if (point.getX() > minX
+            && point.getX() < maxX
+            && point.getY() > Community.chargingStationRightY
+            && point.getY() < Community.chargingStationLeftY) return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,130 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.SWERVE_DRIVE;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Feeds the same odometry and vision measurements to this estimator and WPILib's */
+public class SwervePoseEstimatorTest {
+  private static final double kDt = 0.02;
+  private static final double kDelta = 1e-9;
+
+  private SwerveModulePosition[] m_positions;
+  private Pose2d m_truePose;
+  private Rotation2d m_gyroAngle;
+  private SwerveDrivePoseEstimator m_wpilibEstimator;
+  private SwervePoseEstimator m_estimator;
+
+  @BeforeEach
+  void setup() {
+    m_positions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) m_positions[i] = new SwerveModulePosition();
+    m_truePose = new Pose2d(2, 3, Rotation2d.fromDegrees(30));
+    // Start with the gyro offset from the field heading
+    m_gyroAngle = Rotation2d.fromDegrees(-60);
+
+    m_wpilibEstimator =
+        new SwerveDrivePoseEstimator(
+            SWERVE_DRIVE.kSwerveKinematics, m_gyroAngle, m_positions, m_truePose);
+    m_estimator =
+        new SwervePoseEstimator(
+            SWERVE_DRIVE.kFourModuleKinematics, m_gyroAngle, m_positions, m_truePose);
+  }
+
+  private void step(ChassisSpeeds speeds) {
+    m_truePose =
+        m_truePose.exp(
+            new Twist2d(
+                speeds.vxMetersPerSecond * kDt,
+                speeds.vyMetersPerSecond * kDt,
+                speeds.omegaRadiansPerSecond * kDt));
+    m_gyroAngle = m_gyroAngle.plus(new Rotation2d(speeds.omegaRadiansPerSecond * kDt));
+
+    var states = SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(speeds);
+    for (int i = 0; i < 4; i++) {
+      m_positions[i] =
+          new SwerveModulePosition(
+              m_positions[i].distanceMeters + states[i].speedMetersPerSecond * kDt,
+              states[i].angle);
+    }
+  }
+
+  private void assertPosesEqual(Pose2d expected, Pose2d actual) {
+    assertEquals(expected.getX(), actual.getX(), kDelta);
+    assertEquals(expected.getY(), actual.getY(), kDelta);
+    assertEquals(expected.getRotation().getCos(), actual.getRotation().getCos(), kDelta);
+    assertEquals(expected.getRotation().getSin(), actual.getRotation().getSin(), kDelta);
+  }
+
+  @Test
+  public void testOdometryMatchesWpilib() {
+    for (int i = 0; i < 500; i++) {
+      double time = i * kDt;
+      step(new ChassisSpeeds(2 * Math.cos(time), 1, 0.8 * Math.sin(time * 0.7)));
+
+      assertPosesEqual(
+          m_wpilibEstimator.updateWithTime(time, m_gyroAngle, m_positions),
+          m_estimator.updateWithTime(time, m_gyroAngle, m_positions));
+    }
+  }
+
+  @Test
+  public void testVisionMeasurementsMatchWpilib() {
+    var random = new Random(35);
+    // Vision is offset from the odometry, so every measurement pulls the estimate around
+    var visionOffset = new Transform2d(new Translation2d(0.3, -0.2), Rotation2d.fromDegrees(5));
+
+    for (int i = 0; i < 500; i++) {
+      double time = i * kDt;
+      step(new ChassisSpeeds(1.5, -0.5 * Math.sin(time), 1.2));
+      m_wpilibEstimator.updateWithTime(time, m_gyroAngle, m_positions);
+      m_estimator.updateWithTime(time, m_gyroAngle, m_positions);
+
+      // Several measurements per loop with random latency, including ones between updates and
+      // ones too old to use
+      for (int j = 0; j < 3; j++) {
+        double timestamp = time - random.nextDouble() * 2.0;
+        var visionPose = m_truePose.plus(visionOffset);
+        m_wpilibEstimator.addVisionMeasurement(visionPose, timestamp);
+        m_estimator.addVisionMeasurement(visionPose, timestamp);
+      }
+
+      assertPosesEqual(
+          m_wpilibEstimator.getEstimatedPosition(), m_estimator.getEstimatedPosition());
+    }
+  }
+
+  @Test
+  public void testResetPosition() {
+    for (int i = 0; i < 50; i++) {
+      step(new ChassisSpeeds(1, 0, 0.5));
+      m_estimator.updateWithTime(i * kDt, m_gyroAngle, m_positions);
+      m_wpilibEstimator.updateWithTime(i * kDt, m_gyroAngle, m_positions);
+    }
+
+    var pose = new Pose2d(5, 5, Rotation2d.fromDegrees(90));
+    m_estimator.resetPosition(m_gyroAngle, m_positions, pose);
+    m_wpilibEstimator.resetPosition(m_gyroAngle, m_positions, pose);
+    assertPosesEqual(pose, m_estimator.getEstimatedPosition());
+
+    // Vision from before the reset has no history left to apply to
+    m_estimator.addVisionMeasurement(new Pose2d(), 0.5);
+    assertPosesEqual(pose, m_estimator.getEstimatedPosition());
+
+    step(new ChassisSpeeds(1, 0, 0.5));
+    assertPosesEqual(
+        m_wpilibEstimator.updateWithTime(1.0, m_gyroAngle, m_positions),
+        m_estimator.updateWithTime(1.0, m_gyroAngle, m_positions));
+  }
+}
@@ -0,0 +1,271 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants.SWERVE_DRIVE;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SwerveSetpointGeneratorTest {
+  private static final double kDt = 0.02;
+  private static final double kMaxSpeed = 4.0;
+  private static final double kMaxAcceleration = 9.0;
+  private static final double kMaxSteeringRate = Math.PI * 6.0;
+  private static final double kDelta = 1e-6;
+
+  // Seconds, then the desired vx, vy and omega, with a step change between each
+  private static final double[][] kTrackingScript = {
+    {0.5, 0, 0, 0},
+    {1.5, kMaxSpeed, 0, 0},
+    {1.5, 0, kMaxSpeed, 0},
+    {1.5, -kMaxSpeed, 0, 0},
+    {1.5, 2, 0, Math.PI},
+    {1, 0, 0, 0}
+  };
+
+  private SwerveSetpointGenerator m_generator;
+  private SwerveModuleState[] m_states;
+  private SwerveModuleState[] m_previousStates;
+
+  @BeforeEach
+  void setup() {
+    m_generator =
+        new SwerveSetpointGenerator(
+            ModuleMap.orderedValues(SWERVE_DRIVE.kModuleTranslations, new Translation2d[0]),
+            kMaxAcceleration,
+            kMaxSteeringRate);
+    m_states = new SwerveModuleState[4];
+    m_previousStates = new SwerveModuleState[4];
+    for (int i = 0; i < 4; i++) {
+      m_states[i] = new SwerveModuleState();
+      m_previousStates[i] = new SwerveModuleState();
+    }
+    m_generator.reset(m_states);
+  }
+
+  private void step(double vx, double vy, double omega) {
+    for (int i = 0; i < 4; i++) {
+      m_previousStates[i].speedMetersPerSecond = m_states[i].speedMetersPerSecond;
+      m_previousStates[i].angle = m_states[i].angle;
+    }
+    m_generator.generate(vx, vy, omega, kMaxSpeed, kDt);
+    m_generator.getModuleStates(m_states);
+    assertWithinLimits();
+  }
+
+  private void assertWithinLimits() {
+    for (int i = 0; i < 4; i++) {
+      var previous = m_previousStates[i];
+      var current = m_states[i];
+      double dvx =
+          current.speedMetersPerSecond * current.angle.getCos()
+              - previous.speedMetersPerSecond * previous.angle.getCos();
+      double dvy =
+          current.speedMetersPerSecond * current.angle.getSin()
+              - previous.speedMetersPerSecond * previous.angle.getSin();
+      assertTrue(Math.hypot(dvx, dvy) <= kMaxAcceleration * kDt + kDelta);
+
+      if (Math.abs(previous.speedMetersPerSecond) > 1e-3) {
+        double steering =
+            Math.abs(
+                MathUtil.angleModulus(current.angle.getRadians() - previous.angle.getRadians()));
+        assertTrue(steering <= kMaxSteeringRate * kDt + kDelta);
+      }
+    }
+  }
+
+  private void assertKinematicallyConsistent() {
+    var expected =
+        SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(
+            new ChassisSpeeds(
+                m_generator.getVxMetersPerSecond(),
+                m_generator.getVyMetersPerSecond(),
+                m_generator.getOmegaRadiansPerSecond()));
+    for (int i = 0; i < 4; i++) {
+      double expectedVx = expected[i].speedMetersPerSecond * expected[i].angle.getCos();
+      double expectedVy = expected[i].speedMetersPerSecond * expected[i].angle.getSin();
+      assertEquals(
+          expectedVx, m_states[i].speedMetersPerSecond * m_states[i].angle.getCos(), kDelta);
+      assertEquals(
+          expectedVy, m_states[i].speedMetersPerSecond * m_states[i].angle.getSin(), kDelta);
+    }
+  }
+
+  @Test
+  public void testAccelerationIsLimited() {
+    int steps = 0;
+    while (m_generator.getVxMetersPerSecond() < kMaxSpeed - kDelta) {
+      step(kMaxSpeed, 0, 0);
+      assertKinematicallyConsistent();
+      steps++;
+    }
+    // Can't reach full speed any faster than the acceleration limit allows
+    assertTrue(steps >= Math.ceil(kMaxSpeed / (kMaxAcceleration * kDt)) - 1);
+  }
+
+  @Test
+  public void testDirectionReversal() {
+    for (int i = 0; i < 50; i++) step(kMaxSpeed, 0, 0);
+    for (int i = 0; i < 100; i++) {
+      step(-kMaxSpeed, 0, 0);
+      assertKinematicallyConsistent();
+    }
+    assertEquals(-kMaxSpeed, m_generator.getVxMetersPerSecond(), kDelta);
+  }
+
+  @Test
+  public void testModulesTurnBeforeMoving() {
+    step(0, kMaxSpeed, 0);
+    for (var state : m_states) assertEquals(0, state.speedMetersPerSecond, kDelta);
+
+    for (int i = 0; i < 100; i++) step(0, kMaxSpeed, 0);
+    assertEquals(kMaxSpeed, m_generator.getVyMetersPerSecond(), kDelta);
+    for (var state : m_states) {
+      assertEquals(0, Math.cos(state.angle.getRadians()), kDelta);
+    }
+  }
+
+  @Test
+  public void testSteeringIsLimitedWhileMoving() {
+    for (int i = 0; i < 50; i++) step(kMaxSpeed, 0, 0);
+    for (int i = 0; i < 100; i++) {
+      step(0, kMaxSpeed, 0);
+      assertKinematicallyConsistent();
+    }
+    assertEquals(kMaxSpeed, m_generator.getVyMetersPerSecond(), kDelta);
+  }
+
+  @Test
+  public void testResetFromModuleStates() {
+    var states = SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(new ChassisSpeeds(1, 2, 0.5));
+    m_generator.reset(states);
+
+    assertEquals(1, m_generator.getVxMetersPerSecond(), kDelta);
+    assertEquals(2, m_generator.getVyMetersPerSecond(), kDelta);
+    assertEquals(0.5, m_generator.getOmegaRadiansPerSecond(), kDelta);
+  }
+
+  @Test
+  public void testDesaturation() {
+    for (int i = 0; i < 200; i++) step(kMaxSpeed, kMaxSpeed, Math.PI);
+    for (var state : m_states) {
+      assertTrue(Math.abs(state.speedMetersPerSecond) <= kMaxSpeed + kDelta);
+    }
+    assertEquals(
+        m_generator.getVxMetersPerSecond(), m_generator.getVyMetersPerSecond(), kDelta);
+    assertEquals(
+        new Rotation2d(m_generator.getVxMetersPerSecond(), m_generator.getVyMetersPerSecond())
+            .getDegrees(),
+        45,
+        kDelta);
+  }
+
+  /**
+   * A module whose steering and wheel speed respond to their errors with a time constant, and
+   * never faster than the generator's limits
+   */
+  private static class ModuleModel {
+    static final double kSteeringTimeConstant = 0.04;
+    static final double kDriveTimeConstant = 0.08;
+
+    double angle;
+    double speed;
+
+    void follow(double commandedSpeed, double commandedAngle) {
+      double error = MathUtil.angleModulus(commandedAngle - angle);
+      // Drive backwards instead of turning more than 90 degrees, like CtreUtils.optimize()
+      if (Math.abs(error) > Math.PI / 2) {
+        error = MathUtil.angleModulus(error + Math.PI);
+        commandedSpeed = -commandedSpeed;
+      }
+      double steering = error * kDt / kSteeringTimeConstant;
+      angle += MathUtil.clamp(steering, -kMaxSteeringRate * kDt, kMaxSteeringRate * kDt);
+      double acceleration = (commandedSpeed - speed) * kDt / kDriveTimeConstant;
+      speed += MathUtil.clamp(acceleration, -kMaxAcceleration * kDt, kMaxAcceleration * kDt);
+    }
+  }
+
+  /**
+   * Runs {@link #kTrackingScript} through the module model, commanding the desired states
+   * directly like SwerveDrive used to or through the generator.
+   *
+   * @return The RMS distance between the module velocities commanded and reached, and the RMS
+   *     scrub, how far the reached module velocities are from any rigid body motion
+   */
+  private double[] measureTracking(boolean useGenerator) {
+    var kinematics =
+        new SwerveDriveKinematics(
+            ModuleMap.orderedValues(SWERVE_DRIVE.kModuleTranslations, new Translation2d[0]));
+    var models = new ModuleModel[4];
+    var reached = new SwerveModuleState[4];
+    for (int i = 0; i < 4; i++) {
+      models[i] = new ModuleModel();
+      reached[i] = new SwerveModuleState();
+    }
+
+    double trackingSquaredSum = 0;
+    double scrubSquaredSum = 0;
+    int samples = 0;
+    for (double[] segment : kTrackingScript) {
+      for (int loop = 0; loop < Math.round(segment[0] / kDt); loop++) {
+        var commanded =
+            kinematics.toSwerveModuleStates(new ChassisSpeeds(segment[1], segment[2], segment[3]));
+        SwerveDriveKinematics.desaturateWheelSpeeds(commanded, kMaxSpeed);
+        if (useGenerator) {
+          m_generator.generate(segment[1], segment[2], segment[3], kMaxSpeed, kDt);
+          m_generator.getModuleStates(commanded);
+        }
+
+        for (int i = 0; i < 4; i++) {
+          var model = models[i];
+          model.follow(commanded[i].speedMetersPerSecond, commanded[i].angle.getRadians());
+          trackingSquaredSum +=
+              Math.pow(
+                      model.speed * Math.cos(model.angle)
+                          - commanded[i].speedMetersPerSecond * commanded[i].angle.getCos(),
+                      2)
+                  + Math.pow(
+                      model.speed * Math.sin(model.angle)
+                          - commanded[i].speedMetersPerSecond * commanded[i].angle.getSin(),
+                      2);
+          reached[i].speedMetersPerSecond = model.speed;
+          reached[i].angle = new Rotation2d(model.angle);
+        }
+
+        var rigid = kinematics.toSwerveModuleStates(kinematics.toChassisSpeeds(reached));
+        for (int i = 0; i < 4; i++) {
+          scrubSquaredSum +=
+              Math.pow(
+                      reached[i].speedMetersPerSecond * reached[i].angle.getCos()
+                          - rigid[i].speedMetersPerSecond * rigid[i].angle.getCos(),
+                      2)
+                  + Math.pow(
+                      reached[i].speedMetersPerSecond * reached[i].angle.getSin()
+                          - rigid[i].speedMetersPerSecond * rigid[i].angle.getSin(),
+                      2);
+        }
+        samples += 4;
+      }
+    }
+    return new double[] {
+      Math.sqrt(trackingSquaredSum / samples), Math.sqrt(scrubSquaredSum / samples)
+    };
+  }
+
+  @Test
+  public void testTrackingErrorReduced() {
+    double[] direct = measureTracking(false);
+    double[] generated = measureTracking(true);
+
+    // 0.22 vs 1.33 m/s RMS tracking error and 0.026 vs 0.18 m/s RMS scrub when this was written
+    assertTrue(generated[0] < direct[0] / 2, "Tracking " + generated[0] + " vs " + direct[0]);
+    assertTrue(generated[1] < direct[1] / 2, "Scrub " + generated[1] + " vs " + direct[1]);
+  }
+}
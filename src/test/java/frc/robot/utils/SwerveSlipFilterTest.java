@@ -0,0 +1,98 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.SWERVE_DRIVE;
+import org.junit.jupiter.api.Test;
+
+/** Drives a simulated robot along an arc while one wheel slips, and compares odometry error */
+public class SwerveSlipFilterTest {
+  private static final double kDt = 0.02;
+
+  private double m_naiveError;
+  private double m_filteredError;
+  private int m_maxSlippingModules;
+
+  private void runScenario(double slipFactor) {
+    var filter =
+        new SwerveSlipFilter(
+            ModuleMap.orderedValues(SWERVE_DRIVE.kModuleTranslations, new Translation2d[0]),
+            SWERVE_DRIVE.kSlipThresholdMetersPerSecond);
+
+    var measuredPositions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) measuredPositions[i] = new SwerveModulePosition();
+
+    var truePose = new Pose2d();
+    var naiveOdometry =
+        new SwerveDriveOdometry(
+            SWERVE_DRIVE.kSwerveKinematics, truePose.getRotation(), measuredPositions);
+    filter.reset(measuredPositions, truePose.getRotation());
+    var filteredOdometry =
+        new SwerveDriveOdometry(
+            SWERVE_DRIVE.kSwerveKinematics,
+            truePose.getRotation(),
+            filter.getCorrectedPositions());
+
+    var chassisSpeeds = new ChassisSpeeds(2.0, 0.0, 0.5);
+    var moduleStates = SWERVE_DRIVE.kSwerveKinematics.toSwerveModuleStates(chassisSpeeds);
+    m_maxSlippingModules = 0;
+
+    for (int step = 0; step < 150; step++) {
+      truePose =
+          truePose.exp(
+              new Twist2d(
+                  chassisSpeeds.vxMetersPerSecond * kDt,
+                  chassisSpeeds.vyMetersPerSecond * kDt,
+                  chassisSpeeds.omegaRadiansPerSecond * kDt));
+
+      // The front left wheel spins faster than the ground under it for one second
+      boolean isSlipping = step >= 50 && step < 100;
+      for (int i = 0; i < 4; i++) {
+        double distance = moduleStates[i].speedMetersPerSecond * kDt;
+        if (i == 0 && isSlipping) distance *= slipFactor;
+        measuredPositions[i] =
+            new SwerveModulePosition(
+                measuredPositions[i].distanceMeters + distance, moduleStates[i].angle);
+      }
+
+      Rotation2d gyroAngle = truePose.getRotation();
+      naiveOdometry.update(gyroAngle, measuredPositions);
+      filteredOdometry.update(gyroAngle, filter.update(measuredPositions, gyroAngle, kDt));
+      m_maxSlippingModules = Math.max(m_maxSlippingModules, filter.getSlippingModuleCount());
+    }
+
+    m_naiveError =
+        naiveOdometry.getPoseMeters().getTranslation().getDistance(truePose.getTranslation());
+    m_filteredError =
+        filteredOdometry.getPoseMeters().getTranslation().getDistance(truePose.getTranslation());
+  }
+
+  @Test
+  public void testNoSlipMatchesOdometry() {
+    runScenario(1.0);
+    assertEquals(0, m_maxSlippingModules);
+    assertEquals(m_naiveError, m_filteredError, 1e-6);
+  }
+
+  @Test
+  public void testSlipIsRejected() {
+    runScenario(2.0);
+    assertEquals(1, m_maxSlippingModules);
+    assertTrue(m_naiveError > 0.1);
+    assertTrue(m_filteredError < 0.01);
+  }
+
+  @Test
+  public void testPartialSlipIsReduced() {
+    runScenario(1.3);
+    assertTrue(m_filteredError < m_naiveError / 3.0);
+  }
+}
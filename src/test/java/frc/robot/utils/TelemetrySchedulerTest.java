@@ -0,0 +1,124 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import frc.robot.utils.TelemetryScheduler.Profile;
+import frc.robot.utils.TelemetryScheduler.Tier;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TelemetrySchedulerTest {
+  private TelemetryScheduler m_scheduler;
+  private int[] m_criticalCounts, m_normalCounts, m_debugCounts;
+
+  @BeforeEach
+  void setup() {
+    m_scheduler = new TelemetryScheduler();
+    m_criticalCounts = register(Tier.CRITICAL, 3);
+    m_normalCounts = register(Tier.NORMAL, 10);
+    m_debugCounts = register(Tier.DEBUG, 20);
+  }
+
+  /** Registers signals that count how many times they were published */
+  private int[] register(Tier tier, int signals) {
+    int[] counts = new int[signals];
+    for (int i = 0; i < signals; i++) {
+      int signal = i;
+      m_scheduler.register(tier, () -> counts[signal]++);
+    }
+    return counts;
+  }
+
+  private int[] runLoops(int loops) {
+    int[] published = new int[loops];
+    for (int i = 0; i < loops; i++) published[i] = m_scheduler.run();
+    return published;
+  }
+
+  private int maxSignalsPerLoop(Profile profile) {
+    return Arrays.stream(m_scheduler.getSignalsPerLoop(profile)).max().orElse(0);
+  }
+
+  private static int[] filled(int length, int value) {
+    int[] array = new int[length];
+    Arrays.fill(array, value);
+    return array;
+  }
+
+  @Test
+  public void testTierRates() {
+    m_scheduler.setProfile(Profile.PRACTICE);
+    runLoops(100);
+
+    assertArrayEquals(filled(3, 100), m_criticalCounts);
+    assertArrayEquals(filled(10, 20), m_normalCounts);
+    assertArrayEquals(filled(20, 2), m_debugCounts);
+  }
+
+  @Test
+  public void testPublishingIsSpread() {
+    m_scheduler.setProfile(Profile.PRACTICE);
+    int[] published = runLoops(50);
+
+    // 3 critical and 2 normal every loop, and a debug signal on the first 20 loops
+    for (int i = 0; i < published.length; i++) {
+      assertEquals(i < 20 ? 6 : 5, published[i], "Loop " + i);
+    }
+    assertArrayEquals(published, m_scheduler.getSignalsPerLoop(Profile.PRACTICE));
+  }
+
+  @Test
+  public void testProfiles() {
+    // The measured signals per loop for each profile, from the signals above
+    assertEquals(5, maxSignalsPerLoop(Profile.COMPETITION));
+    assertEquals(6, maxSignalsPerLoop(Profile.PRACTICE));
+    assertEquals(33, maxSignalsPerLoop(Profile.DEBUG));
+
+    m_scheduler.setProfile(Profile.DEBUG);
+    assertArrayEquals(filled(10, 33), runLoops(10));
+  }
+
+  @Test
+  public void testDebugOnDemand() {
+    m_scheduler.setProfile(Profile.COMPETITION);
+    runLoops(73);
+    assertArrayEquals(filled(20, 0), m_debugCounts);
+
+    // Every debug signal once, starting partway through a cycle
+    m_scheduler.requestDebugPublish();
+    runLoops(50);
+    assertArrayEquals(filled(20, 1), m_debugCounts);
+
+    runLoops(100);
+    assertArrayEquals(filled(20, 1), m_debugCounts);
+  }
+
+  @Test
+  public void testProfileChangesAtRuntime() {
+    m_scheduler.setProfile(Profile.COMPETITION);
+    runLoops(50);
+    m_scheduler.setProfile(Profile.DEBUG);
+    runLoops(50);
+
+    assertArrayEquals(filled(10, 10 + 50), m_normalCounts);
+    assertArrayEquals(filled(20, 50), m_debugCounts);
+  }
+
+  @Test
+  public void testClosedSignalsStop() {
+    int[] counts = new int[1];
+    var registration = m_scheduler.register(Tier.CRITICAL, () -> counts[0]++);
+    assertEquals(4, m_scheduler.getSignalCount(Tier.CRITICAL));
+    runLoops(5);
+    assertEquals(5, counts[0]);
+
+    registration.close();
+    registration.close();
+    assertEquals(3, m_scheduler.getSignalCount(Tier.CRITICAL));
+    runLoops(5);
+    assertEquals(5, counts[0]);
+    assertArrayEquals(filled(3, 10), m_criticalCounts);
+  }
+}
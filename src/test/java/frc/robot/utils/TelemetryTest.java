@@ -0,0 +1,101 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.Constants.CONTROL_MODE;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TelemetryTest {
+  private Telemetry m_telemetry;
+  private NetworkTable m_table;
+
+  @BeforeEach
+  void setup() {
+    assert HAL.initialize(500, 0);
+    m_telemetry = Telemetry.shuffleboard("TelemetryTest");
+    m_table =
+        NetworkTableInstance.getDefault().getTable("Shuffleboard").getSubTable("TelemetryTest");
+  }
+
+  @Test
+  public void testDoubleChangesWithinEpsilonAreSkipped() {
+    var entry = m_telemetry.doubleEntry("Double", 0.01);
+    var subscriber = m_table.getDoubleTopic("Double").subscribe(-1);
+
+    entry.set(1);
+    assertEquals(1, subscriber.get());
+    entry.set(1.005);
+    assertEquals(1, subscriber.get());
+    // Small changes still add up to a publish
+    entry.set(1.011);
+    assertEquals(1.011, subscriber.get());
+    entry.set(Double.NaN);
+    assertEquals(Double.NaN, subscriber.get());
+    entry.set(2);
+    assertEquals(2, subscriber.get());
+  }
+
+  @Test
+  public void testDoubleArray() {
+    var entry = m_telemetry.doubleArrayEntry("Array");
+    var subscriber = m_table.getDoubleArrayTopic("Array").subscribe(new double[0]);
+    double[] values = {1, 2, 3};
+
+    entry.set(values);
+    assertArrayEquals(new double[] {1, 2, 3}, subscriber.get());
+    // The entry keeps its own copy, so reusing the array is safe
+    values[1] = 5;
+    entry.set(values);
+    assertArrayEquals(new double[] {1, 5, 3}, subscriber.get());
+    entry.set(new double[] {1, 5});
+    assertArrayEquals(new double[] {1, 5}, subscriber.get());
+  }
+
+  @Test
+  public void testEnumPublishesName() {
+    var entry = m_telemetry.enumEntry("Enum", CONTROL_MODE.class);
+    var subscriber = m_table.getStringTopic("Enum").subscribe("");
+
+    entry.set(CONTROL_MODE.CLOSED_LOOP);
+    assertEquals("CLOSED_LOOP", subscriber.get());
+    entry.set(CONTROL_MODE.OPEN_LOOP);
+    assertEquals("OPEN_LOOP", subscriber.get());
+  }
+
+  @Test
+  public void testOtherTypes() {
+    var booleanEntry = m_telemetry.booleanEntry("Boolean");
+    var integerEntry = m_telemetry.integerEntry("Integer");
+    var stringEntry = m_telemetry.stringEntry("String");
+
+    booleanEntry.set(true);
+    integerEntry.set(3);
+    stringEntry.set("a");
+    assertTrue(m_table.getBooleanTopic("Boolean").subscribe(false).get());
+    assertEquals(3, m_table.getIntegerTopic("Integer").subscribe(0).get());
+    assertEquals("a", m_table.getStringTopic("String").subscribe("").get());
+  }
+
+  @Test
+  public void testNullPublishesNull() {
+    var stringEntry = m_telemetry.stringEntry("Null String");
+    var enumEntry = m_telemetry.enumEntry("Null Enum", CONTROL_MODE.class);
+    var stringSubscriber = m_table.getStringTopic("Null String").subscribe("");
+    var enumSubscriber = m_table.getStringTopic("Null Enum").subscribe("");
+
+    stringEntry.set("a");
+    stringEntry.set(null);
+    assertEquals("null", stringSubscriber.get());
+    enumEntry.set(CONTROL_MODE.CLOSED_LOOP);
+    enumEntry.set(null);
+    assertEquals("null", enumSubscriber.get());
+    enumEntry.set(CONTROL_MODE.OPEN_LOOP);
+    assertEquals("OPEN_LOOP", enumSubscriber.get());
+  }
+}
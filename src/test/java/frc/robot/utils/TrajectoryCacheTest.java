@@ -0,0 +1,71 @@
+package frc.robot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TrajectoryCacheTest {
+  private static final PathConstraints kConstraints = new PathConstraints(1, 1);
+
+  @AfterEach
+  void clearCache() {
+    TrajectoryCache.clear();
+  }
+
+  private static List<PathPlannerTrajectory> load(List<PathPlannerTrajectory> trajectories) {
+    return TrajectoryCache.getTrajectories(
+        "Test",
+        kConstraints,
+        new PathConstraints[] {kConstraints},
+        () -> trajectories);
+  }
+
+  @Test
+  public void testFailedLoadIsRetried() {
+    assertTrue(load(new ArrayList<>()).isEmpty());
+
+    var trajectory = new PathPlannerTrajectory();
+    assertSame(trajectory, load(List.of(trajectory)).get(0));
+    // Cached after a successful load
+    assertSame(trajectory, load(new ArrayList<>()).get(0));
+  }
+
+  @Test
+  public void testDisplayPosesKeyedByTrajectory() {
+    var trajectory = new PathPlannerTrajectory();
+    var poses = TrajectoryCache.getDisplayPoses(List.of(trajectory), DriverStation.Alliance.Blue);
+
+    // A copy of the list, like PlotAutoTrajectory used to pass, still hits the cache
+    assertSame(
+        poses,
+        TrajectoryCache.getDisplayPoses(
+            new ArrayList<>(List.of(trajectory)), DriverStation.Alliance.Blue));
+    assertNotSame(
+        poses, TrajectoryCache.getDisplayPoses(List.of(trajectory), DriverStation.Alliance.Red));
+  }
+
+  @Test
+  public void testDisplayPosesBounded() {
+    var first = new PathPlannerTrajectory();
+    var poses = TrajectoryCache.getDisplayPoses(List.of(first), DriverStation.Alliance.Blue);
+    for (int i = 0; i < TrajectoryCache.kMaxDisplayedTrajectories; i++) {
+      var trajectory = new PathPlannerTrajectory();
+      assertEquals(
+          List.of(),
+          TrajectoryCache.getDisplayPoses(List.of(trajectory), DriverStation.Alliance.Blue));
+    }
+
+    // The least recently drawn trajectory was dropped, so its poses are generated again
+    assertNotSame(
+        poses, TrajectoryCache.getDisplayPoses(List.of(first), DriverStation.Alliance.Blue));
+  }
+}